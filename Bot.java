@@ -0,0 +1,80 @@
+/**
+ * This Java file defines the Bot interface of computer players.
+ */
+
+package eecs285.proj3.kshilen;
+
+/**
+ * A computer player. A bot only reads the board of its game, never the
+ * puzzle, and plays the seat whose turn it is. Bots keep no state between
+ * calls, so one bot may play any number of seats and games at once.
+ */
+public interface Bot {
+  /**
+   * The moves a player chooses between.
+   */
+  enum Move {
+    SPIN, BUY_VOWEL, SOLVE
+  }
+
+  /**
+   * Function to choose the next move of the current player. SPIN is only
+   * chosen if the wheel may be spun and BUY_VOWEL only if the player can
+   * buy a vowel.
+   *
+   * @param engine the engine holding the game
+   * @return the move
+   */
+  Move chooseMove(GameEngine engine);
+
+  /**
+   * Function to choose a consonant after a spin landed on a dollar value.
+   *
+   * @param engine the engine holding the game
+   * @return an available consonant
+   */
+  char chooseConsonant(GameEngine engine);
+
+  /**
+   * Function to choose the vowel to buy.
+   *
+   * @param engine the engine holding the game
+   * @return an available vowel
+   */
+  char chooseVowel(GameEngine engine);
+
+  /**
+   * Function to choose the guess when solving.
+   *
+   * @param engine the engine holding the game
+   * @return the guessed puzzle
+   */
+  String chooseSolution(GameEngine engine);
+
+  /**
+   * Plays one move for the current player: a spin with its consonant, a
+   * vowel or an attempt to solve.
+   *
+   * @param engine the engine holding the game
+   * @return the move that was played
+   */
+  default Move playMove(GameEngine engine) {
+    Move move = chooseMove(engine);
+    switch (move) {
+      case SOLVE:
+        engine.solve(chooseSolution(engine));
+        break;
+      case BUY_VOWEL:
+        engine.buyVowel(chooseVowel(engine));
+        break;
+      default:
+        engine.spin();
+        WheelSpace space = engine.getCurrentSpace();
+        if (!space.isBankrupt() && !space.isLoseATurn()) {
+          engine.guessConsonant(chooseConsonant(engine));
+        }
+        break;
+    }
+    return move;
+  }
+}
@@ -0,0 +1,66 @@
+/**
+ * This Java file defines the FrequencyBot class, a computer player that
+ * guesses letters in order of their frequency in English.
+ */
+
+package eecs285.proj3.kshilen;
+
+/**
+ * Bot that knows no puzzles. It guesses consonants and vowels from the most
+ * to the least frequent in English, buys a vowel whenever it can and only
+ * solves once the whole puzzle is revealed or nothing else is possible.
+ */
+public class FrequencyBot implements Bot {
+  /** Consonants from the most to the least frequent in English. */
+  static final String CONSONANTS = "TNSHRDLCMWFGYPBVKJXQZ";
+
+  /** Vowels from the most to the least frequent in English. */
+  static final String VOWELS = "EAOIU";
+
+  @Override
+  public Move chooseMove(GameEngine engine) {
+    if (engine.isFullyRevealed()) {
+      return Move.SOLVE;
+    }
+    if (engine.canBuyVowel()) {
+      return Move.BUY_VOWEL;
+    }
+    return engine.canSpin() ? Move.SPIN : Move.SOLVE;
+  }
+
+  @Override
+  public char chooseConsonant(GameEngine engine) {
+    return firstAvailable(engine, CONSONANTS);
+  }
+
+  @Override
+  public char chooseVowel(GameEngine engine) {
+    return firstAvailable(engine, VOWELS);
+  }
+
+  @Override
+  public String chooseSolution(GameEngine engine) {
+    // The board itself, which is right once every letter is revealed
+    StringBuilder guess = new StringBuilder(engine.getPuzzleIndex().length());
+    for (int i = 0; i < engine.getPuzzleIndex().length(); ++i) {
+      guess.append(engine.getHiddenChar(i));
+    }
+    return guess.toString();
+  }
+
+  /**
+   * Helper function to find the first available letter of a list.
+   *
+   * @param engine the engine holding the game
+   * @param letters the letters in order of preference
+   * @return the letter
+   */
+  static char firstAvailable(GameEngine engine, String letters) {
+    for (int i = 0; i < letters.length(); ++i) {
+      if (engine.isLetterAvailable(letters.charAt(i))) {
+        return letters.charAt(i);
+      }
+    }
+    throw new IllegalStateException("No available letters in " + letters);
+  }
+}
@@ -0,0 +1,327 @@
+/**
+ * This Java file defines the GameDelta class which describes what changed
+ * in a game between two points of its action stream.
+ */
+
+package eecs285.proj3.kshilen;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Changes of a game over a range of actions, as seen by a spectator: the
+ * last spin, the revealed positions, the new cash of the players whose
+ * cash changed and whose turn it is. Deltas are immutable and shared by
+ * every subscriber. Consecutive deltas merge into one covering both
+ * ranges, so a slow spectator can be sent one conflated delta instead of
+ * every action it missed. A delta that starts a game carries the hidden
+ * puzzle, and the positions of later deltas index into it.
+ *
+ * Cash is absolute rather than a difference, so merging keeps the last
+ * cash of every player and applying a delta twice does no harm. A
+ * revealed position is packed with its letter as position * 32 + letter,
+ * where letter is 0 for A up to 25 for Z.
+ */
+public final class GameDelta {
+  /** Flag set when the delta starts a new game. */
+  public static final int STARTED = 1;
+
+  /** Flag set when the wheel was spun within the delta. */
+  public static final int SPUN = 2;
+
+  /** Flag set when the puzzle was solved within the delta. */
+  public static final int SOLVED = 4;
+
+  /**
+   * Creates a delta.
+   *
+   * @param firstSequence the sequence number of the first action covered
+   * @param lastSequence the sequence number of the last action covered
+   * @param flags the STARTED, SPUN and SOLVED flags
+   * @param hiddenPuzzle the hidden puzzle of a started game, else null
+   * @param spaceIndex the wheel space of the last spin, or -1
+   * @param reveals the revealed positions packed with their letters
+   * @param cashSeats the players whose cash changed
+   * @param cashValues the new cash of those players
+   * @param currentPlayer the player whose turn it is afterwards
+   * @param numPlayers the number of seats afterwards
+   */
+  GameDelta(long firstSequence, long lastSequence, int flags,
+            String hiddenPuzzle, int spaceIndex, int[] reveals,
+            int[] cashSeats, int[] cashValues, int currentPlayer,
+            int numPlayers) {
+    this.firstSequence = firstSequence;
+    this.lastSequence = lastSequence;
+    this.flags = flags;
+    this.hiddenPuzzle = hiddenPuzzle;
+    this.spaceIndex = spaceIndex;
+    this.reveals = reveals;
+    this.cashSeats = cashSeats;
+    this.cashValues = cashValues;
+    this.currentPlayer = currentPlayer;
+    this.numPlayers = numPlayers;
+  }
+
+  /**
+   * Function to merge this delta with the one that follows it.
+   *
+   * @param later the following delta
+   * @return a delta covering both
+   */
+  public GameDelta merge(GameDelta later) {
+    if ((later.flags & STARTED) != 0) {
+      // A new game replaces everything before it
+      return new GameDelta(firstSequence, later.lastSequence, later.flags,
+          later.hiddenPuzzle, later.spaceIndex, later.reveals,
+          later.cashSeats, later.cashValues, later.currentPlayer,
+          later.numPlayers);
+    }
+    int[] mergedReveals = reveals;
+    if (later.reveals.length > 0) {
+      mergedReveals = Arrays.copyOf(reveals,
+          reveals.length + later.reveals.length);
+      System.arraycopy(later.reveals, 0, mergedReveals, reveals.length,
+          later.reveals.length);
+    }
+    // Keep the last cash of every player, later deltas winning
+    int[] seats = Arrays.copyOf(cashSeats,
+        cashSeats.length + later.cashSeats.length);
+    int[] values = Arrays.copyOf(cashValues, seats.length);
+    int count = cashSeats.length;
+    for (int i = 0; i < later.cashSeats.length; ++i) {
+      int seat = later.cashSeats[i];
+      int j = 0;
+      while (j < count && seats[j] != seat) {
+        j++;
+      }
+      seats[j] = seat;
+      values[j] = later.cashValues[i];
+      if (j == count) {
+        count++;
+      }
+    }
+    return new GameDelta(firstSequence, later.lastSequence,
+        flags | later.flags, hiddenPuzzle,
+        (later.flags & SPUN) != 0 ? later.spaceIndex : spaceIndex,
+        mergedReveals, Arrays.copyOf(seats, count),
+        Arrays.copyOf(values, count), later.currentPlayer, later.numPlayers);
+  }
+
+  /**
+   * Writes the delta at the position of a buffer in binary form: the
+   * sequence numbers (long), the flags (byte), the space index, the
+   * current player, the number of seats, the count and values of the
+   * reveals, the count and pairs of cash changes and, for a started game,
+   * the UTF-8 hidden puzzle with an int length.
+   *
+   * @param buffer the buffer
+   */
+  public void write(ByteBuffer buffer) {
+    buffer.putLong(firstSequence);
+    buffer.putLong(lastSequence);
+    buffer.put((byte) flags);
+    buffer.putInt(spaceIndex);
+    buffer.putInt(currentPlayer);
+    buffer.putInt(numPlayers);
+    buffer.putInt(reveals.length);
+    for (int reveal : reveals) {
+      buffer.putInt(reveal);
+    }
+    buffer.putInt(cashSeats.length);
+    for (int i = 0; i < cashSeats.length; ++i) {
+      buffer.putInt(cashSeats[i]);
+      buffer.putInt(cashValues[i]);
+    }
+    if ((flags & STARTED) != 0) {
+      byte[] text = hiddenPuzzle.getBytes(StandardCharsets.UTF_8);
+      buffer.putInt(text.length);
+      buffer.put(text);
+    }
+  }
+
+  /**
+   * Function to read a delta written with write.
+   *
+   * @param buffer the buffer, positioned at the delta
+   * @return the delta
+   */
+  public static GameDelta read(ByteBuffer buffer) {
+    long first = buffer.getLong();
+    long last = buffer.getLong();
+    int flags = buffer.get();
+    int spaceIndex = buffer.getInt();
+    int currentPlayer = buffer.getInt();
+    int numPlayers = buffer.getInt();
+    int[] reveals = new int[checkCount(buffer, buffer.getInt(), 4)];
+    for (int i = 0; i < reveals.length; ++i) {
+      reveals[i] = buffer.getInt();
+    }
+    int numCash = checkCount(buffer, buffer.getInt(), 8);
+    int[] seats = new int[numCash];
+    int[] values = new int[numCash];
+    for (int i = 0; i < numCash; ++i) {
+      seats[i] = buffer.getInt();
+      values[i] = buffer.getInt();
+    }
+    String hidden = null;
+    if ((flags & STARTED) != 0) {
+      byte[] text = new byte[checkCount(buffer, buffer.getInt(), 1)];
+      buffer.get(text);
+      hidden = new String(text, StandardCharsets.UTF_8);
+    }
+    return new GameDelta(first, last, flags, hidden, spaceIndex, reveals,
+        seats, values, currentPlayer, numPlayers);
+  }
+
+  /**
+   * Function to get the sequence number of the first action covered.
+   *
+   * @return the first sequence number
+   */
+  public long getFirstSequence() {
+    return firstSequence;
+  }
+
+  /**
+   * Function to get the sequence number of the last action covered. A
+   * delta that covers more than one action was conflated.
+   *
+   * @return the last sequence number
+   */
+  public long getLastSequence() {
+    return lastSequence;
+  }
+
+  /**
+   * Function to check a flag of the delta.
+   *
+   * @param flag STARTED, SPUN or SOLVED
+   * @return true if the flag is set
+   */
+  public boolean is(int flag) {
+    return (flags & flag) != 0;
+  }
+
+  /**
+   * Function to get the hidden puzzle of a delta that starts a game, one
+   * char per position: a letter, '-' for a hidden letter or punctuation.
+   *
+   * @return the hidden puzzle, or null if the delta does not start a game
+   */
+  public String getHiddenPuzzle() {
+    return hiddenPuzzle;
+  }
+
+  /**
+   * Function to get the wheel space of the last spin.
+   *
+   * @return the space index, or -1 if the wheel was not spun
+   */
+  public int getSpaceIndex() {
+    return spaceIndex;
+  }
+
+  /**
+   * Function to get the number of revealed positions.
+   *
+   * @return the number of reveals
+   */
+  public int getNumReveals() {
+    return reveals.length;
+  }
+
+  /**
+   * Function to get a revealed position in the puzzle.
+   *
+   * @param i the index of the reveal
+   * @return the zero based position
+   */
+  public int getRevealPosition(int i) {
+    return reveals[i] >>> 5;
+  }
+
+  /**
+   * Function to get the letter of a revealed position.
+   *
+   * @param i the index of the reveal
+   * @return the uppercase letter
+   */
+  public char getRevealLetter(int i) {
+    return (char) ('A' + (reveals[i] & 31));
+  }
+
+  /**
+   * Function to get the number of players whose cash changed.
+   *
+   * @return the number of cash changes
+   */
+  public int getNumCashChanges() {
+    return cashSeats.length;
+  }
+
+  /**
+   * Function to get a player whose cash changed.
+   *
+   * @param i the index of the change
+   * @return the zero based player index
+   */
+  public int getCashPlayer(int i) {
+    return cashSeats[i];
+  }
+
+  /**
+   * Function to get the new cash of a player whose cash changed.
+   *
+   * @param i the index of the change
+   * @return the cash
+   */
+  public int getCash(int i) {
+    return cashValues[i];
+  }
+
+  /**
+   * Function to get the player whose turn it is after the delta.
+   *
+   * @return the zero based player index
+   */
+  public int getCurrentPlayer() {
+    return currentPlayer;
+  }
+
+  /**
+   * Function to get the number of seats after the delta.
+   *
+   * @return the number of seats, eliminated ones included
+   */
+  public int getNumPlayers() {
+    return numPlayers;
+  }
+
+  /**
+   * Helper function to check a count read from a buffer against the bytes
+   * left, so a corrupt count cannot allocate a huge array.
+   *
+   * @param buffer the buffer
+   * @param count the count
+   * @param bytesEach the number of bytes of each element
+   * @return the count
+   */
+  private static int checkCount(ByteBuffer buffer, int count, int bytesEach) {
+    if (count < 0 || (long) count * bytesEach > buffer.remaining()) {
+      throw new IllegalArgumentException("Delta is corrupt");
+    }
+    return count;
+  }
+
+  private final long firstSequence;
+  private final long lastSequence;
+  private final int flags;
+  private final String hiddenPuzzle;
+  private final int spaceIndex;
+  private final int[] reveals;
+  private final int[] cashSeats;
+  private final int[] cashValues;
+  private final int currentPlayer;
+  private final int numPlayers;
+}
@@ -0,0 +1,519 @@
+/**
+ * This Java file defines the GameDeltaPublisher class which streams the
+ * changes of a game to any number of spectators.
+ */
+
+package eecs285.proj3.kshilen;
+
+import java.util.Arrays;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Publisher of the deltas of one game, added to its engine as a listener.
+ * The game thread only turns an action into a GameDelta and hands it to a
+ * fan-out task on the executor, so the number and speed of the
+ * subscribers never slow the game. If the fan-out falls behind, the
+ * actions waiting for it are merged into one delta.
+ *
+ * Every subscriber has a queue of at most a fixed number of deltas,
+ * drained on the executor as the subscriber requests them. A delta for a
+ * full queue merges the whole queue into one conflated delta, so a slow
+ * or stalled subscriber holds a bounded number of deltas and catches up
+ * with a single batch. The deltas themselves are shared by every
+ * subscriber. A new subscriber first gets one delta with the state of the
+ * game so far.
+ */
+public class GameDeltaPublisher implements GameListener,
+    Flow.Publisher<GameDelta> {
+  /** Number of deltas a subscriber's queue holds before conflating. */
+  public static final int DEFAULT_CAPACITY = 16;
+
+  /**
+   * Creates a publisher that delivers on the common pool.
+   */
+  public GameDeltaPublisher() {
+    this(ForkJoinPool.commonPool(), DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Creates a publisher.
+   *
+   * @param executor the executor delivering the deltas
+   * @param capacity the number of deltas a subscriber's queue holds
+   */
+  public GameDeltaPublisher(Executor executor, int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be at least 1");
+    }
+    this.executor = executor;
+    this.capacity = capacity;
+    subscriptions = new CopyOnWriteArrayList<>();
+  }
+
+  @Override
+  public void subscribe(Flow.Subscriber<? super GameDelta> subscriber) {
+    DeltaSubscription subscription = new DeltaSubscription(subscriber);
+    subscriber.onSubscribe(subscription);
+    synchronized (this) {
+      if (closed) {
+        subscription.complete();
+        return;
+      }
+      if (hidden != null) {
+        // The state includes every delta still waiting for the fan-out
+        subscription.offer(stateDelta());
+        subscription.skipThrough = lastSequence;
+      }
+      subscriptions.add(subscription);
+    }
+  }
+
+  /**
+   * Completes every subscriber once it has received its queued deltas.
+   * Later actions are not published.
+   */
+  public void close() {
+    synchronized (this) {
+      closed = true;
+    }
+    for (DeltaSubscription subscription : subscriptions) {
+      subscription.complete();
+    }
+    subscriptions.clear();
+  }
+
+  /**
+   * Function to get the number of subscribers.
+   *
+   * @return the number of subscribers that did not cancel
+   */
+  public int getNumSubscribers() {
+    return subscriptions.size();
+  }
+
+  /**
+   * Function to get the number of deltas queued for all subscribers, at
+   * most the capacity per subscriber.
+   *
+   * @return the number of queued deltas
+   */
+  int getNumQueued() {
+    int queued = 0;
+    for (DeltaSubscription subscription : subscriptions) {
+      synchronized (subscription) {
+        queued += subscription.count;
+      }
+    }
+    return queued;
+  }
+
+  /**
+   * Function to measure the deltas held for all subscribers and the
+   * fan-out, as the number of reveals, cash changes and puzzle chars in
+   * them. A conflated delta is bounded by the puzzle and the seats, so
+   * this stays bounded however far a subscriber falls behind.
+   *
+   * @return the number of entries held
+   */
+  long getNumQueuedEntries() {
+    long entries;
+    synchronized (this) {
+      entries = sizeOf(pending);
+    }
+    for (DeltaSubscription subscription : subscriptions) {
+      synchronized (subscription) {
+        for (int i = 0; i < subscription.count; ++i) {
+          entries += sizeOf(subscription.queue[(subscription.head + i)
+              % capacity]);
+        }
+      }
+    }
+    return entries;
+  }
+
+  @Override
+  public void gameStarted(GameEngine engine) {
+    int[] seats = new int[engine.getNumPlayers()];
+    int[] seatCash = new int[seats.length];
+    for (int i = 0; i < seats.length; ++i) {
+      seats[i] = i;
+      seatCash[i] = engine.getPlayerCash(i);
+    }
+    PuzzleIndex index = engine.getPuzzleIndex();
+    char[] text = new char[index.length()];
+    for (int i = 0; i < text.length; ++i) {
+      text[i] = index.getHiddenChar(i);
+    }
+    publish(GameDelta.STARTED, new String(text), -1, NO_REVEALS, seats,
+        seatCash, engine);
+  }
+
+  @Override
+  public void spun(GameEngine engine, int player, int index) {
+    publish(GameDelta.SPUN, null, index, NO_REVEALS, new int[] {player},
+        new int[] {engine.getPlayerCash(player)}, engine);
+  }
+
+  @Override
+  public void guessedConsonant(GameEngine engine, int player, char letter,
+                               int occurrences) {
+    publish(0, null, -1, reveals(engine, letter, occurrences),
+        new int[] {player}, new int[] {engine.getPlayerCash(player)}, engine);
+  }
+
+  @Override
+  public void boughtVowel(GameEngine engine, int player, char letter,
+                          int occurrences) {
+    publish(0, null, -1, reveals(engine, letter, occurrences),
+        new int[] {player}, new int[] {engine.getPlayerCash(player)}, engine);
+  }
+
+  @Override
+  public void attemptedSolve(GameEngine engine, int player, boolean correct) {
+    if (!correct) {
+      publish(0, null, -1, NO_REVEALS, NO_SEATS, NO_SEATS, engine);
+      return;
+    }
+    // Reveal the letters that were still hidden
+    PuzzleIndex index = engine.getPuzzleIndex();
+    String puzzle = index.getPuzzle();
+    int[] reveals = new int[index.getNumHidden()];
+    int count = 0;
+    for (int i = 0; i < puzzle.length() && count < reveals.length; ++i) {
+      if (index.getHiddenChar(i) == '-'
+          && GameEngine.isAlphabet(puzzle.charAt(i))) {
+        reveals[count++] = i << 5 | (puzzle.charAt(i) - 'A');
+      }
+    }
+    publish(GameDelta.SOLVED, null, -1, reveals, NO_SEATS, NO_SEATS, engine);
+  }
+
+  @Override
+  public void playerJoined(GameEngine engine, int player) {
+    publish(0, null, -1, NO_REVEALS, new int[] {player},
+        new int[] {engine.getPlayerCash(player)}, engine);
+  }
+
+  @Override
+  public void playerLeft(GameEngine engine, int player) {
+    publish(0, null, -1, NO_REVEALS, NO_SEATS, NO_SEATS, engine);
+  }
+
+  /**
+   * Helper function to list the positions of a guessed letter.
+   *
+   * @param engine the engine holding the game
+   * @param letter the letter
+   * @param occurrences the number of times the letter is in the puzzle
+   * @return the positions packed with the letter
+   */
+  private static int[] reveals(GameEngine engine, char letter,
+                               int occurrences) {
+    PuzzleIndex index = engine.getPuzzleIndex();
+    int[] reveals = new int[occurrences];
+    for (int i = 0; i < occurrences; ++i) {
+      reveals[i] = index.getPosition(letter, i) << 5 | (letter - 'A');
+    }
+    return reveals;
+  }
+
+  /**
+   * Helper function to count the entries of a delta.
+   *
+   * @param delta the delta, or null
+   * @return the number of reveals, cash changes and puzzle chars
+   */
+  private static long sizeOf(GameDelta delta) {
+    if (delta == null) {
+      return 0;
+    }
+    return delta.getNumReveals() + delta.getNumCashChanges()
+        + (delta.getHiddenPuzzle() != null
+            ? delta.getHiddenPuzzle().length() : 0);
+  }
+
+  /**
+   * Helper function to hand the delta of one action to the fan-out, on
+   * the game thread.
+   *
+   * @param flags the flags of the delta
+   * @param hiddenPuzzle the hidden puzzle of a started game, else null
+   * @param spaceIndex the wheel space of the spin, or -1
+   * @param reveals the revealed positions packed with their letters
+   * @param cashSeats the players whose cash changed
+   * @param cashValues the new cash of those players
+   * @param engine the engine holding the game
+   */
+  private void publish(int flags, String hiddenPuzzle, int spaceIndex,
+                       int[] reveals, int[] cashSeats, int[] cashValues,
+                       GameEngine engine) {
+    boolean startFanOut;
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      long sequence = ++lastSequence;
+      GameDelta delta = new GameDelta(sequence, sequence, flags, hiddenPuzzle,
+          spaceIndex, reveals, cashSeats, cashValues,
+          engine.getCurrentPlayer(), engine.getNumPlayers());
+      applyToState(delta);
+      pending = pending == null ? delta : pending.merge(delta);
+      startFanOut = !fanningOut;
+      fanningOut = true;
+    }
+    if (startFanOut) {
+      executor.execute(fanOut);
+    }
+  }
+
+  /**
+   * Helper function to apply a delta to the state of the game kept for
+   * new subscribers, in time proportional to the delta. The caller holds
+   * the lock of the publisher.
+   *
+   * @param delta the delta
+   */
+  private void applyToState(GameDelta delta) {
+    if (delta.is(GameDelta.STARTED)) {
+      hidden = delta.getHiddenPuzzle().toCharArray();
+      cash = new int[Math.max(delta.getNumPlayers(), 1)];
+      startSequence = delta.getFirstSequence();
+      stateFlags = GameDelta.STARTED;
+      spaceIndex = -1;
+    }
+    if (hidden == null) {
+      // Listening from the middle of a game, whose puzzle is unknown
+      return;
+    }
+    for (int i = 0; i < delta.getNumReveals(); ++i) {
+      hidden[delta.getRevealPosition(i)] = delta.getRevealLetter(i);
+    }
+    if (delta.getNumPlayers() > cash.length) {
+      cash = Arrays.copyOf(cash, Math.max(delta.getNumPlayers(),
+          cash.length * 2));
+    }
+    for (int i = 0; i < delta.getNumCashChanges(); ++i) {
+      cash[delta.getCashPlayer(i)] = delta.getCash(i);
+    }
+    if (delta.is(GameDelta.SPUN)) {
+      spaceIndex = delta.getSpaceIndex();
+    }
+    stateFlags |= delta.is(GameDelta.SPUN) ? GameDelta.SPUN : 0;
+    stateFlags |= delta.is(GameDelta.SOLVED) ? GameDelta.SOLVED : 0;
+    currentPlayer = delta.getCurrentPlayer();
+    numPlayers = delta.getNumPlayers();
+  }
+
+  /**
+   * Helper function to describe the game so far as one delta that starts
+   * it. The caller holds the lock of the publisher.
+   *
+   * @return the delta
+   */
+  private GameDelta stateDelta() {
+    int[] seats = new int[numPlayers];
+    for (int i = 0; i < numPlayers; ++i) {
+      seats[i] = i;
+    }
+    return new GameDelta(startSequence, lastSequence, stateFlags,
+        new String(hidden), spaceIndex, NO_REVEALS, seats,
+        Arrays.copyOf(cash, numPlayers), currentPlayer, numPlayers);
+  }
+
+  /**
+   * A subscriber with its bounded queue of deltas.
+   */
+  private class DeltaSubscription implements Flow.Subscription {
+    DeltaSubscription(Flow.Subscriber<? super GameDelta> subscriber) {
+      this.subscriber = subscriber;
+      queue = new GameDelta[capacity];
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        cancel();
+        subscriber.onError(new IllegalArgumentException(
+            "Requested " + n + " deltas, must be positive"));
+        return;
+      }
+      boolean startDrain;
+      synchronized (this) {
+        demand += n;
+        if (demand < 0) {
+          demand = Long.MAX_VALUE;
+        }
+        startDrain = startDrain();
+      }
+      if (startDrain) {
+        executor.execute(drain);
+      }
+    }
+
+    @Override
+    public void cancel() {
+      synchronized (this) {
+        cancelled = true;
+        Arrays.fill(queue, null);
+        count = 0;
+      }
+      subscriptions.remove(this);
+    }
+
+    /**
+     * Queues a delta, merging the queue into one delta when it is full.
+     *
+     * @param delta the delta
+     */
+    void offer(GameDelta delta) {
+      boolean startDrain;
+      synchronized (this) {
+        if (cancelled || completed
+            || delta.getLastSequence() <= skipThrough) {
+          return;
+        }
+        if (count == capacity) {
+          GameDelta merged = queue[head];
+          for (int i = 1; i < count; ++i) {
+            merged = merged.merge(queue[(head + i) % capacity]);
+          }
+          Arrays.fill(queue, null);
+          head = 0;
+          count = 1;
+          queue[0] = merged.merge(delta);
+        } else {
+          queue[(head + count) % capacity] = delta;
+          count++;
+        }
+        startDrain = startDrain();
+      }
+      if (startDrain) {
+        executor.execute(drain);
+      }
+    }
+
+    /**
+     * Completes the subscriber once its queue is empty.
+     */
+    void complete() {
+      boolean startDrain;
+      synchronized (this) {
+        completed = true;
+        startDrain = !draining && !cancelled;
+        draining |= startDrain;
+      }
+      if (startDrain) {
+        executor.execute(drain);
+      }
+    }
+
+    /**
+     * Helper function to claim the drain when there is work for it. The
+     * caller holds the lock of the subscription.
+     *
+     * @return true if the caller must start the drain
+     */
+    private boolean startDrain() {
+      if (draining || cancelled || count == 0 || demand == 0) {
+        return false;
+      }
+      draining = true;
+      return true;
+    }
+
+    /** Delivers queued deltas while there is demand, one drain at a time. */
+    private final Runnable drain = new Runnable() {
+      @Override
+      public void run() {
+        while (true) {
+          GameDelta delta;
+          synchronized (DeltaSubscription.this) {
+            if (cancelled) {
+              draining = false;
+              return;
+            }
+            if (count == 0 && completed) {
+              cancelled = true;
+              draining = false;
+              subscriber.onComplete();
+              return;
+            }
+            if (count == 0 || demand == 0) {
+              draining = false;
+              return;
+            }
+            delta = queue[head];
+            queue[head] = null;
+            head = (head + 1) % capacity;
+            count--;
+            if (demand != Long.MAX_VALUE) {
+              demand--;
+            }
+          }
+          try {
+            subscriber.onNext(delta);
+          } catch (RuntimeException e) {
+            cancel();
+            subscriber.onError(e);
+            return;
+          }
+        }
+      }
+    };
+
+    private final Flow.Subscriber<? super GameDelta> subscriber;
+    private final GameDelta[] queue;
+    private int head;
+    private int count;
+    private long demand;
+    private boolean draining;
+    private boolean cancelled;
+    private boolean completed;
+    /** Sequence number already covered by the first delta. */
+    private long skipThrough;
+  }
+
+  /** Hands the waiting deltas to every subscriber, one fan-out at a time. */
+  private final Runnable fanOut = new Runnable() {
+    @Override
+    public void run() {
+      while (true) {
+        GameDelta delta;
+        synchronized (GameDeltaPublisher.this) {
+          delta = pending;
+          pending = null;
+          if (delta == null) {
+            fanningOut = false;
+            return;
+          }
+        }
+        for (DeltaSubscription subscription : subscriptions) {
+          subscription.offer(delta);
+        }
+      }
+    }
+  };
+
+  private static final int[] NO_REVEALS = new int[0];
+  private static final int[] NO_SEATS = new int[0];
+
+  private final Executor executor;
+  private final int capacity;
+  private final CopyOnWriteArrayList<DeltaSubscription> subscriptions;
+  /** Hidden puzzle of the game so far, or null before it started. */
+  private char[] hidden;
+  private int[] cash;
+  private int currentPlayer;
+  private int numPlayers;
+  private int spaceIndex;
+  private int stateFlags;
+  private long startSequence;
+  /** Deltas waiting for the fan-out, merged. */
+  private GameDelta pending;
+  private long lastSequence;
+  private boolean fanningOut;
+  private boolean closed;
+}
@@ -0,0 +1,574 @@
+/**
+ * This Java file defines the GameEngine class which holds the rules and state
+ * of a single Wheel of Fortune game without any user interface.
+ */
+
+package eecs285.proj3.kshilen;
+
+import java.util.Locale;
+import java.util.random.RandomGenerator;
+
+/**
+ * Headless Wheel of Fortune game. The GUI, simulators and servers all drive a
+ * game through spin, guessConsonant, buyVowel and solve. Once a game has been
+ * started, none of these methods allocate, so a game loop can run millions of
+ * turns without creating garbage.
+ */
+public class GameEngine {
+  /** Cost of buying a vowel. */
+  public static final int VOWEL_COST = 250;
+
+  /** Number of vowels in the alphabet. */
+  public static final int NUM_VOWELS = 5;
+
+  /** Number of consonants in the alphabet. */
+  public static final int NUM_CONSONANTS = 21;
+
+  /** Number of letters in the alphabet. */
+  public static final int NUM_LETTERS = 26;
+
+  /**
+   * Creates an engine that spins the given wheel.
+   *
+   * @param wheelSpaces the spaces of the wheel
+   * @param generator the random-number generator used for spins
+   */
+  public GameEngine(WheelSpace[] wheelSpaces, RandomGenerator generator) {
+    this(wheelSpaces, WheelSampler.of(wheelSpaces), generator);
+  }
+
+  /**
+   * Creates an engine that spins the given wheel with a sampler shared with
+   * other engines, so large weighted wheels build their table once.
+   *
+   * @param wheelSpaces the spaces of the wheel
+   * @param sampler the sampler of the wheel's weights
+   * @param generator the random-number generator used for spins
+   */
+  public GameEngine(WheelSpace[] wheelSpaces, WheelSampler sampler,
+                    RandomGenerator generator) {
+    if (sampler.getNumSpaces() != wheelSpaces.length) {
+      throw new IllegalArgumentException("The sampler has "
+          + sampler.getNumSpaces() + " spaces, the wheel "
+          + wheelSpaces.length);
+    }
+    this.wheelSpaces = wheelSpaces;
+    this.sampler = sampler;
+    this.generator = generator;
+    letterAvailable = new boolean[NUM_LETTERS];
+    players = new PlayerTable();
+    puzzleIndex = new PuzzleIndex();
+    listeners = new GameListener[0];
+  }
+
+  /**
+   * Adds a listener that is notified of every action from now on.
+   *
+   * @param listener the listener
+   */
+  public void addListener(GameListener listener) {
+    GameListener[] newListeners = new GameListener[listeners.length + 1];
+    System.arraycopy(listeners, 0, newListeners, 0, listeners.length);
+    newListeners[listeners.length] = listener;
+    listeners = newListeners;
+  }
+
+  /**
+   * Starts a new game, reusing the buffers of the previous game when they
+   * are large enough.
+   *
+   * @param playerNames the names of the players, in turn order
+   * @param newPuzzle the puzzle to be solved
+   */
+  public void newGame(String[] playerNames, String newPuzzle) {
+    players.reset(playerNames);
+    currentPlayer = players.first();
+    numVowelsGuessed = 0;
+    numConsonantsGuessed = 0;
+    currentSpaceIndex = 0;
+    currentSpace = wheelSpaces[0];
+    gameOver = false;
+    //All letters are available in the beginning
+    for (int i = 0; i < NUM_LETTERS; ++i) {
+      letterAvailable[i] = true;
+    }
+
+    puzzleIndex.reset(newPuzzle.toUpperCase(Locale.ROOT));
+    for (GameListener listener : listeners) {
+      listener.gameStarted(this);
+    }
+  }
+
+  /**
+   * Spins the wheel for the current player, landing on each space in
+   * proportion to its weight.
+   *
+   * @return the index of the wheel space that was landed on
+   */
+  public int spin() {
+    int index = sampler.sample(generator);
+    applySpin(index);
+    return index;
+  }
+
+  /**
+   * Applies the outcome of landing on a wheel space. Bankrupt clears the
+   * current player's cash and ends the turn, lose a turn ends the turn,
+   * and any other space waits for a consonant guess.
+   *
+   * @param index the index of the wheel space that was landed on
+   */
+  public void applySpin(int index) {
+    int player = currentPlayer;
+    currentSpaceIndex = index;
+    currentSpace = wheelSpaces[index];
+    if (currentSpace.isBankrupt()) {
+      players.setCash(currentPlayer, 0);
+      updatePlayer();
+    } else if (currentSpace.isLoseATurn()) {
+      updatePlayer();
+    }
+    for (GameListener listener : listeners) {
+      listener.spun(this, player, index);
+    }
+  }
+
+  /**
+   * Guesses a consonant for the dollar value of the last spin. If the letter
+   * is in the puzzle the current player earns the value, else the turn passes.
+   *
+   * @param letter the guessed consonant
+   * @return true if the letter is in the puzzle, else false
+   */
+  public boolean guessConsonant(char letter) {
+    int player = currentPlayer;
+    numConsonantsGuessed++;
+    letterAvailable[letter - 'A'] = false;
+    boolean letterExists = reveal(letter);
+    if (letterExists) {
+      players.addCash(currentPlayer, currentSpace.getDollarValue());
+    } else {
+      updatePlayer();
+    }
+    for (GameListener listener : listeners) {
+      listener.guessedConsonant(this, player, letter,
+          puzzleIndex.getOccurrences(letter));
+    }
+    return letterExists;
+  }
+
+  /**
+   * Buys a vowel for the current player. If the letter is not in the
+   * puzzle the turn passes.
+   *
+   * @param letter the guessed vowel
+   * @return true if the letter is in the puzzle, else false
+   */
+  public boolean buyVowel(char letter) {
+    int player = currentPlayer;
+    players.addCash(currentPlayer, -VOWEL_COST);
+    numVowelsGuessed++;
+    letterAvailable[letter - 'A'] = false;
+    boolean letterExists = reveal(letter);
+    if (!letterExists) {
+      updatePlayer();
+    }
+    for (GameListener listener : listeners) {
+      listener.boughtVowel(this, player, letter,
+          puzzleIndex.getOccurrences(letter));
+    }
+    return letterExists;
+  }
+
+  /**
+   * Attempts to solve the puzzle. A correct guess ends the game with the
+   * current player as the winner, else the turn passes.
+   *
+   * @param guess the guessed puzzle
+   * @return true if the guess is correct, else false
+   */
+  public boolean solve(String guess) {
+    int player = currentPlayer;
+    boolean correct =
+        guess.toUpperCase(Locale.ROOT).equals(puzzleIndex.getPuzzle());
+    if (correct) {
+      gameOver = true;
+    } else {
+      updatePlayer();
+    }
+    for (GameListener listener : listeners) {
+      listener.attemptedSolve(this, player, correct);
+    }
+    return correct;
+  }
+
+  /**
+   * Function to check whether the current player may buy a vowel.
+   *
+   * @return true if not all vowels have been guessed and the player
+   *         has enough money, else false
+   */
+  public boolean canBuyVowel() {
+    return numVowelsGuessed < NUM_VOWELS
+        && players.getCash(currentPlayer) >= VOWEL_COST;
+  }
+
+  /**
+   * Function to check whether the wheel may be spun.
+   *
+   * @return true if not all consonants have been guessed, else false
+   */
+  public boolean canSpin() {
+    return numConsonantsGuessed < NUM_CONSONANTS;
+  }
+
+  /**
+   * Function to check whether a letter has not been guessed yet.
+   *
+   * @param letter an uppercase letter
+   * @return true if the letter is still available, else false
+   */
+  public boolean isLetterAvailable(char letter) {
+    return letterAvailable[letter - 'A'];
+  }
+
+  /**
+   * Function to check whether every letter of the puzzle has been revealed.
+   *
+   * @return true if no letter is hidden, else false
+   */
+  public boolean isFullyRevealed() {
+    return puzzleIndex.getNumHidden() == 0;
+  }
+
+  /**
+   * Function to check whether an uppercase letter is a vowel.
+   *
+   * @param c the letter
+   * @return true if the letter is a vowel, else false
+   */
+  public static boolean isVowel(char c) {
+    return c == 'A' || c == 'E' || c == 'I' || c == 'O' || c == 'U';
+  }
+
+  /**
+   * Helper function to check whether a char is an alphabet.
+   *
+   * @param c the char variable
+   * @return true if the char variable is an alphabet, else false
+   */
+  public static boolean isAlphabet(char c) {
+    return c >= 'A' && c <= 'Z';
+  }
+
+  /**
+   * Function to get the hidden puzzle in its displayed form, such as "- A - ".
+   *
+   * @return the hidden puzzle
+   */
+  public String getHiddenPuzzle() {
+    return puzzleIndex.getHiddenPuzzle();
+  }
+
+  /**
+   * Function to get a hidden puzzle character without copying the puzzle.
+   *
+   * @param position the zero based position in the puzzle
+   * @return the letter if revealed, '-' if hidden, or the punctuation
+   */
+  public char getHiddenChar(int position) {
+    return puzzleIndex.getHiddenChar(position);
+  }
+
+  /**
+   * Function to get the index of the puzzle, which tells where each letter
+   * occurs.
+   *
+   * @return the puzzle index
+   */
+  public PuzzleIndex getPuzzleIndex() {
+    return puzzleIndex;
+  }
+
+  /**
+   * Function to get the puzzle in uppercase.
+   *
+   * @return the puzzle
+   */
+  public String getPuzzle() {
+    return puzzleIndex.getPuzzle();
+  }
+
+  /**
+   * Adds a player to the game in progress, who plays last in every round.
+   *
+   * @param name the name of the player
+   * @return the zero based index of the new player
+   */
+  public int addPlayer(String name) {
+    int player = players.add(name);
+    for (GameListener listener : listeners) {
+      listener.playerJoined(this, player);
+    }
+    return player;
+  }
+
+  /**
+   * Eliminates a player from the game in progress. The player keeps their
+   * index and cash but never gets another turn. If it was their turn, the
+   * turn passes to the next player.
+   *
+   * @param player the zero based player index
+   */
+  public void removePlayer(int player) {
+    if (player == currentPlayer && players.getNumActive() > 1) {
+      updatePlayer();
+    }
+    players.remove(player);
+    for (GameListener listener : listeners) {
+      listener.playerLeft(this, player);
+    }
+  }
+
+  /**
+   * Function to get the number of players, including eliminated ones.
+   *
+   * @return the number of players
+   */
+  public int getNumPlayers() {
+    return players.size();
+  }
+
+  /**
+   * Function to get the number of players still in the game.
+   *
+   * @return the number of active players
+   */
+  public int getNumActivePlayers() {
+    return players.getNumActive();
+  }
+
+  /**
+   * Function to check whether a player is still in the game.
+   *
+   * @param player the zero based player index
+   * @return true if the player was not eliminated
+   */
+  public boolean isPlayerActive(int player) {
+    return players.isActive(player);
+  }
+
+  /**
+   * Function to get the active player with the most cash, without scanning
+   * the players.
+   *
+   * @return the zero based index of the leader
+   */
+  public int getLeader() {
+    return players.getLeader();
+  }
+
+  /**
+   * Function to get the standings of the leading active players, without
+   * sorting or scanning every player.
+   *
+   * @param standings receives the players, best first, up to its length or
+   *                  PlayerTable.DEFAULT_TOP_K
+   * @return the number of players written
+   */
+  public int getStandings(int[] standings) {
+    return players.getTop(standings);
+  }
+
+  /**
+   * Function to get the guessed letters as a mask, bit 0 for A up to bit
+   * 25 for Z.
+   *
+   * @return the mask of guessed letters
+   */
+  public int getGuessedLetters() {
+    int mask = 0;
+    for (int i = 0; i < NUM_LETTERS; ++i) {
+      if (!letterAvailable[i]) {
+        mask |= 1 << i;
+      }
+    }
+    return mask;
+  }
+
+  /**
+   * Function to get the random-number generator used for spins.
+   *
+   * @return the generator
+   */
+  public RandomGenerator getGenerator() {
+    return generator;
+  }
+
+  /**
+   * Sets the random-number generator used for the following spins, such as
+   * a new stream for the next game of a simulation.
+   *
+   * @param generator the generator
+   */
+  public void setGenerator(RandomGenerator generator) {
+    this.generator = generator;
+  }
+
+  /**
+   * Puts the engine in the state of a saved game without notifying the
+   * listeners. The revealed letters are those of the guessed letters.
+   *
+   * @param playerNames the names of every seat
+   * @param playerCash the cash of every seat
+   * @param active whether every seat is still in the game
+   * @param player the zero based index of the current player
+   * @param newPuzzle the uppercase puzzle
+   * @param guessedLetters the mask of guessed letters
+   * @param spaceIndex the index of the wheel space of the last spin
+   * @param over true if the puzzle was solved
+   */
+  void restore(String[] playerNames, int[] playerCash, boolean[] active,
+               int player, String newPuzzle, int guessedLetters,
+               int spaceIndex, boolean over) {
+    players.reset(playerNames);
+    for (int i = 0; i < playerNames.length; ++i) {
+      players.setCash(i, playerCash[i]);
+    }
+    for (int i = 0; i < playerNames.length; ++i) {
+      if (!active[i]) {
+        players.remove(i);
+      }
+    }
+    if (!players.isActive(player)) {
+      throw new IllegalArgumentException("Player " + player + " is not active");
+    }
+    currentPlayer = player;
+    currentSpaceIndex = spaceIndex;
+    currentSpace = wheelSpaces[spaceIndex];
+    gameOver = over;
+    puzzleIndex.reset(newPuzzle);
+    numVowelsGuessed = 0;
+    numConsonantsGuessed = 0;
+    for (int i = 0; i < NUM_LETTERS; ++i) {
+      char letter = (char) ('A' + i);
+      letterAvailable[i] = (guessedLetters & (1 << i)) == 0;
+      if (!letterAvailable[i]) {
+        reveal(letter);
+        if (isVowel(letter)) {
+          numVowelsGuessed++;
+        } else {
+          numConsonantsGuessed++;
+        }
+      }
+    }
+  }
+
+  /**
+   * Function to get the zero based index of the player whose turn it is.
+   *
+   * @return the current player
+   */
+  public int getCurrentPlayer() {
+    return currentPlayer;
+  }
+
+  /**
+   * Function to get the name of a player.
+   *
+   * @param player the zero based player index
+   * @return the name of the player
+   */
+  public String getPlayerName(int player) {
+    return players.getName(player);
+  }
+
+  /**
+   * Function to get the cash of a player.
+   *
+   * @param player the zero based player index
+   * @return the cash of the player
+   */
+  public int getPlayerCash(int player) {
+    return players.getCash(player);
+  }
+
+  /**
+   * Function to get the spaces of the wheel.
+   *
+   * @return the wheel spaces
+   */
+  public WheelSpace[] getWheelSpaces() {
+    return wheelSpaces;
+  }
+
+  /**
+   * Function to get the sampler that picks the space of every spin.
+   *
+   * @return the sampler
+   */
+  public WheelSampler getSampler() {
+    return sampler;
+  }
+
+  /**
+   * Function to get the wheel space of the last spin.
+   *
+   * @return the current wheel space
+   */
+  public WheelSpace getCurrentSpace() {
+    return currentSpace;
+  }
+
+  /**
+   * Function to get the index of the wheel space of the last spin.
+   *
+   * @return the current wheel space index
+   */
+  public int getCurrentSpaceIndex() {
+    return currentSpaceIndex;
+  }
+
+  /**
+   * Function to check whether the puzzle has been solved.
+   *
+   * @return true if the game is over, else false
+   */
+  public boolean isGameOver() {
+    return gameOver;
+  }
+
+  /**
+   * Function to check whether a guessed letter is in the puzzle, and updates
+   * the hidden puzzle to show all instances of that letter.
+   *
+   * @param letter the guessed letter
+   * @return true if the letter is in the puzzle, else false
+   */
+  boolean reveal(char letter) {
+    return puzzleIndex.reveal(letter);
+  }
+
+  /**
+   * Function that updates current player to the next active player.
+   */
+  private void updatePlayer() {
+    currentPlayer = players.next(currentPlayer);
+  }
+
+  private final WheelSpace[] wheelSpaces;
+  private final WheelSampler sampler;
+  private final boolean[] letterAvailable;
+  private RandomGenerator generator;
+
+  private WheelSpace currentSpace;
+  private int currentSpaceIndex;
+  private int currentPlayer;
+  private int numVowelsGuessed;
+  private int numConsonantsGuessed;
+  private boolean gameOver;
+  private final PlayerTable players;
+  private final PuzzleIndex puzzleIndex;
+  private GameListener[] listeners;
+
+}
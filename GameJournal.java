@@ -0,0 +1,717 @@
+/**
+ * This Java file defines the GameJournal class which appends every action
+ * of every game to a memory-mapped file.
+ */
+
+package eecs285.proj3.kshilen;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Append-only journal of game actions. Every action is one fixed-width
+ * record of RECORD_SIZE bytes:
+ *
+ *   offset 0   int    game id
+ *   offset 4   short  record type, written last, 0 until written
+ *   offset 6   short  flags
+ *   offset 8   int    argument: wheel space index, letter or player count
+ *   offset 12  int    player who acted
+ *   offset 16  int    that player's cash after the action
+ *   offset 20  int    number of letters still hidden after the action
+ *
+ * A START record holds the player count as its argument and the length
+ * of the puzzle in UTF-8 bytes in place of the player. It is followed by
+ * TEXT records holding the puzzle, sixteen bytes each in offsets 8 to 23
+ * with the byte count in the flags. When the seed of the game's generator
+ * is known a SEED record precedes the START record, with the low half of
+ * the seed as its argument and the high half in place of the player.
+ *
+ * The file is mapped in chunks, so appending a record is one atomic add
+ * to reserve its slot and a few stores into the mapping, which is well
+ * under a microsecond and never blocks on the disk. Any number of games may
+ * append at once. A background thread forces new records to disk every
+ * FLUSH_MILLIS, so one sync covers every record written in that window.
+ *
+ * The type is published with a release store after the other fields, so a
+ * reader that sees a type also sees the whole record. Slots are reserved
+ * before they are written, so a slow or crashed writer can leave a slot of
+ * type 0 before complete records. The journal ends at the last written
+ * record; recovery marks the unwritten slots before it as HOLE records and
+ * readers skip them.
+ */
+public class GameJournal implements Closeable {
+  /** Size of a record in bytes. */
+  public static final int RECORD_SIZE = 24;
+
+  /** Milliseconds between group commits. */
+  public static final int FLUSH_MILLIS = 10;
+
+  /** First record of every journal, holding MAGIC and VERSION. */
+  public static final short HEADER = 1;
+  /** A game was started. */
+  public static final short START = 2;
+  /** Sixteen bytes of the puzzle of the last started game. */
+  public static final short TEXT = 3;
+  /** The wheel was spun. */
+  public static final short SPIN = 4;
+  /** A consonant was guessed. */
+  public static final short CONSONANT = 5;
+  /** A vowel was bought. */
+  public static final short VOWEL = 6;
+  /** The puzzle was attempted, flags are 1 if it was solved. */
+  public static final short SOLVE = 7;
+  /** Seed of the generator of the next started game. */
+  public static final short SEED = 8;
+  /** A player joined, arg is the new player and player the current one. */
+  public static final short JOIN = 9;
+  /** A player was eliminated, arg is that player and player the current one. */
+  public static final short LEAVE = 10;
+  /** A slot that was reserved but never written, marked by recovery. */
+  public static final short HOLE = 11;
+
+  /** Offsets of the record fields. */
+  static final int GAME_ID = 0;
+  static final int TYPE = 4;
+  static final int FLAGS = 6;
+  static final int ARG = 8;
+  static final int PLAYER = 12;
+  static final int CASH = 16;
+  static final int HIDDEN = 20;
+
+  /** Number of puzzle bytes in a TEXT record. */
+  static final int TEXT_BYTES = 16;
+
+  /** Number of records per mapped chunk, so no record spans two chunks. */
+  static final int RECORDS_PER_CHUNK = 1 << 21;
+
+  /** Size of a mapped chunk in bytes. */
+  static final long CHUNK_SIZE = (long) RECORD_SIZE * RECORDS_PER_CHUNK;
+
+  /** Largest number of chunks in a journal. */
+  static final int MAX_CHUNKS = 4096;
+
+  /** Identifies a journal file. */
+  static final int MAGIC = 0x574F464A;
+
+  /** Version of the record format. */
+  static final short VERSION = 1;
+
+  /** Granularity of the flushed regions. */
+  private static final int PAGE_SIZE = 4096;
+
+  /** Release stores and acquire loads of the type of a mapped record. */
+  private static final VarHandle SHORTS =
+      MethodHandles.byteBufferViewVarHandle(short[].class,
+          ByteOrder.BIG_ENDIAN);
+
+  /**
+   * Opens a journal for appending, creating it if needed. Appending
+   * continues after the last complete record.
+   *
+   * @param file the journal file
+   * @return the journal
+   * @throws IOException if the file cannot be opened or is not a journal
+   */
+  public static GameJournal open(Path file) throws IOException {
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+    GameJournal journal = new GameJournal(file, channel);
+    try {
+      journal.recover();
+    } catch (IOException e) {
+      journal.close();
+      throw e;
+    }
+    // Only once recovery has set the tail, so no flush sees it half done
+    journal.startFlushing();
+    return journal;
+  }
+
+  /**
+   * Helper constructor for open.
+   *
+   * @param file the journal file
+   * @param channel the channel of the journal file
+   */
+  private GameJournal(Path file, FileChannel channel) {
+    this.file = file;
+    this.channel = channel;
+    chunks = new AtomicReferenceArray<>(MAX_CHUNKS);
+    tail = new AtomicLong();
+    unforced = new AtomicLong(Long.MAX_VALUE);
+    nextGameId = new AtomicInteger(1);
+    flusher = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, "journal-flush");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+  }
+
+  /**
+   * Helper function to start the group commits of an opened journal.
+   */
+  private void startFlushing() {
+    flusher.scheduleWithFixedDelay(new Runnable() {
+      @Override
+      public void run() {
+        flush();
+      }
+    }, FLUSH_MILLIS, FLUSH_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Function to reserve an id for a new game, above every id in the file.
+   *
+   * @return the game id
+   */
+  public int nextGameId() {
+    return nextGameId.getAndIncrement();
+  }
+
+  /**
+   * Function to create a listener that records the actions of one game.
+   *
+   * @param gameId the id of the game
+   * @return the listener
+   */
+  public GameListener recorder(int gameId) {
+    return new Recorder(gameId, false, 0);
+  }
+
+  /**
+   * Function to create a listener that records the actions of one game
+   * and the seed of its generator, so a replay can check every spin.
+   *
+   * @param gameId the id of the game
+   * @param seed the seed of the game's generator
+   * @return the listener
+   */
+  public GameListener recorder(int gameId, long seed) {
+    return new Recorder(gameId, true, seed);
+  }
+
+  /**
+   * Opens a journal for reading from its first record. The journal may be
+   * open for appending at the same time.
+   *
+   * @param file the journal file
+   * @return the reader
+   * @throws IOException if the file cannot be read or is not a journal
+   */
+  public static Reader read(Path file) throws IOException {
+    return new Reader(file);
+  }
+
+  /**
+   * Appends one record. Safe to call from any number of threads.
+   *
+   * @param gameId the id of the game
+   * @param type the record type
+   * @param flags the flags
+   * @param arg the argument
+   * @param player the player who acted
+   * @param cash the player's cash after the action
+   * @param hidden the number of hidden letters after the action
+   */
+  public void append(int gameId, short type, short flags, int arg,
+                     int player, int cash, int hidden) {
+    long offset = tail.getAndAdd(RECORD_SIZE);
+    MappedByteBuffer chunk = chunk(offset);
+    int at = (int) (offset % CHUNK_SIZE);
+    chunk.putInt(at + GAME_ID, gameId);
+    chunk.putShort(at + FLAGS, flags);
+    chunk.putInt(at + ARG, arg);
+    chunk.putInt(at + PLAYER, player);
+    chunk.putInt(at + CASH, cash);
+    chunk.putInt(at + HIDDEN, hidden);
+    SHORTS.setRelease(chunk, at + TYPE, type);
+    // Once the record is complete, make sure the next flush covers it even
+    // if an earlier flush already passed its slot
+    if (offset < unforced.get()) {
+      unforced.accumulateAndGet(offset, Math::min);
+    }
+  }
+
+  /**
+   * Forces every record appended so far to disk. Flushes from the
+   * background thread and from callers run one at a time.
+   */
+  public synchronized void flush() {
+    // Take the lowest record completed since the last flush before reading
+    // the tail, so a record completed later is left to the next flush
+    long lowest = unforced.getAndSet(Long.MAX_VALUE);
+    long end = tail.get();
+    long start = Math.min(lowest, flushed) / PAGE_SIZE * PAGE_SIZE;
+    while (start < end) {
+      MappedByteBuffer chunk = chunks.get((int) (start / CHUNK_SIZE));
+      long chunkEnd = (start / CHUNK_SIZE + 1) * CHUNK_SIZE;
+      long stop = Math.min(end, chunkEnd);
+      if (chunk != null) {
+        chunk.force((int) (start % CHUNK_SIZE), (int) (stop - start));
+      }
+      start = stop;
+    }
+    flushed = end;
+  }
+
+  /**
+   * Function to get the number of records in the journal.
+   *
+   * @return the number of records, including the header
+   */
+  public long getRecordCount() {
+    return tail.get() / RECORD_SIZE;
+  }
+
+  /**
+   * Function to get the journal file.
+   *
+   * @return the file
+   */
+  public Path getFile() {
+    return file;
+  }
+
+  /**
+   * Stops the group commits, flushes and closes the file.
+   *
+   * @throws IOException if the file cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    flusher.shutdown();
+    try {
+      flusher.awaitTermination(1, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    flush();
+    channel.close();
+  }
+
+  /**
+   * Helper function to find the end of the last written record and the
+   * highest game id, marking the unwritten slots before it as holes and
+   * writing the header if the file is new.
+   *
+   * @throws IOException if the file is not a journal
+   */
+  private void recover() throws IOException {
+    long size = channel.size();
+    if (size >= RECORD_SIZE) {
+      MappedByteBuffer first = chunk(0);
+      if (first.getShort(TYPE) != HEADER || first.getInt(ARG) != MAGIC) {
+        // An empty slot may still be a new file whose header was lost
+        if (first.getShort(TYPE) != 0 || findRecord(0, size) >= 0) {
+          throw new IOException(file + " is not a game journal");
+        }
+      }
+    }
+    long offset = 0;
+    long end = 0;
+    int maxGameId = 0;
+    int numHoles = 0;
+    while ((offset = findRecord(offset, size)) >= 0) {
+      // Every empty slot between the last record and this one is a hole
+      for (long hole = end; hole < offset; hole += RECORD_SIZE) {
+        SHORTS.setRelease(chunk(hole), (int) (hole % CHUNK_SIZE) + TYPE,
+            HOLE);
+        numHoles++;
+      }
+      MappedByteBuffer chunk = chunk(offset);
+      maxGameId = Math.max(maxGameId,
+          chunk.getInt((int) (offset % CHUNK_SIZE) + GAME_ID));
+      offset += RECORD_SIZE;
+      end = offset;
+    }
+    tail.set(end);
+    flushed = end;
+    nextGameId.set(maxGameId + 1);
+    if (end == 0) {
+      append(0, HEADER, VERSION, MAGIC, 0, 0, 0);
+    } else if (numHoles > 0) {
+      System.out.println("Marked " + numHoles + " unwritten records of "
+          + file + " as holes");
+      flush();
+    }
+  }
+
+  /**
+   * Helper function to find the first written record at or after an
+   * offset.
+   *
+   * @param from the offset of the first record to look at
+   * @param size the size of the file
+   * @return the offset of the record, or -1 if there is none
+   */
+  private long findRecord(long from, long size) {
+    for (long offset = from; offset + RECORD_SIZE <= size;
+         offset += RECORD_SIZE) {
+      if ((short) SHORTS.getAcquire(chunk(offset),
+          (int) (offset % CHUNK_SIZE) + TYPE) != 0) {
+        return offset;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Helper function to get the mapped chunk holding an offset, mapping it
+   * the first time it is used.
+   *
+   * @param offset the offset in the file
+   * @return the chunk
+   */
+  private MappedByteBuffer chunk(long offset) {
+    int index = (int) (offset / CHUNK_SIZE);
+    MappedByteBuffer chunk = chunks.get(index);
+    if (chunk == null) {
+      synchronized (this) {
+        chunk = chunks.get(index);
+        if (chunk == null) {
+          try {
+            chunk = channel.map(FileChannel.MapMode.READ_WRITE,
+                index * CHUNK_SIZE, CHUNK_SIZE);
+          } catch (IOException e) {
+            throw new IllegalStateException("Cannot map " + file, e);
+          }
+          chunks.set(index, chunk);
+        }
+      }
+    }
+    return chunk;
+  }
+
+  /**
+   * Records the actions of one game.
+   */
+  private class Recorder implements GameListener {
+    Recorder(int gameId, boolean seeded, long seed) {
+      this.gameId = gameId;
+      this.seeded = seeded;
+      this.seed = seed;
+    }
+
+    @Override
+    public void gameStarted(GameEngine engine) {
+      if (seeded) {
+        append(gameId, SEED, (short) 0, (int) seed, (int) (seed >>> 32), 0, 0);
+      }
+      String puzzle = engine.getPuzzle();
+      byte[] text = puzzle.getBytes(StandardCharsets.UTF_8);
+      append(gameId, START, (short) 0, engine.getNumPlayers(), text.length,
+          puzzle.hashCode(), engine.getPuzzleIndex().getNumHidden());
+      for (int i = 0; i < text.length; i += TEXT_BYTES) {
+        int count = Math.min(TEXT_BYTES, text.length - i);
+        append(gameId, TEXT, (short) count, pack(text, i, count),
+            pack(text, i + 4, count - 4), pack(text, i + 8, count - 8),
+            pack(text, i + 12, count - 12));
+      }
+    }
+
+    @Override
+    public void spun(GameEngine engine, int player, int index) {
+      append(gameId, SPIN, (short) 0, index, player,
+          engine.getPlayerCash(player), engine.getPuzzleIndex().getNumHidden());
+    }
+
+    @Override
+    public void guessedConsonant(GameEngine engine, int player, char letter,
+                                 int occurrences) {
+      append(gameId, CONSONANT, (short) 0, letter, player,
+          engine.getPlayerCash(player), engine.getPuzzleIndex().getNumHidden());
+    }
+
+    @Override
+    public void boughtVowel(GameEngine engine, int player, char letter,
+                            int occurrences) {
+      append(gameId, VOWEL, (short) 0, letter, player,
+          engine.getPlayerCash(player), engine.getPuzzleIndex().getNumHidden());
+    }
+
+    @Override
+    public void attemptedSolve(GameEngine engine, int player, boolean correct) {
+      append(gameId, SOLVE, (short) (correct ? 1 : 0), 0, player,
+          engine.getPlayerCash(player), engine.getPuzzleIndex().getNumHidden());
+    }
+
+    @Override
+    public void playerJoined(GameEngine engine, int player) {
+      append(gameId, JOIN, (short) 0, player, engine.getCurrentPlayer(),
+          engine.getPlayerCash(player), engine.getPuzzleIndex().getNumHidden());
+    }
+
+    @Override
+    public void playerLeft(GameEngine engine, int player) {
+      append(gameId, LEAVE, (short) 0, player, engine.getCurrentPlayer(),
+          engine.getPlayerCash(player), engine.getPuzzleIndex().getNumHidden());
+    }
+
+    /**
+     * Helper function to pack up to four bytes into an int, big-endian.
+     *
+     * @param bytes the bytes
+     * @param from the index of the first byte
+     * @param count the number of bytes left from that index
+     * @return the packed bytes, padded with zeros
+     */
+    private int pack(byte[] bytes, int from, int count) {
+      int packed = 0;
+      for (int i = 0; i < 4; ++i) {
+        packed <<= 8;
+        if (i < count) {
+          packed |= bytes[from + i] & 0xFF;
+        }
+      }
+      return packed;
+    }
+
+    private final int gameId;
+    private final boolean seeded;
+    private final long seed;
+  }
+
+  /**
+   * Reads the records of a journal in order, one at a time. The getters
+   * return the fields of the current record.
+   */
+  public static class Reader implements Closeable {
+    /**
+     * Helper constructor for read.
+     *
+     * @param file the journal file
+     * @throws IOException if the file cannot be read or is not a journal
+     */
+    private Reader(Path file) throws IOException {
+      channel = FileChannel.open(file, StandardOpenOption.READ);
+      size = channel.size();
+      offset = -RECORD_SIZE;
+      if (!next() || getType() != HEADER || getArg() != MAGIC) {
+        close();
+        throw new IOException(file + " is not a game journal");
+      }
+    }
+
+    /**
+     * Moves to the next record, skipping holes and slots that are not
+     * written yet but have written records after them.
+     *
+     * @return true if there is a next record, false at the end of the journal
+     * @throws IOException if the file cannot be read
+     */
+    public boolean next() throws IOException {
+      long nextOffset = offset + RECORD_SIZE;
+      while (nextOffset + RECORD_SIZE <= size) {
+        map(nextOffset);
+        int nextAt = (int) (nextOffset % CHUNK_SIZE);
+        short type = (short) SHORTS.getAcquire(chunk, nextAt + TYPE);
+        if (type != 0 && type != HOLE) {
+          at = nextAt;
+          offset = nextOffset;
+          return true;
+        }
+        if (type == 0 && !hasRecordAfter(nextOffset)) {
+          return false;
+        }
+        numSkipped++;
+        nextOffset += RECORD_SIZE;
+      }
+      return false;
+    }
+
+    /**
+     * Function to get the number of holes and unwritten slots skipped so
+     * far.
+     *
+     * @return the number of skipped slots
+     */
+    public long getNumSkipped() {
+      return numSkipped;
+    }
+
+    /**
+     * Helper function to map the chunk holding an offset, unless it is
+     * the current chunk.
+     *
+     * @param at the offset in the file
+     * @throws IOException if the file cannot be read
+     */
+    private void map(long at) throws IOException {
+      long chunkStart = at / CHUNK_SIZE * CHUNK_SIZE;
+      if (chunk == null || chunkStart != this.chunkStart) {
+        chunk = channel.map(FileChannel.MapMode.READ_ONLY, chunkStart,
+            Math.min(CHUNK_SIZE, size - chunkStart));
+        this.chunkStart = chunkStart;
+      }
+    }
+
+    /**
+     * Helper function to check whether a written record follows an empty
+     * slot. The answer is remembered, so reaching the end of the journal
+     * scans the empty rest of the file only once.
+     *
+     * @param empty the offset of the empty slot
+     * @return true if a later slot is written
+     * @throws IOException if the file cannot be read
+     */
+    private boolean hasRecordAfter(long empty) throws IOException {
+      if (empty < recordAfter) {
+        return true;
+      }
+      if (empty < scannedTo) {
+        return false;
+      }
+      long current = chunkStart;
+      boolean found = false;
+      for (long next = empty + RECORD_SIZE; next + RECORD_SIZE <= size;
+           next += RECORD_SIZE) {
+        map(next);
+        if ((short) SHORTS.getAcquire(chunk,
+            (int) (next % CHUNK_SIZE) + TYPE) != 0) {
+          recordAfter = next;
+          found = true;
+          break;
+        }
+      }
+      if (!found) {
+        scannedTo = size;
+      }
+      map(current);
+      return found;
+    }
+
+    /**
+     * Function to get the index of the current record in the journal.
+     *
+     * @return the index, 0 for the header
+     */
+    public long getIndex() {
+      return offset / RECORD_SIZE;
+    }
+
+    /**
+     * Function to get the game id of the current record.
+     *
+     * @return the game id
+     */
+    public int getGameId() {
+      return chunk.getInt(at + GAME_ID);
+    }
+
+    /**
+     * Function to get the type of the current record.
+     *
+     * @return the type
+     */
+    public short getType() {
+      return chunk.getShort(at + TYPE);
+    }
+
+    /**
+     * Function to get the flags of the current record.
+     *
+     * @return the flags
+     */
+    public short getFlags() {
+      return chunk.getShort(at + FLAGS);
+    }
+
+    /**
+     * Function to get the argument of the current record.
+     *
+     * @return the argument
+     */
+    public int getArg() {
+      return chunk.getInt(at + ARG);
+    }
+
+    /**
+     * Function to get the player of the current record.
+     *
+     * @return the player
+     */
+    public int getPlayer() {
+      return chunk.getInt(at + PLAYER);
+    }
+
+    /**
+     * Function to get the cash of the current record.
+     *
+     * @return the cash
+     */
+    public int getCash() {
+      return chunk.getInt(at + CASH);
+    }
+
+    /**
+     * Function to get the hidden letter count of the current record.
+     *
+     * @return the number of hidden letters
+     */
+    public int getHidden() {
+      return chunk.getInt(at + HIDDEN);
+    }
+
+    /**
+     * Function to copy the puzzle bytes of the current TEXT record.
+     *
+     * @param dest the array to copy into
+     * @param destOffset the index in dest of the first byte
+     * @return the number of bytes copied
+     */
+    public int getText(byte[] dest, int destOffset) {
+      int count = getFlags();
+      chunk.get(at + ARG, dest, destOffset, count);
+      return count;
+    }
+
+    /**
+     * Closes the file.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+      channel.close();
+    }
+
+    private final FileChannel channel;
+    private final long size;
+    private MappedByteBuffer chunk;
+    private long chunkStart;
+    private long offset;
+    private int at;
+    private long numSkipped;
+    private long recordAfter = -1;
+    private long scannedTo = -1;
+  }
+
+  private final Path file;
+  private final FileChannel channel;
+  private final AtomicReferenceArray<MappedByteBuffer> chunks;
+  private final AtomicLong tail;
+  private final AtomicLong unforced;
+  private final AtomicInteger nextGameId;
+  private final ScheduledExecutorService flusher;
+  /** End of the records forced by the last flush, guarded by this. */
+  private long flushed;
+}
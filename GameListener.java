@@ -0,0 +1,147 @@
+/**
+ * This Java file defines the GameListener interface which is notified of
+ * every action in a GameEngine.
+ */
+
+package eecs285.proj3.kshilen;
+
+/**
+ * Receives every action of a game after the engine applied it, so the
+ * engine already holds the resulting cash, revealed letters and current
+ * player. Listeners run on the thread that drives the game and should
+ * return quickly. All methods do nothing by default.
+ */
+public interface GameListener {
+  /**
+   * Called when a new game was started.
+   *
+   * @param engine the engine holding the game
+   */
+  default void gameStarted(GameEngine engine) {
+  }
+
+  /**
+   * Called after a spin landed on a wheel space.
+   *
+   * @param engine the engine holding the game
+   * @param player the player who spun
+   * @param index the index of the wheel space
+   */
+  default void spun(GameEngine engine, int player, int index) {
+  }
+
+  /**
+   * Called after a consonant was guessed.
+   *
+   * @param engine the engine holding the game
+   * @param player the player who guessed
+   * @param letter the consonant
+   * @param occurrences the number of times the letter is in the puzzle
+   */
+  default void guessedConsonant(GameEngine engine, int player, char letter,
+                                int occurrences) {
+  }
+
+  /**
+   * Called after a vowel was bought.
+   *
+   * @param engine the engine holding the game
+   * @param player the player who bought the vowel
+   * @param letter the vowel
+   * @param occurrences the number of times the letter is in the puzzle
+   */
+  default void boughtVowel(GameEngine engine, int player, char letter,
+                           int occurrences) {
+  }
+
+  /**
+   * Called after an attempt to solve the puzzle.
+   *
+   * @param engine the engine holding the game
+   * @param player the player who attempted to solve
+   * @param correct true if the puzzle was solved, else false
+   */
+  default void attemptedSolve(GameEngine engine, int player, boolean correct) {
+  }
+
+  /**
+   * Called after a player joined the game in progress.
+   *
+   * @param engine the engine holding the game
+   * @param player the zero based index of the new player
+   */
+  default void playerJoined(GameEngine engine, int player) {
+  }
+
+  /**
+   * Called after a player was eliminated from the game in progress.
+   *
+   * @param engine the engine holding the game
+   * @param player the zero based index of the eliminated player
+   */
+  default void playerLeft(GameEngine engine, int player) {
+  }
+
+  /**
+   * Function to combine two listeners into one that notifies both, in
+   * order.
+   *
+   * @param first the listener notified first, or null
+   * @param second the listener notified second, or null
+   * @return the combined listener, or the other one if either is null
+   */
+  static GameListener both(GameListener first, GameListener second) {
+    if (first == null) {
+      return second;
+    }
+    if (second == null) {
+      return first;
+    }
+    return new GameListener() {
+      @Override
+      public void gameStarted(GameEngine engine) {
+        first.gameStarted(engine);
+        second.gameStarted(engine);
+      }
+
+      @Override
+      public void spun(GameEngine engine, int player, int index) {
+        first.spun(engine, player, index);
+        second.spun(engine, player, index);
+      }
+
+      @Override
+      public void guessedConsonant(GameEngine engine, int player, char letter,
+                                   int occurrences) {
+        first.guessedConsonant(engine, player, letter, occurrences);
+        second.guessedConsonant(engine, player, letter, occurrences);
+      }
+
+      @Override
+      public void boughtVowel(GameEngine engine, int player, char letter,
+                              int occurrences) {
+        first.boughtVowel(engine, player, letter, occurrences);
+        second.boughtVowel(engine, player, letter, occurrences);
+      }
+
+      @Override
+      public void attemptedSolve(GameEngine engine, int player,
+                                 boolean correct) {
+        first.attemptedSolve(engine, player, correct);
+        second.attemptedSolve(engine, player, correct);
+      }
+
+      @Override
+      public void playerJoined(GameEngine engine, int player) {
+        first.playerJoined(engine, player);
+        second.playerJoined(engine, player);
+      }
+
+      @Override
+      public void playerLeft(GameEngine engine, int player) {
+        first.playerLeft(engine, player);
+        second.playerLeft(engine, player);
+      }
+    };
+  }
+}
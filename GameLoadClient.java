@@ -0,0 +1,210 @@
+/**
+ * This Java file defines the GameLoadClient class which plays many games
+ * against a GameServer to measure its throughput and latency.
+ */
+
+package eecs285.proj3.kshilen;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load-test client for the GameServer. Every connection plays complete
+ * games back to back: it spins and guesses consonants in order until they
+ * run out, then solves the puzzle. Every request is timed, so the report
+ * shows games per second and the latency percentiles of all requests and
+ * of the turns alone, a SPIN or CONSONANT request.
+ */
+public class GameLoadClient {
+  /** Consonants in the order the client guesses them. */
+  private static final String CONSONANTS = "TNSRHLDCMFPGWYBVKJXQZ";
+
+  /** Puzzle of every game played by the client. */
+  private static final String PUZZLE = "THE QUICK BROWN FOX JUMPS OVER THE LAZY DOG";
+
+  /**
+   * Command-line interface for the load test. Connects to a server on the
+   * loopback interface, or starts one in this JVM when the port is 0.
+   *
+   * Usage: GameLoadClient [port] [connections] [gamesPerConnection]
+   */
+  public static void main(String[] args) throws Exception {
+    int port = GameServer.DEFAULT_PORT;
+    int connections = 100;
+    int gamesPerConnection = 100;
+    try {
+      if (args.length > 0) {
+        port = Integer.parseInt(args[0]);
+      }
+      if (args.length > 1) {
+        connections = Integer.parseInt(args[1]);
+      }
+      if (args.length > 2) {
+        gamesPerConnection = Integer.parseInt(args[2]);
+      }
+    } catch (NumberFormatException e) {
+      System.out.println("Port, connections and games must be integers");
+      System.exit(1);
+    }
+
+    if (port == 0) {
+      port = startLocalServer();
+    }
+    LatencyHistogram requestLatency = new LatencyHistogram();
+    LatencyHistogram turnLatency = new LatencyHistogram();
+    AtomicLong games = new AtomicLong();
+    AtomicLong errors = new AtomicLong();
+    CountDownLatch done = new CountDownLatch(connections);
+    int serverPort = port;
+    int gamesEach = gamesPerConnection;
+
+    long start = System.nanoTime();
+    for (int i = 0; i < connections; ++i) {
+      Thread player = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            playGames(serverPort, gamesEach, requestLatency, turnLatency,
+                games, errors);
+          } catch (IOException e) {
+            System.out.println("Connection failed: " + e.getMessage());
+          } finally {
+            done.countDown();
+          }
+        }
+      });
+      player.start();
+    }
+    done.await();
+    double seconds = (System.nanoTime() - start) / 1e9;
+
+    System.out.printf("Games: %d in %.2f s (%.0f games per second)%n",
+        games.get(), seconds, games.get() / seconds);
+    System.out.printf("Requests per second: %.0f%n",
+        requestLatency.getCount() / seconds);
+    System.out.println("Request latency: " + requestLatency.summary());
+    System.out.println("Turn latency: " + turnLatency.summary());
+    System.out.println("Errors: " + errors.get());
+    System.exit(0);
+  }
+
+  /**
+   * Plays games over one connection.
+   *
+   * @param port the port of the server
+   * @param numGames the number of games to play
+   * @param requestLatency the histogram of the latencies of all requests
+   * @param turnLatency the histogram of the latencies of SPIN and
+   *                    CONSONANT requests
+   * @param games counts the games that were won
+   * @param errors counts the requests that failed
+   * @throws IOException if the connection fails
+   */
+  static void playGames(int port, int numGames,
+                        LatencyHistogram requestLatency,
+                        LatencyHistogram turnLatency, AtomicLong games,
+                        AtomicLong errors) throws IOException {
+    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+         BufferedReader in = new BufferedReader(new InputStreamReader(
+             socket.getInputStream(), StandardCharsets.UTF_8));
+         BufferedWriter out = new BufferedWriter(new OutputStreamWriter(
+             socket.getOutputStream(), StandardCharsets.UTF_8))) {
+      socket.setTcpNoDelay(true);
+      for (int g = 0; g < numGames; ++g) {
+        String id = request(in, out, "NEW 3 " + PUZZLE, requestLatency, null)
+            .substring("GAME ".length());
+        int nextConsonant = 0;
+        while (nextConsonant < CONSONANTS.length()) {
+          String space = request(in, out, "SPIN " + id, requestLatency,
+              turnLatency);
+          if (space.startsWith("ERR")) {
+            errors.incrementAndGet();
+            break;
+          }
+          if (!space.contains("BANKRUPT") && !space.contains("LOSE_A_TURN")) {
+            String letter = request(in, out, "CONSONANT " + id + " "
+                + CONSONANTS.charAt(nextConsonant++), requestLatency,
+                turnLatency);
+            if (letter.startsWith("ERR")) {
+              errors.incrementAndGet();
+            }
+          }
+        }
+        if (request(in, out, "SOLVE " + id + " " + PUZZLE, requestLatency,
+            null).startsWith("WIN")) {
+          games.incrementAndGet();
+        } else {
+          errors.incrementAndGet();
+          request(in, out, "END " + id, requestLatency, null);
+        }
+      }
+      out.write("QUIT\n");
+      out.flush();
+    }
+  }
+
+  /**
+   * Helper function to send a request and time its response.
+   *
+   * @param in the connection's input
+   * @param out the connection's output
+   * @param request the request line
+   * @param requestLatency the histogram of the latencies of all requests
+   * @param turnLatency the histogram of turn latencies, or null if the
+   *                    request is not a turn
+   * @return the response line
+   * @throws IOException if the connection fails
+   */
+  private static String request(BufferedReader in, BufferedWriter out,
+                                String request,
+                                LatencyHistogram requestLatency,
+                                LatencyHistogram turnLatency)
+      throws IOException {
+    long start = System.nanoTime();
+    out.write(request);
+    out.write('\n');
+    out.flush();
+    String response = in.readLine();
+    long nanos = System.nanoTime() - start;
+    requestLatency.record(nanos);
+    if (turnLatency != null) {
+      turnLatency.record(nanos);
+    }
+    if (response == null) {
+      throw new IOException("Server closed the connection");
+    }
+    return response;
+  }
+
+  /**
+   * Helper function to start a server on a free loopback port in this JVM.
+   *
+   * @return the port of the server
+   * @throws IOException if the wheel or the socket cannot be opened
+   */
+  private static int startLocalServer() throws IOException {
+    WheelSpace[] wheelSpaces = WheelAssetLoader.loadResourceValues(
+        WheelOfFortuneFrame.IMAGES_PATH, WheelOfFortuneFrame.NUM_WHEEL_SPACES);
+    GameServer server = new GameServer(wheelSpaces, 100);
+    ServerSocket serverSocket = new ServerSocket(0, 1024,
+        InetAddress.getLoopbackAddress());
+    Thread acceptor = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        server.serve(serverSocket);
+      }
+    });
+    acceptor.setDaemon(true);
+    acceptor.start();
+    return serverSocket.getLocalPort();
+  }
+}
@@ -0,0 +1,79 @@
+/**
+ * This Java file defines the GameRandom class which is a java.util.Random
+ * whose state can be saved and restored.
+ */
+
+package eecs285.proj3.kshilen;
+
+import java.util.Random;
+
+/**
+ * Random-number generator producing exactly the numbers of a
+ * java.util.Random with the same seed, whose 48-bit state can be read and
+ * set so a game can be saved and resumed at the same point of its stream.
+ * Unlike Random it is not thread safe; a game's generator is only used by
+ * the thread driving the game. The saved state does not include a cached
+ * nextGaussian value, which the game never draws.
+ */
+public class GameRandom extends Random {
+  /**
+   * Creates a generator with the numbers of new Random(seed).
+   *
+   * @param seed the seed
+   */
+  public GameRandom(long seed) {
+    super(seed);
+  }
+
+  /**
+   * Sets the seed as Random.setSeed does.
+   *
+   * @param seed the seed
+   */
+  @Override
+  public void setSeed(long seed) {
+    // Also called by the Random constructor, before this class's fields
+    // are initialized, so state must not have an initializer
+    super.setSeed(seed);
+    state = (seed ^ MULTIPLIER) & MASK;
+  }
+
+  /**
+   * Function to get the state of the generator.
+   *
+   * @return the 48-bit state
+   */
+  public long getState() {
+    return state;
+  }
+
+  /**
+   * Sets the state of the generator, as read with getState.
+   *
+   * @param newState the 48-bit state
+   */
+  public void setState(long newState) {
+    if ((newState & ~MASK) != 0) {
+      throw new IllegalArgumentException("State has more than 48 bits");
+    }
+    state = newState;
+  }
+
+  /**
+   * Advances the linear congruential generator of Random.
+   *
+   * @param bits the number of random bits wanted
+   * @return the random bits
+   */
+  @Override
+  protected int next(int bits) {
+    state = (state * MULTIPLIER + ADDEND) & MASK;
+    return (int) (state >>> (48 - bits));
+  }
+
+  private static final long MULTIPLIER = 0x5DEECE66DL;
+  private static final long ADDEND = 0xBL;
+  private static final long MASK = (1L << 48) - 1;
+
+  private long state;
+}
@@ -0,0 +1,458 @@
+/**
+ * This Java file defines the GameReplay class which re-runs the games of a
+ * GameJournal and checks them against the recording.
+ */
+
+package eecs285.proj3.kshilen;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Random;
+import javax.swing.JFrame;
+
+/**
+ * Headless replay of recorded games. Every recorded action is applied to a
+ * fresh GameEngine and the cash of the acting player and the number of
+ * hidden letters afterwards are compared with the recording. Games recorded
+ * with their seed also have every spin drawn again from the generator, so
+ * a changed rule or generator shows up as a mismatch. Replay stops checking
+ * a game at its first mismatch.
+ *
+ * A game can also be fast-forwarded a number of moves and opened in the
+ * game window from there. A move is everything a player does between two
+ * choices of the buttons: a spin that loses the turn, a spin with its
+ * consonant, a vowel or an attempt to solve.
+ */
+public class GameReplay {
+  /** Number of mismatches printed by replayAll. */
+  static final int MAX_REPORTED = 20;
+
+  /**
+   * Command-line interface for replays.
+   *
+   * Usage: GameReplay journal            replays and checks every game
+   *        GameReplay journal game moves opens a game after some moves
+   */
+  public static void main(String[] args) {
+    if (args.length != 1 && args.length != 3) {
+      System.out.println("Usage: GameReplay journal [game moves]");
+      System.exit(1);
+    }
+    Path file = Paths.get(args[0]);
+    try {
+      if (args.length == 1) {
+        WheelSpace[] wheelSpaces = WheelAssetLoader.loadResourceValues(
+            WheelOfFortuneFrame.IMAGES_PATH,
+            WheelOfFortuneFrame.NUM_WHEEL_SPACES);
+        GameReplay replay = new GameReplay(wheelSpaces);
+        long start = System.nanoTime();
+        replay.replayAll(file);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Replayed %d games, %d actions in %.3f s"
+                + " (%.0f actions per second)%n", replay.getNumGames(),
+            replay.getNumActions(), seconds, replay.getNumActions() / seconds);
+        System.out.println("Mismatches: " + replay.getNumMismatches());
+        System.exit(replay.getNumMismatches() == 0 ? 0 : 2);
+      }
+
+      int gameId = Integer.parseInt(args[1]);
+      int moves = Integer.parseInt(args[2]);
+      GameReplay replay = new GameReplay(WheelOfFortuneFrame.loadImages());
+      GameEngine engine = replay.fastForward(file, gameId, moves);
+      if (engine == null) {
+        System.out.println("No game " + gameId + " in " + file);
+        System.exit(2);
+      }
+      if (engine.isGameOver()) {
+        System.out.println("Game " + gameId + " was solved by then");
+        System.exit(2);
+      }
+      WheelOfFortuneFrame gameFrame = new WheelOfFortuneFrame(engine);
+      gameFrame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+    } catch (NumberFormatException e) {
+      System.out.println("Game and moves must be integers");
+      System.exit(1);
+    } catch (IOException e) {
+      System.out.println("Caught an IO exception: " + e.getMessage());
+      System.exit(4);
+    }
+  }
+
+  /**
+   * Creates a replay on a wheel.
+   *
+   * @param wheelSpaces the spaces of the wheel the games were played on
+   */
+  public GameReplay(WheelSpace[] wheelSpaces) {
+    this.wheelSpaces = wheelSpaces;
+    sampler = WheelSampler.of(wheelSpaces);
+    games = new HashMap<>();
+    playerNames = new String[0][];
+  }
+
+  /**
+   * Replays and checks every game of a journal, printing the first
+   * mismatches.
+   *
+   * @param file the journal file
+   * @throws IOException if the journal cannot be read
+   */
+  public void replayAll(Path file) throws IOException {
+    replay(file, 0, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Function to replay one game of a journal up to a number of moves.
+   *
+   * @param file the journal file
+   * @param gameId the id of the game
+   * @param moves the number of moves to replay
+   * @return the engine holding the game after those moves, or null if
+   *         the journal has no such game
+   * @throws IOException if the journal cannot be read
+   */
+  public GameEngine fastForward(Path file, int gameId, int moves)
+      throws IOException {
+    ReplayGame game = replay(file, gameId, moves);
+    return game == null || game.engine == null ? null : game.engine;
+  }
+
+  /**
+   * Function to get the number of games started in the replays.
+   *
+   * @return the number of games
+   */
+  public long getNumGames() {
+    return numGames;
+  }
+
+  /**
+   * Function to get the number of actions applied in the replays.
+   *
+   * @return the number of actions
+   */
+  public long getNumActions() {
+    return numActions;
+  }
+
+  /**
+   * Function to get the number of games that did not match the recording.
+   *
+   * @return the number of mismatches
+   */
+  public long getNumMismatches() {
+    return numMismatches;
+  }
+
+  /**
+   * Helper function to replay a journal.
+   *
+   * @param file the journal file
+   * @param onlyGame the id of the only game to replay, or 0 for all games
+   * @param moves the number of moves after which a game is no longer replayed
+   * @return the game with id onlyGame, or null
+   * @throws IOException if the journal cannot be read
+   */
+  private ReplayGame replay(Path file, int onlyGame, int moves)
+      throws IOException {
+    games.clear();
+    ReplayGame last = null;
+    ReplayGame only = null;
+    try (GameJournal.Reader reader = GameJournal.read(file)) {
+      while (reader.next()) {
+        int gameId = reader.getGameId();
+        if (onlyGame != 0 && gameId != onlyGame) {
+          continue;
+        }
+        ReplayGame game = last != null && last.id == gameId ? last
+            : games.get(gameId);
+        short type = reader.getType();
+        if (type == GameJournal.SEED || type == GameJournal.START) {
+          if (game == null || game.engine != null) {
+            game = new ReplayGame(gameId);
+            games.put(gameId, game);
+          }
+        } else if (game == null) {
+          continue;
+        }
+        last = game;
+        if (gameId == onlyGame) {
+          only = game;
+        }
+        if (game.failed || (game.engine != null && game.moves >= moves)) {
+          continue;
+        }
+        apply(game, reader);
+        if (game.engine != null && game.engine.isGameOver()) {
+          games.remove(gameId);
+          last = null;
+        }
+      }
+    }
+    return only;
+  }
+
+  /**
+   * Helper function to apply the current record to its game.
+   *
+   * @param game the game of the record
+   * @param reader the reader at the record
+   */
+  private void apply(ReplayGame game, GameJournal.Reader reader) {
+    GameEngine engine = game.engine;
+    int player = reader.getPlayer();
+    switch (reader.getType()) {
+      case GameJournal.SEED:
+        game.generator = new Random(
+            (reader.getArg() & 0xFFFFFFFFL) | ((long) player << 32));
+        return;
+      case GameJournal.START:
+        if (player < 0 || player > PuzzleCorpus.MAX_PUZZLE_BYTES) {
+          mismatch(game, reader, "invalid puzzle length " + player);
+          return;
+        }
+        game.numPlayers = reader.getArg();
+        game.puzzleBytes = new byte[player];
+        game.textLength = 0;
+        game.puzzleHash = reader.getCash();
+        game.startHidden = reader.getHidden();
+        if (player == 0) {
+          start(game, reader);
+        }
+        return;
+      case GameJournal.TEXT:
+        if (game.puzzleBytes != null && engine == null) {
+          int count = reader.getFlags();
+          if (count < 0 || count > GameJournal.TEXT_BYTES
+              || count > game.puzzleBytes.length - game.textLength) {
+            mismatch(game, reader, "invalid puzzle text of " + count
+                + " bytes");
+            return;
+          }
+          game.textLength += reader.getText(game.puzzleBytes, game.textLength);
+          if (game.textLength == game.puzzleBytes.length) {
+            start(game, reader);
+          }
+        }
+        return;
+      case GameJournal.JOIN:
+      case GameJournal.LEAVE:
+        applySeating(game, reader);
+        return;
+      default:
+        break;
+    }
+    if (engine == null) {
+      mismatch(game, reader, "action before the puzzle");
+      return;
+    }
+    if (player != engine.getCurrentPlayer()) {
+      mismatch(game, reader, "player " + player + " acted in the turn of "
+          + engine.getCurrentPlayer());
+      return;
+    }
+    numActions++;
+    switch (reader.getType()) {
+      case GameJournal.SPIN:
+        if (game.generator != null) {
+          int index = engine.spin();
+          if (index != reader.getArg()) {
+            mismatch(game, reader, "spin landed on " + index + ", recorded "
+                + reader.getArg());
+            return;
+          }
+        } else {
+          engine.applySpin(reader.getArg());
+        }
+        WheelSpace space = engine.getCurrentSpace();
+        if (space.isBankrupt() || space.isLoseATurn()) {
+          game.moves++;
+        }
+        break;
+      case GameJournal.CONSONANT:
+      case GameJournal.VOWEL:
+        char letter = (char) reader.getArg();
+        if (!GameEngine.isAlphabet(letter) || !engine.isLetterAvailable(letter)) {
+          mismatch(game, reader, letter + " is not available");
+          return;
+        }
+        if (reader.getType() == GameJournal.VOWEL) {
+          if (!engine.canBuyVowel()) {
+            mismatch(game, reader, "cannot buy " + letter);
+            return;
+          }
+          engine.buyVowel(letter);
+        } else {
+          engine.guessConsonant(letter);
+        }
+        game.moves++;
+        break;
+      case GameJournal.SOLVE:
+        boolean correct = reader.getFlags() != 0;
+        String puzzle = engine.getPuzzle();
+        // The guess itself is not recorded, only whether it was right
+        engine.solve(correct ? puzzle : puzzle.isEmpty() ? "?" : "");
+        game.moves++;
+        break;
+      default:
+        mismatch(game, reader, "unknown record type " + reader.getType());
+        return;
+    }
+    check(game, reader, player);
+  }
+
+  /**
+   * Helper function to apply a player joining or leaving a game. The
+   * current player after the change must match the recorded one.
+   *
+   * @param game the game
+   * @param reader the reader at the JOIN or LEAVE record
+   */
+  private void applySeating(ReplayGame game, GameJournal.Reader reader) {
+    GameEngine engine = game.engine;
+    if (engine == null) {
+      mismatch(game, reader, "seat change before the puzzle");
+      return;
+    }
+    int seat = reader.getArg();
+    if (reader.getType() == GameJournal.JOIN) {
+      int joined = engine.addPlayer("Player " + (engine.getNumPlayers() + 1));
+      if (joined != seat) {
+        mismatch(game, reader, "player joined as " + joined + ", recorded "
+            + seat);
+        return;
+      }
+    } else {
+      if (!engine.isPlayerActive(seat) || engine.getNumActivePlayers() == 1) {
+        mismatch(game, reader, "player " + seat + " cannot leave");
+        return;
+      }
+      engine.removePlayer(seat);
+    }
+    if (engine.getCurrentPlayer() != reader.getPlayer()) {
+      mismatch(game, reader, "turn of player " + engine.getCurrentPlayer()
+          + ", recorded " + reader.getPlayer());
+    }
+  }
+
+  /**
+   * Helper function to start the game of a START record once its puzzle
+   * was read.
+   *
+   * @param game the game
+   * @param reader the reader at the last record of the puzzle
+   */
+  private void start(ReplayGame game, GameJournal.Reader reader) {
+    String puzzle = new String(game.puzzleBytes, StandardCharsets.UTF_8);
+    if (puzzle.hashCode() != game.puzzleHash) {
+      mismatch(game, reader, "puzzle text does not match its hash");
+      return;
+    }
+    if (game.numPlayers < 1) {
+      mismatch(game, reader, "invalid number of players " + game.numPlayers);
+      return;
+    }
+    Random generator = game.generator != null ? game.generator : new Random();
+    game.engine = new GameEngine(wheelSpaces, sampler, generator);
+    game.engine.newGame(playerNames(game.numPlayers), puzzle);
+    game.puzzleBytes = null;
+    numGames++;
+    if (game.engine.getPuzzleIndex().getNumHidden() != game.startHidden) {
+      mismatch(game, reader, "puzzle starts with "
+          + game.engine.getPuzzleIndex().getNumHidden()
+          + " hidden letters, recorded " + game.startHidden);
+    }
+  }
+
+  /**
+   * Helper function to compare a game with the recording after an action.
+   *
+   * @param game the game
+   * @param reader the reader at the record of the action
+   * @param player the player who acted
+   */
+  private void check(ReplayGame game, GameJournal.Reader reader, int player) {
+    GameEngine engine = game.engine;
+    if (engine.getPlayerCash(player) != reader.getCash()) {
+      mismatch(game, reader, "player " + player + " has $"
+          + engine.getPlayerCash(player) + ", recorded $" + reader.getCash());
+    } else if (engine.getPuzzleIndex().getNumHidden() != reader.getHidden()) {
+      mismatch(game, reader, engine.getPuzzleIndex().getNumHidden()
+          + " letters hidden, recorded " + reader.getHidden());
+    } else if (reader.getType() == GameJournal.SOLVE
+        && engine.isGameOver() != (reader.getFlags() != 0)) {
+      mismatch(game, reader, "solve does not match");
+    }
+  }
+
+  /**
+   * Helper function to record a mismatch and stop replaying its game.
+   *
+   * @param game the game
+   * @param reader the reader at the mismatching record
+   * @param message what did not match
+   */
+  private void mismatch(ReplayGame game, GameJournal.Reader reader,
+                        String message) {
+    game.failed = true;
+    if (numMismatches++ < MAX_REPORTED) {
+      System.out.println("Game " + game.id + ", record " + reader.getIndex()
+          + ": " + message);
+    }
+  }
+
+  /**
+   * Helper function to get the player names of a replayed game, shared by
+   * all games with that many players.
+   *
+   * @param numPlayers the number of players
+   * @return the names
+   */
+  private String[] playerNames(int numPlayers) {
+    if (numPlayers >= playerNames.length) {
+      String[][] newNames = new String[numPlayers + 1][];
+      System.arraycopy(playerNames, 0, newNames, 0, playerNames.length);
+      playerNames = newNames;
+    }
+    if (playerNames[numPlayers] == null) {
+      String[] names = new String[numPlayers];
+      for (int i = 0; i < numPlayers; ++i) {
+        names[i] = "Player " + (i + 1);
+      }
+      playerNames[numPlayers] = names;
+    }
+    return playerNames[numPlayers];
+  }
+
+  /**
+   * A game being replayed.
+   */
+  private static class ReplayGame {
+    ReplayGame(int id) {
+      this.id = id;
+    }
+
+    final int id;
+    GameEngine engine;
+    /** Generator of the game if its seed was recorded, else null. */
+    Random generator;
+    int numPlayers;
+    byte[] puzzleBytes;
+    int textLength;
+    int puzzleHash;
+    int startHidden;
+    int moves;
+    boolean failed;
+  }
+
+  private final WheelSpace[] wheelSpaces;
+  private final WheelSampler sampler;
+  private final HashMap<Integer, ReplayGame> games;
+  private String[][] playerNames;
+  private long numGames;
+  private long numActions;
+  private long numMismatches;
+}
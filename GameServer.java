@@ -0,0 +1,782 @@
+/**
+ * This Java file defines the GameServer class which hosts many headless
+ * games over a small TCP line protocol.
+ */
+
+package eecs285.proj3.kshilen;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Headless server hosting any number of games at once. Every connection is
+ * served by its own thread, so a blocking read only holds up that
+ * connection. The build targets Java 17, which has no virtual threads, so
+ * that is one platform thread per connection; started on Java 21 or later
+ * the server uses a virtual thread per connection. Games are spread over
+ * shards that each have their own lock, and every game is locked on its
+ * own while an action runs, so games never wait on each other. Games left
+ * idle are parked as a GameSnapshot of about a hundred bytes and resumed
+ * by their next request.
+ *
+ * Protocol, one request and one response line each:
+ *   NEW numPlayers puzzle      -> GAME id
+ *   SPIN id                    -> SPACE index value|BANKRUPT|LOSE_A_TURN player
+ *   CONSONANT id letter        -> LETTER occurrences cash player
+ *   VOWEL id letter            -> LETTER occurrences cash player
+ *   SOLVE id guess             -> WIN player cash | WRONG player
+ *   STATE id                   -> STATE player numHidden cash,cash,... hidden
+ *   BOT id                     -> STATE ... | WIN player cash
+ *   JOIN id [name]             -> SEAT newPlayer player
+ *   LEAVE id seat              -> LEFT player
+ *   TOP id count               -> TOP seat:cash,seat:cash,...
+ *   END id                     -> ENDED
+ *   LEADERS count              -> LEADERS name:winnings,name:winnings,...
+ *   RANK name                  -> RANK rank winnings games solves | UNRANKED
+ *   QUIT                       closes the connection
+ * where player is the zero based player whose turn it is after the action.
+ * BOT lets the server's bot play one move for the current player, so bots
+ * can fill seats of a table. LEADERS and RANK read the leaderboard kept
+ * over all games, if the server has one; names in LEADERS have their
+ * spaces replaced by underscores. A game has at most MAX_PLAYERS seats.
+ * Errors are answered with ERR and a message.
+ */
+public class GameServer {
+  /** Port the server listens on by default. */
+  public static final int DEFAULT_PORT = 2850;
+
+  /** Largest number of seats of a game, so a request cannot exhaust memory. */
+  public static final int MAX_PLAYERS = 100;
+
+  /** Number of seconds without a request after which a game is parked. */
+  public static final long DEFAULT_IDLE_SECONDS = 300;
+
+  /** Number of shards the games are spread over, a power of two. */
+  static final int NUM_SHARDS = 64;
+
+  /**
+   * Command-line interface for the server. Listens on the loopback
+   * interface only.
+   *
+   * Usage: GameServer [port] [seed] [journal|-] [leaderboard]
+   */
+  public static void main(String[] args) throws IOException {
+    int port = DEFAULT_PORT;
+    long seed = 100;
+    GameJournal journal = null;
+    try {
+      if (args.length > 0) {
+        port = Integer.parseInt(args[0]);
+      }
+      if (args.length > 1) {
+        seed = Long.parseLong(args[1]);
+      }
+    } catch (NumberFormatException e) {
+      System.out.println("Port and seed must be integers");
+      System.exit(1);
+    }
+    if (args.length > 2 && !args[2].equals("-")) {
+      journal = GameJournal.open(Paths.get(args[2]));
+      WheelOfFortune.closeOnExit(journal);
+    }
+    Leaderboard leaderboard = null;
+    if (args.length > 3) {
+      leaderboard = Leaderboard.load(Paths.get(args[3]));
+      leaderboard.startRefresh(Paths.get(args[3]),
+          WheelOfFortune.LEADERBOARD_SAVE_SECONDS);
+    }
+    WheelSpace[] wheelSpaces = WheelAssetLoader.loadResourceValues(
+        WheelOfFortuneFrame.IMAGES_PATH, WheelOfFortuneFrame.NUM_WHEEL_SPACES);
+    GameServer server = new GameServer(wheelSpaces, seed, journal);
+    server.setLeaderboard(leaderboard);
+    server.startParking(DEFAULT_IDLE_SECONDS);
+    try (ServerSocket serverSocket = new ServerSocket(port, 1024,
+        InetAddress.getLoopbackAddress())) {
+      System.out.println("Serving games on " + serverSocket.getLocalSocketAddress());
+      server.serve(serverSocket);
+    }
+  }
+
+  /**
+   * Creates a server without games.
+   *
+   * @param wheelSpaces the spaces of the wheel used by every game
+   * @param seed the seed from which every game's generator is derived
+   */
+  public GameServer(WheelSpace[] wheelSpaces, long seed) {
+    this(wheelSpaces, seed, null);
+  }
+
+  /**
+   * Creates a server without games that records every game in a journal.
+   *
+   * @param wheelSpaces the spaces of the wheel used by every game
+   * @param seed the seed from which every game's generator is derived
+   * @param journal the journal to record the games in, or null
+   */
+  public GameServer(WheelSpace[] wheelSpaces, long seed, GameJournal journal) {
+    this.wheelSpaces = wheelSpaces;
+    sampler = WheelSampler.of(wheelSpaces);
+    this.seed = seed;
+    this.journal = journal;
+    shards = new Shard[NUM_SHARDS];
+    for (int i = 0; i < NUM_SHARDS; ++i) {
+      shards[i] = new Shard();
+    }
+    nextGameId = new AtomicLong(1);
+  }
+
+  /**
+   * Accepts connections until the server socket is closed.
+   *
+   * @param serverSocket the socket to accept connections on
+   */
+  public void serve(ServerSocket serverSocket) {
+    ExecutorService connections = newConnectionExecutor();
+    try {
+      while (!serverSocket.isClosed()) {
+        Socket socket = serverSocket.accept();
+        connections.execute(new Runnable() {
+          @Override
+          public void run() {
+            serveConnection(socket);
+          }
+        });
+      }
+    } catch (IOException e) {
+      if (!serverSocket.isClosed()) {
+        System.out.println("Stopped accepting connections: " + e.getMessage());
+      }
+    } finally {
+      connections.shutdown();
+    }
+  }
+
+  /**
+   * Runs one request line against the games. Every failure is answered
+   * with ERR, so a request never ends its connection.
+   *
+   * @param line the request
+   * @return the response, without a line terminator
+   */
+  public String handle(String line) {
+    String[] parts = line.trim().split(" ", 3);
+    try {
+      switch (parts[0]) {
+        case "NEW":
+          return newGame(Integer.parseInt(parts[1]), parts[2]);
+        case "SPIN":
+          return spin(findGame(parts[1]));
+        case "CONSONANT":
+          return guessLetter(findGame(parts[1]), parts[2], false);
+        case "VOWEL":
+          return guessLetter(findGame(parts[1]), parts[2], true);
+        case "SOLVE":
+          return solve(findGame(parts[1]), parts.length > 2 ? parts[2] : "");
+        case "STATE":
+          return state(findGame(parts[1]));
+        case "BOT":
+          return playBot(findGame(parts[1]));
+        case "JOIN":
+          return join(findGame(parts[1]), parts.length > 2 ? parts[2] : null);
+        case "LEAVE":
+          return leave(findGame(parts[1]), Integer.parseInt(parts[2]));
+        case "TOP":
+          return top(findGame(parts[1]), Integer.parseInt(parts[2]));
+        case "LEADERS":
+          return leaders(Integer.parseInt(parts[1]));
+        case "RANK":
+          return rank(parts.length > 2 ? parts[1] + " " + parts[2] : parts[1]);
+        case "END":
+          return end(findGame(parts[1]));
+        default:
+          return "ERR Unknown command " + parts[0];
+      }
+    } catch (ArrayIndexOutOfBoundsException e) {
+      return "ERR Missing argument";
+    } catch (NumberFormatException e) {
+      return "ERR Invalid number";
+    } catch (IllegalStateException | IllegalArgumentException e) {
+      return "ERR " + e.getMessage();
+    } catch (RuntimeException e) {
+      // Such as a listener or bot failing, the connection stays open
+      return "ERR " + (e.getMessage() != null ? e.getMessage()
+          : e.getClass().getSimpleName());
+    }
+  }
+
+  /**
+   * Sets the leaderboard every new game posts its result to.
+   *
+   * @param leaderboard the leaderboard, or null for none
+   */
+  public void setLeaderboard(Leaderboard leaderboard) {
+    this.leaderboard = leaderboard;
+  }
+
+  /**
+   * Sets the bot that plays the moves requested with BOT.
+   *
+   * @param bot the bot
+   */
+  public void setBot(Bot bot) {
+    this.bot = bot;
+  }
+
+  /**
+   * Function to get the number of games being played.
+   *
+   * @return the number of games
+   */
+  public int getNumGames() {
+    int total = 0;
+    for (Shard shard : shards) {
+      synchronized (shard) {
+        total += shard.games.size();
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Creates an executor that starts a virtual thread per task if the JVM
+   * supports them, else a platform thread per task. Java 17, which the
+   * build targets, always gets platform threads.
+   *
+   * @return the executor
+   */
+  static ExecutorService newConnectionExecutor() {
+    try {
+      return (ExecutorService) Executors.class
+          .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException e) {
+      return Executors.newCachedThreadPool();
+    }
+  }
+
+  /**
+   * Helper function to answer the requests of one connection until it
+   * sends QUIT or closes.
+   *
+   * @param socket the connection
+   */
+  private void serveConnection(Socket socket) {
+    try (Socket connection = socket;
+         BufferedReader in = new BufferedReader(new InputStreamReader(
+             connection.getInputStream(), StandardCharsets.UTF_8));
+         BufferedWriter out = new BufferedWriter(new OutputStreamWriter(
+             connection.getOutputStream(), StandardCharsets.UTF_8))) {
+      connection.setTcpNoDelay(true);
+      String line;
+      while ((line = in.readLine()) != null && !line.equals("QUIT")) {
+        out.write(handle(line));
+        out.write('\n');
+        out.flush();
+      }
+    } catch (IOException e) {
+      // The client went away, its games stay until they are ended
+    }
+  }
+
+  /**
+   * Helper function to start a game and register it in its shard.
+   *
+   * @param numPlayers the number of players
+   * @param puzzle the puzzle to be solved
+   * @return the response
+   */
+  private String newGame(int numPlayers, String puzzle) {
+    if (numPlayers < 1 || numPlayers > MAX_PLAYERS) {
+      throw new IllegalArgumentException(
+          "Number of players must be between 1 and " + MAX_PLAYERS);
+    }
+    String[] players = new String[numPlayers];
+    for (int i = 0; i < numPlayers; ++i) {
+      players[i] = "Player " + (i + 1);
+    }
+    // Journaled games take their ids from the journal, so they stay unique
+    // across restarts
+    long id = journal != null ? journal.nextGameId()
+        : nextGameId.getAndIncrement();
+    // Spread the ids so neighbouring games get unrelated streams
+    long gameSeed = seed ^ (id * 0x9E3779B97F4A7C15L);
+    GameEngine engine = new GameEngine(wheelSpaces, sampler,
+        new GameRandom(gameSeed));
+    if (journal != null) {
+      engine.addListener(journal.recorder((int) id, gameSeed));
+    }
+    Leaderboard leaderboard = this.leaderboard;
+    if (leaderboard != null) {
+      engine.addListener(leaderboard.recorder());
+    }
+    engine.newGame(players, puzzle);
+    ServerGame game = new ServerGame(id, engine);
+    Shard shard = shardOf(id);
+    synchronized (shard) {
+      shard.games.put(id, game);
+    }
+    return "GAME " + id;
+  }
+
+  /**
+   * Helper function to spin the wheel of a game.
+   *
+   * @param game the game
+   * @return the response
+   */
+  String spin(ServerGame game) {
+    synchronized (game) {
+      GameEngine engine = engineOf(game);
+      if (game.awaitingConsonant) {
+        throw new IllegalStateException("Guess a consonant first");
+      }
+      if (!engine.canSpin()) {
+        throw new IllegalStateException("All consonants have been guessed");
+      }
+      int index = engine.spin();
+      WheelSpace space = engine.getCurrentSpace();
+      String value;
+      if (space.isBankrupt()) {
+        value = "BANKRUPT";
+      } else if (space.isLoseATurn()) {
+        value = "LOSE_A_TURN";
+      } else {
+        value = Integer.toString(space.getDollarValue());
+        game.awaitingConsonant = true;
+      }
+      return "SPACE " + index + " " + value + " " + engine.getCurrentPlayer();
+    }
+  }
+
+  /**
+   * Helper function to guess a consonant or buy a vowel in a game.
+   *
+   * @param game the game
+   * @param letterText the letter
+   * @param vowel true to buy a vowel, false to guess a consonant
+   * @return the response
+   */
+  private String guessLetter(ServerGame game, String letterText, boolean vowel) {
+    if (letterText.length() != 1 || !GameEngine.isAlphabet(
+        Character.toUpperCase(letterText.charAt(0)))) {
+      throw new IllegalArgumentException("Not a letter: " + letterText);
+    }
+    char letter = Character.toUpperCase(letterText.charAt(0));
+    if (GameEngine.isVowel(letter) != vowel) {
+      throw new IllegalArgumentException(letter + " is not a "
+          + (vowel ? "vowel" : "consonant"));
+    }
+    synchronized (game) {
+      GameEngine engine = engineOf(game);
+      if (game.awaitingConsonant == vowel) {
+        throw new IllegalStateException(vowel ? "Guess a consonant first"
+            : "Spin the wheel first");
+      }
+      if (vowel && !engine.canBuyVowel()) {
+        throw new IllegalStateException("Cannot buy a vowel");
+      }
+      if (!engine.isLetterAvailable(letter)) {
+        throw new IllegalStateException(letter + " was already guessed");
+      }
+      int player = engine.getCurrentPlayer();
+      if (vowel) {
+        engine.buyVowel(letter);
+      } else {
+        engine.guessConsonant(letter);
+        game.awaitingConsonant = false;
+      }
+      return "LETTER " + engine.getPuzzleIndex().getOccurrences(letter) + " "
+          + engine.getPlayerCash(player) + " " + engine.getCurrentPlayer();
+    }
+  }
+
+  /**
+   * Helper function to attempt to solve the puzzle of a game. A solved
+   * game is removed.
+   *
+   * @param game the game
+   * @param guess the guessed puzzle
+   * @return the response
+   */
+  private String solve(ServerGame game, String guess) {
+    synchronized (game) {
+      GameEngine engine = engineOf(game);
+      if (game.awaitingConsonant) {
+        throw new IllegalStateException("Guess a consonant first");
+      }
+      int player = engine.getCurrentPlayer();
+      if (engine.solve(guess)) {
+        removeGame(game);
+        return "WIN " + player + " " + engine.getPlayerCash(player);
+      }
+      return "WRONG " + engine.getCurrentPlayer();
+    }
+  }
+
+  /**
+   * Helper function to let the bot play one move of a game. After a spin
+   * by someone else the bot only picks the consonant.
+   *
+   * @param game the game
+   * @return the response
+   */
+  private String playBot(ServerGame game) {
+    synchronized (game) {
+      GameEngine engine = engineOf(game);
+      int player = engine.getCurrentPlayer();
+      if (game.awaitingConsonant) {
+        engine.guessConsonant(bot.chooseConsonant(engine));
+        game.awaitingConsonant = false;
+      } else {
+        bot.playMove(engine);
+      }
+      if (engine.isGameOver()) {
+        removeGame(game);
+        return "WIN " + player + " " + engine.getPlayerCash(player);
+      }
+      return state(game);
+    }
+  }
+
+  /**
+   * Helper function to seat a new player in a game, who plays last in
+   * every round.
+   *
+   * @param game the game
+   * @param name the name of the player, or null to number the seat
+   * @return the response
+   */
+  private String join(ServerGame game, String name) {
+    synchronized (game) {
+      GameEngine engine = engineOf(game);
+      if (engine.getNumPlayers() >= MAX_PLAYERS) {
+        throw new IllegalStateException("The game already has "
+            + MAX_PLAYERS + " seats");
+      }
+      int seat = engine.addPlayer(name != null ? name
+          : "Player " + (engine.getNumPlayers() + 1));
+      return "SEAT " + seat + " " + engine.getCurrentPlayer();
+    }
+  }
+
+  /**
+   * Helper function to eliminate a player of a game between moves.
+   *
+   * @param game the game
+   * @param seat the zero based player index
+   * @return the response
+   */
+  private String leave(ServerGame game, int seat) {
+    synchronized (game) {
+      GameEngine engine = engineOf(game);
+      if (game.awaitingConsonant) {
+        throw new IllegalStateException("Guess a consonant first");
+      }
+      if (!engine.isPlayerActive(seat)) {
+        throw new IllegalArgumentException("No active player " + seat);
+      }
+      engine.removePlayer(seat);
+      return "LEFT " + engine.getCurrentPlayer();
+    }
+  }
+
+  /**
+   * Helper function to list the leading players of a game from its live
+   * leaderboard.
+   *
+   * @param game the game
+   * @param count the number of players wanted, at most
+   *              PlayerTable.DEFAULT_TOP_K
+   * @return the response
+   */
+  private String top(ServerGame game, int count) {
+    if (count < 1) {
+      throw new IllegalArgumentException("Count must be at least 1");
+    }
+    synchronized (game) {
+      GameEngine engine = engineOf(game);
+      int[] leaders = new int[Math.min(count, PlayerTable.DEFAULT_TOP_K)];
+      int found = engine.getStandings(leaders);
+      StringBuilder builder = new StringBuilder("TOP ");
+      for (int i = 0; i < found; ++i) {
+        if (i > 0) {
+          builder.append(',');
+        }
+        builder.append(leaders[i]).append(':')
+            .append(engine.getPlayerCash(leaders[i]));
+      }
+      return builder.toString();
+    }
+  }
+
+  /**
+   * Helper function to list the leading players over all games.
+   *
+   * @param count the number of players wanted
+   * @return the response
+   */
+  private String leaders(int count) {
+    Leaderboard.Standing[] top = requireLeaderboard().getTop(count);
+    StringBuilder builder = new StringBuilder("LEADERS ");
+    for (int i = 0; i < top.length; ++i) {
+      if (i > 0) {
+        builder.append(',');
+      }
+      builder.append(top[i].getName().replace(' ', '_')).append(':')
+          .append(top[i].getWinnings());
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Helper function to look up a player over all games.
+   *
+   * @param name the name of the player
+   * @return the response
+   */
+  private String rank(String name) {
+    Leaderboard leaderboard = requireLeaderboard();
+    Leaderboard.Standing standing = leaderboard.getStanding(name);
+    if (standing == null) {
+      return "UNRANKED";
+    }
+    return "RANK " + leaderboard.getRank(name) + " " + standing.getWinnings()
+        + " " + standing.getGames() + " " + standing.getSolves();
+  }
+
+  /**
+   * Helper function to get the leaderboard for a query.
+   *
+   * @return the leaderboard
+   */
+  private Leaderboard requireLeaderboard() {
+    Leaderboard leaderboard = this.leaderboard;
+    if (leaderboard == null) {
+      throw new IllegalStateException("The server keeps no leaderboard");
+    }
+    return leaderboard;
+  }
+
+  /**
+   * Helper function to end a game before it was solved.
+   *
+   * @param game the game
+   * @return the response
+   */
+  private String end(ServerGame game) {
+    synchronized (game) {
+      if (game.over) {
+        throw new IllegalStateException("Game " + game.id + " is over");
+      }
+      removeGame(game);
+      return "ENDED";
+    }
+  }
+
+  /**
+   * Helper function to describe the state of a game.
+   *
+   * @param game the game
+   * @return the response
+   */
+  private String state(ServerGame game) {
+    synchronized (game) {
+      GameEngine engine = engineOf(game);
+      StringBuilder builder = new StringBuilder("STATE ");
+      builder.append(engine.getCurrentPlayer()).append(' ')
+          .append(engine.getPuzzleIndex().getNumHidden()).append(' ');
+      for (int i = 0; i < engine.getNumPlayers(); ++i) {
+        if (i > 0) {
+          builder.append(',');
+        }
+        builder.append(engine.getPlayerCash(i));
+      }
+      return builder.append(' ').append(engine.getHiddenPuzzle()).toString();
+    }
+  }
+
+  /**
+   * Parks every game that had no request for a while: its engine is
+   * replaced by a snapshot until the next request resumes it.
+   *
+   * @param idleNanos the number of nanoseconds a game must have been idle
+   * @return the number of games parked
+   */
+  public int parkIdleGames(long idleNanos) {
+    long now = System.nanoTime();
+    int parked = 0;
+    for (Shard shard : shards) {
+      ServerGame[] games;
+      synchronized (shard) {
+        games = shard.games.values().toArray(new ServerGame[0]);
+      }
+      for (ServerGame game : games) {
+        synchronized (game) {
+          if (game.engine != null && now - game.lastUsed >= idleNanos) {
+            game.snapshot = GameSnapshot.save(game.engine);
+            game.engine = null;
+            parked++;
+          }
+        }
+      }
+    }
+    return parked;
+  }
+
+  /**
+   * Parks idle games in the background.
+   *
+   * @param idleSeconds the number of seconds a game must have been idle,
+   *                    which is also the time between checks
+   */
+  public synchronized void startParking(long idleSeconds) {
+    if (parking != null) {
+      parking.shutdown();
+    }
+    long idleNanos = TimeUnit.SECONDS.toNanos(idleSeconds);
+    parking = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "game-parking");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    parking.scheduleWithFixedDelay(new Runnable() {
+      @Override
+      public void run() {
+        parkIdleGames(idleNanos);
+      }
+    }, idleSeconds, idleSeconds, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Helper function to get the engine of a game, resuming it if it was
+   * parked. The caller must hold the lock of the game. A game found before
+   * another request solved or ended it is over by the time its lock is
+   * taken, and no action may run on it.
+   *
+   * @param game the game
+   * @return the engine
+   * @throws IllegalStateException if the game is over
+   */
+  private GameEngine engineOf(ServerGame game) {
+    if (game.over || (game.engine != null && game.engine.isGameOver())) {
+      throw new IllegalStateException("Game " + game.id + " is over");
+    }
+    if (game.engine == null) {
+      GameEngine engine = GameSnapshot.restore(game.snapshot, wheelSpaces,
+          sampler);
+      if (journal != null) {
+        engine.addListener(journal.recorder((int) game.id));
+      }
+      Leaderboard leaderboard = this.leaderboard;
+      if (leaderboard != null) {
+        engine.addListener(leaderboard.recorder());
+      }
+      game.engine = engine;
+      game.snapshot = null;
+    }
+    return game.engine;
+  }
+
+  /**
+   * Helper function to look up a game by its id.
+   *
+   * @param idText the id of the game
+   * @return the game
+   */
+  ServerGame findGame(String idText) {
+    long id = Long.parseLong(idText);
+    Shard shard = shardOf(id);
+    ServerGame game;
+    synchronized (shard) {
+      game = shard.games.get(id);
+    }
+    if (game == null) {
+      throw new IllegalArgumentException("No game " + id);
+    }
+    game.lastUsed = System.nanoTime();
+    return game;
+  }
+
+  /**
+   * Helper function to remove a game from its shard. The caller must hold
+   * the lock of the game.
+   *
+   * @param game the game
+   */
+  private void removeGame(ServerGame game) {
+    game.over = true;
+    Shard shard = shardOf(game.id);
+    synchronized (shard) {
+      shard.games.remove(game.id);
+    }
+  }
+
+  /**
+   * Helper function to find the shard holding a game.
+   *
+   * @param id the id of the game
+   * @return the shard
+   */
+  private Shard shardOf(long id) {
+    return shards[(int) (id & (NUM_SHARDS - 1))];
+  }
+
+  /**
+   * A game hosted by the server. Actions lock the game itself and reach
+   * the engine through engineOf, since a parked game only has a snapshot.
+   */
+  static class ServerGame {
+    ServerGame(long id, GameEngine engine) {
+      this.id = id;
+      this.engine = engine;
+      lastUsed = System.nanoTime();
+    }
+
+    final long id;
+    /** Engine of the game, or null while the game is parked. */
+    GameEngine engine;
+    /** Snapshot of the game while it is parked. */
+    byte[] snapshot;
+    /** Time of the last request, in System.nanoTime. */
+    volatile long lastUsed;
+    /** True after a spin landed on a dollar value. */
+    boolean awaitingConsonant;
+    /** True once the game was solved or ended and left its shard. */
+    boolean over;
+  }
+
+  /**
+   * A part of the game table with its own lock.
+   */
+  private static class Shard {
+    final HashMap<Long, ServerGame> games = new HashMap<>();
+  }
+
+  private final WheelSpace[] wheelSpaces;
+  private final WheelSampler sampler;
+  private final long seed;
+  private final GameJournal journal;
+  private final Shard[] shards;
+  private final AtomicLong nextGameId;
+  private volatile Bot bot = new FrequencyBot();
+  private volatile Leaderboard leaderboard;
+  private ScheduledExecutorService parking;
+}
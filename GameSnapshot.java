@@ -0,0 +1,208 @@
+/**
+ * This Java file defines the GameSnapshot class which saves a game in
+ * progress to a compact binary form and resumes it.
+ */
+
+package eecs285.proj3.kshilen;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Binary snapshot of a game in progress. Resuming sets the state of a new
+ * engine directly instead of replaying the game, so it costs about as
+ * much as starting a game on the same puzzle. The game must use a
+ * GameRandom, whose state is saved so the resumed game spins exactly as
+ * the original would have.
+ *
+ * A snapshot holds the magic number and the version (short), the flags
+ * (short), the guessed letters as a 26-bit mask, the 48-bit state of the
+ * generator (long), the number of wheel spaces, the index of the last
+ * spin, the number of seats and the current player. Every seat follows as
+ * its cash, whether it is active (byte) and its UTF-8 name with a short
+ * length, and then the UTF-8 puzzle with an int length. The hidden puzzle
+ * and the letter counts are derived from the mask, not saved.
+ */
+public class GameSnapshot {
+  /** Magic number at the start of a snapshot, "WOFS". */
+  public static final int MAGIC = 0x574F4653;
+
+  /** Version of the snapshot format written by this class. */
+  public static final short VERSION = 1;
+
+  /** Flag set when the puzzle of the saved game was solved. */
+  static final short GAME_OVER = 1;
+
+  private GameSnapshot() {
+  }
+
+  /**
+   * Function to save a game to a new array.
+   *
+   * @param engine the engine holding the game, which uses a GameRandom
+   * @return the snapshot
+   */
+  public static byte[] save(GameEngine engine) {
+    ByteBuffer buffer = ByteBuffer.allocate(estimateSize(engine));
+    while (true) {
+      try {
+        write(engine, buffer);
+        return Arrays.copyOf(buffer.array(), buffer.position());
+      } catch (BufferOverflowException e) {
+        // Names with many multi-byte chars, grow and try again
+        buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+      }
+    }
+  }
+
+  /**
+   * Writes a snapshot of a game at the position of a buffer.
+   *
+   * @param engine the engine holding the game, which uses a GameRandom
+   * @param buffer the buffer
+   * @throws BufferOverflowException if the buffer is too small
+   */
+  public static void write(GameEngine engine, ByteBuffer buffer) {
+    if (!(engine.getGenerator() instanceof GameRandom)) {
+      throw new IllegalStateException(
+          "Only games spun with a GameRandom can be saved");
+    }
+    int numSeats = engine.getNumPlayers();
+    buffer.putInt(MAGIC);
+    buffer.putShort(VERSION);
+    buffer.putShort(engine.isGameOver() ? GAME_OVER : 0);
+    buffer.putInt(engine.getGuessedLetters());
+    buffer.putLong(((GameRandom) engine.getGenerator()).getState());
+    buffer.putInt(engine.getWheelSpaces().length);
+    buffer.putInt(engine.getCurrentSpaceIndex());
+    buffer.putInt(numSeats);
+    buffer.putInt(engine.getCurrentPlayer());
+    for (int i = 0; i < numSeats; ++i) {
+      buffer.putInt(engine.getPlayerCash(i));
+      buffer.put((byte) (engine.isPlayerActive(i) ? 1 : 0));
+      byte[] name = engine.getPlayerName(i).getBytes(StandardCharsets.UTF_8);
+      if (name.length > 0xFFFF) {
+        throw new IllegalStateException("Name of player " + i + " is too long");
+      }
+      buffer.putShort((short) name.length);
+      buffer.put(name);
+    }
+    byte[] puzzle = engine.getPuzzle().getBytes(StandardCharsets.UTF_8);
+    buffer.putInt(puzzle.length);
+    buffer.put(puzzle);
+  }
+
+  /**
+   * Function to resume a saved game on a new engine, without listeners.
+   *
+   * @param snapshot the snapshot
+   * @param wheelSpaces the spaces of the wheel the game was played on
+   * @param sampler the sampler of the wheel's weights
+   * @return the engine holding the game
+   * @throws IllegalArgumentException if the snapshot is invalid or was
+   *                                  saved on another wheel
+   */
+  public static GameEngine restore(byte[] snapshot, WheelSpace[] wheelSpaces,
+                                   WheelSampler sampler) {
+    return restore(ByteBuffer.wrap(snapshot), wheelSpaces, sampler);
+  }
+
+  /**
+   * Function to resume a saved game read from the position of a buffer.
+   *
+   * @param buffer the buffer
+   * @param wheelSpaces the spaces of the wheel the game was played on
+   * @param sampler the sampler of the wheel's weights
+   * @return the engine holding the game
+   * @throws IllegalArgumentException if the snapshot is invalid or was
+   *                                  saved on another wheel
+   */
+  public static GameEngine restore(ByteBuffer buffer, WheelSpace[] wheelSpaces,
+                                   WheelSampler sampler) {
+    try {
+      if (buffer.getInt() != MAGIC) {
+        throw new IllegalArgumentException("Not a game snapshot");
+      }
+      short version = buffer.getShort();
+      if (version != VERSION) {
+        throw new IllegalArgumentException("Snapshot has version " + version
+            + ", expected " + VERSION);
+      }
+      short flags = buffer.getShort();
+      int guessedLetters = buffer.getInt();
+      long state = buffer.getLong();
+      int numSpaces = buffer.getInt();
+      if (numSpaces != wheelSpaces.length) {
+        throw new IllegalArgumentException("Snapshot was saved on a wheel of "
+            + numSpaces + " spaces, not " + wheelSpaces.length);
+      }
+      int spaceIndex = buffer.getInt();
+      int numSeats = buffer.getInt();
+      int player = buffer.getInt();
+      if (guessedLetters >>> GameEngine.NUM_LETTERS != 0
+          || spaceIndex < 0 || spaceIndex >= numSpaces
+          || numSeats < 1 || numSeats > buffer.remaining()
+          || player < 0 || player >= numSeats) {
+        throw new IllegalArgumentException("Snapshot is corrupt");
+      }
+      String[] names = new String[numSeats];
+      int[] cash = new int[numSeats];
+      boolean[] active = new boolean[numSeats];
+      for (int i = 0; i < numSeats; ++i) {
+        cash[i] = buffer.getInt();
+        active[i] = buffer.get() != 0;
+        names[i] = getString(buffer, buffer.getShort() & 0xFFFF);
+      }
+      String puzzle = getString(buffer, buffer.getInt());
+
+      GameRandom generator = new GameRandom(0);
+      generator.setState(state);
+      GameEngine engine = new GameEngine(wheelSpaces, sampler, generator);
+      engine.restore(names, cash, active, player, puzzle, guessedLetters,
+          spaceIndex, (flags & GAME_OVER) != 0);
+      return engine;
+    } catch (BufferUnderflowException e) {
+      throw new IllegalArgumentException("Snapshot is truncated");
+    }
+  }
+
+  /**
+   * Helper function to guess the size of a snapshot, exact unless names
+   * or the puzzle have multi-byte chars.
+   *
+   * @param engine the engine holding the game
+   * @return the number of bytes
+   */
+  private static int estimateSize(GameEngine engine) {
+    int size = HEADER_SIZE + 4 + engine.getPuzzle().length();
+    for (int i = 0; i < engine.getNumPlayers(); ++i) {
+      size += SEAT_SIZE + engine.getPlayerName(i).length();
+    }
+    return size;
+  }
+
+  /**
+   * Helper function to read a UTF-8 string.
+   *
+   * @param buffer the buffer, positioned at the string
+   * @param length the number of bytes
+   * @return the string
+   */
+  private static String getString(ByteBuffer buffer, int length) {
+    if (length < 0 || length > buffer.remaining()) {
+      throw new BufferUnderflowException();
+    }
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /** Bytes before the first seat. */
+  private static final int HEADER_SIZE = 36;
+
+  /** Bytes of a seat besides its name. */
+  private static final int SEAT_SIZE = 7;
+}
@@ -0,0 +1,154 @@
+/**
+ * This Java file defines the LatencyHistogram class which counts latencies
+ * in logarithmic buckets.
+ */
+
+package eecs285.proj3.kshilen;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe histogram of latencies in nanoseconds. Every power of two is
+ * split into SUB_BUCKETS buckets, so a percentile is accurate to about 6%
+ * over the whole range of a long. Recording is a single atomic increment
+ * and never allocates.
+ */
+public class LatencyHistogram {
+  /** Number of bits of each value kept below its highest bit. */
+  private static final int SUB_BITS = 4;
+
+  /** Number of buckets per power of two. */
+  private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+  /**
+   * Creates an empty histogram.
+   */
+  public LatencyHistogram() {
+    counts = new AtomicLongArray(64 * SUB_BUCKETS);
+  }
+
+  /**
+   * Counts one latency.
+   *
+   * @param nanos the latency in nanoseconds
+   */
+  public void record(long nanos) {
+    counts.incrementAndGet(bucket(Math.max(0, nanos)));
+  }
+
+  /**
+   * Adds the counts of another histogram to this one.
+   *
+   * @param other the histogram to add
+   */
+  public void add(LatencyHistogram other) {
+    for (int i = 0; i < counts.length(); ++i) {
+      long count = other.counts.get(i);
+      if (count != 0) {
+        counts.addAndGet(i, count);
+      }
+    }
+  }
+
+  /**
+   * Removes all counts.
+   */
+  public void reset() {
+    for (int i = 0; i < counts.length(); ++i) {
+      counts.set(i, 0);
+    }
+  }
+
+  /**
+   * Function to get the number of recorded latencies.
+   *
+   * @return the count
+   */
+  public long getCount() {
+    long total = 0;
+    for (int i = 0; i < counts.length(); ++i) {
+      total += counts.get(i);
+    }
+    return total;
+  }
+
+  /**
+   * Function to get a percentile of the recorded latencies.
+   *
+   * @param percentile the percentile between 0 and 100
+   * @return the upper bound of the bucket holding the percentile in
+   *         nanoseconds, or 0 if nothing was recorded
+   */
+  public long getPercentile(double percentile) {
+    long total = getCount();
+    if (total == 0) {
+      return 0;
+    }
+    long target = Math.max(1, (long) Math.ceil(total * percentile / 100));
+    long seen = 0;
+    for (int i = 0; i < counts.length(); ++i) {
+      seen += counts.get(i);
+      if (seen >= target) {
+        return upperBound(i);
+      }
+    }
+    return Long.MAX_VALUE;
+  }
+
+  /**
+   * Function to get the largest recorded latency, to bucket precision.
+   *
+   * @return the upper bound of the highest non-empty bucket in nanoseconds
+   */
+  public long getMax() {
+    for (int i = counts.length() - 1; i >= 0; --i) {
+      if (counts.get(i) != 0) {
+        return upperBound(i);
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Function to summarize the histogram in one line of text.
+   *
+   * @return the count and the p50, p90, p99 and max latencies
+   */
+  public String summary() {
+    return String.format("count=%d p50=%.1fus p90=%.1fus p99=%.1fus max=%.1fus",
+        getCount(), getPercentile(50) / 1e3, getPercentile(90) / 1e3,
+        getPercentile(99) / 1e3, getMax() / 1e3);
+  }
+
+  /**
+   * Helper function to find the bucket of a value.
+   *
+   * @param value a non-negative value
+   * @return the bucket index
+   */
+  private static int bucket(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int highBit = 63 - Long.numberOfLeadingZeros(value);
+    int sub = (int) (value >>> (highBit - SUB_BITS)) & (SUB_BUCKETS - 1);
+    return (highBit - SUB_BITS + 1) * SUB_BUCKETS + sub;
+  }
+
+  /**
+   * Helper function to find the largest value of a bucket.
+   *
+   * @param bucket the bucket index
+   * @return the upper bound
+   */
+  private static long upperBound(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int shift = bucket / SUB_BUCKETS - 1;
+    long low = ((long) (SUB_BUCKETS + bucket % SUB_BUCKETS)) << shift;
+    return low + (1L << shift) - 1;
+  }
+
+  private final AtomicLongArray counts;
+}
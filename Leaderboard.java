@@ -0,0 +1,588 @@
+/**
+ * This Java file defines the Leaderboard class which collects the results
+ * of every game by player name and keeps them across restarts.
+ */
+
+package eecs285.proj3.kshilen;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Winnings, games played and puzzles solved of every player, by name,
+ * over all games. Results are posted without locks: the players are held
+ * in a ConcurrentHashMap and every counter of a player is updated with an
+ * atomic add, so games on many threads only contend when they post for
+ * the same player at the same moment.
+ *
+ * Ranked queries read a snapshot sorted by winnings, best first, that
+ * refresh() rebuilds off the hot path. Looking up a rank is a hash lookup
+ * and a binary search of the snapshot, so it stays well under a
+ * millisecond with millions of players. Results posted after the last
+ * refresh are in the counters but not yet in the ranking.
+ *
+ * The file starts with the magic number, the version and the number of
+ * players. Every player follows as the length of the UTF-8 name (short),
+ * the name, the winnings (long), the games played and the puzzles solved.
+ * The CRC32 of everything before it ends the file. Saving writes a
+ * temporary file and renames it, so a crash never leaves half a file.
+ */
+public class Leaderboard {
+  /** Magic number at the start of a leaderboard file, "WOFL". */
+  public static final int MAGIC = 0x574F464C;
+
+  /** Version of the file format written by this class. */
+  public static final int VERSION = 1;
+
+  /**
+   * Creates an empty leaderboard.
+   */
+  public Leaderboard() {
+    this(16);
+  }
+
+  /**
+   * Creates an empty leaderboard sized for a number of players.
+   *
+   * @param expectedPlayers the number of players expected
+   */
+  private Leaderboard(int expectedPlayers) {
+    entries = new ConcurrentHashMap<>(expectedPlayers);
+    updates = new LongAdder();
+    ranking = new Ranking(0);
+  }
+
+  /**
+   * Command-line interface printing the leading players of a leaderboard
+   * file.
+   *
+   * Usage: Leaderboard file [count]
+   */
+  public static void main(String[] args) {
+    if (args.length < 1) {
+      System.out.println("Usage: Leaderboard file [count]");
+      System.exit(1);
+    }
+    int count = 10;
+    if (args.length > 1) {
+      try {
+        count = Integer.parseInt(args[1]);
+      } catch (NumberFormatException e) {
+        System.out.println("Count must be an integer");
+        System.exit(1);
+      }
+    }
+    long start = System.nanoTime();
+    Leaderboard leaderboard = null;
+    try {
+      leaderboard = load(Path.of(args[0]));
+    } catch (IOException e) {
+      System.out.println("Cannot read leaderboard: " + e.getMessage());
+      System.exit(1);
+    }
+    System.out.printf("%d players loaded and ranked in %.1f ms%n",
+        leaderboard.size(), (System.nanoTime() - start) / 1e6);
+    Standing[] top = leaderboard.getTop(count);
+    for (int i = 0; i < top.length; ++i) {
+      System.out.printf("%d. %s $%d, %d games, %.0f%% solved%n", i + 1,
+          top[i].getName(), top[i].getWinnings(), top[i].getGames(),
+          100 * top[i].getSolveRate());
+    }
+  }
+
+  /**
+   * Function to read a leaderboard file and rank its players. A missing
+   * file gives an empty leaderboard.
+   *
+   * @param file the file
+   * @return the leaderboard
+   * @throws IOException if the file cannot be read or is corrupt
+   */
+  public static Leaderboard load(Path file) throws IOException {
+    byte[] bytes;
+    try {
+      bytes = Files.readAllBytes(file);
+    } catch (NoSuchFileException e) {
+      return new Leaderboard();
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    if (bytes.length < HEADER_SIZE + 4 || buffer.getInt(0) != MAGIC) {
+      throw new IOException(file + " is not a leaderboard");
+    }
+    if (buffer.getInt(4) != VERSION) {
+      throw new IOException(file + " has version " + buffer.getInt(4)
+          + ", expected " + VERSION);
+    }
+    CRC32 crc = new CRC32();
+    crc.update(bytes, 0, bytes.length - 4);
+    if ((int) crc.getValue() != buffer.getInt(bytes.length - 4)) {
+      throw new IOException(file + " is corrupt");
+    }
+    int count = buffer.getInt(8);
+    if (count < 0
+        || count > (bytes.length - HEADER_SIZE - 4) / MIN_ENTRY_SIZE) {
+      throw new IOException(file + " has " + count + " players, which"
+          + " cannot fit in it");
+    }
+    Leaderboard leaderboard = new Leaderboard(count);
+    Ranking ranking = new Ranking(count);
+    buffer.position(HEADER_SIZE);
+    buffer.limit(bytes.length - 4);
+    try {
+      for (int i = 0; i < count; ++i) {
+        int length = buffer.getShort() & 0xFFFF;
+        String name = new String(bytes, buffer.position(), length,
+            StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        long winnings = buffer.getLong();
+        int games = buffer.getInt();
+        int solves = buffer.getInt();
+        Entry entry = new Entry(name);
+        entry.winnings = winnings;
+        entry.games = games;
+        entry.solves = solves;
+        if (leaderboard.entries.putIfAbsent(name, entry) != null) {
+          throw new IOException(file + " has " + name + " twice");
+        }
+        ranking.set(i, name, winnings, games, solves);
+      }
+    } catch (RuntimeException e) {
+      throw new IOException(file + " is truncated", e);
+    }
+    // The file is saved in rank order, so the ranking needs no sort
+    leaderboard.ranking = ranking;
+    return leaderboard;
+  }
+
+  /**
+   * Writes the leaderboard to a file in rank order, replacing the file
+   * atomically.
+   *
+   * @param file the file
+   * @throws IOException if the file cannot be written
+   */
+  public synchronized void save(Path file) throws IOException {
+    long updatesBefore = updates.sum();
+    Ranking ranking = rank();
+    Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    CRC32 crc = new CRC32();
+    try (OutputStream stream = Files.newOutputStream(temp)) {
+      DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+          new CheckedOutputStream(stream, crc), 1 << 16));
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(ranking.names.length);
+      for (int i = 0; i < ranking.names.length; ++i) {
+        byte[] name = ranking.names[i].getBytes(StandardCharsets.UTF_8);
+        out.writeShort(name.length);
+        out.write(name);
+        out.writeLong(ranking.winnings[i]);
+        out.writeInt(ranking.games[i]);
+        out.writeInt(ranking.solves[i]);
+      }
+      out.flush();
+      // Written past the checked stream, so the checksum skips itself
+      new DataOutputStream(stream).writeInt((int) crc.getValue());
+    }
+    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+    this.ranking = ranking;
+    savedUpdates = updatesBefore;
+  }
+
+  /**
+   * Posts the result of one game for a player.
+   *
+   * @param name the name of the player
+   * @param winnings the cash the player won
+   * @param solved true if the player solved the puzzle
+   */
+  public void record(String name, long winnings, boolean solved) {
+    // A UTF-8 char takes at most three bytes, so most names need no encoding
+    if (name.length() > MAX_NAME_LENGTH / 3
+        && name.getBytes(StandardCharsets.UTF_8).length > MAX_NAME_LENGTH) {
+      throw new IllegalArgumentException("Name is too long: " + name);
+    }
+    Entry entry = entries.get(name);
+    if (entry == null) {
+      entry = entries.computeIfAbsent(name, Entry::new);
+    }
+    WINNINGS.addAndGet(entry, winnings);
+    GAMES.incrementAndGet(entry);
+    if (solved) {
+      SOLVES.incrementAndGet(entry);
+    }
+    updates.increment();
+  }
+
+  /**
+   * Function to get a listener that posts the result of every game it is
+   * added to when the puzzle is solved: the solver wins their cash and
+   * every other seat, eliminated ones included, played a game. One
+   * listener serves any number of games.
+   *
+   * @return the listener
+   */
+  public GameListener recorder() {
+    return recorder;
+  }
+
+  /**
+   * Rebuilds the ranking from the current counters.
+   */
+  public synchronized void refresh() {
+    ranking = rank();
+  }
+
+  /**
+   * Rebuilds the ranking in the background every period and saves the
+   * leaderboard when results were posted since the last save. The
+   * leaderboard is also saved when the JVM exits, to the file of the last
+   * call.
+   *
+   * @param file the file to save to
+   * @param periodSeconds the number of seconds between refreshes
+   */
+  public synchronized void startRefresh(Path file, long periodSeconds) {
+    if (refresher != null) {
+      refresher.shutdown();
+    }
+    refreshFile = file;
+    refresher = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "leaderboard");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    refresher.scheduleAtFixedRate(saveIfChanged, periodSeconds, periodSeconds,
+        TimeUnit.SECONDS);
+    if (saveOnExit == null) {
+      saveOnExit = new Thread(saveIfChanged, "leaderboard-exit");
+      Runtime.getRuntime().addShutdownHook(saveOnExit);
+    }
+  }
+
+  /**
+   * Function to get the number of players.
+   *
+   * @return the number of players
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * Function to get the current counters of a player.
+   *
+   * @param name the name of the player
+   * @return the counters, or null if the player never played
+   */
+  public Standing getStanding(String name) {
+    Entry entry = entries.get(name);
+    return entry == null ? null : entry.toStanding();
+  }
+
+  /**
+   * Function to get the rank of a player's current winnings in the last
+   * ranking: one more than the number of ranked players who won more.
+   *
+   * @param name the name of the player
+   * @return the one based rank, or -1 if the player never played
+   */
+  public int getRank(String name) {
+    Entry entry = entries.get(name);
+    if (entry == null) {
+      return -1;
+    }
+    long[] winnings = ranking.winnings;
+    long target = entry.winnings;
+    // Winnings are sorted descending, so find the first not above target
+    int low = 0;
+    int high = winnings.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (winnings[middle] > target) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low + 1;
+  }
+
+  /**
+   * Function to get the leading players of the last ranking, best first.
+   *
+   * @param count the number of players wanted
+   * @return up to count players
+   */
+  public Standing[] getTop(int count) {
+    Ranking ranking = this.ranking;
+    Standing[] top = new Standing[Math.min(count, ranking.names.length)];
+    for (int i = 0; i < top.length; ++i) {
+      top[i] = ranking.get(i);
+    }
+    return top;
+  }
+
+  /**
+   * Function to get the player at a rank of the last ranking.
+   *
+   * @param rank the one based rank
+   * @return the player
+   */
+  public Standing getRanked(int rank) {
+    return ranking.get(rank - 1);
+  }
+
+  /**
+   * Function to get the number of players in the last ranking.
+   *
+   * @return the number of ranked players
+   */
+  public int getNumRanked() {
+    return ranking.names.length;
+  }
+
+  /**
+   * Helper function to copy the counters of every player and sort them,
+   * by winnings and then by name so the order is always the same.
+   *
+   * @return the ranking
+   */
+  private Ranking rank() {
+    Standing[] standings = new Standing[entries.size()];
+    int count = 0;
+    for (Entry entry : entries.values()) {
+      if (count == standings.length) {
+        standings = Arrays.copyOf(standings, count * 2 + 1);
+      }
+      standings[count++] = entry.toStanding();
+    }
+    standings = Arrays.copyOf(standings, count);
+    Arrays.parallelSort(standings, BEST_FIRST);
+    Ranking ranking = new Ranking(count);
+    for (int i = 0; i < count; ++i) {
+      Standing standing = standings[i];
+      ranking.set(i, standing.name, standing.winnings, standing.games,
+          standing.solves);
+    }
+    return ranking;
+  }
+
+  /**
+   * Counters of one player as read at one moment.
+   */
+  public static final class Standing {
+    /**
+     * Creates the counters of a player.
+     *
+     * @param name the name of the player
+     * @param winnings the cash won over all games
+     * @param games the number of games played
+     * @param solves the number of puzzles solved
+     */
+    Standing(String name, long winnings, int games, int solves) {
+      this.name = name;
+      this.winnings = winnings;
+      this.games = games;
+      this.solves = solves;
+    }
+
+    /**
+     * Function to get the name of the player.
+     *
+     * @return the name
+     */
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * Function to get the cash won over all games.
+     *
+     * @return the winnings
+     */
+    public long getWinnings() {
+      return winnings;
+    }
+
+    /**
+     * Function to get the number of games played.
+     *
+     * @return the number of games
+     */
+    public int getGames() {
+      return games;
+    }
+
+    /**
+     * Function to get the number of puzzles solved.
+     *
+     * @return the number of solves
+     */
+    public int getSolves() {
+      return solves;
+    }
+
+    /**
+     * Function to get the fraction of games in which the player solved the
+     * puzzle.
+     *
+     * @return the solve rate, 0 if the player never played
+     */
+    public double getSolveRate() {
+      return games == 0 ? 0 : (double) solves / games;
+    }
+
+    private final String name;
+    private final long winnings;
+    private final int games;
+    private final int solves;
+  }
+
+  /**
+   * Counters of one player, updated atomically in place.
+   */
+  private static final class Entry {
+    Entry(String name) {
+      this.name = name;
+    }
+
+    /**
+     * Helper function to read the counters.
+     *
+     * @return the counters
+     */
+    Standing toStanding() {
+      return new Standing(name, winnings, games, solves);
+    }
+
+    final String name;
+    volatile long winnings;
+    volatile int games;
+    volatile int solves;
+  }
+
+  /**
+   * Players sorted best first, as parallel arrays so a ranking of millions
+   * of players is a handful of objects and a rank is a binary search of
+   * the winnings.
+   */
+  private static final class Ranking {
+    Ranking(int size) {
+      names = new String[size];
+      winnings = new long[size];
+      games = new int[size];
+      solves = new int[size];
+    }
+
+    /**
+     * Helper function to fill in one position.
+     */
+    void set(int position, String name, long winnings, int games,
+             int solves) {
+      names[position] = name;
+      this.winnings[position] = winnings;
+      this.games[position] = games;
+      this.solves[position] = solves;
+    }
+
+    /**
+     * Helper function to read one position.
+     */
+    Standing get(int position) {
+      return new Standing(names[position], winnings[position],
+          games[position], solves[position]);
+    }
+
+    final String[] names;
+    final long[] winnings;
+    final int[] games;
+    final int[] solves;
+  }
+
+  /** Longest name that fits the file format, in UTF-8 bytes. */
+  private static final int MAX_NAME_LENGTH = 0xFFFF;
+
+  private static final int HEADER_SIZE = 12;
+
+  /** Bytes of a player with an empty name. */
+  private static final int MIN_ENTRY_SIZE = 18;
+
+  private static final Comparator<Standing> BEST_FIRST =
+      new Comparator<Standing>() {
+        @Override
+        public int compare(Standing a, Standing b) {
+          int byWinnings = Long.compare(b.winnings, a.winnings);
+          return byWinnings != 0 ? byWinnings : a.name.compareTo(b.name);
+        }
+      };
+
+  private static final AtomicLongFieldUpdater<Entry> WINNINGS =
+      AtomicLongFieldUpdater.newUpdater(Entry.class, "winnings");
+  private static final AtomicIntegerFieldUpdater<Entry> GAMES =
+      AtomicIntegerFieldUpdater.newUpdater(Entry.class, "games");
+  private static final AtomicIntegerFieldUpdater<Entry> SOLVES =
+      AtomicIntegerFieldUpdater.newUpdater(Entry.class, "solves");
+
+  private final ConcurrentHashMap<String, Entry> entries;
+  private final LongAdder updates;
+  private volatile Ranking ranking;
+  private volatile long savedUpdates;
+  private ScheduledExecutorService refresher;
+  /** File saved to in the background, set by startRefresh. */
+  private volatile Path refreshFile;
+  /** Shutdown hook saving the leaderboard, registered once. */
+  private Thread saveOnExit;
+
+  /** Saves the leaderboard when results were posted since the last save. */
+  private final Runnable saveIfChanged = new Runnable() {
+    @Override
+    public void run() {
+      try {
+        if (updates.sum() != savedUpdates) {
+          save(refreshFile);
+        }
+      } catch (IOException e) {
+        System.out.println("Cannot save leaderboard: " + e.getMessage());
+      }
+    }
+  };
+
+  private final GameListener recorder = new GameListener() {
+    @Override
+    public void attemptedSolve(GameEngine engine, int player,
+                               boolean correct) {
+      if (!correct) {
+        return;
+      }
+      for (int i = 0; i < engine.getNumPlayers(); ++i) {
+        record(engine.getPlayerName(i),
+            i == player ? engine.getPlayerCash(i) : 0, i == player);
+      }
+    }
+  };
+}
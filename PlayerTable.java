@@ -0,0 +1,514 @@
+/**
+ * This Java file defines the PlayerTable class which holds the seats of a
+ * game in primitive arrays.
+ */
+
+package eecs285.proj3.kshilen;
+
+import java.util.Arrays;
+
+/**
+ * Seats of a game, stored as parallel arrays indexed by seat. Seats keep
+ * their index for the whole game: a player who leaves is eliminated and
+ * unlinked from the turn order, and a player who joins gets the next
+ * index and plays last in every round. The turn order is a circular
+ * doubly-linked list over the active seats, so finding the next player is
+ * one array read however many seats were eliminated.
+ *
+ * The top K active seats by cash are kept live in two indexed heaps: a
+ * min-heap of the top K and a max-heap of every other active seat. A cash
+ * change moves one seat within its heap and swaps the roots while they are
+ * out of order, so it costs O(log n) and never scans the table. Ties are
+ * broken by the lower seat, so the order is always the same.
+ */
+public class PlayerTable {
+  /** Number of seats kept in the live leaderboard by default. */
+  public static final int DEFAULT_TOP_K = 10;
+
+  /**
+   * Creates an empty table that keeps the top DEFAULT_TOP_K seats.
+   */
+  public PlayerTable() {
+    this(DEFAULT_TOP_K);
+  }
+
+  /**
+   * Creates an empty table.
+   *
+   * @param topK the number of seats kept in the live leaderboard
+   */
+  public PlayerTable(int topK) {
+    if (topK < 1) {
+      throw new IllegalArgumentException("The leaderboard needs a seat");
+    }
+    this.topK = topK;
+    names = new String[0];
+    cash = new int[0];
+    next = new int[0];
+    prev = new int[0];
+    heapPosition = new int[0];
+    top = new int[topK];
+    sortedTop = new int[topK];
+    rest = new int[0];
+    head = -1;
+  }
+
+  /**
+   * Seats new players with no cash, reusing the arrays when they are large
+   * enough.
+   *
+   * @param playerNames the names of the players, in turn order
+   */
+  public void reset(String[] playerNames) {
+    size = 0;
+    numActive = 0;
+    topSize = 0;
+    restSize = 0;
+    head = -1;
+    ensureCapacity(playerNames.length);
+    for (String name : playerNames) {
+      add(name);
+    }
+  }
+
+  /**
+   * Seats a new player with no cash, who plays last in every round.
+   *
+   * @param name the name of the player
+   * @return the seat of the player
+   */
+  public int add(String name) {
+    ensureCapacity(size + 1);
+    int seat = size++;
+    names[seat] = name;
+    cash[seat] = 0;
+    if (head < 0) {
+      head = seat;
+      next[seat] = seat;
+      prev[seat] = seat;
+    } else {
+      // Seats only grow, so the seat before the head is the last one
+      int last = prev[head];
+      next[last] = seat;
+      prev[seat] = last;
+      next[seat] = head;
+      prev[head] = seat;
+    }
+    numActive++;
+    insertHeap(seat);
+    return seat;
+  }
+
+  /**
+   * Eliminates a player. The seat keeps its name and cash but leaves the
+   * turn order and the leaderboard.
+   *
+   * @param seat the seat of the player
+   */
+  public void remove(int seat) {
+    if (!isActive(seat)) {
+      throw new IllegalArgumentException("Seat " + seat + " is not active");
+    }
+    if (numActive == 1) {
+      throw new IllegalStateException("Cannot remove the last player");
+    }
+    next[prev[seat]] = next[seat];
+    prev[next[seat]] = prev[seat];
+    if (head == seat) {
+      head = next[seat];
+    }
+    next[seat] = -1;
+    prev[seat] = -1;
+    numActive--;
+    removeHeap(seat);
+  }
+
+  /**
+   * Function to get the number of seats, including eliminated ones.
+   *
+   * @return the number of seats
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Function to get the number of players still in the game.
+   *
+   * @return the number of active seats
+   */
+  public int getNumActive() {
+    return numActive;
+  }
+
+  /**
+   * Function to check whether a seat is still in the game.
+   *
+   * @param seat the seat
+   * @return true if the seat is active
+   */
+  public boolean isActive(int seat) {
+    return seat >= 0 && seat < size && next[seat] >= 0;
+  }
+
+  /**
+   * Function to get the first active seat in turn order.
+   *
+   * @return the lowest active seat
+   */
+  public int first() {
+    return head;
+  }
+
+  /**
+   * Function to get the active seat that plays after another.
+   *
+   * @param seat an active seat
+   * @return the next active seat
+   */
+  public int next(int seat) {
+    return next[seat];
+  }
+
+  /**
+   * Function to get the active seat that plays before another.
+   *
+   * @param seat an active seat
+   * @return the previous active seat
+   */
+  public int previous(int seat) {
+    return prev[seat];
+  }
+
+  /**
+   * Function to get the name of a seat.
+   *
+   * @param seat the seat
+   * @return the name
+   */
+  public String getName(int seat) {
+    return names[seat];
+  }
+
+  /**
+   * Function to get the cash of a seat.
+   *
+   * @param seat the seat
+   * @return the cash
+   */
+  public int getCash(int seat) {
+    return cash[seat];
+  }
+
+  /**
+   * Sets the cash of a seat and moves it in the leaderboard.
+   *
+   * @param seat the seat
+   * @param amount the new cash
+   */
+  public void setCash(int seat, int amount) {
+    int old = cash[seat];
+    cash[seat] = amount;
+    if (old == amount || !isActive(seat)) {
+      return;
+    }
+    int position = heapPosition[seat];
+    if (position < 0) {
+      position = -position - 1;
+      if (amount > old) {
+        siftUpRest(position);
+      } else {
+        siftDownRest(position);
+      }
+    } else if (amount > old) {
+      siftDownTop(position);
+    } else {
+      siftUpTop(position);
+    }
+    rebalance();
+  }
+
+  /**
+   * Adds to the cash of a seat.
+   *
+   * @param seat the seat
+   * @param amount the amount to add, negative to take away
+   */
+  public void addCash(int seat, int amount) {
+    setCash(seat, cash[seat] + amount);
+  }
+
+  /**
+   * Function to get the active seat with the most cash.
+   *
+   * @return the leading seat, or -1 if no seat is active
+   */
+  public int getLeader() {
+    if (topSize == 0) {
+      return -1;
+    }
+    // The leader is the largest of the top heap, which holds at most K
+    int leader = top[0];
+    for (int i = 1; i < topSize; ++i) {
+      if (better(top[i], leader)) {
+        leader = top[i];
+      }
+    }
+    return leader;
+  }
+
+  /**
+   * Function to get the leading active seats, best first. Sorts in a
+   * buffer kept by the table, so it allocates nothing.
+   *
+   * @param seats receives the seats, up to its length or the top K
+   * @return the number of seats written
+   */
+  public int getTop(int[] seats) {
+    int count = Math.min(seats.length, topSize);
+    int[] sorted = sortedTop;
+    System.arraycopy(top, 0, sorted, 0, topSize);
+    // Sort the at most K seats by insertion, best first
+    for (int i = 1; i < topSize; ++i) {
+      int seat = sorted[i];
+      int j = i - 1;
+      while (j >= 0 && better(seat, sorted[j])) {
+        sorted[j + 1] = sorted[j];
+        j--;
+      }
+      sorted[j + 1] = seat;
+    }
+    System.arraycopy(sorted, 0, seats, 0, count);
+    return count;
+  }
+
+  /**
+   * Function to get the number of seats the leaderboard keeps.
+   *
+   * @return K
+   */
+  public int getTopK() {
+    return topK;
+  }
+
+  /**
+   * Helper function to order seats by cash, then by the lower seat.
+   *
+   * @param a a seat
+   * @param b another seat
+   * @return true if a ranks above b
+   */
+  private boolean better(int a, int b) {
+    return cash[a] > cash[b] || (cash[a] == cash[b] && a < b);
+  }
+
+  /**
+   * Helper function to put a new active seat in the leaderboard.
+   *
+   * @param seat the seat
+   */
+  private void insertHeap(int seat) {
+    if (topSize < topK) {
+      top[topSize] = seat;
+      heapPosition[seat] = topSize;
+      siftUpTop(topSize++);
+    } else {
+      rest[restSize] = seat;
+      heapPosition[seat] = -restSize - 1;
+      siftUpRest(restSize++);
+    }
+    rebalance();
+  }
+
+  /**
+   * Helper function to take an eliminated seat out of the leaderboard and
+   * promote the best other seat if the top lost one.
+   *
+   * @param seat the seat
+   */
+  private void removeHeap(int seat) {
+    int position = heapPosition[seat];
+    if (position < 0) {
+      position = -position - 1;
+      int last = rest[--restSize];
+      if (position < restSize) {
+        rest[position] = last;
+        heapPosition[last] = -position - 1;
+        siftUpRest(position);
+        siftDownRest(-heapPosition[last] - 1);
+      }
+    } else {
+      int last = top[--topSize];
+      if (position < topSize) {
+        top[position] = last;
+        heapPosition[last] = position;
+        siftUpTop(position);
+        siftDownTop(heapPosition[last]);
+      }
+      if (restSize > 0) {
+        int promoted = rest[0];
+        int moved = rest[--restSize];
+        if (restSize > 0) {
+          rest[0] = moved;
+          heapPosition[moved] = -1;
+          siftDownRest(0);
+        }
+        top[topSize] = promoted;
+        heapPosition[promoted] = topSize;
+        siftUpTop(topSize++);
+      }
+    }
+    heapPosition[seat] = 0;
+  }
+
+  /**
+   * Helper function to swap the roots while the best seat outside the top
+   * ranks above the worst seat in it.
+   */
+  private void rebalance() {
+    while (restSize > 0 && topSize > 0 && better(rest[0], top[0])) {
+      int in = rest[0];
+      int out = top[0];
+      top[0] = in;
+      heapPosition[in] = 0;
+      rest[0] = out;
+      heapPosition[out] = -1;
+      siftDownTop(0);
+      siftDownRest(0);
+    }
+  }
+
+  /**
+   * Helper function to move a seat of the top min-heap towards the root.
+   *
+   * @param position the position of the seat
+   */
+  private void siftUpTop(int position) {
+    int seat = top[position];
+    while (position > 0) {
+      int parent = (position - 1) / 2;
+      if (!better(top[parent], seat)) {
+        break;
+      }
+      top[position] = top[parent];
+      heapPosition[top[position]] = position;
+      position = parent;
+    }
+    top[position] = seat;
+    heapPosition[seat] = position;
+  }
+
+  /**
+   * Helper function to move a seat of the top min-heap away from the root.
+   *
+   * @param position the position of the seat
+   */
+  private void siftDownTop(int position) {
+    int seat = top[position];
+    while (true) {
+      int child = 2 * position + 1;
+      if (child >= topSize) {
+        break;
+      }
+      if (child + 1 < topSize && better(top[child], top[child + 1])) {
+        child++;
+      }
+      if (!better(seat, top[child])) {
+        break;
+      }
+      top[position] = top[child];
+      heapPosition[top[position]] = position;
+      position = child;
+    }
+    top[position] = seat;
+    heapPosition[seat] = position;
+  }
+
+  /**
+   * Helper function to move a seat of the other seats' max-heap towards
+   * the root.
+   *
+   * @param position the position of the seat
+   */
+  private void siftUpRest(int position) {
+    int seat = rest[position];
+    while (position > 0) {
+      int parent = (position - 1) / 2;
+      if (!better(seat, rest[parent])) {
+        break;
+      }
+      rest[position] = rest[parent];
+      heapPosition[rest[position]] = -position - 1;
+      position = parent;
+    }
+    rest[position] = seat;
+    heapPosition[seat] = -position - 1;
+  }
+
+  /**
+   * Helper function to move a seat of the other seats' max-heap away from
+   * the root.
+   *
+   * @param position the position of the seat
+   */
+  private void siftDownRest(int position) {
+    int seat = rest[position];
+    while (true) {
+      int child = 2 * position + 1;
+      if (child >= restSize) {
+        break;
+      }
+      if (child + 1 < restSize && better(rest[child + 1], rest[child])) {
+        child++;
+      }
+      if (!better(rest[child], seat)) {
+        break;
+      }
+      rest[position] = rest[child];
+      heapPosition[rest[position]] = -position - 1;
+      position = child;
+    }
+    rest[position] = seat;
+    heapPosition[seat] = -position - 1;
+  }
+
+  /**
+   * Helper function to grow the arrays, doubling so adding seats one at a
+   * time stays amortized constant.
+   *
+   * @param capacity the number of seats needed
+   */
+  private void ensureCapacity(int capacity) {
+    if (names.length >= capacity) {
+      return;
+    }
+    int length = Math.max(capacity, names.length * 2);
+    names = Arrays.copyOf(names, length);
+    cash = Arrays.copyOf(cash, length);
+    next = Arrays.copyOf(next, length);
+    prev = Arrays.copyOf(prev, length);
+    heapPosition = Arrays.copyOf(heapPosition, length);
+    rest = Arrays.copyOf(rest, length);
+  }
+
+  private final int topK;
+  private String[] names;
+  private int[] cash;
+  /** Next active seat in turn order, or -1 for an eliminated seat. */
+  private int[] next;
+  /** Previous active seat in turn order, or -1 for an eliminated seat. */
+  private int[] prev;
+  /** Position in top, or -(position in rest) - 1. */
+  private int[] heapPosition;
+  /** Min-heap of the top K active seats, worst at the root. */
+  private final int[] top;
+  /** Buffer getTop sorts the top seats in. */
+  private final int[] sortedTop;
+  /** Max-heap of the other active seats, best at the root. */
+  private int[] rest;
+  private int size;
+  private int numActive;
+  private int topSize;
+  private int restSize;
+  private int head;
+}
@@ -0,0 +1,764 @@
+/**
+ * This Java file defines the PuzzleCorpus class which draws random puzzles
+ * from a memory-mapped puzzle library.
+ */
+
+package eecs285.proj3.kshilen;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Library of puzzles in a compact file that is memory-mapped, so opening it
+ * and drawing a puzzle take the same time however many puzzles it holds,
+ * and the puzzles never move onto the heap. The file holds:
+ *
+ *   header      magic, version, counts and the offsets of the sections
+ *   categories  the category names, sorted
+ *   buckets     category, length and first puzzle of every bucket
+ *   offsets     numPuzzles + 1 longs, puzzle i spans offsets[i] to
+ *               offsets[i + 1] in the blob
+ *   blob        the puzzles in UTF-8, upper case
+ *
+ * Puzzles are sorted by category and then by length in characters, so the
+ * puzzles of a category within a range of lengths are one run of indices
+ * and drawing from them is one binary search over the buckets and one
+ * random number. Drawn puzzles are marked in a bitset and not drawn again
+ * until resetUsed is called, and the unused puzzles of every bucket are
+ * counted in a Fenwick tree, so a draw knows at once whether a run still
+ * has unused puzzles without scanning or allocating. Reading puzzles is
+ * thread-safe, drawing them is not. The mappings are released once the corpus is unreachable.
+ *
+ * A corpus is built from a text file with one puzzle per line, optionally
+ * preceded by its category and a tab. Lines starting with # are skipped.
+ */
+public class PuzzleCorpus {
+  /** Category of puzzles listed without one. */
+  public static final String DEFAULT_CATEGORY = "PHRASE";
+
+  /** Largest puzzle in UTF-8 bytes. */
+  public static final int MAX_PUZZLE_BYTES = 1 << 16;
+
+  /** Identifies a corpus file. */
+  static final int MAGIC = 0x574F4643;
+
+  /** Version of the file format. */
+  static final int VERSION = 1;
+
+  /** Size of the header in bytes. */
+  static final int HEADER_SIZE = 40;
+
+  /** Size of a bucket entry in bytes. */
+  static final int BUCKET_SIZE = 12;
+
+  /** Size of a mapped part of the blob, before its overlap. */
+  static final long SEGMENT_SIZE = 1L << 30;
+
+  /** Number of random probes before scanning for an unused puzzle. */
+  private static final int NUM_PROBES = 8;
+
+  /**
+   * Command-line interface to build a corpus from a text file.
+   *
+   * Usage: PuzzleCorpus puzzles.txt puzzles.corpus
+   */
+  public static void main(String[] args) {
+    if (args.length != 2) {
+      System.out.println("Usage: PuzzleCorpus puzzles.txt puzzles.corpus");
+      System.exit(1);
+    }
+    try {
+      long start = System.nanoTime();
+      build(Paths.get(args[0]), Paths.get(args[1]));
+      PuzzleCorpus corpus = open(Paths.get(args[1]));
+      System.out.printf("Built %d puzzles in %d categories in %.2f s%n",
+          corpus.size(), corpus.getCategories().length,
+          (System.nanoTime() - start) / 1e9);
+    } catch (IOException e) {
+      System.out.println("Caught an IO exception: " + e.getMessage());
+      System.exit(4);
+    }
+  }
+
+  /**
+   * Opens a corpus file.
+   *
+   * @param file the corpus file
+   * @return the corpus
+   * @throws IOException if the file cannot be read or is not a corpus
+   */
+  public static PuzzleCorpus open(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      readFully(channel, header, 0);
+      header.flip();
+      if (header.remaining() < HEADER_SIZE || header.getInt(0) != MAGIC
+          || header.getInt(4) != VERSION) {
+        throw new IOException(file + " is not a puzzle corpus");
+      }
+      return new PuzzleCorpus(file, channel, header);
+    }
+  }
+
+  /**
+   * Helper constructor for open. Reads the categories and buckets and maps
+   * the offsets and the blob.
+   *
+   * @param file the corpus file
+   * @param channel the channel of the file
+   * @param header the header of the file
+   * @throws IOException if the file cannot be read or is corrupt
+   */
+  private PuzzleCorpus(Path file, FileChannel channel, ByteBuffer header)
+      throws IOException {
+    numPuzzles = header.getInt(8);
+    int numCategories = header.getInt(12);
+    int numBuckets = header.getInt(16);
+    long offsetsStart = header.getLong(24);
+    long blobStart = header.getLong(32);
+    long fileSize = channel.size();
+    // Every category name takes at least its two byte length
+    if (numPuzzles < 0 || numCategories < 0 || numBuckets < 0
+        || offsetsStart > Integer.MAX_VALUE
+        || offsetsStart - HEADER_SIZE
+            < 2L * numCategories + (long) BUCKET_SIZE * numBuckets
+        || blobStart != offsetsStart + 8L * (numPuzzles + 1)
+        || blobStart > fileSize) {
+      throw new IOException(file + " is a corrupt corpus");
+    }
+
+    ByteBuffer tables = ByteBuffer.allocate((int) (offsetsStart - HEADER_SIZE));
+    readFully(channel, tables, HEADER_SIZE);
+    if (tables.hasRemaining()) {
+      throw new IOException(file + " is truncated");
+    }
+    tables.flip();
+    categories = new String[numCategories];
+    bucketCategory = new int[numBuckets];
+    bucketLength = new int[numBuckets];
+    bucketStart = new int[numBuckets + 1];
+    try {
+      for (int i = 0; i < numCategories; ++i) {
+        byte[] name = new byte[tables.getShort() & 0xFFFF];
+        tables.get(name);
+        categories[i] = new String(name, StandardCharsets.UTF_8);
+      }
+      tables.position(align(tables.position() + HEADER_SIZE) - HEADER_SIZE);
+      for (int i = 0; i < numBuckets; ++i) {
+        bucketCategory[i] = tables.getInt();
+        bucketLength[i] = tables.getInt();
+        bucketStart[i] = tables.getInt();
+        // Buckets are sorted by category, and their runs are in order
+        if (bucketCategory[i] < (i == 0 ? 0 : bucketCategory[i - 1])
+            || bucketCategory[i] >= numCategories
+            || bucketStart[i] < (i == 0 ? 0 : bucketStart[i - 1])
+            || bucketStart[i] > numPuzzles) {
+          throw new IOException(file + " is a corrupt corpus");
+        }
+      }
+    } catch (RuntimeException e) {
+      throw new IOException(file + " is a corrupt corpus", e);
+    }
+    bucketStart[numBuckets] = numPuzzles;
+
+    offsets = channel.map(FileChannel.MapMode.READ_ONLY, offsetsStart,
+        8L * (numPuzzles + 1)).asLongBuffer();
+    long blobSize = fileSize - blobStart;
+    if (offsets.get(0) != 0 || offsets.get(numPuzzles) != blobSize) {
+      throw new IOException(file + " is a corrupt corpus");
+    }
+    segments = new MappedByteBuffer[(int) ((blobSize + SEGMENT_SIZE - 1)
+        / SEGMENT_SIZE)];
+    for (int i = 0; i < segments.length; ++i) {
+      // Segments overlap by the largest puzzle, so no puzzle is split
+      long start = i * SEGMENT_SIZE;
+      segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, blobStart + start,
+          Math.min(blobSize - start, SEGMENT_SIZE + MAX_PUZZLE_BYTES));
+    }
+    used = new BitSet();
+    unused = new int[numBuckets + 1];
+    countUnused();
+    this.file = file;
+  }
+
+  /**
+   * Function to get the number of puzzles.
+   *
+   * @return the number of puzzles
+   */
+  public int size() {
+    return numPuzzles;
+  }
+
+  /**
+   * Function to get the categories of the puzzles.
+   *
+   * @return the category names, sorted
+   */
+  public String[] getCategories() {
+    return categories.clone();
+  }
+
+  /**
+   * Function to get a puzzle.
+   *
+   * @param index the index of the puzzle
+   * @return the puzzle
+   */
+  public String get(int index) {
+    long start = offsets.get(index);
+    int length = (int) (offsets.get(index + 1) - start);
+    byte[] bytes = new byte[length];
+    segments[(int) (start / SEGMENT_SIZE)].get((int) (start % SEGMENT_SIZE),
+        bytes, 0, length);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Function to get the category of a puzzle.
+   *
+   * @param index the index of the puzzle
+   * @return the category
+   */
+  public String getCategory(int index) {
+    return categories[bucketCategory[bucketOf(index)]];
+  }
+
+  /**
+   * Function to count the puzzles of a category within a range of lengths,
+   * used or not.
+   *
+   * @param category the category, or null for every category
+   * @param minLength the shortest length in characters
+   * @param maxLength the longest length in characters
+   * @return the number of puzzles
+   */
+  public int count(String category, int minLength, int maxLength) {
+    int total = 0;
+    for (int c = 0; c < categories.length; ++c) {
+      if (category == null || categories[c].equals(category)) {
+        total += bucketStart[endBucket(c, maxLength)]
+            - bucketStart[startBucket(c, minLength)];
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Function to draw a random unused puzzle of a category within a range
+   * of lengths, and mark it used.
+   *
+   * @param category the category, or null for every category
+   * @param minLength the shortest length in characters
+   * @param maxLength the longest length in characters
+   * @param random the random-number generator to draw with
+   * @return the puzzle, or null if every such puzzle was used
+   */
+  public String draw(String category, int minLength, int maxLength,
+                     Random random) {
+    int index = drawIndex(category, minLength, maxLength, random);
+    return index < 0 ? null : get(index);
+  }
+
+  /**
+   * Function to draw the index of a random unused puzzle of a category
+   * within a range of lengths, and mark it used.
+   *
+   * @param category the category, or null for every category
+   * @param minLength the shortest length in characters
+   * @param maxLength the longest length in characters
+   * @param random the random-number generator to draw with
+   * @return the index of the puzzle, or -1 if every such puzzle was used
+   */
+  public int drawIndex(String category, int minLength, int maxLength,
+                       Random random) {
+    if (category != null) {
+      int c = categoryIndex(category);
+      return c < 0 ? -1 : drawFrom(startBucket(c, minLength),
+          endBucket(c, maxLength), random);
+    }
+    // One run per category, so pick a category by its number of unused
+    // puzzles. Used up categories weigh nothing, so draws stay random once
+    // a category runs out.
+    int total = 0;
+    for (int c = 0; c < categories.length; ++c) {
+      total += countUnused(startBucket(c, minLength), endBucket(c, maxLength));
+    }
+    if (total == 0) {
+      return -1;
+    }
+    int pick = random.nextInt(total);
+    for (int c = 0; c < categories.length; ++c) {
+      int start = startBucket(c, minLength);
+      int end = endBucket(c, maxLength);
+      int numUnused = countUnused(start, end);
+      if (pick < numUnused) {
+        return drawFrom(start, end, random);
+      }
+      pick -= numUnused;
+    }
+    return -1;
+  }
+
+  /**
+   * Function to create a source of puzzles that draws a new unused puzzle
+   * of a category every time.
+   *
+   * @param category the category, or null for every category
+   * @param random the random-number generator to draw with
+   * @return the source, which supplies null once every puzzle was used
+   */
+  public Supplier<String> puzzles(String category, Random random) {
+    return new Supplier<String>() {
+      @Override
+      public String get() {
+        return draw(category, 0, Integer.MAX_VALUE, random);
+      }
+    };
+  }
+
+  /**
+   * Marks a puzzle used, so it is not drawn again.
+   *
+   * @param index the index of the puzzle
+   */
+  public void markUsed(int index) {
+    if (index < 0 || index >= numPuzzles) {
+      throw new IllegalArgumentException("No puzzle " + index);
+    }
+    if (!used.get(index)) {
+      setUsed(index);
+    }
+  }
+
+  /**
+   * Function to check if a puzzle was used.
+   *
+   * @param index the index of the puzzle
+   * @return true if the puzzle was drawn or marked used, else false
+   */
+  public boolean isUsed(int index) {
+    return used.get(index);
+  }
+
+  /**
+   * Makes every puzzle available again.
+   */
+  public void resetUsed() {
+    used.clear();
+    countUnused();
+  }
+
+  /**
+   * Function to get the corpus file.
+   *
+   * @return the file
+   */
+  public Path getFile() {
+    return file;
+  }
+
+  /**
+   * Builds a corpus file from a text file of puzzles. The text is read
+   * twice, first to size the buckets and then to place every puzzle, so
+   * only the offsets are held in memory. The corpus is written to a
+   * temporary file and moved into place.
+   *
+   * @param textFile the puzzles, one per line
+   * @param corpusFile the corpus file to write
+   * @throws IOException if a file cannot be read or written
+   */
+  public static void build(Path textFile, Path corpusFile) throws IOException {
+    // First pass: size of every (category, length) bucket
+    HashMap<String, HashMap<Integer, long[]>> sizes = new HashMap<>();
+    try (BufferedReader in = Files.newBufferedReader(textFile,
+        StandardCharsets.UTF_8)) {
+      String line;
+      int lineNumber = 0;
+      while ((line = in.readLine()) != null) {
+        ++lineNumber;
+        String[] entry = parseLine(line, lineNumber);
+        if (entry != null) {
+          long[] size = sizes.computeIfAbsent(entry[0], k -> new HashMap<>())
+              .computeIfAbsent(entry[1].length(), k -> new long[2]);
+          size[0]++;
+          size[1] += entry[1].getBytes(StandardCharsets.UTF_8).length;
+        }
+      }
+    }
+
+    ArrayList<String> categoryNames = new ArrayList<>(sizes.keySet());
+    Collections.sort(categoryNames);
+    ArrayList<int[]> buckets = new ArrayList<>();
+    ArrayList<long[]> bucketSizes = new ArrayList<>();
+    for (int c = 0; c < categoryNames.size(); ++c) {
+      HashMap<Integer, long[]> lengths = sizes.get(categoryNames.get(c));
+      ArrayList<Integer> sorted = new ArrayList<>(lengths.keySet());
+      Collections.sort(sorted);
+      for (int length : sorted) {
+        buckets.add(new int[] {c, length});
+        bucketSizes.add(lengths.get(length));
+      }
+    }
+
+    // Next puzzle index and blob offset of every bucket
+    long totalPuzzles = 0;
+    long totalBytes = 0;
+    int[] nextIndex = new int[buckets.size()];
+    long[] nextByte = new long[buckets.size()];
+    HashMap<String, Integer> bucketIds = new HashMap<>();
+    for (int b = 0; b < buckets.size(); ++b) {
+      nextIndex[b] = (int) totalPuzzles;
+      nextByte[b] = totalBytes;
+      totalPuzzles += bucketSizes.get(b)[0];
+      totalBytes += bucketSizes.get(b)[1];
+      bucketIds.put(categoryNames.get(buckets.get(b)[0]) + '\t'
+          + buckets.get(b)[1], b);
+    }
+    if (totalPuzzles >= Integer.MAX_VALUE) {
+      throw new IOException("Too many puzzles in " + textFile);
+    }
+    int numPuzzles = (int) totalPuzzles;
+
+    ByteBuffer tables = ByteBuffer.allocate(HEADER_SIZE
+        + categoryNames.size() * (2 + 4 * 256) + 8
+        + buckets.size() * BUCKET_SIZE + 8);
+    tables.position(HEADER_SIZE);
+    for (String name : categoryNames) {
+      byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+      tables.putShort((short) bytes.length);
+      tables.put(bytes);
+    }
+    tables.position(align(tables.position()));
+    for (int b = 0; b < buckets.size(); ++b) {
+      tables.putInt(buckets.get(b)[0]);
+      tables.putInt(buckets.get(b)[1]);
+      tables.putInt(nextIndex[b]);
+    }
+    long offsetsStart = align(tables.position());
+    long blobStart = offsetsStart + 8L * (numPuzzles + 1);
+    tables.putInt(0, MAGIC);
+    tables.putInt(4, VERSION);
+    tables.putInt(8, numPuzzles);
+    tables.putInt(12, categoryNames.size());
+    tables.putInt(16, buckets.size());
+    tables.putLong(24, offsetsStart);
+    tables.putLong(32, blobStart);
+    tables.limit(tables.position()).position(0);
+
+    // Second pass: write every puzzle at the next place of its bucket
+    Path tempFile = corpusFile.resolveSibling(corpusFile.getFileName() + ".tmp");
+    long[] offsets = new long[numPuzzles + 1];
+    offsets[numPuzzles] = totalBytes;
+    try (FileChannel out = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+         BufferedReader in = Files.newBufferedReader(textFile,
+             StandardCharsets.UTF_8)) {
+      out.write(tables, 0);
+      String line;
+      while ((line = in.readLine()) != null) {
+        String[] entry = parseLine(line, 0);
+        if (entry != null) {
+          int b = bucketIds.get(entry[0] + '\t' + entry[1].length());
+          byte[] bytes = entry[1].getBytes(StandardCharsets.UTF_8);
+          offsets[nextIndex[b]++] = nextByte[b];
+          out.write(ByteBuffer.wrap(bytes), blobStart + nextByte[b]);
+          nextByte[b] += bytes.length;
+        }
+      }
+      ByteBuffer offsetBytes = ByteBuffer.allocate(1 << 16);
+      long position = offsetsStart;
+      for (long offset : offsets) {
+        if (!offsetBytes.hasRemaining()) {
+          offsetBytes.flip();
+          position += out.write(offsetBytes, position);
+          offsetBytes.clear();
+        }
+        offsetBytes.putLong(offset);
+      }
+      offsetBytes.flip();
+      while (offsetBytes.hasRemaining()) {
+        position += out.write(offsetBytes, position);
+      }
+      out.force(true);
+    }
+    Files.move(tempFile, corpusFile, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Helper function to parse a line of a puzzle text file.
+   *
+   * @param line the line
+   * @param lineNumber the number of the line for error messages, or 0 to
+   *                   skip bad lines quietly
+   * @return the category and the puzzle in upper case, or null if the line
+   *         holds no puzzle
+   */
+  private static String[] parseLine(String line, int lineNumber) {
+    if (line.isBlank() || line.startsWith("#")) {
+      return null;
+    }
+    int tab = line.indexOf('\t');
+    String category = tab < 0 ? DEFAULT_CATEGORY
+        : line.substring(0, tab).trim().toUpperCase(Locale.ROOT);
+    String puzzle = line.substring(tab + 1).trim().toUpperCase(Locale.ROOT);
+    if (category.isEmpty()) {
+      category = DEFAULT_CATEGORY;
+    }
+    if (puzzle.isEmpty()) {
+      return null;
+    }
+    if (puzzle.getBytes(StandardCharsets.UTF_8).length > MAX_PUZZLE_BYTES
+        || category.length() > 256) {
+      if (lineNumber > 0) {
+        System.out.println("ERROR: Puzzle on line " + lineNumber
+            + " is too long, skipped");
+      }
+      return null;
+    }
+    return new String[] {category, puzzle};
+  }
+
+  /**
+   * Helper function to round an offset up to a multiple of 8.
+   *
+   * @param offset the offset
+   * @return the aligned offset
+   */
+  private static int align(int offset) {
+    return (offset + 7) & ~7;
+  }
+
+  /**
+   * Helper function to draw an unused puzzle from the run of indices of a
+   * range of buckets. Probes a few random indices and then scans from a
+   * random one, so the draw is constant time until most of the run was
+   * used.
+   *
+   * @param startBucket the first bucket of the run
+   * @param endBucket the bucket after the run
+   * @param random the random-number generator to draw with
+   * @return the index, or -1 if every puzzle of the run was used
+   */
+  private int drawFrom(int startBucket, int endBucket, Random random) {
+    if (countUnused(startBucket, endBucket) == 0) {
+      return -1;
+    }
+    int start = bucketStart[startBucket];
+    int end = bucketStart[endBucket];
+    int index = start + random.nextInt(end - start);
+    for (int probe = 0; probe < NUM_PROBES && used.get(index); ++probe) {
+      index = start + random.nextInt(end - start);
+    }
+    if (used.get(index)) {
+      index = used.nextClearBit(index);
+      if (index >= end) {
+        index = used.nextClearBit(start);
+      }
+    }
+    setUsed(index);
+    return index;
+  }
+
+  /**
+   * Helper function to mark an unused puzzle used and count it out of its
+   * bucket.
+   *
+   * @param index the index of the puzzle
+   */
+  private void setUsed(int index) {
+    used.set(index);
+    for (int i = bucketOf(index) + 1; i < unused.length; i += i & -i) {
+      unused[i]--;
+    }
+  }
+
+  /**
+   * Helper function to count the unused puzzles of a range of buckets.
+   *
+   * @param startBucket the first bucket
+   * @param endBucket the bucket after the range
+   * @return the number of unused puzzles
+   */
+  private int countUnused(int startBucket, int endBucket) {
+    if (endBucket <= startBucket) {
+      return 0;
+    }
+    return countUnusedBefore(endBucket) - countUnusedBefore(startBucket);
+  }
+
+  /**
+   * Helper function to count the unused puzzles of the buckets before one,
+   * from the Fenwick tree.
+   *
+   * @param bucket the bucket
+   * @return the number of unused puzzles
+   */
+  private int countUnusedBefore(int bucket) {
+    int total = 0;
+    for (int i = bucket; i > 0; i -= i & -i) {
+      total += unused[i];
+    }
+    return total;
+  }
+
+  /**
+   * Helper function to build the Fenwick tree with every puzzle unused, in
+   * time proportional to the number of buckets.
+   */
+  private void countUnused() {
+    Arrays.fill(unused, 0);
+    for (int i = 1; i < unused.length; ++i) {
+      unused[i] += bucketStart[i] - bucketStart[i - 1];
+      int parent = i + (i & -i);
+      if (parent < unused.length) {
+        unused[parent] += unused[i];
+      }
+    }
+  }
+
+  /**
+   * Helper function to read from a channel until a buffer is full or the
+   * end of the channel is reached, since one read may return fewer bytes.
+   *
+   * @param channel the channel
+   * @param buffer the buffer to fill
+   * @param position the position in the channel to read from
+   * @throws IOException if the channel cannot be read
+   */
+  private static void readFully(FileChannel channel, ByteBuffer buffer,
+                                long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position);
+      if (read < 0) {
+        return;
+      }
+      position += read;
+    }
+  }
+
+  /**
+   * Helper function to find the index of a category.
+   *
+   * @param category the category name
+   * @return the index, or -1 if there is no such category
+   */
+  private int categoryIndex(String category) {
+    String name = category.toUpperCase(Locale.ROOT);
+    int low = 0;
+    int high = categories.length - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int compare = categories[mid].compareTo(name);
+      if (compare == 0) {
+        return mid;
+      } else if (compare < 0) {
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Helper function to find the first bucket of a category whose puzzles
+   * are at least a given length.
+   *
+   * @param category the index of the category
+   * @param minLength the length
+   * @return the bucket
+   */
+  private int startBucket(int category, int minLength) {
+    return firstBucketAtLeast(category, minLength);
+  }
+
+  /**
+   * Helper function to find the bucket after the last one of a category
+   * whose puzzles are at most a given length.
+   *
+   * @param category the index of the category
+   * @param maxLength the length
+   * @return the bucket after it
+   */
+  private int endBucket(int category, int maxLength) {
+    if (maxLength == Integer.MAX_VALUE) {
+      return firstBucketAtLeast(category + 1, 0);
+    }
+    return firstBucketAtLeast(category, maxLength + 1);
+  }
+
+  /**
+   * Helper function to binary search the buckets, which are sorted by
+   * category and then by length.
+   *
+   * @param category the index of the category
+   * @param length the length
+   * @return the first bucket at or after the category and length
+   */
+  private int firstBucketAtLeast(int category, int length) {
+    int low = 0;
+    int high = bucketCategory.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (bucketCategory[mid] < category
+          || (bucketCategory[mid] == category && bucketLength[mid] < length)) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Helper function to find the bucket holding a puzzle.
+   *
+   * @param index the index of the puzzle
+   * @return the bucket
+   */
+  private int bucketOf(int index) {
+    int low = 0;
+    int high = bucketCategory.length - 1;
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+      if (bucketStart[mid] <= index) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return low;
+  }
+
+  private final Path file;
+  private final int numPuzzles;
+  private final String[] categories;
+  private final int[] bucketCategory;
+  private final int[] bucketLength;
+  private final int[] bucketStart;
+  private final LongBuffer offsets;
+  private final MappedByteBuffer[] segments;
+  private final BitSet used;
+  /** Fenwick tree of the number of unused puzzles of every bucket. */
+  private final int[] unused;
+}
@@ -0,0 +1,170 @@
+/**
+ * This Java file defines the PuzzleIndex class which maps every letter of a
+ * puzzle to its positions and keeps track of the revealed letters.
+ */
+
+package eecs285.proj3.kshilen;
+
+/**
+ * Index of a puzzle, built once per puzzle in linear time. The positions of
+ * each letter are stored grouped by letter in a single array, so revealing a
+ * letter only touches the positions of that letter. The hidden puzzle is
+ * kept in a mutable buffer in its displayed form, such as "- A - ".
+ */
+public class PuzzleIndex {
+  /**
+   * Creates an empty index.
+   */
+  public PuzzleIndex() {
+    letterStarts = new int[GameEngine.NUM_LETTERS + 1];
+    positions = new int[0];
+    hiddenPuzzle = new char[0];
+    puzzle = "";
+  }
+
+  /**
+   * Indexes a new puzzle, hiding all of its letters. The buffers of the
+   * previous puzzle are reused when they are large enough.
+   *
+   * @param newPuzzle the uppercase puzzle
+   */
+  public void reset(String newPuzzle) {
+    puzzle = newPuzzle;
+    length = puzzle.length();
+    if (hiddenPuzzle.length < length * 2) {
+      hiddenPuzzle = new char[length * 2];
+    }
+
+    //Count the letters, hiding them in the buffer on the way
+    int[] starts = letterStarts;
+    for (int i = 0; i <= GameEngine.NUM_LETTERS; ++i) {
+      starts[i] = 0;
+    }
+    for (int i = 0; i < length; ++i) {
+      char c = puzzle.charAt(i);
+      if (GameEngine.isAlphabet(c)) {
+        starts[c - 'A' + 1]++;
+        hiddenPuzzle[i * 2] = '-';
+      } else {
+        hiddenPuzzle[i * 2] = c;
+      }
+      hiddenPuzzle[i * 2 + 1] = ' ';
+    }
+    for (int i = 0; i < GameEngine.NUM_LETTERS; ++i) {
+      starts[i + 1] += starts[i];
+    }
+    numHidden = starts[GameEngine.NUM_LETTERS];
+
+    //Place each position after the earlier positions of the same letter,
+    //using the start of each letter as a cursor, which leaves it at the
+    //start of the next letter
+    if (positions.length < numHidden) {
+      positions = new int[numHidden];
+    }
+    for (int i = 0; i < length; ++i) {
+      char c = puzzle.charAt(i);
+      if (GameEngine.isAlphabet(c)) {
+        positions[starts[c - 'A']++] = i;
+      }
+    }
+    for (int i = GameEngine.NUM_LETTERS; i > 0; --i) {
+      starts[i] = starts[i - 1];
+    }
+    starts[0] = 0;
+  }
+
+  /**
+   * Function to reveal all instances of a letter in the hidden puzzle.
+   *
+   * @param letter the uppercase letter
+   * @return true if the letter is in the puzzle, else false
+   */
+  public boolean reveal(char letter) {
+    int first = letterStarts[letter - 'A'];
+    int last = letterStarts[letter - 'A' + 1];
+    if (first == last) {
+      return false;
+    }
+    if (hiddenPuzzle[positions[first] * 2] == '-') {
+      for (int i = first; i < last; ++i) {
+        hiddenPuzzle[positions[i] * 2] = letter;
+      }
+      numHidden -= last - first;
+    }
+    return true;
+  }
+
+  /**
+   * Function to get the number of times a letter occurs in the puzzle.
+   *
+   * @param letter the uppercase letter
+   * @return the number of occurrences
+   */
+  public int getOccurrences(char letter) {
+    return letterStarts[letter - 'A' + 1] - letterStarts[letter - 'A'];
+  }
+
+  /**
+   * Function to get the position of an occurrence of a letter.
+   *
+   * @param letter the uppercase letter
+   * @param occurrence the zero based occurrence, less than getOccurrences
+   * @return the zero based position in the puzzle
+   */
+  public int getPosition(char letter, int occurrence) {
+    return positions[letterStarts[letter - 'A'] + occurrence];
+  }
+
+  /**
+   * Function to get the number of letters that are still hidden.
+   *
+   * @return the number of hidden letters
+   */
+  public int getNumHidden() {
+    return numHidden;
+  }
+
+  /**
+   * Function to get a hidden puzzle character without copying the puzzle.
+   *
+   * @param position the zero based position in the puzzle
+   * @return the letter if revealed, '-' if hidden, or the punctuation
+   */
+  public char getHiddenChar(int position) {
+    return hiddenPuzzle[position * 2];
+  }
+
+  /**
+   * Function to get the hidden puzzle in its displayed form, such as "- A - ".
+   *
+   * @return the hidden puzzle
+   */
+  public String getHiddenPuzzle() {
+    return new String(hiddenPuzzle, 0, length * 2);
+  }
+
+  /**
+   * Function to get the indexed puzzle.
+   *
+   * @return the puzzle
+   */
+  public String getPuzzle() {
+    return puzzle;
+  }
+
+  /**
+   * Function to get the length of the indexed puzzle.
+   *
+   * @return the number of characters in the puzzle
+   */
+  public int length() {
+    return length;
+  }
+
+  private final int[] letterStarts;
+  private int[] positions;
+  private char[] hiddenPuzzle;
+  private String puzzle;
+  private int length;
+  private int numHidden;
+}
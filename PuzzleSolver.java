@@ -0,0 +1,481 @@
+/**
+ * This Java file defines the PuzzleSolver class which lists the phrases
+ * that fit a partially revealed puzzle.
+ */
+
+package eecs285.proj3.kshilen;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.function.IntFunction;
+
+/**
+ * Index of candidate phrases for solving partially revealed puzzles. The
+ * phrases are grouped by their shape, which is the phrase with every letter
+ * replaced by '-', so the word lengths and punctuation of a group are the
+ * same. A board only has to be compared with the phrases of its own shape.
+ *
+ * Within a large group every (position, letter) pair has a bitset of the
+ * phrases with that letter at that position. A query ANDs the bitsets of the
+ * revealed letters and removes the bitsets of the guessed letters at the
+ * hidden positions, since a guessed letter is revealed everywhere it occurs.
+ * That tests 64 phrases per operation. Small groups are compared letter by
+ * letter instead, as their bitsets would take more memory than they save.
+ *
+ * To score letters for a guess, large groups also keep, for every 64
+ * phrases, the 26 words of which phrases contain each letter side by side.
+ * Every unguessed letter of a matching phrase is hidden, so one pass over
+ * the matches counts the candidates containing each letter with a popcount
+ * per letter and word.
+ *
+ * A solver is immutable once built, so any number of threads may query it.
+ */
+public class PuzzleSolver {
+  /** Smallest group that gets bitsets. */
+  static final int BITSET_MIN = 64;
+
+  /** Letter code of a character that is not a letter. */
+  private static final byte NOT_A_LETTER = GameEngine.NUM_LETTERS;
+
+  /** Mask with a bit for every letter. */
+  private static final int ALL_LETTERS = (1 << GameEngine.NUM_LETTERS) - 1;
+
+  /**
+   * Function to build a solver over a list of phrases.
+   *
+   * @param phrases the phrases, in any case
+   * @return the solver, whose candidate ids are indices into phrases
+   */
+  public static PuzzleSolver of(String[] phrases) {
+    String[] upper = new String[phrases.length];
+    for (int i = 0; i < phrases.length; ++i) {
+      upper[i] = phrases[i].toUpperCase(Locale.ROOT);
+    }
+    return new PuzzleSolver(upper.length, new IntFunction<String>() {
+      @Override
+      public String apply(int id) {
+        return upper[id];
+      }
+    });
+  }
+
+  /**
+   * Function to build a solver over every puzzle of a corpus.
+   *
+   * @param corpus the corpus
+   * @return the solver, whose candidate ids are indices into the corpus
+   */
+  public static PuzzleSolver of(PuzzleCorpus corpus) {
+    return new PuzzleSolver(corpus.size(), new IntFunction<String>() {
+      @Override
+      public String apply(int id) {
+        return corpus.get(id);
+      }
+    });
+  }
+
+  /**
+   * Helper constructor to index phrases.
+   *
+   * @param numPhrases the number of phrases
+   * @param phrases gets a phrase, in upper case, by its id
+   */
+  private PuzzleSolver(int numPhrases, IntFunction<String> phrases) {
+    this.phrases = phrases;
+    HashMap<String, GroupBuilder> builders = new HashMap<>();
+    for (int id = 0; id < numPhrases; ++id) {
+      String phrase = phrases.apply(id);
+      builders.computeIfAbsent(shapeOf(phrase), k -> new GroupBuilder(
+          phrase.length())).add(id, phrase);
+    }
+    groups = new HashMap<>(builders.size() * 2);
+    for (String shape : builders.keySet()) {
+      groups.put(shape, builders.get(shape).build());
+    }
+  }
+
+  /**
+   * Function to get a phrase by its id.
+   *
+   * @param id the id of the phrase
+   * @return the phrase in upper case
+   */
+  public String getPhrase(int id) {
+    return phrases.apply(id);
+  }
+
+  /**
+   * Function to list the phrases that fit the board of a game.
+   *
+   * @param engine the engine holding the game
+   * @return the ids of the phrases, in increasing order
+   */
+  public int[] findCandidates(GameEngine engine) {
+    return findCandidates(engine.getHiddenPuzzle(), guessedMask(engine));
+  }
+
+  /**
+   * Function to list the phrases that fit a board.
+   *
+   * @param hiddenPuzzle the board in its displayed form, such as "- A - "
+   * @param guessedMask bit i is set if letter 'A' + i was guessed
+   * @return the ids of the phrases, in increasing order
+   */
+  public int[] findCandidates(String hiddenPuzzle, int guessedMask) {
+    Query query = new Query(hiddenPuzzle, guessedMask);
+    Group group = groups.get(query.shape);
+    if (group == null) {
+      return new int[0];
+    }
+    if (group.bits == null) {
+      return group.scan(query);
+    }
+    long[] matches = group.match(query);
+    int count = 0;
+    for (long word : matches) {
+      count += Long.bitCount(word);
+    }
+    int[] candidates = new int[count];
+    int next = 0;
+    for (int w = 0; w < matches.length; ++w) {
+      for (long word = matches[w]; word != 0; word &= word - 1) {
+        candidates[next++] = group.ids[w * 64 + Long.numberOfTrailingZeros(word)];
+      }
+    }
+    return candidates;
+  }
+
+  /**
+   * Function to count the phrases that fit a board, without listing them.
+   *
+   * @param hiddenPuzzle the board in its displayed form, such as "- A - "
+   * @param guessedMask bit i is set if letter 'A' + i was guessed
+   * @return the number of phrases
+   */
+  public int countCandidates(String hiddenPuzzle, int guessedMask) {
+    Query query = new Query(hiddenPuzzle, guessedMask);
+    Group group = groups.get(query.shape);
+    if (group == null) {
+      return 0;
+    }
+    if (group.bits == null) {
+      return group.scan(query).length;
+    }
+    int count = 0;
+    for (long word : group.match(query)) {
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+
+  /**
+   * Function to count, for every letter not guessed yet, the phrases that
+   * fit a board and contain the letter.
+   *
+   * @param hiddenPuzzle the board in its displayed form, such as "- A - "
+   * @param guessedMask bit i is set if letter 'A' + i was guessed
+   * @param counts receives the count of letter 'A' + i at index i, 0 for
+   *               guessed letters
+   * @return the number of phrases that fit the board
+   */
+  public int scoreLetters(String hiddenPuzzle, int guessedMask, int[] counts) {
+    Arrays.fill(counts, 0, GameEngine.NUM_LETTERS, 0);
+    Query query = new Query(hiddenPuzzle, guessedMask);
+    Group group = groups.get(query.shape);
+    if (group == null) {
+      return 0;
+    }
+    int unguessed = ~guessedMask & ALL_LETTERS;
+    int total = 0;
+    if (group.bits == null) {
+      for (int m = 0; m < group.ids.length; ++m) {
+        if (group.fits(m, query)) {
+          total++;
+          for (int mask = group.letterMasks[m] & unguessed; mask != 0;
+               mask &= mask - 1) {
+            counts[Integer.numberOfTrailingZeros(mask)]++;
+          }
+        }
+      }
+      return total;
+    }
+    long[] matches = group.match(query);
+    long[] presence = group.presence;
+    for (int w = 0; w < matches.length; ++w) {
+      long word = matches[w];
+      if (word == 0) {
+        continue;
+      }
+      total += Long.bitCount(word);
+      int base = w * GameEngine.NUM_LETTERS;
+      for (int mask = unguessed; mask != 0; mask &= mask - 1) {
+        int letter = Integer.numberOfTrailingZeros(mask);
+        counts[letter] += Long.bitCount(word & presence[base + letter]);
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Function to get the number of shapes in the index.
+   *
+   * @return the number of groups
+   */
+  public int getNumGroups() {
+    return groups.size();
+  }
+
+  /**
+   * Function to collect the guessed letters of a game in a mask.
+   *
+   * @param engine the engine holding the game
+   * @return bit i is set if letter 'A' + i was guessed
+   */
+  static int guessedMask(GameEngine engine) {
+    int mask = 0;
+    for (int i = 0; i < GameEngine.NUM_LETTERS; ++i) {
+      if (!engine.isLetterAvailable((char) ('A' + i))) {
+        mask |= 1 << i;
+      }
+    }
+    return mask;
+  }
+
+  /**
+   * Helper function to find the shape of a phrase.
+   *
+   * @param phrase the phrase in upper case
+   * @return the phrase with every letter replaced by '-'
+   */
+  private static String shapeOf(String phrase) {
+    char[] shape = phrase.toCharArray();
+    for (int i = 0; i < shape.length; ++i) {
+      if (GameEngine.isAlphabet(shape[i])) {
+        shape[i] = '-';
+      }
+    }
+    return new String(shape);
+  }
+
+  /**
+   * A board taken apart for a query.
+   */
+  private static class Query {
+    /**
+     * Parses a board. Every '-' is a hidden letter.
+     *
+     * @param hiddenPuzzle the board in its displayed form
+     * @param guessedMask the guessed letters
+     */
+    Query(String hiddenPuzzle, int guessedMask) {
+      int length = hiddenPuzzle.length() / 2;
+      char[] chars = new char[length];
+      revealed = new byte[length];
+      for (int i = 0; i < length; ++i) {
+        char c = hiddenPuzzle.charAt(i * 2);
+        if (GameEngine.isAlphabet(c)) {
+          revealed[i] = (byte) (c - 'A');
+          chars[i] = '-';
+        } else {
+          revealed[i] = c == '-' ? -1 : NOT_A_LETTER;
+          chars[i] = c;
+        }
+      }
+      shape = new String(chars);
+      this.guessedMask = guessedMask;
+    }
+
+    final String shape;
+    /** Revealed letter per position, -1 if hidden. */
+    final byte[] revealed;
+    final int guessedMask;
+  }
+
+  /**
+   * The phrases of one shape.
+   */
+  private static class Group {
+    Group(int length, int[] ids, int[] letterMasks, byte[] letters,
+          long[][] bits, long[] presence) {
+      this.length = length;
+      this.ids = ids;
+      this.letterMasks = letterMasks;
+      this.letters = letters;
+      this.bits = bits;
+      this.presence = presence;
+    }
+
+    /**
+     * Function to match a query against the bitsets.
+     *
+     * @param query the query
+     * @return a bitset of the matching members
+     */
+    long[] match(Query query) {
+      int words = (ids.length + 63) >>> 6;
+      long[] matches = new long[words];
+      Arrays.fill(matches, -1L);
+      if ((ids.length & 63) != 0) {
+        matches[words - 1] = -1L >>> (64 - (ids.length & 63));
+      }
+      for (int p = 0; p < length; ++p) {
+        int letter = query.revealed[p];
+        if (letter == NOT_A_LETTER) {
+          continue;
+        }
+        if (letter >= 0) {
+          long[] set = bits[p * GameEngine.NUM_LETTERS + letter];
+          if (set == null) {
+            return new long[words];
+          }
+          for (int w = 0; w < words; ++w) {
+            matches[w] &= set[w];
+          }
+        } else {
+          for (int mask = query.guessedMask; mask != 0; mask &= mask - 1) {
+            long[] set = bits[p * GameEngine.NUM_LETTERS
+                + Integer.numberOfTrailingZeros(mask)];
+            if (set != null) {
+              for (int w = 0; w < words; ++w) {
+                matches[w] &= ~set[w];
+              }
+            }
+          }
+        }
+      }
+      return matches;
+    }
+
+    /**
+     * Function to match a query by comparing every member.
+     *
+     * @param query the query
+     * @return the ids of the matching members
+     */
+    int[] scan(Query query) {
+      int[] found = new int[ids.length];
+      int count = 0;
+      for (int m = 0; m < ids.length; ++m) {
+        if (fits(m, query)) {
+          found[count++] = ids[m];
+        }
+      }
+      return Arrays.copyOf(found, count);
+    }
+
+    /**
+     * Helper function to check if a member fits a query.
+     *
+     * @param member the index of the member
+     * @param query the query
+     * @return true if the member fits, else false
+     */
+    boolean fits(int member, Query query) {
+      int base = member * length;
+      for (int p = 0; p < length; ++p) {
+        int letter = letters[base + p];
+        int wanted = query.revealed[p];
+        if (wanted >= 0 ? letter != wanted
+            : (query.guessedMask & (1 << letter)) != 0) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    final int length;
+    final int[] ids;
+    /** Letters contained in each member, bit i for letter 'A' + i. */
+    final int[] letterMasks;
+    /** Letter codes of the members, row by row, only for small groups. */
+    final byte[] letters;
+    /** Bitset per position and letter, null for small groups. */
+    final long[][] bits;
+    /** Per 64 members, a word per letter of who contains it. */
+    final long[] presence;
+  }
+
+  /**
+   * Collects the phrases of one shape while the index is built.
+   */
+  private static class GroupBuilder {
+    GroupBuilder(int length) {
+      this.length = length;
+      ids = new int[4];
+      letters = new byte[4 * length];
+    }
+
+    /**
+     * Adds a phrase of this shape.
+     *
+     * @param id the id of the phrase
+     * @param phrase the phrase
+     */
+    void add(int id, String phrase) {
+      if (size == ids.length) {
+        ids = Arrays.copyOf(ids, size * 2);
+        letters = Arrays.copyOf(letters, size * 2 * length);
+      }
+      ids[size] = id;
+      for (int p = 0; p < length; ++p) {
+        char c = phrase.charAt(p);
+        letters[size * length + p] = GameEngine.isAlphabet(c)
+            ? (byte) (c - 'A') : NOT_A_LETTER;
+      }
+      size++;
+    }
+
+    /**
+     * Function to build the group, with bitsets if it is large.
+     *
+     * @return the group
+     */
+    Group build() {
+      int[] groupIds = Arrays.copyOf(ids, size);
+      int[] letterMasks = new int[size];
+      for (int m = 0; m < size; ++m) {
+        for (int p = 0; p < length; ++p) {
+          int letter = letters[m * length + p];
+          if (letter != NOT_A_LETTER) {
+            letterMasks[m] |= 1 << letter;
+          }
+        }
+      }
+      if (size < BITSET_MIN) {
+        return new Group(length, groupIds, letterMasks,
+            Arrays.copyOf(letters, size * length), null, null);
+      }
+      int words = (size + 63) >>> 6;
+      long[][] bits = new long[length * GameEngine.NUM_LETTERS][];
+      for (int m = 0; m < size; ++m) {
+        for (int p = 0; p < length; ++p) {
+          int letter = letters[m * length + p];
+          if (letter != NOT_A_LETTER) {
+            int key = p * GameEngine.NUM_LETTERS + letter;
+            if (bits[key] == null) {
+              bits[key] = new long[words];
+            }
+            bits[key][m >>> 6] |= 1L << m;
+          }
+        }
+      }
+      long[] presence = new long[words * GameEngine.NUM_LETTERS];
+      for (int m = 0; m < size; ++m) {
+        for (int mask = letterMasks[m]; mask != 0; mask &= mask - 1) {
+          presence[(m >>> 6) * GameEngine.NUM_LETTERS
+              + Integer.numberOfTrailingZeros(mask)] |= 1L << m;
+        }
+      }
+      return new Group(length, groupIds, letterMasks, null, bits, presence);
+    }
+
+    final int length;
+    int[] ids;
+    byte[] letters;
+    int size;
+  }
+
+  private final IntFunction<String> phrases;
+  private final HashMap<String, Group> groups;
+}
@@ -0,0 +1,139 @@
+/**
+ * This Java file defines the RandomSource enum which chooses the
+ * random-number generator games are spun with.
+ */
+
+package eecs285.proj3.kshilen;
+
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * Kinds of random-number generator a game can be spun with. Every game
+ * gets a generator of its own, used only by the thread driving the game,
+ * so no generator is shared between threads and none pays for the
+ * compare-and-set of java.util.Random's seed.
+ *
+ * LEGACY is a GameRandom, which draws exactly the numbers of a
+ * java.util.Random with the same seed, so seeds, journals and snapshots
+ * keep working: the default seed of 100 still spins as new Random(100).
+ * SPLITMIX is a SplittableRandom and LXM an L64X128MixRandom, both with a
+ * 64-bit or larger state and far better statistics than the 48-bit linear
+ * congruential generator of Random, for simulations of many games.
+ *
+ * The generator of a game is derived from a master seed and the index of
+ * the game alone, so a simulation gives the same results whatever the
+ * number of threads and the order the games are played in.
+ */
+public enum RandomSource {
+  /** GameRandom, producing the numbers of java.util.Random. */
+  LEGACY,
+
+  /** java.util.SplittableRandom. */
+  SPLITMIX,
+
+  /** The L64X128MixRandom algorithm of java.util.random. */
+  LXM;
+
+  /** System property naming the source, such as -Dwof.rng=lxm. */
+  public static final String PROPERTY = "wof.rng";
+
+  /**
+   * Function to create a generator from a seed.
+   *
+   * @param seed the seed
+   * @return the generator
+   */
+  public RandomGenerator create(long seed) {
+    switch (this) {
+      case SPLITMIX:
+        return new SplittableRandom(seed);
+      case LXM:
+        return LXM_FACTORY.create(seed);
+      default:
+        return new GameRandom(seed);
+    }
+  }
+
+  /**
+   * Function to create the generator of one game of many played from the
+   * same master seed. Games with different indices get unrelated streams.
+   *
+   * @param masterSeed the seed of all the games
+   * @param gameIndex the index of the game
+   * @return the generator
+   */
+  public RandomGenerator forGame(long masterSeed, long gameIndex) {
+    return create(gameSeed(masterSeed, gameIndex));
+  }
+
+  /**
+   * Function to check whether a game spun with this source can be saved
+   * as a GameSnapshot and replayed from a journal.
+   *
+   * @return true for LEGACY
+   */
+  public boolean isSavable() {
+    return this == LEGACY;
+  }
+
+  /**
+   * Function to derive the seed of one game from a master seed, by
+   * scrambling the master seed plus a multiple of the golden ratio, so
+   * neighbouring indices give unrelated seeds.
+   *
+   * @param masterSeed the seed of all the games
+   * @param gameIndex the index of the game
+   * @return the seed of the game
+   */
+  public static long gameSeed(long masterSeed, long gameIndex) {
+    long z = masterSeed + gameIndex * GOLDEN_GAMMA;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  /**
+   * Function to find a source by its name, ignoring case.
+   *
+   * @param name legacy, splitmix or lxm
+   * @return the source
+   * @throws IllegalArgumentException if there is no such source
+   */
+  public static RandomSource parse(String name) {
+    try {
+      return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Unknown random source " + name
+          + ", expected legacy, splitmix or lxm");
+    }
+  }
+
+  /**
+   * Function to get the source named by the wof.rng system property,
+   * exiting if it names none.
+   *
+   * @return the source, LEGACY if the property is not set
+   */
+  public static RandomSource fromProperty() {
+    String name = System.getProperty(PROPERTY);
+    if (name == null) {
+      return LEGACY;
+    }
+    try {
+      return parse(name);
+    } catch (IllegalArgumentException e) {
+      System.out.println(e.getMessage());
+      System.exit(1);
+      return LEGACY;
+    }
+  }
+
+  /** Odd 64-bit constant closest to 2^64 divided by the golden ratio. */
+  private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+  private static final RandomGeneratorFactory<RandomGenerator> LXM_FACTORY =
+      RandomGeneratorFactory.of("L64X128MixRandom");
+}
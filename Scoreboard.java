@@ -0,0 +1,139 @@
+/**
+ * This Java file defines the Scoreboard class which shows the cash of every
+ * player and highlights the current player.
+ */
+
+package eecs285.proj3.kshilen;
+
+import java.awt.Color;
+import java.awt.GridLayout;
+import javax.swing.BorderFactory;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.border.Border;
+import javax.swing.border.TitledBorder;
+
+/**
+ * Persistent panel with one titled panel per player. The panels are built
+ * once per game. After each action only the players whose cash or
+ * highlight changed are updated, and only repainted, never laid out again.
+ */
+public class Scoreboard extends JPanel {
+  /** Border of the current player. */
+  private static final Border CURRENT_BORDER =
+      BorderFactory.createLineBorder(Color.RED);
+
+  /** Border of the other players. */
+  private static final Border OTHER_BORDER =
+      BorderFactory.createLineBorder(Color.BLACK);
+
+  /**
+   * Creates an empty scoreboard.
+   */
+  public Scoreboard() {
+    playerPanels = new JPanel[0];
+    titles = new TitledBorder[0];
+    cashLabels = new JLabel[0];
+    shownCash = new int[0];
+  }
+
+  /**
+   * Builds the panels for the players of a new game.
+   *
+   * @param engine the engine holding the players
+   */
+  public void setPlayers(GameEngine engine) {
+    int numPlayers = engine.getNumPlayers();
+    removeAll();
+    setLayout(new GridLayout(1, numPlayers));
+    playerPanels = new JPanel[numPlayers];
+    titles = new TitledBorder[numPlayers];
+    cashLabels = new JLabel[numPlayers];
+    shownCash = new int[numPlayers];
+    highlighted = engine.getCurrentPlayer();
+    for (int i = 0; i < numPlayers; ++i) {
+      titles[i] = BorderFactory.createTitledBorder(
+          i == highlighted ? CURRENT_BORDER : OTHER_BORDER,
+          engine.getPlayerName(i), TitledBorder.LEFT, TitledBorder.TOP);
+      playerPanels[i] = new JPanel();
+      playerPanels[i].setBorder(titles[i]);
+      shownCash[i] = engine.getPlayerCash(i);
+      cashLabels[i] = new JLabel(Integer.toString(shownCash[i]));
+      playerPanels[i].add(cashLabels[i]);
+      add(playerPanels[i]);
+    }
+    revalidate();
+  }
+
+  /**
+   * Shows the state of the engine after an action. An action only changes
+   * the cash of the player whose turn it was, so only that player and the
+   * new current player are checked.
+   *
+   * @param engine the engine holding the players
+   */
+  public void update(GameEngine engine) {
+    int previous = highlighted;
+    int current = engine.getCurrentPlayer();
+    updateCash(engine, previous);
+    if (current != previous) {
+      updateCash(engine, current);
+      highlight(previous, OTHER_BORDER);
+      highlight(current, CURRENT_BORDER);
+      highlighted = current;
+    }
+  }
+
+  /**
+   * Shows the cash and highlight of every player, for changes that were
+   * not made through a single action. Players who joined get a panel and
+   * eliminated players are greyed out.
+   *
+   * @param engine the engine holding the players
+   */
+  public void updateAll(GameEngine engine) {
+    if (engine.getNumPlayers() != shownCash.length) {
+      setPlayers(engine);
+    }
+    for (int i = 0; i < shownCash.length; ++i) {
+      updateCash(engine, i);
+      cashLabels[i].setEnabled(engine.isPlayerActive(i));
+    }
+    if (engine.getCurrentPlayer() != highlighted) {
+      highlight(highlighted, OTHER_BORDER);
+      highlighted = engine.getCurrentPlayer();
+      highlight(highlighted, CURRENT_BORDER);
+    }
+  }
+
+  /**
+   * Helper function to update a cash label if the cash has changed.
+   *
+   * @param engine the engine holding the players
+   * @param player the zero based player index
+   */
+  private void updateCash(GameEngine engine, int player) {
+    int cash = engine.getPlayerCash(player);
+    if (cash != shownCash[player]) {
+      shownCash[player] = cash;
+      cashLabels[player].setText(Integer.toString(cash));
+    }
+  }
+
+  /**
+   * Helper function to change the line around a player's panel.
+   *
+   * @param player the zero based player index
+   * @param border the line to draw
+   */
+  private void highlight(int player, Border border) {
+    titles[player].setBorder(border);
+    playerPanels[player].repaint();
+  }
+
+  private JPanel[] playerPanels;
+  private TitledBorder[] titles;
+  private JLabel[] cashLabels;
+  private int[] shownCash;
+  private int highlighted;
+}
@@ -0,0 +1,114 @@
+/**
+ * This Java file defines the SolverBot class, a computer player that
+ * chooses letters from the phrases that fit the board.
+ */
+
+package eecs285.proj3.kshilen;
+
+/**
+ * Bot that knows a list of possible puzzles. Before every choice it scores
+ * every available letter with one PuzzleSolver pass: the number of phrases
+ * fitting the board that contain the letter. It solves as soon as one
+ * phrase is left, guesses the letter most likely to be in the puzzle and
+ * buys a vowel when a vowel is more likely than any consonant. When no
+ * phrase fits the board it plays like a FrequencyBot.
+ */
+public class SolverBot extends FrequencyBot {
+  /**
+   * Creates a bot that knows the phrases of a solver.
+   *
+   * @param solver the solver over the possible puzzles
+   */
+  public SolverBot(PuzzleSolver solver) {
+    this.solver = solver;
+  }
+
+  @Override
+  public Move chooseMove(GameEngine engine) {
+    int[] counts = new int[GameEngine.NUM_LETTERS];
+    int candidates = score(engine, counts);
+    if (candidates == 0) {
+      return super.chooseMove(engine);
+    }
+    if (candidates == 1 || engine.isFullyRevealed()) {
+      return Move.SOLVE;
+    }
+    int bestVowel = engine.canBuyVowel()
+        ? counts[best(engine, counts, true) - 'A'] : -1;
+    int bestConsonant = engine.canSpin()
+        ? counts[best(engine, counts, false) - 'A'] : -1;
+    if (bestVowel > bestConsonant) {
+      return Move.BUY_VOWEL;
+    }
+    if (engine.canSpin()) {
+      return Move.SPIN;
+    }
+    return engine.canBuyVowel() ? Move.BUY_VOWEL : Move.SOLVE;
+  }
+
+  @Override
+  public char chooseConsonant(GameEngine engine) {
+    int[] counts = new int[GameEngine.NUM_LETTERS];
+    if (score(engine, counts) == 0) {
+      return super.chooseConsonant(engine);
+    }
+    return best(engine, counts, false);
+  }
+
+  @Override
+  public char chooseVowel(GameEngine engine) {
+    int[] counts = new int[GameEngine.NUM_LETTERS];
+    if (score(engine, counts) == 0) {
+      return super.chooseVowel(engine);
+    }
+    return best(engine, counts, true);
+  }
+
+  @Override
+  public String chooseSolution(GameEngine engine) {
+    int[] candidates = solver.findCandidates(engine);
+    if (candidates.length == 0) {
+      return super.chooseSolution(engine);
+    }
+    return solver.getPhrase(candidates[0]);
+  }
+
+  /**
+   * Helper function to score the letters of the board.
+   *
+   * @param engine the engine holding the game
+   * @param counts receives the score of every letter
+   * @return the number of phrases that fit the board
+   */
+  private int score(GameEngine engine, int[] counts) {
+    return solver.scoreLetters(engine.getHiddenPuzzle(),
+        PuzzleSolver.guessedMask(engine), counts);
+  }
+
+  /**
+   * Helper function to find the available vowel or consonant with the
+   * highest score, preferring the more frequent letter on a tie.
+   *
+   * @param engine the engine holding the game
+   * @param counts the score of every letter
+   * @param vowel true for a vowel, false for a consonant
+   * @return the letter
+   */
+  private static char best(GameEngine engine, int[] counts, boolean vowel) {
+    String letters = vowel ? VOWELS : CONSONANTS;
+    char best = 0;
+    for (int i = 0; i < letters.length(); ++i) {
+      char letter = letters.charAt(i);
+      if (engine.isLetterAvailable(letter)
+          && (best == 0 || counts[letter - 'A'] > counts[best - 'A'])) {
+        best = letter;
+      }
+    }
+    if (best == 0) {
+      throw new IllegalStateException("No available letters in " + letters);
+    }
+    return best;
+  }
+
+  private final PuzzleSolver solver;
+}
@@ -0,0 +1,418 @@
+/**
+ * This Java file defines the TerminalGame class which plays scripted games
+ * of Wheel of Fortune in a terminal, without Swing.
+ */
+
+package eecs285.proj3.kshilen;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.random.RandomGenerator;
+
+/**
+ * Text front end that reads commands from a stream, one per line, and
+ * prints the board and scores. All games share one engine, restarted with
+ * newGame, and the wheel is loaded once without its images, so thousands
+ * of scripted games run back to back in one JVM on a headless machine.
+ *
+ * Commands, case insensitive, with blank lines and # comments skipped:
+ *   PLAYERS name,name,...   names the players of the next games
+ *   NEW puzzle              starts a game
+ *   SPIN                    spins the wheel for the current player
+ *   CONSONANT letter        guesses a consonant after a spin
+ *   VOWEL letter            buys a vowel
+ *   SOLVE guess             attempts to solve the puzzle
+ *   BOT                     lets the bot play the current player's move
+ *   BOARD                   prints the board and scores
+ *   QUIT                    stops reading
+ * An invalid command prints ERR and a message and the script goes on.
+ */
+public class TerminalGame {
+  /**
+   * Command-line interface for the terminal game.
+   *
+   * Usage: TerminalGame [-q] [seed] [script]
+   * reads the script from stdin if none is given. With -q only the
+   * results of the games and errors are printed. Exits with status 2 if
+   * any command failed. The system property wof.rng chooses the
+   * RandomSource of the spins, legacy by default.
+   */
+  public static void main(String[] args) {
+    int first = 0;
+    boolean quiet = args.length > 0 && args[0].equals("-q");
+    if (quiet) {
+      first++;
+    }
+    long seed = 100;
+    if (args.length > first) {
+      try {
+        seed = Long.parseLong(args[first]);
+      } catch (NumberFormatException e) {
+        System.out.println("Random seed must be an integer");
+        System.exit(1);
+      }
+    }
+
+    WheelSpace[] wheelSpaces = null;
+    try {
+      wheelSpaces = WheelAssetLoader.loadResourceValues(
+          WheelOfFortuneFrame.IMAGES_PATH, WheelOfFortuneFrame.NUM_WHEEL_SPACES);
+    } catch (IOException e) {
+      System.out.println("Caught an IO exception: " + e.getMessage());
+      System.exit(4);
+    }
+
+    PrintWriter out = new PrintWriter(new OutputStreamWriter(System.out,
+        StandardCharsets.UTF_8), false);
+    TerminalGame game = new TerminalGame(wheelSpaces,
+        RandomSource.fromProperty().create(seed), out, quiet);
+    long start = System.nanoTime();
+    try (BufferedReader in = args.length > first + 1
+        ? Files.newBufferedReader(Paths.get(args[first + 1]),
+            StandardCharsets.UTF_8)
+        : new BufferedReader(new InputStreamReader(System.in,
+            StandardCharsets.UTF_8))) {
+      game.run(in);
+    } catch (IOException e) {
+      out.flush();
+      System.out.println("Caught an IO exception: " + e.getMessage());
+      System.exit(4);
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    out.printf("%d games, %d commands, %d errors in %.3f s%n",
+        game.getNumGames(), game.getNumCommands(), game.getNumErrors(),
+        seconds);
+    out.flush();
+    System.exit(game.getNumErrors() == 0 ? 0 : 2);
+  }
+
+  /**
+   * Creates a terminal game.
+   *
+   * @param wheelSpaces the spaces of the wheel
+   * @param generator the random-number generator used for spins
+   * @param out where the board and results are printed
+   * @param quiet true to print only the results of the games and errors
+   */
+  public TerminalGame(WheelSpace[] wheelSpaces, RandomGenerator generator,
+                      PrintWriter out, boolean quiet) {
+    engine = new GameEngine(wheelSpaces, generator);
+    this.out = out;
+    this.quiet = quiet;
+    bot = new FrequencyBot();
+    playerNames = new String[] {"Player 1", "Player 2", "Player 3"};
+  }
+
+  /**
+   * Runs commands until the end of the stream or QUIT.
+   *
+   * @param in the commands, one per line
+   * @throws IOException if the stream cannot be read
+   */
+  public void run(BufferedReader in) throws IOException {
+    String line;
+    while ((line = in.readLine()) != null) {
+      if (!execute(line)) {
+        break;
+      }
+    }
+    out.flush();
+  }
+
+  /**
+   * Runs one command, printing its result.
+   *
+   * @param line the command
+   * @return false after QUIT, else true
+   */
+  public boolean execute(String line) {
+    String trimmed = line.trim();
+    if (trimmed.isEmpty() || trimmed.charAt(0) == '#') {
+      return true;
+    }
+    numCommands++;
+    int space = trimmed.indexOf(' ');
+    String command = (space < 0 ? trimmed : trimmed.substring(0, space))
+        .toUpperCase(Locale.ROOT);
+    String argument = space < 0 ? "" : trimmed.substring(space + 1).trim();
+    try {
+      switch (command) {
+        case "PLAYERS":
+          setPlayers(argument);
+          break;
+        case "NEW":
+          newGame(argument);
+          break;
+        case "SPIN":
+          spin();
+          break;
+        case "CONSONANT":
+          guessLetter(argument, false);
+          break;
+        case "VOWEL":
+          guessLetter(argument, true);
+          break;
+        case "SOLVE":
+          solve(argument);
+          break;
+        case "BOT":
+          playBot();
+          break;
+        case "BOARD":
+          requireGame();
+          printBoard();
+          break;
+        case "QUIT":
+          return false;
+        default:
+          throw new IllegalArgumentException("Unknown command " + command);
+      }
+    } catch (IllegalStateException | IllegalArgumentException e) {
+      numErrors++;
+      out.println("ERR " + e.getMessage());
+    }
+    return true;
+  }
+
+  /**
+   * Function to get the number of games started.
+   *
+   * @return the number of games
+   */
+  public int getNumGames() {
+    return numGames;
+  }
+
+  /**
+   * Function to get the number of commands run, comments excluded.
+   *
+   * @return the number of commands
+   */
+  public long getNumCommands() {
+    return numCommands;
+  }
+
+  /**
+   * Function to get the number of commands that failed.
+   *
+   * @return the number of errors
+   */
+  public long getNumErrors() {
+    return numErrors;
+  }
+
+  /**
+   * Helper function to name the players of the next games.
+   *
+   * @param names the names, separated by commas
+   */
+  private void setPlayers(String names) {
+    String[] newNames = names.split(",");
+    for (int i = 0; i < newNames.length; ++i) {
+      newNames[i] = newNames[i].trim();
+      if (newNames[i].isEmpty()) {
+        throw new IllegalArgumentException("Player names must not be empty");
+      }
+    }
+    playerNames = newNames;
+  }
+
+  /**
+   * Helper function to start a game on a puzzle.
+   *
+   * @param puzzle the puzzle
+   */
+  private void newGame(String puzzle) {
+    if (puzzle.isEmpty()) {
+      throw new IllegalArgumentException("Missing puzzle");
+    }
+    engine.newGame(playerNames, puzzle);
+    awaitingConsonant = false;
+    started = true;
+    numGames++;
+    if (!quiet) {
+      out.println("Game " + numGames);
+      printBoard();
+    }
+  }
+
+  /**
+   * Helper function to spin the wheel.
+   */
+  private void spin() {
+    requireMove();
+    if (awaitingConsonant) {
+      throw new IllegalStateException("Guess a consonant first");
+    }
+    if (!engine.canSpin()) {
+      throw new IllegalStateException("All consonants have been guessed");
+    }
+    int player = engine.getCurrentPlayer();
+    engine.spin();
+    WheelSpace space = engine.getCurrentSpace();
+    awaitingConsonant = !space.isBankrupt() && !space.isLoseATurn();
+    if (!quiet) {
+      out.println(engine.getPlayerName(player) + " spun "
+          + describe(space));
+    }
+  }
+
+  /**
+   * Helper function to guess a consonant or buy a vowel.
+   *
+   * @param letterText the letter
+   * @param vowel true to buy a vowel, false to guess a consonant
+   */
+  private void guessLetter(String letterText, boolean vowel) {
+    requireMove();
+    if (letterText.length() != 1 || !GameEngine.isAlphabet(
+        Character.toUpperCase(letterText.charAt(0)))) {
+      throw new IllegalArgumentException("Not a letter: " + letterText);
+    }
+    char letter = Character.toUpperCase(letterText.charAt(0));
+    if (GameEngine.isVowel(letter) != vowel) {
+      throw new IllegalArgumentException(letter + " is not a "
+          + (vowel ? "vowel" : "consonant"));
+    }
+    if (awaitingConsonant == vowel) {
+      throw new IllegalStateException(vowel ? "Guess a consonant first"
+          : "Spin the wheel first");
+    }
+    if (vowel && !engine.canBuyVowel()) {
+      throw new IllegalStateException("Cannot buy a vowel");
+    }
+    if (!engine.isLetterAvailable(letter)) {
+      throw new IllegalStateException(letter + " was already guessed");
+    }
+    if (vowel) {
+      engine.buyVowel(letter);
+    } else {
+      engine.guessConsonant(letter);
+      awaitingConsonant = false;
+    }
+    if (!quiet) {
+      out.println(letter + " occurs "
+          + engine.getPuzzleIndex().getOccurrences(letter) + " times");
+      printBoard();
+    }
+  }
+
+  /**
+   * Helper function to attempt to solve the puzzle.
+   *
+   * @param guess the guessed puzzle
+   */
+  private void solve(String guess) {
+    requireMove();
+    if (awaitingConsonant) {
+      throw new IllegalStateException("Guess a consonant first");
+    }
+    int player = engine.getCurrentPlayer();
+    if (engine.solve(guess)) {
+      printWin(player);
+    } else if (!quiet) {
+      out.println("Guess by " + engine.getPlayerName(player)
+          + " was incorrect!");
+    }
+  }
+
+  /**
+   * Helper function to let the bot play one move. After a spin the bot
+   * only picks the consonant.
+   */
+  private void playBot() {
+    requireMove();
+    int player = engine.getCurrentPlayer();
+    Bot.Move move;
+    if (awaitingConsonant) {
+      engine.guessConsonant(bot.chooseConsonant(engine));
+      awaitingConsonant = false;
+      move = Bot.Move.SPIN;
+    } else {
+      move = bot.playMove(engine);
+    }
+    if (engine.isGameOver()) {
+      printWin(player);
+    } else if (!quiet) {
+      out.println(engine.getPlayerName(player) + " played " + move);
+      printBoard();
+    }
+  }
+
+  /**
+   * Helper function to print the hidden puzzle and the cash of every
+   * player, marking the current player.
+   */
+  private void printBoard() {
+    out.println("  " + engine.getHiddenPuzzle());
+    for (int i = 0; i < engine.getNumPlayers(); ++i) {
+      out.println((i == engine.getCurrentPlayer() ? "> " : "  ")
+          + engine.getPlayerName(i) + " $" + engine.getPlayerCash(i));
+    }
+  }
+
+  /**
+   * Helper function to print the result of a solved game, also in quiet
+   * mode.
+   *
+   * @param player the player who solved the puzzle
+   */
+  private void printWin(int player) {
+    out.println("Game " + numGames + ": " + engine.getPlayerName(player)
+        + " wins $" + engine.getPlayerCash(player) + " with "
+        + engine.getPuzzle());
+  }
+
+  /**
+   * Helper function to describe a wheel space.
+   *
+   * @param space the wheel space
+   * @return the description
+   */
+  private static String describe(WheelSpace space) {
+    if (space.isBankrupt()) {
+      return "BANKRUPT";
+    }
+    if (space.isLoseATurn()) {
+      return "LOSE A TURN";
+    }
+    return "$" + space.getDollarValue();
+  }
+
+  /**
+   * Helper function to check that a game was started.
+   */
+  private void requireGame() {
+    if (!started) {
+      throw new IllegalStateException("Start a game with NEW first");
+    }
+  }
+
+  /**
+   * Helper function to check that a game is in progress.
+   */
+  private void requireMove() {
+    requireGame();
+    if (engine.isGameOver()) {
+      throw new IllegalStateException("The game is over, start one with NEW");
+    }
+  }
+
+  private final GameEngine engine;
+  private final PrintWriter out;
+  private final boolean quiet;
+  private final Bot bot;
+  private String[] playerNames;
+  private boolean awaitingConsonant;
+  private boolean started;
+  private int numGames;
+  private long numCommands;
+  private long numErrors;
+}
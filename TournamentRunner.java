@@ -0,0 +1,526 @@
+/**
+ * This Java file defines the TournamentRunner class which plays bot
+ * strategies against each other and streams the result of every game.
+ */
+
+package eecs285.proj3.kshilen;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntFunction;
+
+/**
+ * Tournament of bot strategies. Every puzzle is played with every seed and
+ * with the strategies seated in every rotation, so each strategy starts
+ * equally often on the same boards and spins. Game g plays puzzle
+ * g % numPuzzles, rotation (g / numPuzzles) % numStrategies and seed
+ * index g / (numPuzzles * numStrategies). Its generator is seeded from the
+ * master seed and the seed index alone, so every result only depends on
+ * the master seed, never on the thread count or on the order games finish.
+ *
+ * Games are played in batches on a work-stealing pool. At most a few
+ * batches per thread are in flight, and finished batches are written in
+ * game order as soon as all earlier ones are written, so memory stays
+ * bounded however many games are played.
+ *
+ * Results are written as CSV if the output file ends in .csv and in a
+ * columnar binary format otherwise. The binary file starts with the magic
+ * number, the version, the number of strategies and their names, followed
+ * by blocks of up to GAMES_PER_BATCH games. A block is its game count
+ * followed by one column per field: game (long), puzzle, seed, rotation,
+ * winner, turns, then the cash and the bankrupts of every strategy (int).
+ * A winner of -1 means no one solved the puzzle within MAX_TURNS.
+ */
+public class TournamentRunner {
+  /** Number of games played by one task. */
+  static final int GAMES_PER_BATCH = 1024;
+
+  /** Number of batches in flight per thread of the pool. */
+  static final int BATCHES_PER_THREAD = 4;
+
+  /** Turns after which a game ends without a winner. */
+  static final int MAX_TURNS = 1000;
+
+  /** Identifies a binary results file. */
+  static final int MAGIC = 0x574F4652;
+
+  /** Version of the binary results format. */
+  static final int VERSION = 1;
+
+  /**
+   * Command-line interface for tournaments. The puzzles are a text file
+   * with one puzzle per line, or a PuzzleCorpus if the name ends in
+   * .corpus. Strategies are frequency or solver. The system property
+   * wof.rng chooses the RandomSource of the games, legacy by default.
+   *
+   * Usage: TournamentRunner seed numSeeds puzzles output strategy...
+   */
+  public static void main(String[] args) {
+    if (args.length < 5) {
+      System.out.println(
+          "Usage: TournamentRunner seed numSeeds puzzles output strategy...");
+      System.exit(1);
+    }
+    long seed = 0;
+    int numSeeds = 0;
+    try {
+      seed = Long.parseLong(args[0]);
+      numSeeds = Integer.parseInt(args[1]);
+    } catch (NumberFormatException e) {
+      System.out.println("Seed and number of seeds must be integers");
+      System.exit(1);
+    }
+    try {
+      // A corpus stays mapped; only a text file is read into memory
+      Path puzzleFile = Paths.get(args[2]);
+      PuzzleCorpus corpus = null;
+      String[] lines = null;
+      if (puzzleFile.toString().endsWith(".corpus")) {
+        corpus = PuzzleCorpus.open(puzzleFile);
+      } else {
+        lines = loadPuzzles(puzzleFile);
+      }
+      PuzzleSolver solver = null;
+      String[] names = new String[args.length - 4];
+      Bot[] strategies = new Bot[names.length];
+      for (int i = 0; i < names.length; ++i) {
+        names[i] = args[i + 4];
+        if (names[i].equals("frequency")) {
+          strategies[i] = new FrequencyBot();
+        } else if (names[i].equals("solver")) {
+          if (solver == null) {
+            solver = corpus != null ? PuzzleSolver.of(corpus)
+                : PuzzleSolver.of(lines);
+          }
+          strategies[i] = new SolverBot(solver);
+        } else {
+          System.out.println("Unknown strategy " + names[i]);
+          System.exit(1);
+        }
+      }
+
+      WheelSpace[] wheelSpaces = WheelAssetLoader.loadResourceValues(
+          WheelOfFortuneFrame.IMAGES_PATH, WheelOfFortuneFrame.NUM_WHEEL_SPACES);
+      String[] puzzleLines = lines;
+      IntFunction<String> puzzles = corpus != null ? corpus::get
+          : new IntFunction<String>() {
+            @Override
+            public String apply(int index) {
+              return puzzleLines[index];
+            }
+          };
+      TournamentRunner runner = new TournamentRunner(wheelSpaces, names,
+          strategies, corpus != null ? corpus.size() : lines.length, puzzles,
+          RandomSource.fromProperty());
+      ForkJoinPool pool = ForkJoinPool.commonPool();
+      System.out.println("Playing " + runner.getNumGames(numSeeds)
+          + " games on " + pool.getParallelism() + " threads");
+      long start = System.nanoTime();
+      Summary summary = runner.run(pool, seed, numSeeds, Paths.get(args[3]));
+      double seconds = (System.nanoTime() - start) / 1e9;
+      summary.print();
+      System.out.printf("Games per second: %.0f%n", summary.games / seconds);
+    } catch (IOException e) {
+      System.out.println("Caught an IO exception: " + e.getMessage());
+      System.exit(4);
+    }
+  }
+
+  /**
+   * Creates a tournament.
+   *
+   * @param wheelSpaces the spaces of the wheel
+   * @param names the names of the strategies
+   * @param strategies the bots playing the strategies, which must be safe to
+   *                   use from many threads
+   * @param numPuzzles the number of puzzles
+   * @param puzzles gets a puzzle by its index
+   */
+  public TournamentRunner(WheelSpace[] wheelSpaces, String[] names,
+                          Bot[] strategies, int numPuzzles,
+                          IntFunction<String> puzzles) {
+    this(wheelSpaces, names, strategies, numPuzzles, puzzles,
+        RandomSource.LEGACY);
+  }
+
+  /**
+   * Creates a tournament whose games are spun with generators of the given
+   * source.
+   *
+   * @param wheelSpaces the spaces of the wheel
+   * @param names the names of the strategies
+   * @param strategies the bots playing the strategies, which must be safe to
+   *                   use from many threads
+   * @param numPuzzles the number of puzzles
+   * @param puzzles gets a puzzle by its index
+   * @param source the source of the generator of every game
+   */
+  public TournamentRunner(WheelSpace[] wheelSpaces, String[] names,
+                          Bot[] strategies, int numPuzzles,
+                          IntFunction<String> puzzles, RandomSource source) {
+    this.wheelSpaces = wheelSpaces;
+    this.source = source;
+    sampler = WheelSampler.of(wheelSpaces);
+    this.names = names.clone();
+    this.strategies = strategies.clone();
+    this.numPuzzles = numPuzzles;
+    this.puzzles = puzzles;
+    players = new String[strategies.length];
+    for (int i = 0; i < players.length; ++i) {
+      players[i] = "Seat " + (i + 1);
+    }
+  }
+
+  /**
+   * Function to get the number of games of a tournament.
+   *
+   * @param numSeeds the number of seeds
+   * @return the number of games
+   */
+  public long getNumGames(int numSeeds) {
+    return (long) numPuzzles * strategies.length * numSeeds;
+  }
+
+  /**
+   * Plays the tournament, writing every result to a file in game order.
+   *
+   * @param pool the pool that plays the games
+   * @param masterSeed the seed of the whole tournament
+   * @param numSeeds the number of seeds every puzzle and rotation is
+   *                 played with
+   * @param output the results file, CSV if it ends in .csv
+   * @return the totals of the strategies
+   * @throws IOException if the results cannot be written
+   */
+  public Summary run(ForkJoinPool pool, long masterSeed, int numSeeds,
+                     Path output) throws IOException {
+    long numGames = getNumGames(numSeeds);
+    long numBatches = (numGames + GAMES_PER_BATCH - 1) / GAMES_PER_BATCH;
+    int maxInFlight = pool.getParallelism() * BATCHES_PER_THREAD;
+    Summary summary = new Summary(names);
+    ArrayDeque<ForkJoinTask<Batch>> inFlight = new ArrayDeque<>();
+    try (ResultWriter writer = output.toString().endsWith(".csv")
+        ? new CsvWriter(output, names) : new ColumnWriter(output, names)) {
+      long next = 0;
+      while (next < numBatches || !inFlight.isEmpty()) {
+        while (next < numBatches && inFlight.size() < maxInFlight) {
+          long first = next * GAMES_PER_BATCH;
+          inFlight.add(pool.submit(new BatchTask(masterSeed, first,
+              (int) Math.min(GAMES_PER_BATCH, numGames - first))));
+          next++;
+        }
+        Batch batch = inFlight.poll().join();
+        writer.write(batch);
+        summary.add(batch);
+      }
+    }
+    return summary;
+  }
+
+  /**
+   * Plays one game and stores its result in a batch.
+   *
+   * @param engine the engine to play on
+   * @param masterSeed the seed of the whole tournament
+   * @param game the index of the game
+   * @param batch the batch to store the result in
+   * @param row the row of the batch
+   */
+  void playGame(GameEngine engine, long masterSeed, long game, Batch batch,
+                int row) {
+    int numStrategies = strategies.length;
+    int puzzle = (int) (game % numPuzzles);
+    int rotation = (int) (game / numPuzzles % numStrategies);
+    int seedIndex = (int) (game / numPuzzles / numStrategies);
+    engine.setGenerator(source.forGame(masterSeed, seedIndex));
+    engine.newGame(players, puzzles.apply(puzzle));
+
+    int[] bankrupts = new int[numStrategies];
+    int turns = 0;
+    while (!engine.isGameOver() && turns < MAX_TURNS) {
+      int seat = engine.getCurrentPlayer();
+      int strategy = (seat + rotation) % numStrategies;
+      turns++;
+      if (strategies[strategy].playMove(engine) == Bot.Move.SPIN
+          && engine.getCurrentSpace().isBankrupt()) {
+        bankrupts[strategy]++;
+      }
+    }
+
+    batch.game[row] = game;
+    batch.puzzle[row] = puzzle;
+    batch.seed[row] = seedIndex;
+    batch.rotation[row] = rotation;
+    batch.winner[row] = engine.isGameOver()
+        ? (engine.getCurrentPlayer() + rotation) % numStrategies : -1;
+    batch.turns[row] = turns;
+    for (int seat = 0; seat < numStrategies; ++seat) {
+      int strategy = (seat + rotation) % numStrategies;
+      batch.cash[strategy][row] = engine.getPlayerCash(seat);
+      batch.bankrupts[strategy][row] = bankrupts[strategy];
+    }
+  }
+
+  /**
+   * Function to read the puzzles of a tournament from a text file. A
+   * corpus is not read this way but played from its mapping.
+   *
+   * @param file a text file with a puzzle per line
+   * @return the puzzles
+   * @throws IOException if the file cannot be read
+   */
+  static String[] loadPuzzles(Path file) throws IOException {
+    List<String> puzzles = new ArrayList<>();
+    for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+      if (!line.isBlank()) {
+        puzzles.add(line.trim());
+      }
+    }
+    return puzzles.toArray(new String[0]);
+  }
+
+  /**
+   * Results of consecutive games, stored by column.
+   */
+  static class Batch {
+    Batch(int size, int numStrategies) {
+      this.size = size;
+      game = new long[size];
+      puzzle = new int[size];
+      seed = new int[size];
+      rotation = new int[size];
+      winner = new int[size];
+      turns = new int[size];
+      cash = new int[numStrategies][size];
+      bankrupts = new int[numStrategies][size];
+    }
+
+    final int size;
+    final long[] game;
+    final int[] puzzle;
+    final int[] seed;
+    final int[] rotation;
+    final int[] winner;
+    final int[] turns;
+    /** Cash per strategy and game. */
+    final int[][] cash;
+    /** Bankrupts per strategy and game. */
+    final int[][] bankrupts;
+  }
+
+  /**
+   * Totals of the strategies over a tournament.
+   */
+  public static class Summary {
+    Summary(String[] names) {
+      this.names = names;
+      wins = new long[names.length];
+      cash = new long[names.length];
+    }
+
+    /**
+     * Function to add the games of a batch.
+     *
+     * @param batch the batch
+     */
+    void add(Batch batch) {
+      for (int row = 0; row < batch.size; ++row) {
+        games++;
+        if (batch.winner[row] < 0) {
+          unfinished++;
+        } else {
+          wins[batch.winner[row]]++;
+        }
+        for (int s = 0; s < names.length; ++s) {
+          cash[s] += batch.cash[s][row];
+        }
+      }
+    }
+
+    /**
+     * Function to get the number of games a strategy won.
+     *
+     * @param strategy the index of the strategy
+     * @return the number of wins
+     */
+    public long getWins(int strategy) {
+      return wins[strategy];
+    }
+
+    /**
+     * Prints the totals.
+     */
+    public void print() {
+      System.out.println("Games: " + games + " (" + unfinished + " unfinished)");
+      for (int s = 0; s < names.length; ++s) {
+        System.out.printf("%s: %.2f%% wins, average cash $%.2f%n", names[s],
+            100.0 * wins[s] / games, (double) cash[s] / games);
+      }
+    }
+
+    private final String[] names;
+    private final long[] wins;
+    private final long[] cash;
+    private long games;
+    private long unfinished;
+  }
+
+  /**
+   * Writes finished batches to a results file.
+   */
+  private interface ResultWriter extends Closeable {
+    void write(Batch batch) throws IOException;
+  }
+
+  /**
+   * Writes one CSV line per game.
+   */
+  private static class CsvWriter implements ResultWriter {
+    CsvWriter(Path file, String[] names) throws IOException {
+      out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+      StringBuilder header = new StringBuilder(
+          "game,puzzle,seed,rotation,winner,turns");
+      for (String name : names) {
+        header.append(",cash_").append(name);
+      }
+      for (String name : names) {
+        header.append(",bankrupts_").append(name);
+      }
+      out.write(header.append('\n').toString());
+      this.names = names;
+      line = new StringBuilder();
+    }
+
+    @Override
+    public void write(Batch batch) throws IOException {
+      for (int row = 0; row < batch.size; ++row) {
+        line.setLength(0);
+        line.append(batch.game[row]).append(',').append(batch.puzzle[row])
+            .append(',').append(batch.seed[row]).append(',')
+            .append(batch.rotation[row]).append(',')
+            .append(batch.winner[row] < 0 ? "" : names[batch.winner[row]])
+            .append(',').append(batch.turns[row]);
+        for (int[] column : batch.cash) {
+          line.append(',').append(column[row]);
+        }
+        for (int[] column : batch.bankrupts) {
+          line.append(',').append(column[row]);
+        }
+        out.append(line).append('\n');
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      out.close();
+    }
+
+    private final BufferedWriter out;
+    private final String[] names;
+    private final StringBuilder line;
+  }
+
+  /**
+   * Writes the columns of every batch as a block.
+   */
+  private static class ColumnWriter implements ResultWriter {
+    ColumnWriter(Path file, String[] names) throws IOException {
+      OutputStream stream = Files.newOutputStream(file);
+      out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(names.length);
+      for (String name : names) {
+        out.writeUTF(name);
+      }
+    }
+
+    @Override
+    public void write(Batch batch) throws IOException {
+      out.writeInt(batch.size);
+      for (int row = 0; row < batch.size; ++row) {
+        out.writeLong(batch.game[row]);
+      }
+      writeColumn(batch.puzzle, batch.size);
+      writeColumn(batch.seed, batch.size);
+      writeColumn(batch.rotation, batch.size);
+      writeColumn(batch.winner, batch.size);
+      writeColumn(batch.turns, batch.size);
+      for (int[] column : batch.cash) {
+        writeColumn(column, batch.size);
+      }
+      for (int[] column : batch.bankrupts) {
+        writeColumn(column, batch.size);
+      }
+    }
+
+    /**
+     * Helper function to write a column of ints.
+     *
+     * @param column the column
+     * @param size the number of rows
+     * @throws IOException if the file cannot be written
+     */
+    private void writeColumn(int[] column, int size) throws IOException {
+      for (int row = 0; row < size; ++row) {
+        out.writeInt(column[row]);
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      out.close();
+    }
+
+    private final DataOutputStream out;
+  }
+
+  /**
+   * Task that plays a batch of consecutive games.
+   */
+  private class BatchTask extends RecursiveTask<Batch> {
+    BatchTask(long masterSeed, long firstGame, int games) {
+      this.masterSeed = masterSeed;
+      this.firstGame = firstGame;
+      this.games = games;
+    }
+
+    @Override
+    protected Batch compute() {
+      Batch batch = new Batch(games, strategies.length);
+      GameEngine engine = new GameEngine(wheelSpaces, sampler,
+          source.create(masterSeed));
+      for (int row = 0; row < games; ++row) {
+        playGame(engine, masterSeed, firstGame + row, batch, row);
+      }
+      return batch;
+    }
+
+    private final long masterSeed;
+    private final long firstGame;
+    private final int games;
+  }
+
+  private final WheelSpace[] wheelSpaces;
+  private final WheelSampler sampler;
+  private final RandomSource source;
+  private final String[] names;
+  private final Bot[] strategies;
+  private final int numPuzzles;
+  private final IntFunction<String> puzzles;
+  private final String[] players;
+}
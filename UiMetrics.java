@@ -0,0 +1,276 @@
+/**
+ * This Java file defines the UiMetrics class which times the actions of the
+ * game window.
+ */
+
+package eecs285.proj3.kshilen;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Timing of every action of the game window. Each action has a
+ * LatencyHistogram and is committed as a JDK Flight Recorder event when a
+ * recording enables it. An action that holds the event dispatch thread for
+ * longer than the stall threshold is printed as it finishes. Recording an
+ * action is one histogram increment plus an event that escapes analysis
+ * removes while no recording is running, so the metrics are always on.
+ *
+ * The histograms can be written to a file every few seconds, as JSON if the
+ * file name ends in .json and as text otherwise.
+ */
+public class UiMetrics {
+  /** Default time after which an action is reported as a stall. */
+  public static final long DEFAULT_STALL_MILLIS = 50;
+
+  /**
+   * The timed actions. Handlers that open a modal dialog are timed from
+   * the moment the dialog closes, so the time spent typing is not counted.
+   * FRAME is the time between two frames of the spin animation.
+   */
+  public enum Action {
+    SPIN, SPIN_SETTLED, BUY_VOWEL, VOWEL, CONSONANT, SOLVE, SCOREBOARD,
+    RELAYOUT, FRAME
+  }
+
+  /**
+   * Flight Recorder event of one action of the game window.
+   */
+  @Name("eecs285.wof.UiAction")
+  @Label("UI Action")
+  @Category({"Wheel of Fortune", "UI"})
+  @Description("An action handled on the event dispatch thread")
+  static class UiActionEvent extends Event {
+    @Label("Action")
+    String action;
+
+    @Label("Stalled")
+    @Description("The action took longer than the stall threshold")
+    boolean stalled;
+
+    /** The action, for the histogram. */
+    transient Action timed;
+
+    /** When the action started, for the histogram. */
+    transient long startNanos;
+  }
+
+  /**
+   * Flight Recorder event of a full layout of a component tree.
+   */
+  @Name("eecs285.wof.Relayout")
+  @Label("Relayout")
+  @Category({"Wheel of Fortune", "UI"})
+  @Description("A component tree laid out from scratch")
+  static class RelayoutEvent extends Event {
+    @Label("Component")
+    String component;
+
+    @Label("Components")
+    @Description("Number of components laid out")
+    int components;
+
+    /** When the layout started, for the histogram. */
+    transient long startNanos;
+  }
+
+  /**
+   * Function to start timing an action. Pass the result to end once the
+   * action is done.
+   *
+   * @param action the action
+   * @return the running event
+   */
+  public static UiActionEvent begin(Action action) {
+    UiActionEvent event = new UiActionEvent();
+    event.action = action.name();
+    event.timed = action;
+    event.begin();
+    event.startNanos = System.nanoTime();
+    return event;
+  }
+
+  /**
+   * Stops timing an action, records it and reports it if it stalled.
+   *
+   * @param event the event returned by begin
+   */
+  public static void end(UiActionEvent event) {
+    event.end();
+    long nanos = System.nanoTime() - event.startNanos;
+    Action action = event.timed;
+    histograms[action.ordinal()].record(nanos);
+    if (nanos > stallNanos) {
+      event.stalled = true;
+      System.out.printf("Event dispatch thread stalled: %s took %.1f ms%n",
+          action, nanos / 1e6);
+    }
+    event.commit();
+  }
+
+  /**
+   * Records the time of an action measured by the caller, such as the
+   * interval between two animation frames. It is not reported as a stall.
+   *
+   * @param action the action
+   * @param nanos the time in nanoseconds
+   */
+  public static void record(Action action, long nanos) {
+    histograms[action.ordinal()].record(nanos);
+  }
+
+  /**
+   * Function to start timing the full layout of a component tree. Pass the
+   * result to endRelayout once the layout is done.
+   *
+   * @param component the name of the component
+   * @param components the number of components laid out
+   * @return the running event
+   */
+  public static RelayoutEvent beginRelayout(String component, int components) {
+    RelayoutEvent event = new RelayoutEvent();
+    event.component = component;
+    event.components = components;
+    event.begin();
+    event.startNanos = System.nanoTime();
+    return event;
+  }
+
+  /**
+   * Stops timing a layout and records it as a RELAYOUT action.
+   *
+   * @param event the event returned by beginRelayout
+   */
+  public static void endRelayout(RelayoutEvent event) {
+    event.end();
+    long nanos = System.nanoTime() - event.startNanos;
+    histograms[Action.RELAYOUT.ordinal()].record(nanos);
+    if (nanos > stallNanos) {
+      System.out.printf("Event dispatch thread stalled: layout of %s took %.1f ms%n",
+          event.component, nanos / 1e6);
+    }
+    event.commit();
+  }
+
+  /**
+   * Function to get the histogram of an action.
+   *
+   * @param action the action
+   * @return the histogram
+   */
+  public static LatencyHistogram getHistogram(Action action) {
+    return histograms[action.ordinal()];
+  }
+
+  /**
+   * Sets the time after which an action is reported as a stall.
+   *
+   * @param millis the threshold in milliseconds
+   */
+  public static void setStallMillis(long millis) {
+    stallNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+  }
+
+  /**
+   * Function to summarize every action that happened, one per line.
+   *
+   * @return the text snapshot
+   */
+  public static String toText() {
+    StringBuilder text = new StringBuilder();
+    for (Action action : Action.values()) {
+      LatencyHistogram histogram = histograms[action.ordinal()];
+      if (histogram.getCount() > 0) {
+        text.append(action).append(' ').append(histogram.summary())
+            .append('\n');
+      }
+    }
+    return text.toString();
+  }
+
+  /**
+   * Function to write the histograms as JSON, with latencies in
+   * nanoseconds.
+   *
+   * @return the JSON snapshot
+   */
+  public static String toJson() {
+    StringBuilder json = new StringBuilder("{\"timestamp\":")
+        .append(System.currentTimeMillis()).append(",\"actions\":{");
+    for (Action action : Action.values()) {
+      LatencyHistogram histogram = histograms[action.ordinal()];
+      if (action.ordinal() > 0) {
+        json.append(',');
+      }
+      json.append('"').append(action).append("\":{\"count\":")
+          .append(histogram.getCount())
+          .append(",\"p50\":").append(histogram.getPercentile(50))
+          .append(",\"p90\":").append(histogram.getPercentile(90))
+          .append(",\"p99\":").append(histogram.getPercentile(99))
+          .append(",\"max\":").append(histogram.getMax()).append('}');
+    }
+    return json.append("}}\n").toString();
+  }
+
+  /**
+   * Writes a snapshot of the histograms to a file every few seconds until
+   * the program exits. Each snapshot replaces the file atomically, so
+   * readers never see half of one.
+   *
+   * @param file the file, written as JSON if its name ends in .json
+   * @param periodSeconds the time between snapshots
+   */
+  public static synchronized void startSnapshots(Path file, long periodSeconds) {
+    if (snapshots != null) {
+      snapshots.shutdown();
+    }
+    boolean json = file.toString().endsWith(".json");
+    Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    snapshots = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "ui-metrics");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    snapshots.scheduleAtFixedRate(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          Files.write(temp, (json ? toJson() : toText())
+              .getBytes(StandardCharsets.UTF_8));
+          Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+              StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+          System.out.println("Cannot write UI metrics: " + e.getMessage());
+        }
+      }
+    }, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+  }
+
+  private static final LatencyHistogram[] histograms =
+      new LatencyHistogram[Action.values().length];
+
+  static {
+    for (int i = 0; i < histograms.length; ++i) {
+      histograms[i] = new LatencyHistogram();
+    }
+  }
+
+  private static volatile long stallNanos =
+      TimeUnit.MILLISECONDS.toNanos(DEFAULT_STALL_MILLIS);
+  private static ScheduledExecutorService snapshots;
+}
@@ -0,0 +1,313 @@
+/**
+ * This Java file defines the WheelAssetLoader class which loads the wheel
+ * space images from a directory or from a JAR or zip file.
+ */
+
+package eecs285.proj3.kshilen;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.swing.Icon;
+
+/**
+ * Loads wheel-space images named <spaceNumber>_<value>.jpg, or
+ * <spaceNumber>_<value>_<weight>.jpg for a space that is landed on more or
+ * less often than the others. The image
+ * directory is listed once and every filename is parsed once into an index
+ * from space number to file. The images are then decoded in parallel into
+ * a shared WheelAtlas, or read from its saved copy. The directory is read
+ * through NIO, so it may live on the default file system or inside a JAR
+ * or zip file.
+ *
+ * If the directory holds a WheelManifest, the wheel is read from the
+ * manifest instead and the filenames are never listed or parsed. Rebuild
+ * the manifest with WheelManifest whenever the images change.
+ */
+public class WheelAssetLoader {
+  /**
+   * Loads the wheel from a classpath resource directory, which may be a
+   * plain directory or a directory inside the JAR the game runs from.
+   *
+   * @param resourcePath the path of the image directory on the classpath
+   * @param numSpaces the number of spaces expected, unless the directory
+   *                  has a manifest, which defines its own
+   * @return array of WheelSpace objects representing the images
+   * @throws IOException if the directory cannot be read
+   */
+  public static WheelSpace[] loadResource(String resourcePath, int numSpaces)
+      throws IOException {
+    return load(resolveResource(resourcePath), numSpaces);
+  }
+
+  /**
+   * Loads the values of the wheel from a classpath resource directory
+   * without decoding any images, for games that are not shown on screen.
+   *
+   * @param resourcePath the path of the image directory on the classpath
+   * @param numSpaces the number of spaces expected, unless the directory
+   *                  has a manifest, which defines its own
+   * @return array of WheelSpace objects without images
+   * @throws IOException if the directory cannot be read
+   */
+  public static WheelSpace[] loadResourceValues(String resourcePath,
+                                                int numSpaces)
+      throws IOException {
+    Path dir = resolveResource(resourcePath);
+    WheelManifest manifest = readManifest(dir);
+    if (manifest != null) {
+      WheelSpace[] wheelSpaces = new WheelSpace[manifest.getNumSpaces()];
+      for (int i = 0; i < wheelSpaces.length; ++i) {
+        wheelSpaces[i] = manifest.makeSpace(i, null);
+      }
+      return wheelSpaces;
+    }
+    Path[] images = indexImages(dir, numSpaces);
+    WheelSpace[] wheelSpaces = new WheelSpace[numSpaces];
+    for (int i = 0; i < numSpaces; ++i) {
+      wheelSpaces[i] = makeSpace(images[i].getFileName().toString(), null);
+    }
+    return wheelSpaces;
+  }
+
+  /**
+   * Loads the wheel from the image directory inside a zip or JAR file.
+   *
+   * @param zipFile the zip or JAR file
+   * @param dirInZip the path of the image directory inside the file
+   * @param numSpaces the number of spaces expected, unless the directory
+   *                  has a manifest, which defines its own
+   * @return array of WheelSpace objects representing the images
+   * @throws IOException if the file cannot be read
+   */
+  public static WheelSpace[] loadZip(Path zipFile, String dirInZip,
+                                     int numSpaces) throws IOException {
+    try (FileSystem zipSystem = FileSystems.newFileSystem(zipFile,
+        (ClassLoader) null)) {
+      return load(zipSystem.getPath(dirInZip), numSpaces);
+    }
+  }
+
+  /**
+   * Loads the wheel from an image directory on any file system.
+   *
+   * @param dir the directory containing the images
+   * @param numSpaces the number of spaces expected, unless the directory
+   *                  has a manifest, which defines its own
+   * @return array of WheelSpace objects representing the images
+   * @throws IOException if the directory cannot be read or an image is
+   *                     missing or invalid
+   */
+  public static WheelSpace[] load(Path dir, int numSpaces) throws IOException {
+    WheelManifest manifest = readManifest(dir);
+    if (manifest != null) {
+      WheelAtlas atlas = WheelAtlas.load(dir, manifest);
+      WheelSpace[] wheelSpaces = new WheelSpace[manifest.getNumSpaces()];
+      for (int i = 0; i < wheelSpaces.length; ++i) {
+        wheelSpaces[i] = manifest.makeSpace(i, atlas.getIcon(i));
+      }
+      return wheelSpaces;
+    }
+    Path[] images = indexImages(dir, numSpaces);
+    WheelAtlas atlas = WheelAtlas.load(dir, images);
+    WheelSpace[] wheelSpaces = new WheelSpace[numSpaces];
+    for (int i = 0; i < numSpaces; ++i) {
+      wheelSpaces[i] = makeSpace(images[i].getFileName().toString(),
+          atlas.getIcon(i));
+    }
+    return wheelSpaces;
+  }
+
+  /**
+   * Reads the manifest of an image directory if it has one.
+   *
+   * @param dir the directory containing the images
+   * @return the manifest, or null if the directory has none
+   * @throws IOException if the manifest is invalid
+   */
+  static WheelManifest readManifest(Path dir) throws IOException {
+    Path manifestFile = dir.resolve(WheelManifest.MANIFEST_FILE_NAME);
+    if (!Files.exists(manifestFile)) {
+      return null;
+    }
+    return WheelManifest.read(manifestFile);
+  }
+
+  /**
+   * Lists the image directory once and indexes the image of every space.
+   * Fails if any space is missing, has more than one image or has an image
+   * whose value or weight is invalid.
+   *
+   * @param dir the directory containing the images
+   * @param numSpaces the number of spaces expected
+   * @return the image of every space, indexed from 0
+   * @throws IOException listing every invalid image and space, or if the
+   *                     directory cannot be read
+   */
+  static Path[] indexImages(Path dir, int numSpaces) throws IOException {
+    Path[] images = new Path[numSpaces];
+    List<String> problems = new ArrayList<>();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(dir,
+        "*_*." + WheelOfFortuneFrame.IMAGE_EXTENSION)) {
+      for (Path file : files) {
+        // Space numbers in image filenames are 1-based, NOT 0-based
+        String name = file.getFileName().toString();
+        int space = parseSpaceNumber(name);
+        if (space < 1 || space > numSpaces) {
+          continue;
+        }
+        if (images[space - 1] != null) {
+          problems.add(name + ": space " + space + " already has "
+              + images[space - 1].getFileName());
+        } else if (WheelManifest.typeOf(getSpaceString(name)) < 0) {
+          problems.add(name + ": invalid value " + getSpaceString(name));
+        } else if (getSpaceWeight(name) < 0) {
+          problems.add(name + ": the weight must be a positive number");
+        }
+        if (images[space - 1] == null) {
+          images[space - 1] = file;
+        }
+      }
+    }
+    for (int i = 0; i < numSpaces; ++i) {
+      if (images[i] == null) {
+        problems.add("space " + (i + 1) + ": no image");
+      }
+    }
+    if (!problems.isEmpty()) {
+      throw new IOException("Invalid wheel images in " + dir + ":\n  "
+          + String.join("\n  ", problems));
+    }
+    return images;
+  }
+
+  /**
+   * Creates the wheel space described by an image's filename.
+   *
+   * @param fileName the filename, such as 7_bankrupt.jpg, 3_500.jpg or
+   *                 4_5000_2.jpg
+   * @param image the image of the space
+   * @return the wheel space
+   * @throws IOException if the value or the weight is invalid
+   */
+  static WheelSpace makeSpace(String fileName, Icon image) throws IOException {
+    String value = getSpaceString(fileName);
+    int weight = getSpaceWeight(fileName);
+    if (WheelManifest.typeOf(value) < 0 || weight < 0) {
+      throw new IOException(fileName + " is not a valid wheel image name");
+    }
+    if (value.equals(WheelSpace.BANKRUPT)
+        || value.equals(WheelSpace.LOSE_A_TURN)) {
+      return new WheelSpace(value, image, weight);
+    }
+    return new WheelSpace(Integer.parseInt(value), image, weight);
+  }
+
+  /**
+   * For the file string <prefix>_value_weight.jpg, returns the weight.
+   *
+   * @param fileName the filename
+   * @return the weight, 1 if the filename has none, or -1 if it is not a
+   *         positive number
+   */
+  static int getSpaceWeight(String fileName) {
+    int first = fileName.indexOf('_');
+    int start = fileName.indexOf('_', first + 1) + 1;
+    int end = fileName.lastIndexOf('.');
+    if (first < 0 || start == 0 || end < start) {
+      return 1;
+    }
+    if (end == start || end - start > 9) {
+      return -1;
+    }
+    int weight = 0;
+    for (int i = start; i < end; ++i) {
+      char c = fileName.charAt(i);
+      if (c < '0' || c > '9') {
+        return -1;
+      }
+      weight = weight * 10 + (c - '0');
+    }
+    return weight > 0 ? weight : -1;
+  }
+
+  /**
+   * For the file string <prefix>_value.jpg, returns "value".
+   *
+   * @param fileName the filename
+   * @return the value of the wheel space
+   */
+  static String getSpaceString(String fileName) {
+    int start = fileName.indexOf('_') + 1;
+    int end = start;
+    while (end < fileName.length() && fileName.charAt(end) != '_'
+        && fileName.charAt(end) != '.') {
+      end++;
+    }
+    return fileName.substring(start, end);
+  }
+
+  /**
+   * Parses the space number before the first underscore of a filename.
+   *
+   * @param fileName the filename
+   * @return the space number, or -1 if the prefix is not a number
+   */
+  static int parseSpaceNumber(String fileName) {
+    int underscore = fileName.indexOf('_');
+    if (underscore <= 0 || underscore > 9) {
+      return -1;
+    }
+    int space = 0;
+    for (int i = 0; i < underscore; ++i) {
+      char c = fileName.charAt(i);
+      if (c < '0' || c > '9') {
+        return -1;
+      }
+      space = space * 10 + (c - '0');
+    }
+    return space;
+  }
+
+  /**
+   * Helper function to find a classpath resource directory on the file
+   * system it lives in, opening the JAR file system if needed.
+   *
+   * @param resourcePath the path of the directory on the classpath
+   * @return the directory
+   * @throws IOException if the resource is missing or cannot be opened
+   */
+  private static Path resolveResource(String resourcePath) throws IOException {
+    URL url = WheelAssetLoader.class.getClassLoader().getResource(resourcePath);
+    if (url == null) {
+      throw new IOException("Missing resource " + resourcePath);
+    }
+    URI uri;
+    try {
+      uri = url.toURI();
+    } catch (URISyntaxException e) {
+      throw new IOException(e);
+    }
+    if (!"jar".equals(uri.getScheme())) {
+      return Paths.get(uri);
+    }
+    FileSystem jarSystem;
+    try {
+      jarSystem = FileSystems.newFileSystem(uri, Collections.emptyMap());
+    } catch (FileSystemAlreadyExistsException e) {
+      jarSystem = FileSystems.getFileSystem(uri);
+    }
+    return jarSystem.getPath(resourcePath);
+  }
+}
@@ -0,0 +1,572 @@
+/**
+ * This Java file defines the WheelAtlas class which packs all wheel space
+ * images into a single pre-scaled sprite sheet.
+ */
+
+package eecs285.proj3.kshilen;
+
+import java.awt.Component;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import javax.imageio.ImageIO;
+import javax.swing.Icon;
+
+/**
+ * All wheel faces, scaled once and packed into one image. Every wheel space
+ * gets a light-weight Icon that paints its sub-region of the sheet, so a
+ * spin only swaps which region is drawn. Atlases are cached per image
+ * directory and shared by every game in the JVM. The sheet is also saved
+ * as raw pixels next to the JPEGs and reused on the next launch until the
+ * JPEGs change.
+ */
+public class WheelAtlas {
+  /** Name of the saved atlas in the image directory. */
+  public static final String ATLAS_FILE_NAME = "wheel.atlas";
+
+  /** Images larger than this in either dimension are scaled down. */
+  public static final int MAX_TILE_SIZE = 400;
+
+  /**
+   * Largest number of pixels in a sheet, 128 MB. Tiles of wheels with many
+   * spaces are scaled below MAX_TILE_SIZE to stay within it.
+   */
+  public static final int MAX_SHEET_PIXELS = 1 << 25;
+
+  /** Identifies a saved atlas file. */
+  private static final int MAGIC = 0x57484C41;
+
+  /** Version of the saved atlas format. */
+  private static final int VERSION = 1;
+
+  /** Size of the saved atlas header in bytes. */
+  private static final int HEADER_SIZE = 32;
+
+  /** Number of pixels written to the saved atlas at a time. */
+  private static final int SAVE_BLOCK_PIXELS = 1 << 16;
+
+  /**
+   * Function to get the atlas of an image directory, from the shared cache,
+   * from the saved atlas file, or by decoding the images, in that order.
+   *
+   * @param dir the directory containing the images
+   * @param images the image of every space, or null for missing spaces
+   * @return the atlas
+   * @throws IOException if the images cannot be read
+   */
+  public static WheelAtlas load(Path dir, Path[] images) throws IOException {
+    return load(dir, images.length, fingerprint(images), new ImageSource() {
+      @Override
+      public BufferedImage decode(int index) throws IOException {
+        return images[index] == null ? null : WheelAtlas.decode(images[index]);
+      }
+    });
+  }
+
+  /**
+   * Function to get the atlas of the images in a wheel manifest, from the
+   * shared cache, from the saved atlas file, or by decoding the images, in
+   * that order. The checksum of an image is only verified if the image is
+   * decoded.
+   *
+   * @param dir the directory holding the manifest
+   * @param manifest the manifest
+   * @return the atlas
+   * @throws IOException if an image cannot be decoded or is corrupt
+   */
+  public static WheelAtlas load(Path dir, WheelManifest manifest)
+      throws IOException {
+    return load(dir, manifest.getNumSpaces(),
+        VERSION * 31L + MAX_TILE_SIZE + manifest.getChecksum(),
+        new ImageSource() {
+          @Override
+          public BufferedImage decode(int index) throws IOException {
+            try (InputStream in = manifest.openImage(index)) {
+              return WheelAtlas.decode(in, manifest.getFile() + " space "
+                  + (index + 1));
+            }
+          }
+        });
+  }
+
+  /**
+   * Helper function to get an atlas from the shared cache, from the saved
+   * atlas file, or by decoding its images.
+   *
+   * @param dir the directory containing the images
+   * @param numSpaces the number of spaces
+   * @param fingerprint identifies the images
+   * @param source decodes the images
+   * @return the atlas
+   * @throws IOException if the images cannot be read
+   */
+  private static WheelAtlas load(Path dir, int numSpaces, long fingerprint,
+                                 ImageSource source) throws IOException {
+    String key = dir.toUri().toString();
+    WheelAtlas atlas = CACHE.get(key);
+    if (atlas != null && atlas.fingerprint == fingerprint) {
+      return atlas;
+    }
+
+    Path atlasFile = dir.resolve(ATLAS_FILE_NAME);
+    atlas = read(atlasFile, fingerprint, numSpaces);
+    if (atlas == null) {
+      atlas = build(numSpaces, source, fingerprint);
+      // Never write into a JAR or zip, only next to plain files
+      if (dir.getFileSystem() == FileSystems.getDefault()) {
+        try {
+          atlas.save(atlasFile);
+        } catch (IOException e) {
+          System.err.println("Could not save " + atlasFile + ": " + e.getMessage());
+        }
+      }
+    }
+    CACHE.put(key, atlas);
+    return atlas;
+  }
+
+  /**
+   * Forgets every cached atlas, so the next load reads the saved atlas or
+   * decodes the images.
+   */
+  static void clearCache() {
+    CACHE.clear();
+  }
+
+  /**
+   * Decodes the images in parallel and packs them into a new atlas. Every
+   * tile has the size of the first image, scaled to fit MAX_TILE_SIZE.
+   *
+   * @param images the image of every space, or null for missing spaces
+   * @param fingerprint the fingerprint of the images
+   * @return the atlas
+   * @throws IOException if an image cannot be decoded
+   */
+  static WheelAtlas build(Path[] images, long fingerprint) throws IOException {
+    return build(images.length, new ImageSource() {
+      @Override
+      public BufferedImage decode(int index) throws IOException {
+        return images[index] == null ? null : WheelAtlas.decode(images[index]);
+      }
+    }, fingerprint);
+  }
+
+  /**
+   * Decodes the images of a source in parallel and packs them into a new
+   * atlas.
+   *
+   * @param numSpaces the number of spaces
+   * @param source decodes the images
+   * @param fingerprint the fingerprint of the images
+   * @return the atlas
+   * @throws IOException if an image cannot be decoded
+   */
+  private static WheelAtlas build(int numSpaces, ImageSource source,
+                                  long fingerprint) throws IOException {
+    int tileWidth = 1;
+    int tileHeight = 1;
+    BufferedImage[] firstDecoded = new BufferedImage[1];
+    int firstIndex = -1;
+    for (int i = 0; i < numSpaces && firstIndex < 0; ++i) {
+      BufferedImage first = source.decode(i);
+      if (first != null) {
+        firstIndex = i;
+        firstDecoded[0] = first;
+        double scale = Math.min(1.0, (double) MAX_TILE_SIZE
+            / Math.max(first.getWidth(), first.getHeight()));
+        // Shrink the tiles further if the sheet would exceed its budget
+        long cells = (long) columns(numSpaces) * rows(numSpaces);
+        double area = first.getWidth() * scale * first.getHeight() * scale;
+        if (cells * area > MAX_SHEET_PIXELS) {
+          scale *= Math.sqrt(MAX_SHEET_PIXELS / (cells * area));
+          tileWidth = Math.max(1, (int) (first.getWidth() * scale));
+          tileHeight = Math.max(1, (int) (first.getHeight() * scale));
+        } else {
+          tileWidth = Math.max(1, (int) Math.round(first.getWidth() * scale));
+          tileHeight = Math.max(1,
+              (int) Math.round(first.getHeight() * scale));
+        }
+      }
+    }
+    WheelAtlas atlas = new WheelAtlas(numSpaces, tileWidth, tileHeight,
+        fingerprint);
+    int decoded = firstIndex;
+    try {
+      IntStream.range(0, numSpaces).parallel().forEach(i -> {
+        try {
+          BufferedImage image = i == decoded ? firstDecoded[0] : source.decode(i);
+          if (image != null) {
+            atlas.drawTile(i, image);
+          }
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    return atlas;
+  }
+
+  /**
+   * Reads a saved atlas if it was built from the same images.
+   *
+   * @param atlasFile the saved atlas
+   * @param fingerprint the fingerprint of the current images
+   * @param numSpaces the number of spaces expected
+   * @return the atlas, or null if the file is missing or stale
+   * @throws IOException if the file cannot be read
+   */
+  static WheelAtlas read(Path atlasFile, long fingerprint, int numSpaces)
+      throws IOException {
+    try (FileChannel channel = FileChannel.open(atlasFile,
+        StandardOpenOption.READ)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      while (header.hasRemaining() && channel.read(header) >= 0) {
+        // Keep reading until the header is complete or the file ends
+      }
+      header.flip();
+      if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC
+          || header.getInt() != VERSION || header.getLong() != fingerprint
+          || header.getInt() != numSpaces) {
+        return null;
+      }
+      int tileWidth = header.getInt();
+      int tileHeight = header.getInt();
+      if (tileWidth < 1 || tileHeight < 1 || sheetPixels(numSpaces, tileWidth,
+          tileHeight) > MAX_SHEET_PIXELS) {
+        return null;
+      }
+      WheelAtlas atlas = new WheelAtlas(numSpaces, tileWidth, tileHeight,
+          fingerprint);
+      int[] pixels = atlas.getPixels();
+      if (channel.size() != HEADER_SIZE + 4L * pixels.length) {
+        return null;
+      }
+      channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, 4L * pixels.length)
+          .asIntBuffer().get(pixels);
+      return atlas;
+    } catch (NoSuchFileException | UnsupportedOperationException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Saves the atlas as raw pixels, replacing the file atomically.
+   *
+   * @param atlasFile the file to save to
+   * @throws IOException if the file cannot be written
+   */
+  void save(Path atlasFile) throws IOException {
+    int[] pixels = getPixels();
+    // Written a block at a time, so saving never holds a second copy of
+    // the sheet
+    ByteBuffer buffer = ByteBuffer.allocate(SAVE_BLOCK_PIXELS * 4);
+    buffer.putInt(MAGIC).putInt(VERSION).putLong(fingerprint)
+        .putInt(numSpaces).putInt(tileWidth).putInt(tileHeight).putInt(0);
+    // A temporary file of its own, so two processes saving the same atlas
+    // never write into each other's file
+    Path dir = atlasFile.toAbsolutePath().getParent();
+    Path temp = Files.createTempFile(dir, "wheel", ".atlas");
+    try {
+      try (FileChannel channel = FileChannel.open(temp,
+          StandardOpenOption.WRITE)) {
+        int next = 0;
+        do {
+          int count = Math.min(buffer.remaining() / 4, pixels.length - next);
+          buffer.asIntBuffer().put(pixels, next, count);
+          buffer.position(buffer.position() + 4 * count);
+          next += count;
+          buffer.flip();
+          while (buffer.hasRemaining()) {
+            channel.write(buffer);
+          }
+          buffer.clear();
+        } while (next < pixels.length);
+      }
+      Files.move(temp, atlasFile, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  /**
+   * Function to summarize the names, sizes and modification times of the
+   * images, so a change to any of them can be detected.
+   *
+   * @param images the image of every space, or null for missing spaces
+   * @return the fingerprint
+   * @throws IOException if an image's attributes cannot be read
+   */
+  static long fingerprint(Path[] images) throws IOException {
+    long hash = VERSION * 31L + MAX_TILE_SIZE;
+    for (Path image : images) {
+      hash = hash * 31 + (image == null ? 0
+          : image.getFileName().toString().hashCode());
+      if (image != null) {
+        BasicFileAttributes attributes =
+            Files.readAttributes(image, BasicFileAttributes.class);
+        hash = hash * 31 + attributes.size();
+        hash = hash * 31 + attributes.lastModifiedTime().toMillis();
+      }
+    }
+    return hash;
+  }
+
+  /**
+   * Creates a blank atlas with tiles laid out in a near-square grid.
+   *
+   * @param numSpaces the number of tiles
+   * @param tileWidth the width of a tile
+   * @param tileHeight the height of a tile
+   * @param fingerprint the fingerprint of the images
+   */
+  private WheelAtlas(int numSpaces, int tileWidth, int tileHeight,
+                     long fingerprint) {
+    this.numSpaces = numSpaces;
+    this.tileWidth = tileWidth;
+    this.tileHeight = tileHeight;
+    this.fingerprint = fingerprint;
+    if (sheetPixels(numSpaces, tileWidth, tileHeight) > MAX_SHEET_PIXELS) {
+      throw new IllegalArgumentException("A sheet of " + numSpaces + " "
+          + tileWidth + "x" + tileHeight + " tiles is too large");
+    }
+    columns = columns(numSpaces);
+    sheet = new BufferedImage(columns * tileWidth, rows(numSpaces) * tileHeight,
+        BufferedImage.TYPE_INT_RGB);
+    icons = new Icon[numSpaces];
+    for (int i = 0; i < numSpaces; ++i) {
+      icons[i] = new AtlasIcon(i);
+    }
+  }
+
+  /**
+   * Helper function to get the number of columns of tiles, so the grid is
+   * near square.
+   *
+   * @param numSpaces the number of tiles
+   * @return the number of columns
+   */
+  private static int columns(int numSpaces) {
+    return Math.max(1, (int) Math.ceil(Math.sqrt(numSpaces)));
+  }
+
+  /**
+   * Helper function to get the number of rows of tiles.
+   *
+   * @param numSpaces the number of tiles
+   * @return the number of rows
+   */
+  private static int rows(int numSpaces) {
+    int columns = columns(numSpaces);
+    return Math.max(1, (numSpaces + columns - 1) / columns);
+  }
+
+  /**
+   * Helper function to get the number of pixels of a sheet, without
+   * overflowing for any tile size.
+   *
+   * @param numSpaces the number of tiles
+   * @param tileWidth the width of a tile
+   * @param tileHeight the height of a tile
+   * @return the number of pixels
+   */
+  private static long sheetPixels(int numSpaces, int tileWidth,
+                                  int tileHeight) {
+    return (long) columns(numSpaces) * rows(numSpaces) * tileWidth
+        * tileHeight;
+  }
+
+  /**
+   * Function to get the icon that paints a wheel space from the sheet.
+   *
+   * @param index the index of the wheel space
+   * @return the icon
+   */
+  public Icon getIcon(int index) {
+    return icons[index];
+  }
+
+  /**
+   * Function to get the sheet holding all tiles.
+   *
+   * @return the sheet
+   */
+  public BufferedImage getSheet() {
+    return sheet;
+  }
+
+  /**
+   * Function to get the x coordinate of a tile in the sheet.
+   *
+   * @param index the index of the wheel space
+   * @return the left edge of the tile
+   */
+  public int getTileX(int index) {
+    return (index % columns) * tileWidth;
+  }
+
+  /**
+   * Function to get the y coordinate of a tile in the sheet.
+   *
+   * @param index the index of the wheel space
+   * @return the top edge of the tile
+   */
+  public int getTileY(int index) {
+    return (index / columns) * tileHeight;
+  }
+
+  /**
+   * Function to get the width of every tile.
+   *
+   * @return the tile width
+   */
+  public int getTileWidth() {
+    return tileWidth;
+  }
+
+  /**
+   * Function to get the height of every tile.
+   *
+   * @return the tile height
+   */
+  public int getTileHeight() {
+    return tileHeight;
+  }
+
+  /**
+   * Helper function to scale an image into its tile. Tiles are scaled on
+   * their own and copied row by row, so tiles can be drawn in parallel.
+   *
+   * @param index the index of the wheel space
+   * @param image the full-size image
+   */
+  private void drawTile(int index, BufferedImage image) {
+    BufferedImage tile = new BufferedImage(tileWidth, tileHeight,
+        BufferedImage.TYPE_INT_RGB);
+    Graphics2D g = tile.createGraphics();
+    g.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+        RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+    g.drawImage(image, 0, 0, tileWidth, tileHeight, null);
+    g.dispose();
+
+    int[] tilePixels = ((DataBufferInt) tile.getRaster().getDataBuffer()).getData();
+    int[] pixels = getPixels();
+    int sheetWidth = sheet.getWidth();
+    int offset = getTileY(index) * sheetWidth + getTileX(index);
+    for (int y = 0; y < tileHeight; ++y) {
+      System.arraycopy(tilePixels, y * tileWidth, pixels,
+          offset + y * sheetWidth, tileWidth);
+    }
+  }
+
+  /**
+   * Helper function to get the pixel array backing the sheet.
+   *
+   * @return the pixels
+   */
+  private int[] getPixels() {
+    return ((DataBufferInt) sheet.getRaster().getDataBuffer()).getData();
+  }
+
+  /**
+   * Helper function to decode an image file.
+   *
+   * @param image the image file
+   * @return the decoded image
+   * @throws IOException if the image cannot be decoded
+   */
+  private static BufferedImage decode(Path image) throws IOException {
+    try (InputStream in = Files.newInputStream(image)) {
+      return decode(in, image.toString());
+    }
+  }
+
+  /**
+   * Helper function to decode an image from a stream.
+   *
+   * @param in the encoded image
+   * @param source where the image comes from, for the error message
+   * @return the decoded image
+   * @throws IOException if the image cannot be decoded
+   */
+  private static BufferedImage decode(InputStream in, String source)
+      throws IOException {
+    BufferedImage decoded = ImageIO.read(in);
+    if (decoded == null) {
+      throw new IOException("Cannot decode " + source);
+    }
+    return decoded;
+  }
+
+  /**
+   * Decodes the image of a wheel space.
+   */
+  private interface ImageSource {
+    /**
+     * Function to decode the image of a space.
+     *
+     * @param index the index of the space
+     * @return the image, or null if the space has no image
+     * @throws IOException if the image cannot be decoded
+     */
+    BufferedImage decode(int index) throws IOException;
+  }
+
+  /**
+   * Icon that paints one tile of the sheet.
+   */
+  private class AtlasIcon implements Icon {
+    AtlasIcon(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public void paintIcon(Component c, Graphics g, int x, int y) {
+      int sx = getTileX(index);
+      int sy = getTileY(index);
+      g.drawImage(sheet, x, y, x + tileWidth, y + tileHeight,
+          sx, sy, sx + tileWidth, sy + tileHeight, c);
+    }
+
+    @Override
+    public int getIconWidth() {
+      return tileWidth;
+    }
+
+    @Override
+    public int getIconHeight() {
+      return tileHeight;
+    }
+
+    private final int index;
+  }
+
+  private static final ConcurrentHashMap<String, WheelAtlas> CACHE =
+      new ConcurrentHashMap<>();
+
+  private final int numSpaces;
+  private final int tileWidth;
+  private final int tileHeight;
+  private final int columns;
+  private final long fingerprint;
+  private final BufferedImage sheet;
+  private final Icon[] icons;
+}
@@ -0,0 +1,393 @@
+/**
+ * This Java file defines the WheelManifest class which compiles the wheel
+ * images into one precompiled file and reads it back.
+ */
+
+package eecs285.proj3.kshilen;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import javax.swing.Icon;
+
+/**
+ * Precompiled wheel. The build step parses the image filenames once,
+ * checks that every slot has exactly one image with a valid value and
+ * weight, and writes one file holding the table of slots followed by the
+ * image bytes. The game then loads the whole manifest with one read
+ * instead of listing the directory and parsing filenames. The manifest
+ * defines the number of spaces of the wheel.
+ *
+ * The file starts with a HEADER_SIZE-byte header: the magic number, the
+ * version, the number of spaces, the CRC32 of the table and the length of
+ * the file (long). The table has an ENTRY_SIZE-byte entry per space in
+ * slot order: the 1-based slot, the type (VALUE, BANKRUPT or LOSE_A_TURN),
+ * the dollar value, the image length, the image offset (long), the
+ * CRC32 of the image and the weight of the space. The images follow the
+ * table.
+ *
+ * The header and table are checked when the manifest is read. The
+ * checksum of an image is only verified the first time it is opened, so a
+ * game that never decodes the images never pays for it.
+ */
+public class WheelManifest {
+  /** Name of the manifest in the image directory. */
+  public static final String MANIFEST_FILE_NAME = "wheel.manifest";
+
+  /** Type of a space worth a dollar value. */
+  public static final int VALUE = 0;
+
+  /** Type of a bankrupt space. */
+  public static final int BANKRUPT = 1;
+
+  /** Type of a lose a turn space. */
+  public static final int LOSE_A_TURN = 2;
+
+  /** Identifies a manifest file. */
+  static final int MAGIC = 0x5748454D;
+
+  /** Version of the manifest format. */
+  static final int VERSION = 2;
+
+  /** Size of the header in bytes. */
+  static final int HEADER_SIZE = 24;
+
+  /** Size of a table entry in bytes. */
+  static final int ENTRY_SIZE = 32;
+
+  /**
+   * Command-line interface of the build step. Compiles an image directory
+   * into the manifest in that directory.
+   *
+   * Usage: WheelManifest imagesDir [numSpaces]
+   */
+  public static void main(String[] args) {
+    if (args.length < 1) {
+      System.out.println("Usage: WheelManifest imagesDir [numSpaces]");
+      System.exit(1);
+    }
+    int numSpaces = WheelOfFortuneFrame.NUM_WHEEL_SPACES;
+    if (args.length > 1) {
+      try {
+        numSpaces = Integer.parseInt(args[1]);
+      } catch (NumberFormatException e) {
+        System.out.println("Number of spaces must be an integer");
+        System.exit(1);
+      }
+    }
+    Path dir = Paths.get(args[0]);
+    try {
+      compile(dir, numSpaces, dir.resolve(MANIFEST_FILE_NAME));
+      System.out.println("Wrote " + dir.resolve(MANIFEST_FILE_NAME));
+    } catch (IOException e) {
+      System.out.println(e.getMessage());
+      System.exit(4);
+    }
+  }
+
+  /**
+   * Compiles an image directory into a manifest, replacing it atomically.
+   * Fails without writing anything if any slot is missing, has more than
+   * one image or has an image whose value is not a number, bankrupt or
+   * loseATurn, or whose weight is not a positive number.
+   *
+   * @param dir the directory containing the images
+   * @param numSpaces the number of spaces expected
+   * @param manifestFile the manifest to write
+   * @throws IOException listing every problem, or if a file cannot be read
+   *                     or written
+   */
+  public static void compile(Path dir, int numSpaces, Path manifestFile)
+      throws IOException {
+    Path[] images = new Path[numSpaces];
+    List<String> problems = new ArrayList<>();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(dir,
+        "*." + WheelOfFortuneFrame.IMAGE_EXTENSION)) {
+      for (Path file : files) {
+        String name = file.getFileName().toString();
+        int slot = WheelAssetLoader.parseSpaceNumber(name);
+        if (slot < 1 || slot > numSpaces) {
+          problems.add(name + ": no slot between 1 and " + numSpaces);
+        } else if (images[slot - 1] != null) {
+          problems.add(name + ": slot " + slot + " already has "
+              + images[slot - 1].getFileName());
+        } else if (typeOf(WheelAssetLoader.getSpaceString(name)) < 0) {
+          problems.add(name + ": invalid value "
+              + WheelAssetLoader.getSpaceString(name));
+        } else if (WheelAssetLoader.getSpaceWeight(name) < 0) {
+          problems.add(name + ": the weight must be a positive number");
+        } else {
+          images[slot - 1] = file;
+        }
+      }
+    }
+    for (int i = 0; i < numSpaces; ++i) {
+      if (images[i] == null) {
+        problems.add("slot " + (i + 1) + ": no image");
+      }
+    }
+    if (!problems.isEmpty()) {
+      throw new IOException("Cannot compile " + dir + ":\n  "
+          + String.join("\n  ", problems));
+    }
+
+    byte[][] bytes = new byte[numSpaces][];
+    long length = HEADER_SIZE + (long) ENTRY_SIZE * numSpaces;
+    for (int i = 0; i < numSpaces; ++i) {
+      bytes[i] = Files.readAllBytes(images[i]);
+      length += bytes[i].length;
+    }
+    if (length > Integer.MAX_VALUE) {
+      throw new IOException("The images of " + dir + " are too large");
+    }
+    ByteBuffer buffer = ByteBuffer.allocate((int) length);
+    buffer.position(HEADER_SIZE);
+    long offset = HEADER_SIZE + (long) ENTRY_SIZE * numSpaces;
+    CRC32 crc = new CRC32();
+    for (int i = 0; i < numSpaces; ++i) {
+      String name = images[i].getFileName().toString();
+      String value = WheelAssetLoader.getSpaceString(name);
+      int type = typeOf(value);
+      crc.reset();
+      crc.update(bytes[i]);
+      buffer.putInt(i + 1).putInt(type)
+          .putInt(type == VALUE ? Integer.parseInt(value) : 0)
+          .putInt(bytes[i].length).putLong(offset).putInt((int) crc.getValue())
+          .putInt(WheelAssetLoader.getSpaceWeight(name));
+      offset += bytes[i].length;
+    }
+    for (byte[] image : bytes) {
+      buffer.put(image);
+    }
+    crc.reset();
+    crc.update(buffer.array(), HEADER_SIZE, ENTRY_SIZE * numSpaces);
+    buffer.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, numSpaces)
+        .putInt(12, (int) crc.getValue()).putLong(16, length);
+    buffer.rewind();
+
+    Path temp = manifestFile.resolveSibling(
+        manifestFile.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+    Files.move(temp, manifestFile, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Reads a manifest with one read and checks its header and table.
+   *
+   * @param manifestFile the manifest
+   * @return the manifest
+   * @throws IOException if the file cannot be read or is not a valid
+   *                     manifest
+   */
+  public static WheelManifest read(Path manifestFile) throws IOException {
+    byte[] bytes = Files.readAllBytes(manifestFile);
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    if (bytes.length < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+      throw new IOException(manifestFile + " is not a wheel manifest");
+    }
+    if (buffer.getInt(4) != VERSION) {
+      throw new IOException(manifestFile + " has version " + buffer.getInt(4)
+          + ", rebuild it with WheelManifest");
+    }
+    int numSpaces = buffer.getInt(8);
+    if (numSpaces < 0 || buffer.getLong(16) != bytes.length
+        || HEADER_SIZE + (long) ENTRY_SIZE * numSpaces > bytes.length) {
+      throw new IOException(manifestFile + " is truncated");
+    }
+    CRC32 crc = new CRC32();
+    crc.update(bytes, HEADER_SIZE, ENTRY_SIZE * numSpaces);
+    if ((int) crc.getValue() != buffer.getInt(12)) {
+      throw new IOException(manifestFile + " has a corrupt table");
+    }
+    for (int i = 0; i < numSpaces; ++i) {
+      int entry = HEADER_SIZE + i * ENTRY_SIZE;
+      long offset = buffer.getLong(entry + 16);
+      int length = buffer.getInt(entry + 12);
+      if (buffer.getInt(entry) != i + 1 || length < 0 || offset < 0
+          || offset + length > bytes.length || buffer.getInt(entry + 28) <= 0) {
+        throw new IOException(manifestFile + " has an invalid entry for slot "
+            + (i + 1));
+      }
+    }
+    return new WheelManifest(manifestFile, buffer, numSpaces);
+  }
+
+  /**
+   * Function to get the number of spaces of the wheel.
+   *
+   * @return the number of spaces
+   */
+  public int getNumSpaces() {
+    return numSpaces;
+  }
+
+  /**
+   * Function to get the checksum of the table, which changes whenever an
+   * image or a value changes.
+   *
+   * @return the checksum
+   */
+  public long getChecksum() {
+    return Integer.toUnsignedLong(buffer.getInt(12));
+  }
+
+  /**
+   * Function to get the manifest file.
+   *
+   * @return the file
+   */
+  public Path getFile() {
+    return file;
+  }
+
+  /**
+   * Function to get the type of a space.
+   *
+   * @param index the index of the space
+   * @return VALUE, BANKRUPT or LOSE_A_TURN
+   */
+  public int getType(int index) {
+    return buffer.getInt(entry(index) + 4);
+  }
+
+  /**
+   * Function to get the dollar value of a space.
+   *
+   * @param index the index of the space
+   * @return the dollar value, 0 if the space has none
+   */
+  public int getValue(int index) {
+    return buffer.getInt(entry(index) + 8);
+  }
+
+  /**
+   * Function to get the weight of a space.
+   *
+   * @param index the index of the space
+   * @return the positive weight
+   */
+  public int getWeight(int index) {
+    return buffer.getInt(entry(index) + 28);
+  }
+
+  /**
+   * Creates the wheel space of a slot.
+   *
+   * @param index the index of the space
+   * @param image the image of the space, or null
+   * @return the wheel space
+   * @throws IOException if the type of the space is invalid
+   */
+  public WheelSpace makeSpace(int index, Icon image) throws IOException {
+    switch (getType(index)) {
+      case VALUE:
+        return new WheelSpace(getValue(index), image, getWeight(index));
+      case BANKRUPT:
+        return new WheelSpace(WheelSpace.BANKRUPT, image, getWeight(index));
+      case LOSE_A_TURN:
+        return new WheelSpace(WheelSpace.LOSE_A_TURN, image,
+            getWeight(index));
+      default:
+        throw new IOException(file + " has an invalid type for slot "
+            + (index + 1));
+    }
+  }
+
+  /**
+   * Function to open the encoded image of a space, verifying its checksum
+   * the first time.
+   *
+   * @param index the index of the space
+   * @return the image bytes
+   * @throws IOException if the image does not match its checksum
+   */
+  public InputStream openImage(int index) throws IOException {
+    int entry = entry(index);
+    int offset = (int) buffer.getLong(entry + 16);
+    int length = buffer.getInt(entry + 12);
+    if (!verified[index]) {
+      CRC32 crc = new CRC32();
+      crc.update(buffer.array(), offset, length);
+      if ((int) crc.getValue() != buffer.getInt(entry + 24)) {
+        throw new IOException(file + " has a corrupt image for slot "
+            + (index + 1));
+      }
+      verified[index] = true;
+    }
+    return new ByteArrayInputStream(buffer.array(), offset, length);
+  }
+
+  /**
+   * Helper function to map a type name from an image filename to its type.
+   *
+   * @param value the value from the filename
+   * @return the type, or -1 if the value is invalid
+   */
+  static int typeOf(String value) {
+    if (value.equals(WheelSpace.BANKRUPT)) {
+      return BANKRUPT;
+    }
+    if (value.equals(WheelSpace.LOSE_A_TURN)) {
+      return LOSE_A_TURN;
+    }
+    if (value.isEmpty() || value.length() > 9) {
+      return -1;
+    }
+    for (int i = 0; i < value.length(); ++i) {
+      if (value.charAt(i) < '0' || value.charAt(i) > '9') {
+        return -1;
+      }
+    }
+    return VALUE;
+  }
+
+  /**
+   * Helper function to find the table entry of a space.
+   *
+   * @param index the index of the space
+   * @return the offset of the entry
+   */
+  private int entry(int index) {
+    if (index < 0 || index >= numSpaces) {
+      throw new IndexOutOfBoundsException("No space " + index);
+    }
+    return HEADER_SIZE + index * ENTRY_SIZE;
+  }
+
+  /**
+   * Creates a manifest over its bytes.
+   *
+   * @param file the manifest file
+   * @param buffer the bytes of the file
+   * @param numSpaces the number of spaces
+   */
+  private WheelManifest(Path file, ByteBuffer buffer, int numSpaces) {
+    this.file = file;
+    this.buffer = buffer;
+    this.numSpaces = numSpaces;
+    verified = new boolean[numSpaces];
+  }
+
+  private final Path file;
+  private final ByteBuffer buffer;
+  private final int numSpaces;
+  /** Whether the checksum of each image was verified. */
+  private final boolean[] verified;
+}
@@ -11,7 +11,11 @@
 
 package eecs285.proj3.kshilen; 
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.Random;
+import java.util.function.Supplier;
 import javax.swing.JFrame;
 
 public class WheelOfFortune {
@@ -20,9 +24,25 @@ public class WheelOfFortune {
    * Command-line interface for the Wheel of Fortune game.
    *
    * The seed for the random-number generator can be specified as a
-   * command-line argument.
+   * command-line argument, followed by a journal file to record the game in
+   * (or - for none) and a puzzle corpus with an optional category to draw
+   * the puzzle from.
+   *
+   * The system property wof.metrics names a file the latencies of the UI
+   * actions are written to, and wof.stallMillis sets when an action is
+   * reported as a stall of the event dispatch thread. wof.leaderboard
+   * names the file the result of the game is added to, and wof.rng the
+   * RandomSource of the spins. Only legacy games can be journaled.
+   *
+   * With --terminal as the first argument the game runs as a TerminalGame
+   * on the remaining arguments instead, without Swing.
    */
   public static void main(String[] args) {
+    if (args.length > 0 && args[0].equals("--terminal")) {
+      TerminalGame.main(Arrays.copyOfRange(args, 1, args.length));
+      return;
+    }
+
     // This will be the main frame that contains the game interface...
     WheelOfFortuneFrame gameFrame;
 
@@ -37,11 +57,91 @@ public class WheelOfFortune {
       }
     }
 
-    gameFrame = new WheelOfFortuneFrame(new Random(randomSeedVal));
+    // -Dwof.rng=splitmix or lxm spins with a stronger generator
+    RandomSource source = RandomSource.fromProperty();
+
+    GameListener recorder = null;
+    if (args.length > 1 && !args[1].equals("-")) {
+      if (!source.isSavable()) {
+        System.out.println("Only games of the legacy random source can be "
+            + "journaled");
+        System.exit(1);
+      }
+      GameJournal journal = null;
+      try {
+        journal = GameJournal.open(Paths.get(args[1]));
+      } catch (IOException e) {
+        System.out.println("Cannot open journal: " + e.getMessage());
+        System.exit(1);
+      }
+      closeOnExit(journal);
+      recorder = journal.recorder(journal.nextGameId(), randomSeedVal);
+    }
+
+    // -Dwof.leaderboard=file adds the result of the game to a leaderboard
+    String leaderboardFile = System.getProperty("wof.leaderboard");
+    if (leaderboardFile != null) {
+      Leaderboard leaderboard = null;
+      try {
+        leaderboard = Leaderboard.load(Paths.get(leaderboardFile));
+      } catch (IOException e) {
+        System.out.println("Cannot open leaderboard: " + e.getMessage());
+        System.exit(1);
+      }
+      leaderboard.startRefresh(Paths.get(leaderboardFile),
+          LEADERBOARD_SAVE_SECONDS);
+      recorder = GameListener.both(recorder, leaderboard.recorder());
+    }
+
+    Supplier<String> puzzles = null;
+    if (args.length > 2) {
+      try {
+        PuzzleCorpus corpus = PuzzleCorpus.open(Paths.get(args[2]));
+        // A generator of its own, so the spins stay those of the seed
+        puzzles = corpus.puzzles(args.length > 3 ? args[3] : null,
+            new Random(~randomSeedVal));
+      } catch (IOException e) {
+        System.out.println("Cannot open puzzles: " + e.getMessage());
+        System.exit(1);
+      }
+    }
+
+    // -Dwof.metrics=file writes the UI latencies every wof.metricsSeconds
+    String metrics = System.getProperty("wof.metrics");
+    if (metrics != null) {
+      UiMetrics.startSnapshots(Paths.get(metrics),
+          Long.getLong("wof.metricsSeconds", 10));
+    }
+    UiMetrics.setStallMillis(Long.getLong("wof.stallMillis",
+        UiMetrics.DEFAULT_STALL_MILLIS));
+
+    gameFrame = new WheelOfFortuneFrame(source.create(randomSeedVal),
+        recorder, puzzles);
     gameFrame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
     gameFrame.pack();
 
     // Show the game interface and start the game!
     gameFrame.setVisible(true);
   }
+
+  /**
+   * Helper function to flush and close a journal when the JVM exits.
+   *
+   * @param journal the journal
+   */
+  static void closeOnExit(GameJournal journal) {
+    Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          journal.close();
+        } catch (IOException e) {
+          System.out.println("Cannot close journal: " + e.getMessage());
+        }
+      }
+    }));
+  }
+
+  /** Number of seconds between saves of the leaderboard. */
+  static final long LEADERBOARD_SAVE_SECONDS = 30;
 }
@@ -11,17 +11,18 @@ import java.awt.GridLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.File;
-import java.io.FileFilter;
-import java.net.URISyntaxException;
-import java.util.Locale;
-import java.util.Random;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
 import javax.swing.BorderFactory;
-import javax.swing.ImageIcon;
 import javax.swing.JButton;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 import javax.swing.border.TitledBorder;
 
 /**
@@ -43,7 +44,8 @@ public class WheelOfFortuneFrame extends JFrame {
   public static final String IMAGE_EXTENSION = "jpg";
 
   /**
-   * Loades wheel-space images from the images/ directory.
+   * Loades wheel-space images from the images/ directory, which may be
+   * a plain directory or live inside the JAR the game runs from.
    *
    * Looks for files that follow the naming pattern
    * <spaceNumber>_<value>.jpg. Ignores all other files in the
@@ -53,203 +55,101 @@ public class WheelOfFortuneFrame extends JFrame {
    * @return  array of WheelSpace objects representing the images
    */
   static WheelSpace[] loadImages() {
-    File[] fileList;
-    File myDir = null;
-
-    // Allocate array for number of spaces, which is set to a constant
-    WheelSpace[] wheelSpaces = new WheelSpace[NUM_WHEEL_SPACES];
-
-    // Get a File object for the directory containing the images
     try {
-      myDir = new File(WheelOfFortuneFrame.class.getClassLoader()
-                       .getResource(IMAGES_PATH).toURI());
-    } catch (URISyntaxException uriExcep) {
-      System.out.println("Caught a URI syntax exception");
+      return WheelAssetLoader.loadResource(IMAGES_PATH, NUM_WHEEL_SPACES);
+    } catch (IOException ioExcep) {
+      System.out.println("Caught an IO exception: " + ioExcep.getMessage());
       System.exit(4); // Just bail for simplicity in this project
+      return null;
     }
-
-    // Loop from 1 to the number of spaces expected, so we can look
-    // for files named <spaceNumber>_<value>.jpg. Note: Space numbers
-    // in image filenames are 1-based, NOT 0-based.
-    for (int i = 1; i <= NUM_WHEEL_SPACES; i++) {
-      // Get a listing of files named appropriately for an image for
-      // wheel space #i. There should only be one, and this will be
-      // checked below.
-      fileList = myDir.listFiles(new WheelSpaceImageFilter(i));
-
-      if (fileList.length == 1) {
-        if (WheelSpaceImageFilter.checkBankrupt(fileList[0])) {
-          wheelSpaces[i - 1] =
-              new WheelSpace("bankrupt",
-                  new ImageIcon((fileList[0].toString())));
-        } else if (WheelSpaceImageFilter.checkLoseTurn(fileList[0])) {
-          wheelSpaces[i - 1] =
-              new WheelSpace("loseATurn",
-                  new ImageIcon((fileList[0].toString())));
-        } else {
-          // Index starts at 0, space numbers start at 1: hence the - 1
-          wheelSpaces[i - 1] =
-              new WheelSpace(WheelSpaceImageFilter.getSpaceValue(fileList[0]),
-                  new ImageIcon(fileList[0].toString()));
-        }
-      } else {
-        System.out.println("ERROR: Invalid number of images for space: " + i);
-        System.out.println("       Expected 1, but found " + fileList.length);
-      }
-    }
-
-    return wheelSpaces;
   }
 
-  // Helper nested class to filter images used for wheel spaces, based
-  // on specifically expected filename format.
-  private static class WheelSpaceImageFilter implements FileFilter {
-    /** Prefix of the requested filename. */
-    private String prefix;  // The prefix of the filename we're looking
-                            // for - what comes before the first underscore
-
-    /**
-     * Constructs a filter with the given prefix.
-     *
-     * @param inPref  integer corresponding to the prefix
-     */
-    WheelSpaceImageFilter(int inPref) {
-      // Sets the prefix member to string version of space number
-      prefix = new Integer(inPref).toString();
-    }
-
-    /**
-     * Tests whether the file provided should be accepted by our file
-     * filter. In the FileFilter interface.
-     */
-    @Override
-    public boolean accept(File imageFile) {
-      boolean isAccepted = false;
-
-      // Accepted if matched "<prefix>_<...>.jpg" where
-      // IMAGE_EXTENSION is assumed to be "jpg" for this example
-      if (imageFile.getName().startsWith(prefix + "_")
-          && imageFile.getName().endsWith("." + IMAGE_EXTENSION)) {
-        isAccepted = true;
-      }
-
-      return isAccepted;
+  /**
+   * Loads wheel-space images from the given directory.
+   *
+   * @param myDir  the directory containing the images
+   * @param numSpaces  the number of spaces expected in the directory
+   * @return  array of WheelSpace objects representing the images
+   */
+  static WheelSpace[] loadImages(File myDir, int numSpaces) {
+    try {
+      return WheelAssetLoader.load(myDir.toPath(), numSpaces);
+    } catch (IOException ioExcep) {
+      System.out.println("Caught an IO exception: " + ioExcep.getMessage());
+      System.exit(4); // Just bail for simplicity in this project
+      return null;
     }
+  }
 
-    /**
-     * Parses a wheel space image's filename to determine the dollar
-     * value associated with it.
-     *
-     * @param imageFile  the wheel space image
-     * @return  the dollar value associated with the image
-     */
-    public static int getSpaceValue(File imageFile) {
-      String file = imageFile.getName();
-      String val = getSpaceString(file);
-      int dollarVal = Integer.parseInt(val);
-      return dollarVal;
-    }
+  /**
+   * Create and start a game of Wheel of Fortune.
+   *
+   * @param generator  the random-number generator to use
+   */
+  public WheelOfFortuneFrame(RandomGenerator generator) {
+    this(generator, null);
+  }
 
-    /**
-     * Parses a wheel space image's filename and determines
-     * if it is wheel for lose a turn.
-     *
-     * @param imageFile the wheel space image's filepath
-     * @return true if it's the lose a turn space, else false
-     */
-    public static boolean checkLoseTurn(File imageFile) {
-      String file = imageFile.getName();
-      String checkString = getSpaceString(file);
-      if (checkString.equals("loseATurn")) {
-        return true;
-      }
-      return false;
-    }
+  /**
+   * Create and start a game of Wheel of Fortune that reports every action
+   * to a listener, such as the recorder of a journal.
+   *
+   * @param generator  the random-number generator to use
+   * @param listener  the listener of the game, or null
+   */
+  public WheelOfFortuneFrame(RandomGenerator generator,
+                             GameListener listener) {
+    this(generator, listener, null);
+  }
 
-    /**
-     * Parses a wheel space image's filename and determines
-     * if it is wheel for bankrupt.
-     *
-     * @param imageFile the wheel space image's filepath
-     * @return true if it's the bankrupt space, else false
-     */
-    public static boolean checkBankrupt(File imageFile) {
-      String file = imageFile.getName();
-      String checkString = getSpaceString(file);
-      if (checkString.equals("bankrupt")) {
-        return true;
-      }
-      return false;
-    }
+  /**
+   * Create and start a game of Wheel of Fortune on a puzzle drawn from a
+   * puzzle source instead of typed into the puzzle dialog. The images are
+   * loaded in the background while the setup dialogs are open.
+   *
+   * @param generator  the random-number generator to use
+   * @param listener  the listener of the game, or null
+   * @param puzzles  supplies the puzzle, or null to ask for it
+   */
+  public WheelOfFortuneFrame(RandomGenerator generator,
+                             GameListener listener,
+                             Supplier<String> puzzles) {
+    this(CompletableFuture.supplyAsync(() -> newEngine(generator, listener)),
+        true, puzzles);
+  }
 
-    /**
-     * For the file string <prefix>_value.jpg, it splits
-     * the string and return "value".
-     *
-     * @param file
-     * @return the value of the wheel space
-     */
-    public static String getSpaceString(String file) {
-      String[] splitFile = file.split("_");
-      String[] splitFile2 = splitFile[1].split("\\.");
-      return splitFile2[0];
-    }
+  /**
+   * Create a window for a game that is already in progress, such as a
+   * replayed game. The engine must be between moves, not waiting for the
+   * consonant of a spin.
+   *
+   * @param engine  the engine holding the game
+   */
+  public WheelOfFortuneFrame(GameEngine engine) {
+    this(CompletableFuture.completedFuture(engine), false, null);
   }
 
   /**
-   * Create and start a game of Wheel of Fortune.
+   * Helper constructor to set up the window of a game. Everything that
+   * does not depend on the game is built before the setup dialogs open,
+   * while the engine and its images load in the background, so the window
+   * only waits for the images if the dialogs closed first. Components are
+   * only built on this thread, never in the background.
    *
-   * @param generator  the random-number generator to use
+   * @param loading  completes with the engine of the game
+   * @param askForGame  true to start a new game from the input dialogs
+   * @param puzzles  supplies the puzzle of a new game, or null to ask for it
    */
-  public WheelOfFortuneFrame(Random generator) {
-    this.generator = generator;
+  private WheelOfFortuneFrame(CompletableFuture<GameEngine> loading,
+                              boolean askForGame, Supplier<String> puzzles) {
     mainFrame = this;
-    numVowelsGuessed = 0;
-    numConsonantsGuessed = 0;
-    currentPlayer = 0;
-    letterAvailable = new boolean[26];
-    //All letters are available in the beginning
-    for (int i = 0; i < 26; ++i) {
-      letterAvailable[i] = true;
-    }
-    wheelSpaces = loadImages();
-    currentWheel = wheelSpaces[0];
     setLayout(new BorderLayout());
     setTitle("Wheel of Fortune");
 
-    //First Dialog Box
-    InputDialog numPlayer = new InputDialog(this,
-        "Number of Players Input", true, false);
-    String tempString = numPlayer.getEntry();
-    numPlayers = Integer.parseInt(tempString);
-
-    //Second Dialog Box
-    players = new String[numPlayers];
-    playerCash = new int[numPlayers];
-    for (int i = 0; i < numPlayers; ++i) {
-      InputDialog playerNames = new InputDialog(this,
-          "Player Name Input", i);
-      players[i] = playerNames.getEntry();
-    }
-
-    //Third Dialog Box
-    InputDialog getPuzzle = new InputDialog(this,
-        "Puzzle Input", false, false);
-    puzzle = getPuzzle.getEntry();
-
-    //Make the panel with player names
-    topPanel = new JPanel();
-    makePlayersPanel();
-
-    //Creates the panel with buy vowel, spin the wheel and solve puzzle buttons and adds the image
+    //Creates the panel with buy vowel, spin the wheel and solve puzzle buttons
     middlePanel = new JPanel();
     addButtons();
     middlePanel.setLayout(new FlowLayout());
-
-    //initialize image with the first wheelSpace image
-    ImageIcon image = wheelSpaces[0].getImage();
-    imageLabel = new JLabel(image);
-    middlePanel.add(imageLabel);
     add(middlePanel, BorderLayout.CENTER);
 
     //Creates the panel with the vowels and consonants.
@@ -271,47 +171,134 @@ public class WheelOfFortuneFrame extends JFrame {
     //Add vowels and consonants to letterBox panel
     addLettersToLetterBox();
     botPanel.add(letterBox, BorderLayout.NORTH);
-
-    //Add the panel with the hidden puzzle string
     puzzlePanel = new JPanel();
     puzzlePanel.setLayout(new FlowLayout());
-    addPuzzlePanel();
+    add(botPanel, BorderLayout.SOUTH);
 
+    String[] players = null;
+    String puzzle = null;
+    if (askForGame) {
+      //First Dialog Box
+      InputDialog numPlayer = new InputDialog(this,
+          "Number of Players Input", true, false);
+      String tempString = numPlayer.getEntry();
+      int numPlayers = Integer.parseInt(tempString);
+
+      //Second Dialog Box
+      players = new String[numPlayers];
+      for (int i = 0; i < numPlayers; ++i) {
+        InputDialog playerNames = new InputDialog(this,
+            "Player Name Input", i);
+        players[i] = playerNames.getEntry();
+      }
 
-    add(botPanel, BorderLayout.SOUTH);
+      //Third Dialog Box, unless the puzzle source has one left
+      puzzle = puzzles != null ? puzzles.get() : null;
+      if (puzzle == null) {
+        InputDialog getPuzzle = new InputDialog(this,
+            "Puzzle Input", false, false);
+        puzzle = getPuzzle.getEntry();
+      }
+    }
+    long dialogsClosed = System.nanoTime();
+
+    engine = loading.join();
+    wheelSpaces = engine.getWheelSpaces();
+    if (askForGame) {
+      engine.newGame(players, puzzle);
+    }
+
+    //Make the panel with player names
+    scoreboard = new Scoreboard();
+    UiMetrics.RelayoutEvent layout = UiMetrics.beginRelayout("Scoreboard",
+        engine.getNumPlayers());
+    scoreboard.setPlayers(engine);
+    UiMetrics.endRelayout(layout);
+    add(scoreboard, BorderLayout.NORTH);
+
+    //Add the wheel next to the buttons
+    wheelPanel = new WheelSpinPanel(wheelSpaces);
+    middlePanel.add(wheelPanel);
+
+    //Add the panel with the hidden puzzle string
+    addPuzzlePanel();
+
+    if (!askForGame) {
+      //Pick up the game where it is
+      wheelPanel.showSpace(engine.getCurrentSpaceIndex());
+      spinButton.setEnabled(engine.canSpin());
+      enableButtons();
+    }
     setVisible(true);
+    layout = UiMetrics.beginRelayout("WheelOfFortuneFrame",
+        getContentPane().getComponentCount());
     pack();
+    UiMetrics.endRelayout(layout);
     setLocationRelativeTo(null);
     setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+    reportInteractive(dialogsClosed);
   }
 
   /**
-   * Creates the player panel and highlights the current player with a red border color.
-   * If a player panel already exists, recreate it.
+   * Helper function to create the engine of a new game on the wheel images.
+   *
+   * @param generator  the random-number generator to use
+   * @param listener  the listener of the game, or null
+   * @return  the engine
    */
-  private void makePlayersPanel() {
-    topPanel.removeAll();
-    JPanel[] playerPanels = new JPanel[numPlayers];
-    topPanel.setLayout(new GridLayout(1, numPlayers));
-    for (int i = 0; i < numPlayers; ++i) {
-      playerPanels[i] = new JPanel();
-      playerPanels[i].setBorder(BorderFactory.createTitledBorder(BorderFactory.createEtchedBorder(),
-          players[i], TitledBorder.LEFT, TitledBorder.TOP));
-      //Set border colour red for current Player and black for others
-      if (i == currentPlayer) {
-        playerPanels[i].setBorder(BorderFactory.createTitledBorder(BorderFactory.createLineBorder(
-            Color.RED), players[i], TitledBorder.LEFT, TitledBorder.TOP));
-      } else {
-        playerPanels[i].setBorder(BorderFactory.createTitledBorder(BorderFactory.createLineBorder(
-            Color.BLACK), players[i], TitledBorder.LEFT, TitledBorder.TOP));
+  private static GameEngine newEngine(RandomGenerator generator,
+                                      GameListener listener) {
+    GameEngine engine = new GameEngine(loadImages(), generator);
+    if (listener != null) {
+      engine.addListener(listener);
+    }
+    return engine;
+  }
+
+  /**
+   * Prints how long the window took to accept input, once the event
+   * dispatch thread has handled everything queued by showing it.
+   *
+   * @param dialogsClosed  System.nanoTime when the last setup dialog closed
+   */
+  private static void reportInteractive(long dialogsClosed) {
+    SwingUtilities.invokeLater(new Runnable() {
+      @Override
+      public void run() {
+        System.out.printf("Interactive %d ms after startup, %.1f ms after the"
+            + " setup dialogs%n",
+            ManagementFactory.getRuntimeMXBean().getUptime(),
+            (System.nanoTime() - dialogsClosed) / 1e6);
       }
-      //Add player amounts
-      JLabel playerMoney = new JLabel(Integer.toString(playerCash[i]));
-      playerPanels[i].add(playerMoney);
-      topPanel.add(playerPanels[i]);
+    });
+  }
+
+  /**
+   * Shows the cash of the players and highlights the current player after
+   * an action.
+   */
+  private void updateScoreboard() {
+    UiMetrics.UiActionEvent event = UiMetrics.begin(UiMetrics.Action.SCOREBOARD);
+    scoreboard.update(engine);
+    UiMetrics.end(event);
+  }
+
+  /**
+   * Helper function to describe the final standings of the leading
+   * players, read from the engine's live leaderboard.
+   *
+   * @return the standings, one player per line
+   */
+  private String standings() {
+    int[] leaders = new int[3];
+    int count = engine.getStandings(leaders);
+    StringBuilder text = new StringBuilder("\n\nStandings:");
+    for (int i = 0; i < count; ++i) {
+      text.append("\n").append(i + 1).append(". ")
+          .append(engine.getPlayerName(leaders[i])).append(" $")
+          .append(engine.getPlayerCash(leaders[i]));
     }
-    add(topPanel, BorderLayout.NORTH);
-    revalidate();
+    return text.toString();
   }
 
   /**
@@ -325,22 +312,19 @@ public class WheelOfFortuneFrame extends JFrame {
       JButton letterButton = new JButton(Character.toString(i));
       letterButton.setEnabled(false);
       //Vowels
-      if (i == 'A' || i == 'E' || i == 'I' || i == 'O' || i == 'U') {
+      if (GameEngine.isVowel(i)) {
         letterButton.addActionListener(new ActionListener() {
           @Override
           public void actionPerformed(ActionEvent e) {
-            numVowelsGuessed++;
-            String letter = letterButton.getText();
-            char c = letter.charAt(0);
-            //c - 'A' gives the relative position of the letter
-            letterAvailable[c - 'A'] = false;
-            boolean letterExits = updateHiddenPuzzle(letter);
-            if (!letterExits) {
-              updatePlayer();
+            UiMetrics.UiActionEvent event = UiMetrics.begin(UiMetrics.Action.VOWEL);
+            char c = letterButton.getText().charAt(0);
+            if (engine.buyVowel(c)) {
+              updateHiddenPuzzle();
             }
-            makePlayersPanel();
+            updateScoreboard();
             disableLetters();
             enableButtons();
+            UiMetrics.end(event);
           }
         });
         vowels[countVowel] = letterButton;
@@ -350,20 +334,15 @@ public class WheelOfFortuneFrame extends JFrame {
         letterButton.addActionListener(new ActionListener() {
           @Override
           public void actionPerformed(ActionEvent e) {
-            numConsonantsGuessed++;
-            String letter = letterButton.getText();
-            char c = letter.charAt(0);
-            letterAvailable[c - 'A'] = false;
-            boolean letterExists = updateHiddenPuzzle(letter);
-            if (letterExists) {
-              int dollarValue = currentWheel.getDollarValue();
-              playerCash[currentPlayer] += dollarValue;
-            } else {
-              updatePlayer();
+            UiMetrics.UiActionEvent event = UiMetrics.begin(UiMetrics.Action.CONSONANT);
+            char c = letterButton.getText().charAt(0);
+            if (engine.guessConsonant(c)) {
+              updateHiddenPuzzle();
             }
-            makePlayersPanel();
+            updateScoreboard();
             disableLetters();
             enableButtons();
+            UiMetrics.end(event);
           }
         });
         consonants[countConsonants] = letterButton;
@@ -380,14 +359,14 @@ public class WheelOfFortuneFrame extends JFrame {
    */
   private void enableButtons() {
     //if not all vowels have guessed and player has money
-    if (numVowelsGuessed < 5 && playerCash[currentPlayer] >= 250) {
+    if (engine.canBuyVowel()) {
       buyVowelButton.setEnabled(true);
     } else {
       buyVowelButton.setEnabled(false);
     }
 
     //if not all the consonants are guessed, then enable the spin the wheel button
-    if (numConsonantsGuessed < 21) {
+    if (engine.canSpin()) {
       spinButton.setEnabled(true);
     }
 
@@ -419,11 +398,13 @@ public class WheelOfFortuneFrame extends JFrame {
     buyVowelButton.addActionListener(new ActionListener() {
       @Override
       public void actionPerformed(ActionEvent e) {
-        playerCash[currentPlayer] -= 250;
+        UiMetrics.UiActionEvent event = UiMetrics.begin(UiMetrics.Action.BUY_VOWEL);
+        //the vowel cost is charged by the engine once a vowel is picked
         buyVowelButton.setEnabled(false);
         spinButton.setEnabled(false);
         solveButton.setEnabled(false);
         enableAvailableVowels();
+        UiMetrics.end(event);
       }
     });
     //in the start of the game the buy vowel button will be greyed out
@@ -434,25 +415,28 @@ public class WheelOfFortuneFrame extends JFrame {
     spinButton.addActionListener(new ActionListener() {
       @Override
       public void actionPerformed(ActionEvent e) {
+        UiMetrics.UiActionEvent event = UiMetrics.begin(UiMetrics.Action.SPIN);
         buyVowelButton.setEnabled(false);
         spinButton.setEnabled(false);
         solveButton.setEnabled(false);
-        //get next Index
-        int index = generator.nextInt(NUM_WHEEL_SPACES);
-        currentWheel = wheelSpaces[index];
-        imageLabel.setIcon(currentWheel.getImage());
-        if (currentWheel.getString().equals("bankrupt")) {
-          playerCash[currentPlayer] = 0;
-          updatePlayer();
-          makePlayersPanel();
-          enableButtons();
-        } else if (currentWheel.getString().equals("loseATurn")) {
-          updatePlayer();
-          makePlayersPanel();
-          enableButtons();
-        } else {
-          enableAvailableConsonants();
-        }
+        //get next Index, then show it once the wheel stops
+        int index = engine.spin();
+        WheelSpace currentWheel = wheelSpaces[index];
+        wheelPanel.spinTo(index, new Runnable() {
+          @Override
+          public void run() {
+            UiMetrics.UiActionEvent settled =
+                UiMetrics.begin(UiMetrics.Action.SPIN_SETTLED);
+            if (currentWheel.isBankrupt() || currentWheel.isLoseATurn()) {
+              updateScoreboard();
+              enableButtons();
+            } else {
+              enableAvailableConsonants();
+            }
+            UiMetrics.end(settled);
+          }
+        });
+        UiMetrics.end(event);
       }
     });
     middleLeftPanel.add(spinButton);
@@ -467,19 +451,23 @@ public class WheelOfFortuneFrame extends JFrame {
         InputDialog solveDialog = new InputDialog(mainFrame,
             "Solve Puzzle", false, true);
         String enteredString = solveDialog.getEntry();
-        enteredString = enteredString.toUpperCase(Locale.ROOT);
-        if (enteredString.equals(puzzle)) {
-            String message = players[currentPlayer] + " wins $" + playerCash[currentPlayer];
+        //timed from here, the dialog waits for the player
+        UiMetrics.UiActionEvent event = UiMetrics.begin(UiMetrics.Action.SOLVE);
+        int solver = engine.getCurrentPlayer();
+        boolean correct = engine.solve(enteredString);
+        UiMetrics.end(event);
+        if (correct) {
+            String message = engine.getPlayerName(solver) + " wins $"
+                + engine.getPlayerCash(solver) + standings();
             JOptionPane.showMessageDialog(mainFrame, message,
                 "Game Over", JOptionPane.INFORMATION_MESSAGE);
             dispose();
         } else {
-          String message = "Guess by " + players[currentPlayer] + " was incorrect!";
+          String message = "Guess by " + engine.getPlayerName(solver) + " was incorrect!";
           JOptionPane.showMessageDialog(mainFrame, message,
               "Error Message", JOptionPane.ERROR_MESSAGE);
-          updatePlayer();
           enableButtons();
-          makePlayersPanel();
+          updateScoreboard();
 
         }
       }
@@ -494,7 +482,7 @@ public class WheelOfFortuneFrame extends JFrame {
   private void enableAvailableVowels() {
     char[] vowelsArray = {'A', 'E', 'I', 'O', 'U'};
     for (int i = 0; i < 5; ++i) {
-      if (letterAvailable[vowelsArray[i] - 'A']) {
+      if (engine.isLetterAvailable(vowelsArray[i])) {
         vowels[i].setEnabled(true);
       }
     }
@@ -507,13 +495,13 @@ public class WheelOfFortuneFrame extends JFrame {
     char[] consonantsArray = new char[21];
     int count = 0;
     for (char c = 'A'; c <= 'Z'; ++c) {
-      if (c != 'A' && c != 'E' && c != 'I' && c != 'O' && c != 'U') {
+      if (!GameEngine.isVowel(c)) {
         consonantsArray[count] = c;
         count++;
       }
     }
     for (int i = 0; i < 21; ++i) {
-      if (letterAvailable[consonantsArray[i] - 'A']) {
+      if (engine.isLetterAvailable(consonantsArray[i])) {
         consonants[i].setEnabled(true);
       }
     }
@@ -523,70 +511,21 @@ public class WheelOfFortuneFrame extends JFrame {
    * Helper function to add the panel that contains the hidden puzzle.
    */
   private void addPuzzlePanel() {
-    hiddenPuzzle = "";
-    puzzle = puzzle.toUpperCase(Locale.ROOT);
-    for (int i = 0; i < puzzle.length(); ++i) {
-      if (isAlphabet(puzzle.charAt(i))) {
-        hiddenPuzzle += "- ";
-      } else {
-        hiddenPuzzle += puzzle.charAt(i) + " ";
-      }
-    }
-    puzzleLabel = new JLabel(hiddenPuzzle);
+    puzzleLabel = new JLabel(engine.getHiddenPuzzle());
     puzzlePanel.add(puzzleLabel);
     botPanel.add(puzzlePanel, BorderLayout.SOUTH);
   }
 
   /**
-   * Function to check whether a guessed letter is in the puzzle, and updates
-   * the hidden string to show all instances of that letter.
-   *
-   * @param letter the guessed letter
-   * @return true if the letter is in the puzzle, else false
-   */
-  private boolean updateHiddenPuzzle(String letter) {
-    if (puzzle.contains(letter)) {
-      char c = letter.charAt(0);
-      char[] tempArray = hiddenPuzzle.toCharArray();
-      for (int i = 0; i < puzzle.length(); ++i) {
-        if (c == puzzle.charAt(i)) {
-          tempArray[i * 2] = puzzle.charAt(i);
-        }
-      }
-      hiddenPuzzle = String.valueOf(tempArray);
-      puzzleLabel.setText(hiddenPuzzle);
-      return true;
-    }
-    return false;
-  }
-
-  /**
-   * Helper function to check whether a char is an alphabet.
-   *
-   * @param c the char variable
-   * @return true if the char variable is an alphabet, else false
+   * Function to show the hidden puzzle after the engine revealed a letter.
    */
-  private boolean isAlphabet(char c) {
-    if (c >= 'A' && c <= 'Z') {
-      return true;
-    }
-    return false;
-  }
-
-  /**
-   * Function that updates current player to the next player.
-   */
-  private void updatePlayer() {
-    if (currentPlayer < numPlayers - 1) {
-      currentPlayer++;
-    } else {
-      currentPlayer = 0;
-    }
+  private void updateHiddenPuzzle() {
+    puzzleLabel.setText(engine.getHiddenPuzzle());
   }
 
 
   private JFrame mainFrame;
-  private final JPanel topPanel;
+  private final Scoreboard scoreboard;
   private final JPanel middlePanel;
   private final JPanel botPanel;
   private final JPanel letterBox;
@@ -598,24 +537,13 @@ public class WheelOfFortuneFrame extends JFrame {
   private JButton solveButton;
   private JButton buyVowelButton;
 
-  private JLabel imageLabel;
+  private final WheelSpinPanel wheelPanel;
   private JLabel puzzleLabel;
 
   private JButton[] vowels;
   private JButton[] consonants;
 
-  private WheelSpace currentWheel;
-  private WheelSpace[] wheelSpaces;
-
-  private boolean[] letterAvailable;
-  private int currentPlayer;
-  private int numPlayers;
-  private int numVowelsGuessed;
-  private int numConsonantsGuessed;
-  private int[] playerCash;
-  private String hiddenPuzzle;
-  private String puzzle;
-  private String[] players;
-  private Random generator;
+  private final WheelSpace[] wheelSpaces;
+  private final GameEngine engine;
 
 }
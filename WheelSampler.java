@@ -0,0 +1,153 @@
+/**
+ * This Java file defines the WheelSampler class which picks the space a
+ * spin lands on in constant time.
+ */
+
+package eecs285.proj3.kshilen;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Picks wheel spaces in proportion to their weights with Vose's alias
+ * method. The table has one column per space, each holding a probability
+ * and an alias, so a spin draws a column and a coin and never allocates,
+ * whatever the size of the wheel. Building the table takes linear time.
+ *
+ * A wheel whose spaces all have the same weight draws generator.nextInt
+ * of its size, exactly as spins did before weights existed, so recorded
+ * seeds and journals replay unchanged. java.util.Random is a
+ * RandomGenerator, so the game, simulators and servers all share this one
+ * sample method.
+ */
+public class WheelSampler {
+  /**
+   * Function to create the sampler of a wheel from the weights of its
+   * spaces.
+   *
+   * @param wheelSpaces the spaces of the wheel
+   * @return the sampler
+   */
+  public static WheelSampler of(WheelSpace[] wheelSpaces) {
+    int[] weights = new int[wheelSpaces.length];
+    for (int i = 0; i < weights.length; ++i) {
+      weights[i] = wheelSpaces[i].getWeight();
+    }
+    return new WheelSampler(weights);
+  }
+
+  /**
+   * Creates a sampler that picks every index in proportion to its weight.
+   *
+   * @param weights the positive weight of every index
+   */
+  public WheelSampler(int[] weights) {
+    numSpaces = weights.length;
+    if (numSpaces == 0) {
+      throw new IllegalArgumentException("A wheel needs at least one space");
+    }
+    long total = 0;
+    boolean uniform = true;
+    for (int weight : weights) {
+      if (weight <= 0) {
+        throw new IllegalArgumentException("Weights must be positive");
+      }
+      total += weight;
+      uniform &= weight == weights[0];
+    }
+    this.weights = weights.clone();
+    totalWeight = total;
+    if (uniform) {
+      probability = null;
+      alias = null;
+      return;
+    }
+
+    // Scale every weight so the average column holds exactly 1, then fill
+    // each small column from a large one
+    probability = new double[numSpaces];
+    alias = new int[numSpaces];
+    double[] scaled = new double[numSpaces];
+    int[] small = new int[numSpaces];
+    int[] large = new int[numSpaces];
+    int numSmall = 0;
+    int numLarge = 0;
+    for (int i = 0; i < numSpaces; ++i) {
+      scaled[i] = (double) weights[i] * numSpaces / total;
+      if (scaled[i] < 1) {
+        small[numSmall++] = i;
+      } else {
+        large[numLarge++] = i;
+      }
+    }
+    while (numSmall > 0 && numLarge > 0) {
+      int less = small[--numSmall];
+      int more = large[--numLarge];
+      probability[less] = scaled[less];
+      alias[less] = more;
+      scaled[more] = scaled[more] + scaled[less] - 1;
+      if (scaled[more] < 1) {
+        small[numSmall++] = more;
+      } else {
+        large[numLarge++] = more;
+      }
+    }
+    // What is left is 1 up to rounding
+    while (numLarge > 0) {
+      probability[large[--numLarge]] = 1;
+    }
+    while (numSmall > 0) {
+      probability[small[--numSmall]] = 1;
+    }
+  }
+
+  /**
+   * Function to pick a space.
+   *
+   * @param generator the random-number generator
+   * @return the index of the space
+   */
+  public int sample(RandomGenerator generator) {
+    int column = generator.nextInt(numSpaces);
+    if (probability == null) {
+      return column;
+    }
+    return generator.nextDouble() < probability[column] ? column
+        : alias[column];
+  }
+
+  /**
+   * Function to get the number of spaces.
+   *
+   * @return the number of spaces
+   */
+  public int getNumSpaces() {
+    return numSpaces;
+  }
+
+  /**
+   * Function to get the chance of landing on a space.
+   *
+   * @param index the index of the space
+   * @return the probability
+   */
+  public double getProbability(int index) {
+    return (double) weights[index] / totalWeight;
+  }
+
+  /**
+   * Function to check whether every space has the same weight.
+   *
+   * @return true if the wheel is uniform
+   */
+  public boolean isUniform() {
+    return probability == null;
+  }
+
+  private final int numSpaces;
+  private final int[] weights;
+  private final long totalWeight;
+  /** Chance of keeping each column, or null for a uniform wheel. */
+  private final double[] probability;
+  /** Space each column falls back to, or null for a uniform wheel. */
+  private final int[] alias;
+}
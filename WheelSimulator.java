@@ -0,0 +1,553 @@
+/**
+ * This Java file defines the WheelSimulator class which plays large numbers
+ * of spins and games headlessly to collect statistics about a wheel.
+ */
+
+package eecs285.proj3.kshilen;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.random.RandomGenerator;
+
+/**
+ * Monte Carlo simulator for the wheel. Work is split over a fork-join pool
+ * and every task receives its own SplittableRandom stream, split from the
+ * master seed before the task is forked. The streams therefore only depend
+ * on the seed and the amount of work, never on the number of threads, so a
+ * run is reproducible on any machine.
+ */
+public class WheelSimulator {
+  /** Number of spins simulated by a single task before it stops splitting. */
+  static final long SPINS_PER_TASK = 1 << 20;
+
+  /** Number of games simulated by a single task before it stops splitting. */
+  static final int GAMES_PER_TASK = 1 << 10;
+
+  /** Game lengths at or above this number of spins share the last bucket. */
+  static final int MAX_GAME_LENGTH = 256;
+
+  /**
+   * Command-line interface for the simulator.
+   *
+   * Usage: WheelSimulator [seed] [spins] [games] [numPlayers] [--bots]
+   *                       [puzzle...]
+   *
+   * With --bots the games are played by SolverBots that know the puzzles,
+   * instead of by players picking random letters. The system property
+   * wof.rng chooses the RandomSource of the games, legacy by default.
+   */
+  public static void main(String[] args) {
+    long seed = 100;
+    long spins = 1_000_000_000L;
+    int games = 1_000_000;
+    int numPlayers = 3;
+    String[] puzzles = {"WHEEL OF FORTUNE"};
+    try {
+      if (args.length > 0) {
+        seed = Long.parseLong(args[0]);
+      }
+      if (args.length > 1) {
+        spins = Long.parseLong(args[1]);
+      }
+      if (args.length > 2) {
+        games = Integer.parseInt(args[2]);
+      }
+      if (args.length > 3) {
+        numPlayers = Integer.parseInt(args[3]);
+      }
+    } catch (NumberFormatException e) {
+      System.out.println("Seed, spins, games and players must be integers");
+      System.exit(1);
+    }
+    int firstPuzzle = 4;
+    boolean bots = args.length > 4 && args[4].equals("--bots");
+    if (bots) {
+      firstPuzzle++;
+    }
+    if (args.length > firstPuzzle) {
+      puzzles = new String[args.length - firstPuzzle];
+      System.arraycopy(args, firstPuzzle, puzzles, 0, puzzles.length);
+    }
+    Bot bot = bots ? new SolverBot(PuzzleSolver.of(puzzles)) : null;
+
+    WheelSpace[] wheelSpaces = WheelOfFortuneFrame.loadImages();
+    ForkJoinPool pool = ForkJoinPool.commonPool();
+    System.out.println("Simulating on " + pool.getParallelism() + " threads");
+
+    long start = System.nanoTime();
+    SpinStats spinStats = simulateSpins(pool, wheelSpaces, seed, spins);
+    long spinNanos = System.nanoTime() - start;
+    spinStats.print(wheelSpaces);
+    System.out.printf("Spins per second: %.0f%n", spins * 1e9 / spinNanos);
+
+    start = System.nanoTime();
+    GameStats gameStats = simulateGames(pool, wheelSpaces, puzzles,
+        numPlayers, seed, games, bot, RandomSource.fromProperty());
+    long gameNanos = System.nanoTime() - start;
+    gameStats.print();
+    System.out.printf("Games per second: %.0f%n", games * 1e9 / gameNanos);
+  }
+
+  /**
+   * Spins the wheel the given number of times.
+   *
+   * @param pool the pool that runs the simulation
+   * @param wheelSpaces the spaces of the wheel
+   * @param seed the master seed
+   * @param spins the number of spins
+   * @return how often each space was landed on
+   */
+  public static SpinStats simulateSpins(ForkJoinPool pool,
+                                        WheelSpace[] wheelSpaces,
+                                        long seed,
+                                        long spins) {
+    return pool.invoke(new SpinTask(WheelSampler.of(wheelSpaces),
+        new SplittableRandom(seed), spins));
+  }
+
+  /**
+   * Plays the given number of complete games. Each game uses one of the
+   * puzzles in turn and is played by simple players who always pick a
+   * random available letter.
+   *
+   * @param pool the pool that runs the simulation
+   * @param wheelSpaces the spaces of the wheel
+   * @param puzzles the puzzles to play
+   * @param numPlayers the number of players per game
+   * @param seed the master seed
+   * @param games the number of games
+   * @return the length and outcome statistics of the games
+   */
+  public static GameStats simulateGames(ForkJoinPool pool,
+                                        WheelSpace[] wheelSpaces,
+                                        String[] puzzles,
+                                        int numPlayers,
+                                        long seed,
+                                        int games) {
+    return simulateGames(pool, wheelSpaces, puzzles, numPlayers, seed, games,
+        null);
+  }
+
+  /**
+   * Plays the given number of complete games with a bot in every seat.
+   * Each game uses one of the puzzles in turn.
+   *
+   * @param pool the pool that runs the simulation
+   * @param wheelSpaces the spaces of the wheel
+   * @param puzzles the puzzles to play
+   * @param numPlayers the number of players per game
+   * @param seed the master seed
+   * @param games the number of games
+   * @param bot the bot playing every seat, or null for random letters
+   * @return the length and outcome statistics of the games
+   */
+  public static GameStats simulateGames(ForkJoinPool pool,
+                                        WheelSpace[] wheelSpaces,
+                                        String[] puzzles,
+                                        int numPlayers,
+                                        long seed,
+                                        int games,
+                                        Bot bot) {
+    return simulateGames(pool, wheelSpaces, puzzles, numPlayers, seed, games,
+        bot, RandomSource.LEGACY);
+  }
+
+  /**
+   * Plays the given number of complete games with a bot in every seat,
+   * every task spinning with a generator of the given source.
+   *
+   * @param pool the pool that runs the simulation
+   * @param wheelSpaces the spaces of the wheel
+   * @param puzzles the puzzles to play
+   * @param numPlayers the number of players per game
+   * @param seed the master seed
+   * @param games the number of games
+   * @param bot the bot playing every seat, or null for random letters
+   * @param source the source of the generators of the games
+   * @return the length and outcome statistics of the games
+   */
+  public static GameStats simulateGames(ForkJoinPool pool,
+                                        WheelSpace[] wheelSpaces,
+                                        String[] puzzles,
+                                        int numPlayers,
+                                        long seed,
+                                        int games,
+                                        Bot bot,
+                                        RandomSource source) {
+    String[] players = new String[numPlayers];
+    for (int i = 0; i < numPlayers; ++i) {
+      players[i] = "Player " + i;
+    }
+    // The spin streams are split from a SplittableRandom of the seed
+    // itself, whose splits are seeded from mixes of seed + k * golden
+    // gamma for k >= 1. Seed the game streams from k = -1, which the spin
+    // streams never reach, rather than from one of those splits.
+    SplittableRandom random = new SplittableRandom(
+        RandomSource.gameSeed(seed, -1));
+    return pool.invoke(new GameTask(wheelSpaces, WheelSampler.of(wheelSpaces),
+        puzzles, players, bot, source, random, 0, games));
+  }
+
+  /**
+   * Plays a single game to the end with random letter choices.
+   *
+   * @param engine the engine holding the started game
+   * @param random the random-number generator for letter choices
+   * @param stats the statistics to add the game to
+   */
+  static void playGame(GameEngine engine, RandomGenerator random,
+                       GameStats stats) {
+    int spins = 0;
+    while (!engine.isGameOver()) {
+      if (engine.isFullyRevealed()) {
+        engine.solve(engine.getPuzzle());
+      } else if (engine.canBuyVowel() && countAvailable(engine, true) > 0) {
+        engine.buyVowel(pickAvailable(engine, random, true));
+      } else if (engine.canSpin()) {
+        int index = engine.spin();
+        spins++;
+        WheelSpace space = engine.getWheelSpaces()[index];
+        if (space.isBankrupt()) {
+          stats.bankrupts++;
+        } else if (space.isLoseATurn()) {
+          stats.loseATurns++;
+        } else {
+          engine.guessConsonant(pickAvailable(engine, random, false));
+        }
+      } else {
+        // Only vowels are hidden and nobody can afford them
+        engine.solve(engine.getPuzzle());
+      }
+    }
+    stats.games++;
+    stats.spins += spins;
+    stats.gameLengths[Math.min(spins, MAX_GAME_LENGTH)]++;
+    stats.winnings += engine.getPlayerCash(engine.getCurrentPlayer());
+  }
+
+  /**
+   * Plays a single game to the end with a bot in every seat.
+   *
+   * @param engine the engine holding the started game
+   * @param bot the bot playing every seat
+   * @param stats the statistics to add the game to
+   */
+  static void playGame(GameEngine engine, Bot bot, GameStats stats) {
+    int spins = 0;
+    while (!engine.isGameOver()) {
+      if (!engine.canSpin() && !engine.canBuyVowel()
+          && !engine.isFullyRevealed()) {
+        // Only vowels are hidden and nobody can afford them
+        engine.solve(engine.getPuzzle());
+      } else if (bot.playMove(engine) == Bot.Move.SPIN) {
+        spins++;
+        WheelSpace space = engine.getCurrentSpace();
+        if (space.isBankrupt()) {
+          stats.bankrupts++;
+        } else if (space.isLoseATurn()) {
+          stats.loseATurns++;
+        }
+      }
+    }
+    stats.games++;
+    stats.spins += spins;
+    stats.gameLengths[Math.min(spins, MAX_GAME_LENGTH)]++;
+    stats.winnings += engine.getPlayerCash(engine.getCurrentPlayer());
+  }
+
+  /**
+   * Helper function to count the vowels or consonants not guessed yet.
+   *
+   * @param engine the engine holding the game
+   * @param vowels true to count vowels, false to count consonants
+   * @return the number of available letters
+   */
+  private static int countAvailable(GameEngine engine, boolean vowels) {
+    int count = 0;
+    for (char c = 'A'; c <= 'Z'; ++c) {
+      if (GameEngine.isVowel(c) == vowels && engine.isLetterAvailable(c)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Helper function to pick a random vowel or consonant not guessed yet.
+   *
+   * @param engine the engine holding the game
+   * @param random the random-number generator
+   * @param vowels true to pick a vowel, false to pick a consonant
+   * @return the picked letter
+   */
+  private static char pickAvailable(GameEngine engine,
+                                    RandomGenerator random, boolean vowels) {
+    int pick = random.nextInt(countAvailable(engine, vowels));
+    for (char c = 'A'; c <= 'Z'; ++c) {
+      if (GameEngine.isVowel(c) == vowels && engine.isLetterAvailable(c)) {
+        if (pick == 0) {
+          return c;
+        }
+        pick--;
+      }
+    }
+    throw new IllegalStateException("No available letters");
+  }
+
+  /**
+   * Statistics of a number of spins.
+   */
+  public static class SpinStats {
+    /**
+     * Creates empty statistics for a wheel with the given number of spaces.
+     *
+     * @param numSpaces the number of wheel spaces
+     */
+    SpinStats(int numSpaces) {
+      counts = new long[numSpaces];
+    }
+
+    /**
+     * Function to add other statistics to these.
+     *
+     * @param other the statistics to add
+     */
+    void add(SpinStats other) {
+      for (int i = 0; i < counts.length; ++i) {
+        counts[i] += other.counts[i];
+      }
+    }
+
+    /**
+     * Function to get how often a wheel space was landed on.
+     *
+     * @param index the index of the wheel space
+     * @return the number of spins that landed on the space
+     */
+    public long getCount(int index) {
+      return counts[index];
+    }
+
+    /**
+     * Function to get the total number of spins.
+     *
+     * @return the number of spins
+     */
+    public long getSpins() {
+      long spins = 0;
+      for (long count : counts) {
+        spins += count;
+      }
+      return spins;
+    }
+
+    /**
+     * Function to get the average dollar value of a spin. Bankrupt and
+     * lose a turn count as zero.
+     *
+     * @param wheelSpaces the spaces of the wheel
+     * @return the expected value per spin
+     */
+    public double getExpectedValue(WheelSpace[] wheelSpaces) {
+      double total = 0;
+      for (int i = 0; i < counts.length; ++i) {
+        total += (double) counts[i] * wheelSpaces[i].getDollarValue();
+      }
+      return total / getSpins();
+    }
+
+    /**
+     * Prints the statistics.
+     *
+     * @param wheelSpaces the spaces of the wheel
+     */
+    public void print(WheelSpace[] wheelSpaces) {
+      long spins = getSpins();
+      long bankrupts = 0;
+      long loseATurns = 0;
+      for (int i = 0; i < counts.length; ++i) {
+        if (wheelSpaces[i].isBankrupt()) {
+          bankrupts += counts[i];
+        } else if (wheelSpaces[i].isLoseATurn()) {
+          loseATurns += counts[i];
+        }
+      }
+      System.out.println("Spins: " + spins);
+      System.out.printf("Expected value per spin: $%.2f%n",
+          getExpectedValue(wheelSpaces));
+      System.out.printf("Bankrupt frequency: %.6f%n",
+          (double) bankrupts / spins);
+      System.out.printf("Lose a turn frequency: %.6f%n",
+          (double) loseATurns / spins);
+    }
+
+    private final long[] counts;
+  }
+
+  /**
+   * Statistics of a number of complete games.
+   */
+  public static class GameStats {
+    /**
+     * Function to add other statistics to these.
+     *
+     * @param other the statistics to add
+     */
+    void add(GameStats other) {
+      games += other.games;
+      spins += other.spins;
+      bankrupts += other.bankrupts;
+      loseATurns += other.loseATurns;
+      winnings += other.winnings;
+      for (int i = 0; i <= MAX_GAME_LENGTH; ++i) {
+        gameLengths[i] += other.gameLengths[i];
+      }
+    }
+
+    /**
+     * Function to get the number of games that took a given number of spins.
+     *
+     * @param spinCount the number of spins, where MAX_GAME_LENGTH includes
+     *                  all longer games
+     * @return the number of games
+     */
+    public long getGameLengthCount(int spinCount) {
+      return gameLengths[spinCount];
+    }
+
+    /**
+     * Function to get a percentile of the number of spins per game.
+     *
+     * @param percentile the percentile between 0 and 100
+     * @return the game length at the percentile
+     */
+    public int getGameLengthPercentile(double percentile) {
+      long target = (long) Math.ceil(games * percentile / 100);
+      long seen = 0;
+      for (int i = 0; i < MAX_GAME_LENGTH; ++i) {
+        seen += gameLengths[i];
+        if (seen >= target) {
+          return i;
+        }
+      }
+      return MAX_GAME_LENGTH;
+    }
+
+    /**
+     * Prints the statistics.
+     */
+    public void print() {
+      System.out.println("Games: " + games);
+      System.out.printf("Average spins per game: %.2f%n",
+          (double) spins / games);
+      System.out.println("Spins per game p50/p90/p99: "
+          + getGameLengthPercentile(50) + "/"
+          + getGameLengthPercentile(90) + "/"
+          + getGameLengthPercentile(99));
+      System.out.printf("Bankrupts per game: %.3f%n",
+          (double) bankrupts / games);
+      System.out.printf("Lose a turns per game: %.3f%n",
+          (double) loseATurns / games);
+      System.out.printf("Average winnings: $%.2f%n",
+          (double) winnings / games);
+    }
+
+    private long games;
+    private long spins;
+    private long bankrupts;
+    private long loseATurns;
+    private long winnings;
+    private final long[] gameLengths = new long[MAX_GAME_LENGTH + 1];
+  }
+
+  /**
+   * Task that spins the wheel, splitting itself while it has too much work.
+   */
+  private static class SpinTask extends RecursiveTask<SpinStats> {
+    SpinTask(WheelSampler sampler, SplittableRandom random, long spins) {
+      this.sampler = sampler;
+      this.random = random;
+      this.spins = spins;
+    }
+
+    @Override
+    protected SpinStats compute() {
+      if (spins <= SPINS_PER_TASK) {
+        SpinStats stats = new SpinStats(sampler.getNumSpaces());
+        long[] counts = stats.counts;
+        for (long i = 0; i < spins; ++i) {
+          counts[sampler.sample(random)]++;
+        }
+        return stats;
+      }
+      long half = spins / 2;
+      SpinTask left = new SpinTask(sampler, random.split(), half);
+      SpinTask right = new SpinTask(sampler, random, spins - half);
+      left.fork();
+      SpinStats stats = right.compute();
+      stats.add(left.join());
+      return stats;
+    }
+
+    private final WheelSampler sampler;
+    private final SplittableRandom random;
+    private final long spins;
+  }
+
+  /**
+   * Task that plays games, splitting itself while it has too much work.
+   */
+  private static class GameTask extends RecursiveTask<GameStats> {
+    GameTask(WheelSpace[] wheelSpaces, WheelSampler sampler, String[] puzzles,
+             String[] players, Bot bot, RandomSource source,
+             SplittableRandom random, int firstGame, int games) {
+      this.wheelSpaces = wheelSpaces;
+      this.sampler = sampler;
+      this.puzzles = puzzles;
+      this.players = players;
+      this.bot = bot;
+      this.source = source;
+      this.random = random;
+      this.firstGame = firstGame;
+      this.games = games;
+    }
+
+    @Override
+    protected GameStats compute() {
+      if (games <= GAMES_PER_TASK) {
+        GameStats stats = new GameStats();
+        RandomGenerator generator = source.create(random.nextLong());
+        GameEngine engine = new GameEngine(wheelSpaces, sampler, generator);
+        for (int i = firstGame; i < firstGame + games; ++i) {
+          engine.newGame(players, puzzles[i % puzzles.length]);
+          if (bot != null) {
+            playGame(engine, bot, stats);
+          } else {
+            playGame(engine, generator, stats);
+          }
+        }
+        return stats;
+      }
+      int half = games / 2;
+      GameTask left = new GameTask(wheelSpaces, sampler, puzzles, players,
+          bot, source, random.split(), firstGame, half);
+      GameTask right = new GameTask(wheelSpaces, sampler, puzzles, players,
+          bot, source, random, firstGame + half, games - half);
+      left.fork();
+      GameStats stats = right.compute();
+      stats.add(left.join());
+      return stats;
+    }
+
+    private final WheelSpace[] wheelSpaces;
+    private final WheelSampler sampler;
+    private final String[] puzzles;
+    private final String[] players;
+    private final Bot bot;
+    private final RandomSource source;
+    private final SplittableRandom random;
+    private final int firstGame;
+    private final int games;
+  }
+}
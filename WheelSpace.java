@@ -5,40 +5,80 @@
 
 package eecs285.proj3.kshilen;
 
-import javax.swing.ImageIcon;
+import javax.swing.Icon;
 
 /**
  * The class WheelSpace defines an object for a single wheel space and
  * provides methods to retrieve information.
  */
 public class WheelSpace {
+  /** String value of the bankrupt wheel space. */
+  public static final String BANKRUPT = "bankrupt";
+
+  /** String value of the lose a turn wheel space. */
+  public static final String LOSE_A_TURN = "loseATurn";
+
   /**
    * Parametrized constructor to initialize a wheel
    * space that has a numeric amount.
    *
    * @param dollarValue the dollar value associated with the wheel space
-   * @param image the ImageIcon variable that refers to the
+   * @param image the Icon variable that refers to the
    *              picture that has to be displayed
    */
   WheelSpace(int dollarValue,
-             ImageIcon image) {
+             Icon image) {
+    this(dollarValue, image, 1);
+  }
+
+  /**
+   * Parametrized constructor to initialize a wheel space that has a
+   * numeric amount and is landed on in proportion to a weight.
+   *
+   * @param dollarValue the dollar value associated with the wheel space
+   * @param image the Icon variable that refers to the
+   *              picture that has to be displayed
+   * @param weight the positive weight of the space on the wheel
+   */
+  WheelSpace(int dollarValue,
+             Icon image,
+             int weight) {
     this.dollarValue = dollarValue;
     this.image = image;
     this.stringValue = "";
+    this.weight = weight;
   }
 
   /**
    * Parametrized constructor to initialize the losATurn or bankrupt wheel space.
    *
    * @param stringVal bankrupt or loseATurn
-   * @param image the ImageIcon variable that refers to the
+   * @param image the Icon variable that refers to the
    *              picture that has to be displayed
    */
   WheelSpace(String stringVal,
-             ImageIcon image) {
+             Icon image) {
+    this(stringVal, image, 1);
+  }
+
+  /**
+   * Parametrized constructor to initialize the loseATurn or bankrupt wheel
+   * space with a weight.
+   *
+   * @param stringVal bankrupt or loseATurn
+   * @param image the Icon variable that refers to the
+   *              picture that has to be displayed
+   * @param weight the positive weight of the space on the wheel
+   */
+  WheelSpace(String stringVal,
+             Icon image,
+             int weight) {
+    this.weight = weight;
     this.dollarValue = 0;
     this.image = image;
     this.stringValue = stringVal;
+    this.bankrupt = BANKRUPT.equals(stringVal);
+    this.loseATurn = LOSE_A_TURN.equals(stringVal);
   }
 
   /**
@@ -51,11 +91,11 @@ public class WheelSpace {
   }
 
   /**
-   * Function to get the ImageIcon of the image to be displayed.
+   * Function to get the Icon of the image to be displayed.
    *
-   * @return an ImageIcon variable
+   * @return an Icon variable
    */
-  public ImageIcon getImage() {
+  public Icon getImage() {
     return image;
   }
 
@@ -68,8 +108,39 @@ public class WheelSpace {
     return stringValue;
   }
 
+  /**
+   * Function to get the weight of the wheel space. A spin lands on a space
+   * with a chance proportional to its weight.
+   *
+   * @return the weight, 1 unless the wheel says otherwise
+   */
+  public int getWeight() {
+    return weight;
+  }
+
+  /**
+   * Function to check whether the wheel space is bankrupt.
+   *
+   * @return true if it's the bankrupt space, else false
+   */
+  public boolean isBankrupt() {
+    return bankrupt;
+  }
+
+  /**
+   * Function to check whether the wheel space is lose a turn.
+   *
+   * @return true if it's the lose a turn space, else false
+   */
+  public boolean isLoseATurn() {
+    return loseATurn;
+  }
+
   private int dollarValue;
   private String stringValue;
-  private ImageIcon image;
+  private Icon image;
+  private boolean bankrupt;
+  private boolean loseATurn;
+  private int weight;
 
 }
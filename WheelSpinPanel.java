@@ -0,0 +1,244 @@
+/**
+ * This Java file defines the WheelSpinPanel class which animates a spin of
+ * the wheel.
+ */
+
+package eecs285.proj3.kshilen;
+
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.CompletableFuture;
+import javax.swing.Icon;
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+/**
+ * Shows the wheel space of the last spin and animates a spin by scrolling
+ * the faces past, slowing down until the landed space is shown. The
+ * position of every frame is computed off the EDT before the animation
+ * starts. A Swing Timer then paints at a fixed rate into a back buffer,
+ * choosing the frame from the elapsed time so a late tick never slows the
+ * spin down. The EDT is never blocked, so the rest of the window stays
+ * responsive. Every frame time is recorded as a UiMetrics FRAME action.
+ */
+public class WheelSpinPanel extends JComponent {
+  /** Frames per second of the animation. */
+  public static final int FRAMES_PER_SECOND = 60;
+
+  /** Length of a spin in milliseconds. */
+  public static final int SPIN_MILLIS = 2000;
+
+  /** Number of full turns of the wheel before it lands. */
+  public static final int SPIN_LAPS = 2;
+
+  /** Time budget of a frame in nanoseconds. */
+  private static final long FRAME_NANOS = 1_000_000_000L / FRAMES_PER_SECOND;
+
+  /**
+   * Creates a panel showing the first wheel space.
+   *
+   * @param wheelSpaces the spaces of the wheel
+   */
+  public WheelSpinPanel(WheelSpace[] wheelSpaces) {
+    this.wheelSpaces = wheelSpaces;
+    Icon first = wheelSpaces[0].getImage();
+    faceWidth = first.getIconWidth();
+    faceHeight = first.getIconHeight();
+    setPreferredSize(new Dimension(faceWidth, faceHeight));
+    setOpaque(true);
+    timer = new Timer(1000 / FRAMES_PER_SECOND, new ActionListener() {
+      @Override
+      public void actionPerformed(ActionEvent e) {
+        nextFrame();
+      }
+    });
+    timer.setCoalesce(true);
+  }
+
+  /**
+   * Animates a spin that lands on the given space. The landed space is
+   * decided by the caller, so the animation never affects the outcome. If
+   * the frames cannot be planned the space is shown without animating, so
+   * onLanded always runs. Must be called on the EDT.
+   *
+   * @param target the index of the space to land on
+   * @param onLanded run on the EDT once the landed space is shown
+   */
+  public void spinTo(int target, Runnable onLanded) {
+    int start = shownFace;
+    CompletableFuture.supplyAsync(() -> planFrames(start, target))
+        .whenComplete((plan, failure) -> SwingUtilities.invokeLater(
+            new Runnable() {
+              @Override
+              public void run() {
+                if (failure == null) {
+                  startAnimation(plan, target, onLanded);
+                  return;
+                }
+                System.err.println("Could not animate the spin: " + failure);
+                showSpace(target);
+                onLanded.run();
+              }
+            }));
+  }
+
+  /**
+   * Shows a space without animating. Must be called on the EDT.
+   *
+   * @param index the index of the space
+   */
+  public void showSpace(int index) {
+    shownFace = index;
+    shownOffset = 0;
+    renderBackBuffer();
+    repaint();
+  }
+
+  /**
+   * Function to describe the frame times of the last spin.
+   *
+   * @return the frame time statistics
+   */
+  public String getFrameStats() {
+    if (frameCount == 0) {
+      return "No frames";
+    }
+    return String.format("%d frames, average %.1f ms, max %.1f ms, %d late",
+        frameCount, totalFrameNanos / 1e6 / frameCount, maxFrameNanos / 1e6,
+        lateFrames);
+  }
+
+  @Override
+  protected void paintComponent(Graphics g) {
+    if (backBuffer == null) {
+      renderBackBuffer();
+    }
+    g.drawImage(backBuffer, 0, 0, null);
+  }
+
+  /**
+   * Computes the face and scroll offset of every frame of a spin. The wheel
+   * moves a fixed number of faces, eased out so it slows down smoothly.
+   *
+   * @param start the index of the space shown before the spin
+   * @param target the index of the space to land on
+   * @return the face of every frame in the low bits and its pixel offset
+   *         in the high bits
+   */
+  long[] planFrames(int start, int target) {
+    int numSpaces = wheelSpaces.length;
+    int frames = SPIN_MILLIS * FRAMES_PER_SECOND / 1000;
+    int steps = SPIN_LAPS * numSpaces
+        + Math.floorMod(target - start, numSpaces);
+    long[] plan = new long[frames];
+    for (int f = 0; f < frames; ++f) {
+      double t = (double) (f + 1) / frames;
+      double eased = 1 - (1 - t) * (1 - t) * (1 - t);
+      double position = eased * steps;
+      int step = (int) position;
+      int face = (start + step) % numSpaces;
+      int offset = (int) ((position - step) * faceHeight);
+      plan[f] = ((long) offset << 32) | face;
+    }
+    // Land exactly on the target
+    plan[frames - 1] = target;
+    return plan;
+  }
+
+  /**
+   * Helper function to start a planned animation on the EDT.
+   *
+   * @param plan the frames of the spin
+   * @param target the index of the space to land on
+   * @param onLanded run once the landed space is shown
+   */
+  private void startAnimation(long[] plan, int target, Runnable onLanded) {
+    framePlan = plan;
+    landedTarget = target;
+    landedCallback = onLanded;
+    frameCount = 0;
+    lateFrames = 0;
+    totalFrameNanos = 0;
+    maxFrameNanos = 0;
+    startNanos = System.nanoTime();
+    lastFrameNanos = startNanos;
+    timer.start();
+  }
+
+  /**
+   * Helper function called by the timer to paint the frame for the
+   * elapsed time and to finish the spin after the last frame.
+   */
+  private void nextFrame() {
+    long now = System.nanoTime();
+    long frameNanos = now - lastFrameNanos;
+    lastFrameNanos = now;
+    UiMetrics.record(UiMetrics.Action.FRAME, frameNanos);
+    frameCount++;
+    totalFrameNanos += frameNanos;
+    maxFrameNanos = Math.max(maxFrameNanos, frameNanos);
+    if (frameNanos > FRAME_NANOS * 3 / 2) {
+      lateFrames++;
+    }
+
+    int frame = (int) Math.min((now - startNanos) / FRAME_NANOS,
+        framePlan.length - 1);
+    shownFace = (int) framePlan[frame];
+    shownOffset = (int) (framePlan[frame] >>> 32);
+    renderBackBuffer();
+    paintImmediately(0, 0, getWidth(), getHeight());
+
+    if (frame == framePlan.length - 1) {
+      timer.stop();
+      shownFace = landedTarget;
+      Runnable callback = landedCallback;
+      landedCallback = null;
+      callback.run();
+    }
+  }
+
+  /**
+   * Helper function to draw the shown face, and the next face scrolling in
+   * below it, into the back buffer.
+   */
+  private void renderBackBuffer() {
+    if (backBuffer == null) {
+      backBuffer = getGraphicsConfiguration() != null
+          ? getGraphicsConfiguration().createCompatibleImage(faceWidth, faceHeight)
+          : new BufferedImage(faceWidth, faceHeight, BufferedImage.TYPE_INT_RGB);
+    }
+    Graphics2D g = backBuffer.createGraphics();
+    wheelSpaces[shownFace].getImage().paintIcon(this, g, 0, -shownOffset);
+    if (shownOffset > 0) {
+      int next = (shownFace + 1) % wheelSpaces.length;
+      wheelSpaces[next].getImage().paintIcon(this, g, 0,
+          faceHeight - shownOffset);
+    }
+    g.dispose();
+  }
+
+  private final WheelSpace[] wheelSpaces;
+  private final int faceWidth;
+  private final int faceHeight;
+  private final Timer timer;
+
+  private BufferedImage backBuffer;
+  private int shownFace;
+  private int shownOffset;
+
+  private long[] framePlan;
+  private int landedTarget;
+  private Runnable landedCallback;
+
+  private long startNanos;
+  private long lastFrameNanos;
+  private int frameCount;
+  private int lateFrames;
+  private long totalFrameNanos;
+  private long maxFrameNanos;
+}
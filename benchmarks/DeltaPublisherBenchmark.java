@@ -0,0 +1,108 @@
+/**
+ * This Java file defines the JMH benchmark for streaming the deltas of a
+ * game to many spectators.
+ */
+
+package eecs285.proj3.kshilen;
+
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmarks a turn of a game watched through a GameDeltaPublisher by
+ * many subscribers, half of which read every delta and half of which
+ * stall after the first. The time is that of the game thread; the
+ * teardown fails if the deltas held for the stalled subscribers grew
+ * with the number of turns instead of staying bounded.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class DeltaPublisherBenchmark {
+  @Param({"1", "100", "10000"})
+  public int numSubscribers;
+
+  /**
+   * Creates a three player game and subscribes the spectators.
+   */
+  @Setup
+  public void setUp() {
+    publisher = new GameDeltaPublisher();
+    engine = new GameEngine(TurnBenchmark.makeWheel(), new GameRandom(100));
+    engine.addListener(publisher);
+    for (int i = 0; i < numSubscribers; ++i) {
+      publisher.subscribe(new Spectator(i % 2 == 0 ? Long.MAX_VALUE : 1));
+    }
+    turns = new TurnBenchmark();
+    turns.engine = engine;
+    engine.newGame(TurnBenchmark.PLAYERS, TurnBenchmark.PUZZLE);
+  }
+
+  /**
+   * Checks that the deltas held for the subscribers stayed bounded. Every
+   * queued or conflated delta holds at most every position of the puzzle
+   * twice, as the hidden puzzle and as reveals, and every seat, whatever
+   * the number of turns it covers.
+   */
+  @TearDown
+  public void tearDown() {
+    long entries = publisher.getNumQueuedEntries();
+    publisher.close();
+    long perDelta = 2L * TurnBenchmark.PUZZLE.length()
+        + TurnBenchmark.PLAYERS.length;
+    long bound = (numSubscribers + 1L) * GameDeltaPublisher.DEFAULT_CAPACITY
+        * perDelta;
+    if (entries > bound) {
+      throw new IllegalStateException(entries + " delta entries held for "
+          + numSubscribers + " subscribers, bound " + bound);
+    }
+  }
+
+  @Benchmark
+  public int spinAndGuessConsonant() {
+    return turns.spinAndGuessConsonant();
+  }
+
+  /**
+   * Subscriber that requests a fixed number of deltas and drops them.
+   */
+  private static class Spectator implements Flow.Subscriber<GameDelta> {
+    Spectator(long wanted) {
+      this.wanted = wanted;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      subscription.request(wanted);
+    }
+
+    @Override
+    public void onNext(GameDelta delta) {
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+    }
+
+    @Override
+    public void onComplete() {
+    }
+
+    private final long wanted;
+  }
+
+  private GameDeltaPublisher publisher;
+  private GameEngine engine;
+  private TurnBenchmark turns;
+}
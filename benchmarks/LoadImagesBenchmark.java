@@ -0,0 +1,137 @@
+/**
+ * This Java file defines the JMH benchmark for loading the wheel images.
+ */
+
+package eecs285.proj3.kshilen;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmarks loadImages on a generated directory of small wheel images:
+ * cold, decoding and packing every image; from the atlas saved next to
+ * the images by an earlier run; and warm, from the atlas cached in the
+ * JVM.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class LoadImagesBenchmark {
+  @Param({"24", "240", "1000", "10000"})
+  public int numSpaces;
+
+  /**
+   * Writes one image per wheel space, named like the real images.
+   *
+   * @throws IOException if an image cannot be written
+   */
+  @Setup
+  public void setUp() throws IOException {
+    imageDir = Files.createTempDirectory("wheel").toFile();
+    writeImages(imageDir, numSpaces);
+  }
+
+  /**
+   * Deletes the generated images.
+   */
+  @TearDown
+  public void tearDown() {
+    for (File file : imageDir.listFiles()) {
+      file.delete();
+    }
+    imageDir.delete();
+  }
+
+  @Benchmark
+  public WheelSpace[] decodeAndPack(Cold cold) {
+    return WheelOfFortuneFrame.loadImages(imageDir, numSpaces);
+  }
+
+  @Benchmark
+  public WheelSpace[] readSavedAtlas(Saved saved) {
+    return WheelOfFortuneFrame.loadImages(imageDir, numSpaces);
+  }
+
+  @Benchmark
+  public WheelSpace[] cachedAtlas() {
+    return WheelOfFortuneFrame.loadImages(imageDir, numSpaces);
+  }
+
+  /**
+   * Makes every invocation decode the images.
+   */
+  @State(Scope.Thread)
+  public static class Cold {
+    /**
+     * Forgets the cached atlas and deletes the saved one.
+     *
+     * @param images the directory of images
+     */
+    @Setup(Level.Invocation)
+    public void forgetAtlas(LoadImagesBenchmark images) {
+      WheelAtlas.clearCache();
+      new File(images.imageDir, WheelAtlas.ATLAS_FILE_NAME).delete();
+    }
+  }
+
+  /**
+   * Makes every invocation read the saved atlas.
+   */
+  @State(Scope.Thread)
+  public static class Saved {
+    /**
+     * Forgets the cached atlas, saving it first if needed.
+     *
+     * @param images the directory of images
+     */
+    @Setup(Level.Invocation)
+    public void forgetCachedAtlas(LoadImagesBenchmark images) {
+      if (!new File(images.imageDir, WheelAtlas.ATLAS_FILE_NAME).exists()) {
+        WheelOfFortuneFrame.loadImages(images.imageDir, images.numSpaces);
+      }
+      WheelAtlas.clearCache();
+    }
+  }
+
+  /**
+   * Writes a small image for each wheel space to a directory.
+   *
+   * @param dir the directory to write to
+   * @param numSpaces the number of wheel spaces
+   * @throws IOException if an image cannot be written
+   */
+  static void writeImages(File dir, int numSpaces) throws IOException {
+    BufferedImage image = new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB);
+    for (int i = 1; i <= numSpaces; ++i) {
+      String value;
+      if (i % 12 == 1) {
+        value = WheelSpace.BANKRUPT;
+      } else if (i % 12 == 7) {
+        value = WheelSpace.LOSE_A_TURN;
+      } else {
+        value = Integer.toString(100 * (i % 9 + 1));
+      }
+      ImageIO.write(image, WheelOfFortuneFrame.IMAGE_EXTENSION,
+          new File(dir, i + "_" + value + "."
+              + WheelOfFortuneFrame.IMAGE_EXTENSION));
+    }
+  }
+
+  private File imageDir;
+}
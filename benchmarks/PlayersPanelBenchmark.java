@@ -0,0 +1,137 @@
+/**
+ * This Java file defines the JMH benchmark for showing the players after
+ * every action.
+ */
+
+package eecs285.proj3.kshilen;
+
+import java.awt.Color;
+import java.awt.GridLayout;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import javax.swing.BorderFactory;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.border.TitledBorder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks the Scoreboard against rebuilding the whole player panel, the
+ * way makePlayersPanel used to after almost every action. Both play the
+ * same turn first, so the difference between them is the cost of the
+ * player panel.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class PlayersPanelBenchmark {
+  @Param({"1", "10", "100", "1000", "10000"})
+  public int numPlayers;
+
+  /**
+   * Creates a game with the given number of players.
+   */
+  @Setup
+  public void setUp() {
+    players = new String[numPlayers];
+    for (int i = 0; i < numPlayers; ++i) {
+      players[i] = "Player " + i;
+    }
+    engine = new GameEngine(TurnBenchmark.makeWheel(), new Random(100));
+    engine.newGame(players, PUZZLE);
+    topPanel = new JPanel();
+    scoreboard = new Scoreboard();
+    scoreboard.setPlayers(engine);
+  }
+
+  @Benchmark
+  public JPanel rebuildPlayersPanel() {
+    playTurn();
+    rebuildPlayersPanel(topPanel, engine);
+    topPanel.revalidate();
+    return topPanel;
+  }
+
+  @Benchmark
+  public JPanel updateScoreboard() {
+    if (playTurn()) {
+      scoreboard.updateAll(engine);
+    } else {
+      scoreboard.update(engine);
+    }
+    return scoreboard;
+  }
+
+  /**
+   * Helper function to spin and guess a consonant, starting a new game
+   * whenever the consonants run out.
+   *
+   * @return true if a new game was started, else false
+   */
+  private boolean playTurn() {
+    boolean newGame = false;
+    if (!engine.canSpin()) {
+      engine.newGame(players, PUZZLE);
+      newGame = true;
+    }
+    WheelSpace space = engine.getWheelSpaces()[engine.spin()];
+    if (!space.isBankrupt() && !space.isLoseATurn()) {
+      for (char c = 'B'; c <= 'Z'; ++c) {
+        if (!GameEngine.isVowel(c) && engine.isLetterAvailable(c)) {
+          engine.guessConsonant(c);
+          break;
+        }
+      }
+    }
+    return newGame;
+  }
+
+  /**
+   * The player panel as makePlayersPanel built it before the Scoreboard:
+   * every panel, border and label is created again.
+   *
+   * @param topPanel the panel to fill, whose old contents are removed
+   * @param engine the engine holding the players
+   */
+  static void rebuildPlayersPanel(JPanel topPanel, GameEngine engine) {
+    int numPlayers = engine.getNumPlayers();
+    topPanel.removeAll();
+    JPanel[] playerPanels = new JPanel[numPlayers];
+    topPanel.setLayout(new GridLayout(1, numPlayers));
+    for (int i = 0; i < numPlayers; ++i) {
+      String name = engine.getPlayerName(i);
+      playerPanels[i] = new JPanel();
+      playerPanels[i].setBorder(BorderFactory.createTitledBorder(BorderFactory.createEtchedBorder(),
+          name, TitledBorder.LEFT, TitledBorder.TOP));
+      //Set border colour red for current Player and black for others
+      if (i == engine.getCurrentPlayer()) {
+        playerPanels[i].setBorder(BorderFactory.createTitledBorder(BorderFactory.createLineBorder(
+            Color.RED), name, TitledBorder.LEFT, TitledBorder.TOP));
+      } else {
+        playerPanels[i].setBorder(BorderFactory.createTitledBorder(BorderFactory.createLineBorder(
+            Color.BLACK), name, TitledBorder.LEFT, TitledBorder.TOP));
+      }
+      //Add player amounts
+      JLabel playerMoney = new JLabel(Integer.toString(engine.getPlayerCash(i)));
+      playerPanels[i].add(playerMoney);
+      topPanel.add(playerPanels[i]);
+    }
+  }
+
+  private static final String PUZZLE =
+      "THE QUICK BROWN FOX JUMPS OVER THE LAZY DOG";
+
+  private String[] players;
+  private GameEngine engine;
+  private JPanel topPanel;
+  private Scoreboard scoreboard;
+}
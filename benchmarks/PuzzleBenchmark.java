@@ -0,0 +1,88 @@
+/**
+ * This Java file defines the JMH benchmark for building and revealing the
+ * hidden puzzle.
+ */
+
+package eecs285.proj3.kshilen;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks building the hidden puzzle for a new game, which replaced the
+ * string building in addPuzzlePanel, and revealing every letter of it,
+ * which replaced updateHiddenPuzzle.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class PuzzleBenchmark {
+  @Param({"10", "1000", "100000", "1000000"})
+  public int puzzleLength;
+
+  /**
+   * Creates a game on a random puzzle of words separated by spaces.
+   */
+  @Setup
+  public void setUp() {
+    puzzle = makePuzzle(puzzleLength, new Random(100));
+    engine = new GameEngine(TurnBenchmark.makeWheel(), new Random(100));
+    engine.newGame(new String[] {"Player"}, puzzle);
+  }
+
+  @Benchmark
+  public GameEngine newGame() {
+    engine.newGame(PLAYERS, puzzle);
+    return engine;
+  }
+
+  @Benchmark
+  public String hiddenPuzzle() {
+    return engine.getHiddenPuzzle();
+  }
+
+  @Benchmark
+  public GameEngine newGameAndRevealAll() {
+    // A revealed letter returns early, so every letter is revealed on a
+    // fresh board; subtract newGame for the cost of the reveals
+    engine.newGame(PLAYERS, puzzle);
+    for (char letter = 'A'; letter <= 'Z'; ++letter) {
+      engine.reveal(letter);
+    }
+    return engine;
+  }
+
+  /**
+   * Function to make a puzzle of random uppercase words.
+   *
+   * @param length the length of the puzzle
+   * @param random the random-number generator
+   * @return the puzzle
+   */
+  static String makePuzzle(int length, Random random) {
+    StringBuilder builder = new StringBuilder(length);
+    for (int i = 0; i < length; ++i) {
+      if (i % 8 == 7) {
+        builder.append(' ');
+      } else {
+        builder.append((char) ('A' + random.nextInt(26)));
+      }
+    }
+    return builder.toString();
+  }
+
+  private static final String[] PLAYERS = {"Player"};
+
+  private String puzzle;
+  private GameEngine engine;
+}
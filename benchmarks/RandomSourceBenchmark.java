@@ -0,0 +1,77 @@
+/**
+ * This Java file defines the JMH benchmark for the random sources of spins.
+ */
+
+package eecs285.proj3.kshilen;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.random.RandomGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Benchmarks spins on four threads, either all drawing from one shared
+ * java.util.Random, whose seed is updated by compare-and-set, or each
+ * drawing from a generator of its own created by a RandomSource, as every
+ * game does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(4)
+@Fork(1)
+public class RandomSourceBenchmark {
+  /**
+   * Creates the sampler and the shared generator.
+   */
+  @Setup
+  public void setUp() {
+    sampler = WheelSampler.of(TurnBenchmark.makeWheel());
+    shared = new Random(100);
+  }
+
+  @Benchmark
+  public int sharedRandom() {
+    return sampler.sample(shared);
+  }
+
+  @Benchmark
+  public int perGame(Game game) {
+    return sampler.sample(game.generator);
+  }
+
+  /**
+   * The generator of the game played by one thread.
+   */
+  @State(Scope.Thread)
+  public static class Game {
+    /**
+     * Creates the generator of the thread's game.
+     */
+    @Setup
+    public void setUp() {
+      generator = RandomSource.parse(source).forGame(100,
+          NEXT_GAME.getAndIncrement());
+    }
+
+    @Param({"legacy", "splitmix", "lxm"})
+    public String source;
+
+    RandomGenerator generator;
+  }
+
+  private static final AtomicLong NEXT_GAME = new AtomicLong();
+
+  WheelSampler sampler;
+  Random shared;
+}
@@ -0,0 +1,134 @@
+/**
+ * This Java file defines the JMH benchmark for listing the phrases that fit
+ * a partially revealed puzzle.
+ */
+
+package eecs285.proj3.kshilen;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmarks PuzzleSolver queries against a generated corpus. Every phrase
+ * is two to four words from a small vocabulary, so shapes repeat and the
+ * large groups use their bitsets. Each query is a corpus phrase with a few
+ * random letters guessed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgs = {"-Xmx8g"})
+public class SolverBenchmark {
+  @Param({"100000", "10000000"})
+  public int corpusSize;
+
+  /**
+   * Builds the corpus, the solver and the queries.
+   *
+   * @throws IOException if the corpus cannot be written
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    Random random = new Random(100);
+    dir = Files.createTempDirectory("solver");
+    Path text = dir.resolve("puzzles.txt");
+    writePhrases(text, corpusSize, random);
+    Path corpusFile = dir.resolve("puzzles.corpus");
+    PuzzleCorpus.build(text, corpusFile);
+    PuzzleCorpus corpus = PuzzleCorpus.open(corpusFile);
+    solver = PuzzleSolver.of(corpus);
+
+    GameEngine engine = new GameEngine(TurnBenchmark.makeWheel(), random);
+    boards = new String[NUM_QUERIES];
+    masks = new int[NUM_QUERIES];
+    for (int i = 0; i < NUM_QUERIES; ++i) {
+      engine.newGame(PLAYERS, corpus.get(random.nextInt(corpus.size())));
+      for (int g = 0; g < 6; ++g) {
+        char letter = (char) ('A' + random.nextInt(GameEngine.NUM_LETTERS));
+        engine.reveal(letter);
+        masks[i] |= 1 << (letter - 'A');
+      }
+      boards[i] = engine.getHiddenPuzzle();
+    }
+  }
+
+  /**
+   * Removes the generated files.
+   *
+   * @throws IOException if a file cannot be removed
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(dir.resolve("puzzles.txt"));
+    Files.deleteIfExists(dir.resolve("puzzles.corpus"));
+    Files.deleteIfExists(dir);
+  }
+
+  @Benchmark
+  public int[] findCandidates() {
+    next = (next + 1) % NUM_QUERIES;
+    return solver.findCandidates(boards[next], masks[next]);
+  }
+
+  @Benchmark
+  public int countCandidates() {
+    next = (next + 1) % NUM_QUERIES;
+    return solver.countCandidates(boards[next], masks[next]);
+  }
+
+  /**
+   * Function to write random phrases, one per line.
+   *
+   * @param file the file to write
+   * @param numPhrases the number of phrases
+   * @param random the random-number generator
+   * @throws IOException if the file cannot be written
+   */
+  static void writePhrases(Path file, int numPhrases, Random random)
+      throws IOException {
+    String[] words = new String[VOCABULARY];
+    for (int i = 0; i < VOCABULARY; ++i) {
+      words[i] = PuzzleBenchmark.makePuzzle(2 + random.nextInt(7), random)
+          .replace(' ', 'E');
+    }
+    try (BufferedWriter out = Files.newBufferedWriter(file,
+        StandardCharsets.UTF_8)) {
+      for (int i = 0; i < numPhrases; ++i) {
+        int numWords = 2 + random.nextInt(3);
+        for (int w = 0; w < numWords; ++w) {
+          if (w > 0) {
+            out.write(' ');
+          }
+          out.write(words[random.nextInt(VOCABULARY)]);
+        }
+        out.write('\n');
+      }
+    }
+  }
+
+  private static final int NUM_QUERIES = 1024;
+  private static final int VOCABULARY = 20000;
+  private static final String[] PLAYERS = {"Player"};
+
+  private Path dir;
+  private PuzzleSolver solver;
+  private String[] boards;
+  private int[] masks;
+  private int next;
+}
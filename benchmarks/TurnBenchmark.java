@@ -0,0 +1,79 @@
+/**
+ * This Java file defines the JMH benchmark for a turn of the game.
+ */
+
+package eecs285.proj3.kshilen;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks a spin followed by a consonant guess, starting a new game
+ * whenever the consonants run out.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class TurnBenchmark {
+  /**
+   * Creates a three player game.
+   */
+  @Setup
+  public void setUp() {
+    engine = new GameEngine(makeWheel(), new Random(100));
+    engine.newGame(PLAYERS, PUZZLE);
+  }
+
+  @Benchmark
+  public int spinAndGuessConsonant() {
+    if (!engine.canSpin() || engine.isGameOver()) {
+      engine.newGame(PLAYERS, PUZZLE);
+    }
+    int index = engine.spin();
+    WheelSpace space = engine.getCurrentSpace();
+    if (!space.isBankrupt() && !space.isLoseATurn()) {
+      for (char c = 'B'; c <= 'Z'; ++c) {
+        if (!GameEngine.isVowel(c) && engine.isLetterAvailable(c)) {
+          engine.guessConsonant(c);
+          break;
+        }
+      }
+    }
+    return index;
+  }
+
+  /**
+   * Function to make a wheel with the layout of the real game, without
+   * images.
+   *
+   * @return the wheel spaces
+   */
+  static WheelSpace[] makeWheel() {
+    WheelSpace[] wheelSpaces =
+        new WheelSpace[WheelOfFortuneFrame.NUM_WHEEL_SPACES];
+    for (int i = 0; i < wheelSpaces.length; ++i) {
+      if (i == 0 || i == 12) {
+        wheelSpaces[i] = new WheelSpace(WheelSpace.BANKRUPT, null);
+      } else if (i == 6) {
+        wheelSpaces[i] = new WheelSpace(WheelSpace.LOSE_A_TURN, null);
+      } else {
+        wheelSpaces[i] = new WheelSpace(100 * (i % 9 + 1), null);
+      }
+    }
+    return wheelSpaces;
+  }
+
+  static final String[] PLAYERS = {"Alice", "Bob", "Carol"};
+  static final String PUZZLE = "THE QUICK BROWN FOX JUMPS OVER THE LAZY DOG";
+
+  GameEngine engine;
+}
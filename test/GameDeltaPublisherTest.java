@@ -0,0 +1,234 @@
+/**
+ * This Java file defines the tests of the GameDeltaPublisher class.
+ */
+
+package eecs285.proj3.kshilen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Flow;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the Flow semantics of the publisher on an executor running every
+ * task at once: deltas follow the demand, a full queue conflates, a late
+ * subscriber starts from the state of the game and close() completes the
+ * subscribers once their queues drain.
+ */
+public class GameDeltaPublisherTest {
+  /** Consonants guessed in turn, some of them not in the puzzle. */
+  private static final String CONSONANTS = "LZRQDXHWJKV";
+
+  @Test
+  public void deliversOnlyRequestedDeltas() {
+    GameDeltaPublisher publisher = new GameDeltaPublisher(Runnable::run, 64);
+    GameEngine engine = newEngine(publisher);
+    Spectator spectator = new Spectator();
+    publisher.subscribe(spectator);
+    engine.newGame(new String[] {"A", "B"}, "HELLO WORLD");
+    playTurns(engine, 3);
+    assertTrue(spectator.deltas.isEmpty());
+
+    spectator.subscription.request(2);
+    assertEquals(2, spectator.deltas.size());
+    assertEquals(1, spectator.deltas.get(0).getFirstSequence());
+    assertTrue(spectator.deltas.get(0).is(GameDelta.STARTED));
+    assertEquals(2, spectator.deltas.get(1).getFirstSequence());
+
+    spectator.subscription.request(Long.MAX_VALUE);
+    assertEquals(7, spectator.deltas.size());
+    spectator.assertMatches(engine);
+    playTurns(engine, 1);
+    assertEquals(9, spectator.deltas.size());
+    spectator.assertMatches(engine);
+  }
+
+  @Test
+  public void conflatesWhenTheQueueIsFull() {
+    GameDeltaPublisher publisher = new GameDeltaPublisher(Runnable::run, 4);
+    GameEngine engine = newEngine(publisher);
+    Spectator spectator = new Spectator();
+    publisher.subscribe(spectator);
+    engine.newGame(new String[] {"A", "B", "C"}, "HELLO WORLD");
+    playTurns(engine, CONSONANTS.length());
+    assertTrue(publisher.getNumQueued() <= 4);
+    long entries = publisher.getNumQueuedEntries();
+    assertTrue(entries <= 4 * (2 * "HELLO WORLD".length() + 3), entries
+        + " entries queued");
+
+    spectator.subscription.request(Long.MAX_VALUE);
+    assertTrue(spectator.deltas.size() <= 4);
+    assertTrue(spectator.deltas.size() < 1 + 2 * CONSONANTS.length());
+    assertEquals(0, publisher.getNumQueued());
+    spectator.assertMatches(engine);
+  }
+
+  @Test
+  public void startsLateSubscribersFromTheState() {
+    GameDeltaPublisher publisher = new GameDeltaPublisher(Runnable::run, 64);
+    GameEngine engine = newEngine(publisher);
+    engine.newGame(new String[] {"A", "B"}, "HELLO WORLD");
+    playTurns(engine, 4);
+
+    Spectator spectator = new Spectator();
+    publisher.subscribe(spectator);
+    spectator.subscription.request(1);
+    assertEquals(1, spectator.deltas.size());
+    GameDelta state = spectator.deltas.get(0);
+    assertTrue(state.is(GameDelta.STARTED));
+    assertTrue(state.is(GameDelta.SPUN));
+    assertEquals(1, state.getFirstSequence());
+    assertEquals(9, state.getLastSequence());
+    spectator.assertMatches(engine);
+
+    spectator.subscription.request(Long.MAX_VALUE);
+    playTurns(engine, 1);
+    assertEquals(3, spectator.deltas.size());
+    assertEquals(10, spectator.deltas.get(1).getFirstSequence());
+    spectator.assertMatches(engine);
+  }
+
+  @Test
+  public void completesOnCloseOnceDrained() {
+    GameDeltaPublisher publisher = new GameDeltaPublisher(Runnable::run, 64);
+    GameEngine engine = newEngine(publisher);
+    Spectator spectator = new Spectator();
+    publisher.subscribe(spectator);
+    engine.newGame(new String[] {"A", "B"}, "HELLO WORLD");
+    playTurns(engine, 1);
+
+    publisher.close();
+    assertFalse(spectator.completed);
+    assertEquals(0, publisher.getNumSubscribers());
+    playTurns(engine, 1);
+    spectator.subscription.request(2);
+    assertFalse(spectator.completed);
+    spectator.subscription.request(1);
+    assertTrue(spectator.completed);
+    assertEquals(3, spectator.deltas.size());
+
+    Spectator late = new Spectator();
+    publisher.subscribe(late);
+    assertTrue(late.completed);
+    assertTrue(late.deltas.isEmpty());
+  }
+
+  @Test
+  public void failsNonPositiveRequests() {
+    GameDeltaPublisher publisher = new GameDeltaPublisher(Runnable::run, 64);
+    GameEngine engine = newEngine(publisher);
+    Spectator spectator = new Spectator();
+    publisher.subscribe(spectator);
+    engine.newGame(new String[] {"A", "B"}, "HELLO WORLD");
+    spectator.subscription.request(0);
+    assertTrue(spectator.error instanceof IllegalArgumentException);
+    assertEquals(0, publisher.getNumSubscribers());
+    spectator.subscription.request(1);
+    assertTrue(spectator.deltas.isEmpty());
+  }
+
+  /**
+   * Helper function to make an engine publishing its deltas.
+   *
+   * @param publisher the publisher
+   * @return the engine
+   */
+  private static GameEngine newEngine(GameDeltaPublisher publisher) {
+    GameEngine engine = new GameEngine(TestWheels.standard(),
+        new GameRandom(100));
+    engine.addListener(publisher);
+    return engine;
+  }
+
+  /**
+   * Helper function to play turns of a spin worth 200 and a consonant,
+   * two deltas each.
+   *
+   * @param engine the engine holding the game
+   * @param numTurns the number of turns
+   */
+  private static void playTurns(GameEngine engine, int numTurns) {
+    for (int i = 0; i < numTurns; ++i) {
+      engine.applySpin(1);
+      for (char c : CONSONANTS.toCharArray()) {
+        if (engine.isLetterAvailable(c)) {
+          engine.guessConsonant(c);
+          break;
+        }
+      }
+    }
+  }
+
+  /**
+   * Subscriber that keeps the deltas it gets and requests none by itself.
+   */
+  private static class Spectator implements Flow.Subscriber<GameDelta> {
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+    }
+
+    @Override
+    public void onNext(GameDelta delta) {
+      assertFalse(completed);
+      if (!deltas.isEmpty()) {
+        assertEquals(deltas.get(deltas.size() - 1).getLastSequence() + 1,
+            delta.getFirstSequence());
+      }
+      deltas.add(delta);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      error = throwable;
+    }
+
+    @Override
+    public void onComplete() {
+      completed = true;
+    }
+
+    /**
+     * Checks that the deltas received rebuild the board, the cash and the
+     * turn of a game.
+     *
+     * @param engine the engine holding the game
+     */
+    void assertMatches(GameEngine engine) {
+      char[] hidden = null;
+      int[] cash = new int[engine.getNumPlayers()];
+      for (GameDelta delta : deltas) {
+        if (delta.is(GameDelta.STARTED)) {
+          hidden = delta.getHiddenPuzzle().toCharArray();
+          Arrays.fill(cash, 0);
+        }
+        assertNotNull(hidden);
+        for (int i = 0; i < delta.getNumReveals(); ++i) {
+          hidden[delta.getRevealPosition(i)] = delta.getRevealLetter(i);
+        }
+        for (int i = 0; i < delta.getNumCashChanges(); ++i) {
+          cash[delta.getCashPlayer(i)] = delta.getCash(i);
+        }
+      }
+      GameDelta last = deltas.get(deltas.size() - 1);
+      for (int i = 0; i < hidden.length; ++i) {
+        assertEquals(engine.getHiddenChar(i), hidden[i]);
+      }
+      for (int player = 0; player < cash.length; ++player) {
+        assertEquals(engine.getPlayerCash(player), cash[player]);
+      }
+      assertEquals(engine.getCurrentPlayer(), last.getCurrentPlayer());
+      assertEquals(engine.getNumPlayers(), last.getNumPlayers());
+    }
+
+    private final ArrayList<GameDelta> deltas = new ArrayList<>();
+    private Flow.Subscription subscription;
+    private Throwable error;
+    private boolean completed;
+  }
+}
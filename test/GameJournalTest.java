@@ -0,0 +1,95 @@
+/**
+ * This Java file defines the tests of the GameJournal class.
+ */
+
+package eecs285.proj3.kshilen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks that records read back field by field, that a reopened journal
+ * appends after its last record, and that appends from several threads
+ * are all kept.
+ */
+public class GameJournalTest {
+  @Test
+  public void readsBackEveryRecord(@TempDir Path dir) throws IOException {
+    Path file = dir.resolve("games.journal");
+    long numRecords;
+    try (GameJournal journal = GameJournal.open(file)) {
+      journal.append(1, GameJournal.SPIN, (short) 0, 5, 2, 700, 9);
+      journal.append(1, GameJournal.SOLVE, (short) 1, 0, 2, 700, 0);
+      numRecords = journal.getRecordCount();
+    }
+    ArrayList<Integer> args = new ArrayList<>();
+    try (GameJournal.Reader reader = GameJournal.read(file)) {
+      while (reader.next()) {
+        if (reader.getType() == GameJournal.SPIN) {
+          assertEquals(1, reader.getGameId());
+          assertEquals(2, reader.getPlayer());
+          assertEquals(700, reader.getCash());
+          assertEquals(9, reader.getHidden());
+          args.add(reader.getArg());
+        } else if (reader.getType() == GameJournal.SOLVE) {
+          assertEquals(1, reader.getFlags());
+          args.add(reader.getArg());
+        }
+      }
+      assertEquals(numRecords, reader.getIndex() + 1);
+    }
+    assertEquals(2, args.size());
+    assertEquals(5, args.get(0));
+
+    // Reopening appends after the last record
+    try (GameJournal journal = GameJournal.open(file)) {
+      assertEquals(numRecords, journal.getRecordCount());
+      assertTrue(journal.nextGameId() > 1);
+    }
+  }
+
+  @Test
+  public void keepsConcurrentAppends(@TempDir Path dir) throws Exception {
+    Path file = dir.resolve("games.journal");
+    int numThreads = 4;
+    int perThread = 20_000;
+    try (GameJournal journal = GameJournal.open(file)) {
+      Thread[] threads = new Thread[numThreads];
+      for (int t = 0; t < numThreads; ++t) {
+        int gameId = t + 1;
+        threads[t] = new Thread(new Runnable() {
+          @Override
+          public void run() {
+            for (int i = 0; i < perThread; ++i) {
+              journal.append(gameId, GameJournal.SPIN, (short) 0, i, 0, i, 0);
+            }
+          }
+        });
+        threads[t].start();
+      }
+      for (Thread thread : threads) {
+        thread.join();
+      }
+    }
+    int[] next = new int[numThreads + 1];
+    try (GameJournal.Reader reader = GameJournal.read(file)) {
+      while (reader.next()) {
+        if (reader.getType() == GameJournal.SPIN) {
+          // Every game's records are read back in the order it wrote them
+          int gameId = reader.getGameId();
+          assertEquals(next[gameId]++, reader.getArg());
+        }
+      }
+      assertEquals(0, reader.getNumSkipped());
+    }
+    for (int t = 1; t <= numThreads; ++t) {
+      assertEquals(perThread, next[t]);
+    }
+  }
+}
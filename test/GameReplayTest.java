@@ -0,0 +1,119 @@
+/**
+ * This Java file defines the tests of the GameReplay class.
+ */
+
+package eecs285.proj3.kshilen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks that recorded games replay without a mismatch, end as the
+ * originals did when fast-forwarded, and that a changed record is found.
+ */
+public class GameReplayTest {
+  /** Puzzles of the recorded games, one longer than a TEXT record. */
+  private static final String[] PUZZLES = {"HELLO WORLD",
+      "A PENNY SAVED IS A PENNY EARNED", "BACK TO THE DRAWING BOARD",
+      "EVERY CLOUD HAS A SILVER LINING"};
+
+  @Test
+  public void recordedGamesReplayWithoutMismatches(@TempDir Path dir)
+      throws IOException {
+    Path file = dir.resolve("games.journal");
+    WheelSpace[] wheelSpaces = TestWheels.standard();
+    HashMap<Integer, GameEngine> played = new HashMap<>();
+    try (GameJournal journal = GameJournal.open(file)) {
+      for (int i = 0; i < 20; ++i) {
+        int gameId = journal.nextGameId();
+        // Half the games record their seed, so replay draws every spin again
+        GameEngine engine = new GameEngine(wheelSpaces, new GameRandom(i));
+        engine.addListener(i % 2 == 0 ? journal.recorder(gameId, i)
+            : journal.recorder(gameId));
+        engine.newGame(new String[] {"A", "B", "C"},
+            PUZZLES[i % PUZZLES.length]);
+        play(engine, new FrequencyBot());
+        played.put(gameId, engine);
+      }
+    }
+
+    GameReplay replay = new GameReplay(wheelSpaces);
+    replay.replayAll(file);
+    assertEquals(20, replay.getNumGames());
+    assertEquals(0, replay.getNumMismatches());
+    assertTrue(replay.getNumActions() > 20);
+
+    for (int gameId : played.keySet()) {
+      GameEngine original = played.get(gameId);
+      GameEngine replayed = replay.fastForward(file, gameId,
+          Integer.MAX_VALUE);
+      assertNotNull(replayed);
+      assertTrue(replayed.isGameOver());
+      assertEquals(original.getPuzzle(), replayed.getPuzzle());
+      for (int player = 0; player < original.getNumPlayers(); ++player) {
+        assertEquals(original.getPlayerCash(player),
+            replayed.getPlayerCash(player));
+      }
+    }
+  }
+
+  @Test
+  public void replayFindsChangedSpin(@TempDir Path dir) throws IOException {
+    Path file = dir.resolve("games.journal");
+    WheelSpace[] wheelSpaces = TestWheels.standard();
+    try (GameJournal journal = GameJournal.open(file)) {
+      int gameId = journal.nextGameId();
+      GameEngine engine = new GameEngine(wheelSpaces, new GameRandom(7));
+      engine.addListener(journal.recorder(gameId, 7));
+      engine.newGame(new String[] {"A", "B"}, PUZZLES[0]);
+      // A spin the generator cannot have drawn
+      journal.append(gameId, GameJournal.SPIN, (short) 0, -1, 0, 0,
+          engine.getPuzzleIndex().getNumHidden());
+    }
+    GameReplay replay = new GameReplay(wheelSpaces);
+    replay.replayAll(file);
+    assertEquals(1, replay.getNumGames());
+    assertEquals(1, replay.getNumMismatches());
+  }
+
+  @Test
+  public void reportsCorruptPuzzleText(@TempDir Path dir) throws IOException {
+    Path file = dir.resolve("games.journal");
+    try (GameJournal journal = GameJournal.open(file)) {
+      // A negative and a huge puzzle length
+      journal.append(1, GameJournal.START, (short) 0, 2, -1, 0, 5);
+      journal.append(2, GameJournal.START, (short) 0, 2,
+          PuzzleCorpus.MAX_PUZZLE_BYTES + 1, 0, 5);
+      // More text than the puzzle holds
+      journal.append(3, GameJournal.START, (short) 0, 2, 4, 0, 4);
+      journal.append(3, GameJournal.TEXT, (short) 16, 0, 0, 0, 0);
+      // A byte count a TEXT record cannot hold
+      journal.append(4, GameJournal.START, (short) 0, 2, 40, 0, 4);
+      journal.append(4, GameJournal.TEXT, (short) -3, 0, 0, 0, 0);
+    }
+    GameReplay replay = new GameReplay(TestWheels.standard());
+    replay.replayAll(file);
+    assertEquals(0, replay.getNumGames());
+    assertEquals(4, replay.getNumMismatches());
+  }
+
+  /**
+   * Helper function to play a game to its end with a bot in every seat.
+   *
+   * @param engine the engine holding the started game
+   * @param bot the bot
+   */
+  static void play(GameEngine engine, Bot bot) {
+    for (int move = 0; move < 10_000 && !engine.isGameOver(); ++move) {
+      bot.playMove(engine);
+    }
+    assertTrue(engine.isGameOver());
+  }
+}
@@ -0,0 +1,158 @@
+/**
+ * This Java file defines the tests of the GameServer class.
+ */
+
+package eecs285.proj3.kshilen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks the request protocol of the server without a socket.
+ */
+public class GameServerTest {
+  @Test
+  public void rejectsTooManyPlayers() {
+    GameServer server = new GameServer(TestWheels.standard(), 100);
+    assertTrue(server.handle("NEW 2000000000 HELLO").startsWith("ERR"));
+    assertTrue(server.handle("NEW 0 HELLO").startsWith("ERR"));
+    assertTrue(server.handle("NEW " + GameServer.MAX_PLAYERS + " HELLO")
+        .startsWith("GAME"));
+  }
+
+  @Test
+  public void rejectsJoinBeyondMaxPlayers() {
+    GameServer server = new GameServer(TestWheels.standard(), 100);
+    String id = newGame(server, GameServer.MAX_PLAYERS - 1, "HELLO");
+    assertTrue(server.handle("JOIN " + id).startsWith("SEAT"));
+    assertTrue(server.handle("JOIN " + id).startsWith("ERR"));
+  }
+
+  @Test
+  public void endsAGame() {
+    GameServer server = new GameServer(TestWheels.standard(), 100);
+    String id = newGame(server, 2, "HELLO");
+    assertTrue(server.handle("SPIN " + id).startsWith("SPACE"));
+    assertEquals("ENDED", server.handle("END " + id));
+    assertTrue(server.handle("STATE " + id).startsWith("ERR"));
+    assertEquals(0, server.getNumGames());
+  }
+
+  @Test
+  public void playsATurn() {
+    GameServer server = new GameServer(TestWheels.standard(), 100);
+    String id = newGame(server, 2, "HELLO WORLD");
+    assertTrue(server.handle("CONSONANT " + id + " L").startsWith("ERR"));
+    String space;
+    do {
+      space = server.handle("SPIN " + id);
+      assertTrue(space.startsWith("SPACE"), space);
+    } while (space.contains("BANKRUPT") || space.contains("LOSE_A_TURN"));
+    int value = Integer.parseInt(space.split(" ")[2]);
+    String player = space.split(" ")[3];
+    assertTrue(server.handle("SPIN " + id).startsWith("ERR"));
+    assertEquals("LETTER 3 " + value + " " + player,
+        server.handle("CONSONANT " + id + " L"));
+    assertTrue(server.handle("STATE " + id).endsWith(
+        "- - L L -   - - - L - "));
+    assertTrue(server.handle("CONSONANT " + id + " L").startsWith("ERR"));
+    assertEquals("WIN " + player + " " + value,
+        server.handle("SOLVE " + id + " HELLO WORLD"));
+  }
+
+  @Test
+  public void rejectsActionsOnASolvedGame(@TempDir Path dir)
+      throws IOException {
+    Path file = dir.resolve("server.journal");
+    try (GameJournal journal = GameJournal.open(file)) {
+      GameServer server = new GameServer(TestWheels.standard(), 100, journal);
+      String id = newGame(server, 2, "HELLO");
+      // Another request looked the game up before this one solved it
+      GameServer.ServerGame found = server.findGame(id);
+      assertTrue(server.handle("SOLVE " + id + " HELLO").startsWith("WIN"));
+      assertThrows(IllegalStateException.class, () -> server.spin(found));
+    }
+    short last = 0;
+    try (GameJournal.Reader reader = GameJournal.read(file)) {
+      while (reader.next()) {
+        last = reader.getType();
+      }
+    }
+    assertEquals(GameJournal.SOLVE, last);
+  }
+
+  @Test
+  public void rejectsActionsOnAnEndedGame() {
+    GameServer server = new GameServer(TestWheels.standard(), 100);
+    String id = newGame(server, 2, "HELLO");
+    GameServer.ServerGame found = server.findGame(id);
+    assertEquals("ENDED", server.handle("END " + id));
+    assertThrows(IllegalStateException.class, () -> server.spin(found));
+  }
+
+  @Test
+  public void rejectsActionsOnAGameWonByTheBot() {
+    GameServer server = new GameServer(TestWheels.standard(), 100);
+    server.setBot(new FrequencyBot() {
+      @Override
+      public Move chooseMove(GameEngine engine) {
+        return Move.SOLVE;
+      }
+
+      @Override
+      public String chooseSolution(GameEngine engine) {
+        return engine.getPuzzle();
+      }
+    });
+    String id = newGame(server, 2, "HELLO");
+    GameServer.ServerGame found = server.findGame(id);
+    assertTrue(server.handle("BOT " + id).startsWith("WIN 0"));
+    assertThrows(IllegalStateException.class, () -> server.spin(found));
+    assertTrue(server.handle("BOT " + id).startsWith("ERR"));
+  }
+
+  @Test
+  public void resumesParkedGames() {
+    GameServer server = new GameServer(TestWheels.standard(), 100);
+    String id = newGame(server, 3, "HELLO WORLD");
+    server.handle("SPIN " + id);
+    String state = server.handle("STATE " + id);
+    assertEquals(1, server.parkIdleGames(0));
+    assertEquals(state, server.handle("STATE " + id));
+  }
+
+  @Test
+  public void answersUnexpectedFailuresWithErr() {
+    GameServer server = new GameServer(TestWheels.standard(), 100);
+    server.setBot(new FrequencyBot() {
+      @Override
+      public Move chooseMove(GameEngine engine) {
+        throw new UnsupportedOperationException("broken bot");
+      }
+    });
+    String id = newGame(server, 2, "HELLO");
+    assertEquals("ERR broken bot", server.handle("BOT " + id));
+    assertTrue(server.handle("STATE " + id).startsWith("STATE 0"));
+  }
+
+  /**
+   * Helper function to start a game on a server.
+   *
+   * @param server the server
+   * @param numPlayers the number of players
+   * @param puzzle the puzzle
+   * @return the id of the game
+   */
+  private static String newGame(GameServer server, int numPlayers,
+                                String puzzle) {
+    String response = server.handle("NEW " + numPlayers + " " + puzzle);
+    assertTrue(response.startsWith("GAME "), response);
+    return response.substring("GAME ".length());
+  }
+}
@@ -0,0 +1,105 @@
+/**
+ * This Java file defines the tests of the GameSnapshot class.
+ */
+
+package eecs285.proj3.kshilen;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that a restored game holds the state of the saved one and plays
+ * on exactly as the original does, spins included.
+ */
+public class GameSnapshotTest {
+  /** Offset of the current player in a snapshot. */
+  private static final int CURRENT_PLAYER = 32;
+
+  @Test
+  public void restoredGamePlaysOnLikeTheOriginal() {
+    WheelSpace[] wheelSpaces = TestWheels.standard();
+    WheelSampler sampler = WheelSampler.of(wheelSpaces);
+    Bot bot = new FrequencyBot();
+    for (int seed = 0; seed < 20; ++seed) {
+      GameEngine original = new GameEngine(wheelSpaces, sampler,
+          new GameRandom(seed));
+      original.newGame(new String[] {"Ann", "Bo", "Zoë"},
+          "A PENNY SAVED IS A PENNY EARNED");
+      for (int move = 0; move < seed % 7 && !original.isGameOver(); ++move) {
+        bot.playMove(original);
+      }
+      byte[] snapshot = GameSnapshot.save(original);
+      GameEngine restored = GameSnapshot.restore(snapshot, wheelSpaces,
+          sampler);
+      assertSameState(original, restored);
+      assertArrayEquals(snapshot, GameSnapshot.save(restored));
+
+      for (int move = 0; move < 10_000 && !original.isGameOver(); ++move) {
+        bot.playMove(original);
+        bot.playMove(restored);
+        assertSameState(original, restored);
+      }
+    }
+  }
+
+  @Test
+  public void rejectsOtherWheelsAndCorruptSnapshots() {
+    WheelSpace[] wheelSpaces = TestWheels.standard();
+    GameEngine engine = new GameEngine(wheelSpaces, new GameRandom(1));
+    engine.newGame(new String[] {"A"}, "HELLO WORLD");
+    byte[] snapshot = GameSnapshot.save(engine);
+
+    WheelSpace[] smaller = Arrays.copyOf(wheelSpaces, wheelSpaces.length - 1);
+    assertThrows(IllegalArgumentException.class, () -> GameSnapshot.restore(
+        snapshot, smaller, WheelSampler.of(smaller)));
+    byte[] corrupt = snapshot.clone();
+    corrupt[0] ^= 1;
+    assertThrows(IllegalArgumentException.class, () -> GameSnapshot.restore(
+        corrupt, wheelSpaces, WheelSampler.of(wheelSpaces)));
+    for (int player : new int[] {-1, 1, Integer.MAX_VALUE}) {
+      byte[] badPlayer = snapshot.clone();
+      ByteBuffer.wrap(badPlayer).putInt(CURRENT_PLAYER, player);
+      assertThrows(IllegalArgumentException.class, () -> GameSnapshot.restore(
+          badPlayer, wheelSpaces, WheelSampler.of(wheelSpaces)));
+    }
+    byte[] truncated = Arrays.copyOf(snapshot, snapshot.length - 1);
+    assertThrows(IllegalArgumentException.class, () -> GameSnapshot.restore(
+        truncated, wheelSpaces, WheelSampler.of(wheelSpaces)));
+  }
+
+  @Test
+  public void refusesGamesWithoutGameRandom() {
+    GameEngine engine = new GameEngine(TestWheels.standard(),
+        new SplittableRandom(1));
+    engine.newGame(new String[] {"A"}, "HELLO WORLD");
+    assertThrows(IllegalStateException.class, () -> GameSnapshot.save(engine));
+  }
+
+  /**
+   * Helper function to compare the state of two games.
+   *
+   * @param expected the original game
+   * @param actual the restored game
+   */
+  private static void assertSameState(GameEngine expected, GameEngine actual) {
+    assertEquals(expected.getPuzzle(), actual.getPuzzle());
+    assertEquals(expected.getHiddenPuzzle(), actual.getHiddenPuzzle());
+    assertEquals(expected.getGuessedLetters(), actual.getGuessedLetters());
+    assertEquals(expected.getCurrentPlayer(), actual.getCurrentPlayer());
+    assertEquals(expected.getCurrentSpaceIndex(),
+        actual.getCurrentSpaceIndex());
+    assertEquals(expected.isGameOver(), actual.isGameOver());
+    assertEquals(expected.getNumPlayers(), actual.getNumPlayers());
+    for (int i = 0; i < expected.getNumPlayers(); ++i) {
+      assertEquals(expected.getPlayerName(i), actual.getPlayerName(i));
+      assertEquals(expected.getPlayerCash(i), actual.getPlayerCash(i));
+      assertEquals(expected.isPlayerActive(i), actual.isPlayerActive(i));
+    }
+  }
+}
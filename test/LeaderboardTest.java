@@ -0,0 +1,161 @@
+/**
+ * This Java file defines the tests of the Leaderboard class.
+ */
+
+package eecs285.proj3.kshilen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks the ranking of a leaderboard, that its file reads back as saved
+ * and that damaged files are rejected with an IOException.
+ */
+public class LeaderboardTest {
+  @Test
+  public void ranksByWinningsThenName() {
+    Leaderboard leaderboard = new Leaderboard();
+    leaderboard.record("Carol", 500, true);
+    leaderboard.record("Alice", 900, true);
+    leaderboard.record("Bob", 500, false);
+    leaderboard.record("Dave", 100, false);
+    assertEquals(0, leaderboard.getNumRanked());
+    leaderboard.refresh();
+
+    Leaderboard.Standing[] top = leaderboard.getTop(3);
+    assertEquals(3, top.length);
+    assertEquals("Alice", top[0].getName());
+    assertEquals("Bob", top[1].getName());
+    assertEquals("Carol", top[2].getName());
+    assertEquals(4, leaderboard.getTop(10).length);
+    assertEquals(1, leaderboard.getRank("Alice"));
+    assertEquals(2, leaderboard.getRank("Bob"));
+    assertEquals(2, leaderboard.getRank("Carol"));
+    assertEquals(4, leaderboard.getRank("Dave"));
+    assertEquals(-1, leaderboard.getRank("Eve"));
+    assertEquals("Dave", leaderboard.getRanked(4).getName());
+
+    // Counters move at once, the ranking on the next refresh
+    leaderboard.record("Dave", 1000, true);
+    assertEquals(1, leaderboard.getRank("Dave"));
+    assertEquals("Alice", leaderboard.getTop(1)[0].getName());
+    leaderboard.refresh();
+    assertEquals("Dave", leaderboard.getTop(1)[0].getName());
+    assertEquals(2, leaderboard.getStanding("Dave").getGames());
+  }
+
+  @Test
+  public void readsBackWhatWasSaved(@TempDir Path dir) throws IOException {
+    Path file = dir.resolve("leaderboard.bin");
+    assertEquals(0, Leaderboard.load(file).size());
+    Leaderboard leaderboard = new Leaderboard();
+    for (int i = 0; i < 1000; ++i) {
+      leaderboard.record("Player " + i % 300, i * 7 % 1000, i % 3 == 0);
+    }
+    leaderboard.record("Élodie ★", 10, true);
+    leaderboard.save(file);
+
+    Leaderboard loaded = Leaderboard.load(file);
+    assertEquals(leaderboard.size(), loaded.size());
+    assertEquals(leaderboard.getNumRanked(), loaded.getNumRanked());
+    for (int rank = 1; rank <= loaded.getNumRanked(); ++rank) {
+      Leaderboard.Standing expected = leaderboard.getRanked(rank);
+      Leaderboard.Standing actual = loaded.getRanked(rank);
+      assertEquals(expected.getName(), actual.getName());
+      assertEquals(expected.getWinnings(), actual.getWinnings());
+      assertEquals(expected.getGames(), actual.getGames());
+      assertEquals(expected.getSolves(), actual.getSolves());
+      assertEquals(leaderboard.getRank(actual.getName()),
+          loaded.getRank(actual.getName()));
+    }
+    assertNotNull(loaded.getStanding("Élodie ★"));
+    assertNull(loaded.getStanding("Player 300"));
+  }
+
+  @Test
+  public void rejectsChangedBytes(@TempDir Path dir) throws IOException {
+    Path file = dir.resolve("leaderboard.bin");
+    Leaderboard leaderboard = new Leaderboard();
+    leaderboard.record("Alice", 900, true);
+    leaderboard.record("Bob", 500, false);
+    leaderboard.save(file);
+    byte[] bytes = Files.readAllBytes(file);
+    for (int i = 12; i < bytes.length; ++i) {
+      byte[] changed = bytes.clone();
+      changed[i] ^= 0x10;
+      Files.write(file, changed);
+      IOException e = assertThrows(IOException.class,
+          () -> Leaderboard.load(file));
+      assertTrue(e.getMessage().endsWith("is corrupt"), e.getMessage());
+    }
+  }
+
+  @Test
+  public void rejectsDuplicateNames(@TempDir Path dir) throws IOException {
+    Path file = dir.resolve("leaderboard.bin");
+    write(file, 2, "Alice", "Alice");
+    IOException e = assertThrows(IOException.class,
+        () -> Leaderboard.load(file));
+    assertTrue(e.getMessage().endsWith("has Alice twice"), e.getMessage());
+  }
+
+  @Test
+  public void rejectsImpossibleCounts(@TempDir Path dir) throws IOException {
+    Path file = dir.resolve("leaderboard.bin");
+    for (int count : new int[] {-1, Integer.MIN_VALUE, 3,
+        Integer.MAX_VALUE}) {
+      write(file, count, "Alice", "Bob");
+      assertThrows(IOException.class, () -> Leaderboard.load(file));
+    }
+
+    // Fits by size, but the names are longer than the minimum
+    write(file, 2, "A name long enough to hide the second player");
+    IOException e = assertThrows(IOException.class,
+        () -> Leaderboard.load(file));
+    assertTrue(e.getMessage().endsWith("is truncated"), e.getMessage());
+    assertNotNull(e.getCause());
+  }
+
+  /**
+   * Helper function to write a leaderboard file with a valid checksum and
+   * any player count.
+   *
+   * @param file the file
+   * @param count the player count written in the header
+   * @param names the players written, each with 100 won in one game
+   * @throws IOException if the file cannot be written
+   */
+  private static void write(Path file, int count, String... names)
+      throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeInt(Leaderboard.MAGIC);
+    out.writeInt(Leaderboard.VERSION);
+    out.writeInt(count);
+    for (String name : names) {
+      byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+      out.writeShort(encoded.length);
+      out.write(encoded);
+      out.writeLong(100);
+      out.writeInt(1);
+      out.writeInt(0);
+    }
+    CRC32 crc = new CRC32();
+    crc.update(bytes.toByteArray());
+    out.writeInt((int) crc.getValue());
+    Files.write(file, bytes.toByteArray());
+  }
+}
@@ -0,0 +1,127 @@
+/**
+ * This Java file defines the tests of the PlayerTable class.
+ */
+
+package eecs285.proj3.kshilen;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the live leaderboard and the turn order against a sort and a
+ * scan of every seat after each of many random operations.
+ */
+public class PlayerTableTest {
+  @Test
+  public void matchesSortedSeatsAfterRandomOperations() {
+    for (int topK : new int[] {1, 3, PlayerTable.DEFAULT_TOP_K}) {
+      SplittableRandom random = new SplittableRandom(topK);
+      PlayerTable table = new PlayerTable(topK);
+      table.reset(new String[] {"A", "B", "C"});
+      for (int op = 0; op < 20_000; ++op) {
+        int choice = random.nextInt(10);
+        if (choice == 0 || table.size() < 5) {
+          table.add("P" + table.size());
+        } else if (choice == 1 && table.getNumActive() > 1) {
+          table.remove(randomActive(table, random));
+        } else if (choice == 2) {
+          // Eliminated seats may still be paid, but never rank
+          table.addCash(random.nextInt(table.size()), random.nextInt(500));
+        } else if (choice == 3) {
+          table.setCash(randomActive(table, random), 0);
+        } else {
+          // Small amounts, so ties are common
+          table.addCash(randomActive(table, random),
+              random.nextInt(7) * 100 - 300);
+        }
+        check(table);
+      }
+    }
+  }
+
+  @Test
+  public void resetReusesTheTable() {
+    PlayerTable table = new PlayerTable(2);
+    table.reset(new String[] {"A", "B", "C"});
+    table.addCash(2, 500);
+    table.remove(0);
+    table.reset(new String[] {"D", "E"});
+    assertEquals(2, table.size());
+    assertEquals(0, table.getCash(1));
+    assertEquals(0, table.first());
+    assertEquals(0, table.getLeader());
+    check(table);
+  }
+
+  @Test
+  public void keepsTheLastPlayer() {
+    PlayerTable table = new PlayerTable();
+    table.reset(new String[] {"A", "B"});
+    table.remove(1);
+    assertThrows(IllegalArgumentException.class, () -> table.remove(1));
+    assertThrows(IllegalStateException.class, () -> table.remove(0));
+    assertThrows(IllegalArgumentException.class, () -> new PlayerTable(0));
+  }
+
+  /**
+   * Helper function to compare the leaderboard and the turn order of a
+   * table with a sort and a scan of its seats.
+   *
+   * @param table the table
+   */
+  private static void check(PlayerTable table) {
+    ArrayList<Integer> active = new ArrayList<>();
+    for (int seat = 0; seat < table.size(); ++seat) {
+      if (table.isActive(seat)) {
+        active.add(seat);
+      }
+    }
+    assertEquals(active.size(), table.getNumActive());
+
+    // Turn order visits the active seats in increasing order
+    int seat = table.first();
+    for (int i = 0; i < active.size(); ++i) {
+      assertEquals((int) active.get(i), seat);
+      assertEquals(seat, table.previous(table.next(seat)));
+      seat = table.next(seat);
+    }
+    assertEquals(table.first(), seat);
+
+    Integer[] sorted = active.toArray(new Integer[0]);
+    Arrays.sort(sorted, (a, b) -> table.getCash(a) != table.getCash(b)
+        ? Integer.compare(table.getCash(b), table.getCash(a))
+        : Integer.compare(a, b));
+    int count = Math.min(sorted.length, table.getTopK());
+    int[] expected = new int[count];
+    for (int i = 0; i < count; ++i) {
+      expected[i] = sorted[i];
+    }
+    int[] seats = new int[table.getTopK() + 1];
+    assertEquals(count, table.getTop(seats));
+    assertArrayEquals(expected, Arrays.copyOf(seats, count));
+    assertEquals(sorted.length == 0 ? -1 : sorted[0], table.getLeader());
+  }
+
+  /**
+   * Helper function to pick a random active seat.
+   *
+   * @param table the table
+   * @param random the random-number generator
+   * @return the seat
+   */
+  private static int randomActive(PlayerTable table,
+                                  SplittableRandom random) {
+    int seat = table.first();
+    for (int steps = random.nextInt(table.getNumActive()); steps > 0;
+         --steps) {
+      seat = table.next(seat);
+    }
+    return seat;
+  }
+}
@@ -0,0 +1,174 @@
+/**
+ * This Java file defines the tests of the PuzzleCorpus class.
+ */
+
+package eecs285.proj3.kshilen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks that a corpus reads back the puzzles it was built from, and that
+ * draws stay random and never repeat a puzzle until every one was used.
+ */
+public class PuzzleCorpusTest {
+  @Test
+  public void readsBackEveryPuzzle(@TempDir Path dir) throws IOException {
+    PuzzleCorpus corpus = build(dir, 300, 20);
+    assertEquals(320, corpus.size());
+    assertEquals(2, corpus.getCategories().length);
+    HashSet<String> puzzles = new HashSet<>();
+    for (int i = 0; i < corpus.size(); ++i) {
+      String puzzle = corpus.get(i);
+      assertTrue(puzzle.startsWith(corpus.getCategory(i)), puzzle);
+      puzzles.add(puzzle);
+    }
+    assertEquals(320, puzzles.size());
+    assertEquals(20, corpus.count("SMALL", 0, Integer.MAX_VALUE));
+  }
+
+  @Test
+  public void drawsEveryPuzzleOnce(@TempDir Path dir) throws IOException {
+    PuzzleCorpus corpus = build(dir, 300, 20);
+    Random random = new Random(100);
+    HashSet<Integer> drawn = new HashSet<>();
+    for (int i = 0; i < corpus.size(); ++i) {
+      int index = corpus.drawIndex(null, 0, Integer.MAX_VALUE, random);
+      assertTrue(index >= 0);
+      assertTrue(drawn.add(index), "drawn twice: " + index);
+    }
+    assertEquals(-1, corpus.drawIndex(null, 0, Integer.MAX_VALUE, random));
+    corpus.resetUsed();
+    assertFalse(corpus.isUsed(0));
+  }
+
+  @Test
+  public void drawsStayRandomOnceACategoryIsUsedUp(@TempDir Path dir)
+      throws IOException {
+    PuzzleCorpus corpus = build(dir, 300, 50);
+    Random random = new Random(100);
+    while (corpus.drawIndex("BIG", 0, Integer.MAX_VALUE, random) >= 0) {
+      // Use up the big category
+    }
+    // A random draw takes the lowest unused puzzle 1 / remaining of the
+    // time, about 4.5 times in 50 draws
+    int lowestDrawn = 0;
+    for (int i = 0; i < 50; ++i) {
+      int lowest = 300;
+      while (corpus.isUsed(lowest)) {
+        ++lowest;
+      }
+      int index = corpus.drawIndex(null, 0, Integer.MAX_VALUE, random);
+      assertEquals("SMALL", corpus.getCategory(index));
+      if (index == lowest) {
+        ++lowestDrawn;
+      }
+    }
+    assertTrue(lowestDrawn < 15, "drawn in order " + lowestDrawn + " times");
+    assertEquals(-1, corpus.drawIndex(null, 0, Integer.MAX_VALUE, random));
+  }
+
+  @Test
+  public void drawsUnusedPuzzlesWithinLengths(@TempDir Path dir)
+      throws IOException {
+    PuzzleCorpus corpus = build(dir, 300, 50);
+    Random random = new Random(100);
+    // "BIG PUZZLE 100" to 299 and "SMALL PUZZLE 0" to 9
+    assertEquals(210, corpus.count(null, 14, 14));
+    for (int i = 0; i < corpus.size(); i += 3) {
+      corpus.markUsed(i);
+      corpus.markUsed(i);
+    }
+    int numUnused = 0;
+    for (int i = 0; i < corpus.size(); ++i) {
+      if (!corpus.isUsed(i) && corpus.get(i).length() == 14) {
+        ++numUnused;
+      }
+    }
+    HashSet<Integer> drawn = new HashSet<>();
+    int index;
+    while ((index = corpus.drawIndex(null, 14, 14, random)) >= 0) {
+      assertEquals(14, corpus.get(index).length(), corpus.get(index));
+      assertTrue(drawn.add(index), "drawn twice: " + index);
+    }
+    assertEquals(numUnused, drawn.size());
+    assertEquals(-1, corpus.drawIndex("small", 0, 14, random));
+    assertEquals(-1, corpus.drawIndex(null, 15, 13, random));
+    assertTrue(corpus.drawIndex("small", 15, 15, random) >= 0);
+    assertThrows(IllegalArgumentException.class,
+        () -> corpus.markUsed(corpus.size()));
+  }
+
+  @Test
+  public void rejectsCorruptHeaders(@TempDir Path dir) throws IOException {
+    build(dir, 30, 20);
+    byte[] bytes = Files.readAllBytes(dir.resolve("puzzles.corpus"));
+    Path file = dir.resolve("corrupt.corpus");
+    // Puzzle, category and bucket counts, then the section offsets
+    int[] intFields = {8, 12, 16};
+    int[] intValues = {-1, Integer.MAX_VALUE, 1 << 20};
+    long[] longValues = {-1, 0, PuzzleCorpus.HEADER_SIZE - 1,
+        Long.MAX_VALUE, Long.MIN_VALUE, bytes.length + 8L};
+    for (int field : intFields) {
+      for (int value : intValues) {
+        Files.write(file, ByteBuffer.wrap(bytes.clone()).putInt(field, value)
+            .array());
+        assertThrows(IOException.class, () -> PuzzleCorpus.open(file));
+      }
+    }
+    for (int field : new int[] {24, 32}) {
+      for (long value : longValues) {
+        Files.write(file, ByteBuffer.wrap(bytes.clone()).putLong(field, value)
+            .array());
+        assertThrows(IOException.class, () -> PuzzleCorpus.open(file));
+      }
+    }
+    Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+    assertThrows(IOException.class, () -> PuzzleCorpus.open(file));
+  }
+
+  @Test
+  public void rejectsOtherFiles(@TempDir Path dir) throws IOException {
+    Path file = dir.resolve("puzzles.txt");
+    Files.writeString(file, "NOT A CORPUS");
+    assertThrows(IOException.class, () -> PuzzleCorpus.open(file));
+  }
+
+  /**
+   * Helper function to build a corpus of two categories.
+   *
+   * @param dir the directory to write the files to
+   * @param numBig the number of puzzles of the category BIG
+   * @param numSmall the number of puzzles of the category SMALL
+   * @return the opened corpus
+   * @throws IOException if a file cannot be written
+   */
+  private static PuzzleCorpus build(Path dir, int numBig, int numSmall)
+      throws IOException {
+    StringBuilder text = new StringBuilder("# test puzzles\n");
+    for (int i = 0; i < numBig; ++i) {
+      text.append("big\tbig puzzle ").append(i).append('\n');
+    }
+    for (int i = 0; i < numSmall; ++i) {
+      text.append("small\tsmall puzzle ").append(i).append('\n');
+    }
+    Path textFile = dir.resolve("puzzles.txt");
+    Path corpusFile = dir.resolve("puzzles.corpus");
+    Files.writeString(textFile, text, StandardCharsets.UTF_8);
+    PuzzleCorpus.build(textFile, corpusFile);
+    return PuzzleCorpus.open(corpusFile);
+  }
+}
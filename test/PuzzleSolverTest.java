@@ -0,0 +1,146 @@
+/**
+ * This Java file defines the tests of the PuzzleSolver class.
+ */
+
+package eecs285.proj3.kshilen;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the solver's candidates and letter scores against a naive scan
+ * of every phrase, on groups small enough to be scanned and large enough
+ * to get bitsets.
+ */
+public class PuzzleSolverTest {
+  /** Words of the generated phrases, few enough that shapes repeat. */
+  private static final String[] WORDS = {"A", "AN", "THE", "CAT", "DOG",
+      "SUN", "RED", "BIG", "OLD", "TREE", "BLUE", "FISH", "STAR", "MOON",
+      "HOUSE", "GREEN", "RIVER", "STONE", "IT'S"};
+
+  @Test
+  public void matchesNaiveScan() {
+    SplittableRandom random = new SplittableRandom(100);
+    String[] phrases = new String[5000];
+    for (int i = 0; i < phrases.length; ++i) {
+      phrases[i] = makePhrase(random);
+    }
+    PuzzleSolver solver = PuzzleSolver.of(phrases);
+    int[] counts = new int[GameEngine.NUM_LETTERS];
+    int[] expectedCounts = new int[GameEngine.NUM_LETTERS];
+    for (int q = 0; q < 2000; ++q) {
+      String answer = phrases[random.nextInt(phrases.length)];
+      int guessedMask = random.nextInt(1 << GameEngine.NUM_LETTERS)
+          & random.nextInt(1 << GameEngine.NUM_LETTERS);
+      String board = board(answer, guessedMask);
+
+      int[] expected = naiveCandidates(phrases, board, guessedMask,
+          expectedCounts);
+      int[] candidates = solver.findCandidates(board, guessedMask);
+      assertArrayEquals(expected, candidates, board);
+      assertTrue(expected.length > 0);
+      assertEquals(expected.length, solver.countCandidates(board,
+          guessedMask));
+      assertEquals(expected.length, solver.scoreLetters(board, guessedMask,
+          counts));
+      assertArrayEquals(expectedCounts, counts, board);
+    }
+  }
+
+  @Test
+  public void findsCandidatesOfAGame() {
+    String[] phrases = {"HELLO WORLD", "HELLO THERE", "JELLY WORLD",
+        "GOODBYE"};
+    PuzzleSolver solver = PuzzleSolver.of(phrases);
+    GameEngine engine = new GameEngine(TestWheels.standard(),
+        new GameRandom(1));
+    engine.newGame(new String[] {"A"}, "hello world");
+    assertArrayEquals(new int[] {0, 1, 2}, solver.findCandidates(engine));
+    int guessedW = 1 << ('W' - 'A');
+    assertArrayEquals(new int[] {0, 2}, solver.findCandidates(
+        board("HELLO WORLD", guessedW), guessedW));
+    assertEquals(0, solver.countCandidates(board("NOT THERE", 0), 0));
+  }
+
+  /**
+   * Helper function to make a random phrase of a few words.
+   *
+   * @param random the random-number generator
+   * @return the phrase
+   */
+  private static String makePhrase(SplittableRandom random) {
+    StringBuilder phrase = new StringBuilder();
+    int numWords = 1 + random.nextInt(3);
+    for (int w = 0; w < numWords; ++w) {
+      if (w > 0) {
+        phrase.append(' ');
+      }
+      phrase.append(WORDS[random.nextInt(WORDS.length)]);
+    }
+    return phrase.toString();
+  }
+
+  /**
+   * Helper function to display a phrase as the game does once some
+   * letters were guessed.
+   *
+   * @param phrase the phrase
+   * @param guessedMask the guessed letters
+   * @return the board, every character followed by a space
+   */
+  private static String board(String phrase, int guessedMask) {
+    StringBuilder board = new StringBuilder();
+    for (int i = 0; i < phrase.length(); ++i) {
+      char c = phrase.charAt(i);
+      if (GameEngine.isAlphabet(c) && (guessedMask & 1 << (c - 'A')) == 0) {
+        c = '-';
+      }
+      board.append(c).append(' ');
+    }
+    return board.toString();
+  }
+
+  /**
+   * Helper function to find the phrases that fit a board by comparing the
+   * board with every phrase.
+   *
+   * @param phrases the phrases
+   * @param board the board
+   * @param guessedMask the guessed letters
+   * @param counts receives the number of fitting phrases containing each
+   *               unguessed letter
+   * @return the ids of the fitting phrases, in increasing order
+   */
+  private static int[] naiveCandidates(String[] phrases, String board,
+                                       int guessedMask, int[] counts) {
+    ArrayList<Integer> fits = new ArrayList<>();
+    Arrays.fill(counts, 0);
+    for (int id = 0; id < phrases.length; ++id) {
+      if (board(phrases[id], guessedMask).equals(board)) {
+        fits.add(id);
+        int letters = 0;
+        for (char c : phrases[id].toCharArray()) {
+          if (GameEngine.isAlphabet(c)) {
+            letters |= 1 << (c - 'A');
+          }
+        }
+        for (int i = 0; i < counts.length; ++i) {
+          if ((letters & ~guessedMask & 1 << i) != 0) {
+            counts[i]++;
+          }
+        }
+      }
+    }
+    int[] ids = new int[fits.size()];
+    for (int i = 0; i < ids.length; ++i) {
+      ids[i] = fits.get(i);
+    }
+    return ids;
+  }
+}
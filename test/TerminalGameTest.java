@@ -0,0 +1,153 @@
+/**
+ * This Java file defines the tests of the TerminalGame class.
+ */
+
+package eecs285.proj3.kshilen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the output and counters of scripted games, on a wheel whose every
+ * space is worth the same so the spins do not matter.
+ */
+public class TerminalGameTest {
+  @Test
+  public void playsAScript() throws IOException {
+    StringWriter out = new StringWriter();
+    TerminalGame game = newGame(out, false);
+    game.run(script(
+        "# a comment and a blank line are skipped",
+        "",
+        "BOARD",
+        "PLAYERS Ann, Ben",
+        "NEW hello world",
+        "CONSONANT L",
+        "SPIN",
+        "SPIN",
+        "CONSONANT A",
+        "consonant l",
+        "VOWEL O",
+        "VOWEL O",
+        "BOT",
+        "SPIN",
+        "CONSONANT Z",
+        "SOLVE HELLO THERE",
+        "VOWEL E",
+        "SOLVE hello world",
+        "SPIN",
+        "FLY",
+        "QUIT",
+        "NEW not read"));
+    assertEquals(lines(
+        "ERR Start a game with NEW first",
+        "Game 1",
+        "  - - - - -   - - - - - ",
+        "> Ann $0",
+        "  Ben $0",
+        "ERR Spin the wheel first",
+        "Ann spun $500",
+        "ERR Guess a consonant first",
+        "ERR A is not a consonant",
+        "L occurs 3 times",
+        "  - - L L -   - - - L - ",
+        "> Ann $500",
+        "  Ben $0",
+        "O occurs 2 times",
+        "  - - L L O   - O - L - ",
+        "> Ann $250",
+        "  Ben $0",
+        "ERR O was already guessed",
+        "Ann played BUY_VOWEL",
+        "  - E L L O   - O - L - ",
+        "> Ann $0",
+        "  Ben $0",
+        "Ann spun $500",
+        "Z occurs 0 times",
+        "  - E L L O   - O - L - ",
+        "  Ann $0",
+        "> Ben $0",
+        "Guess by Ben was incorrect!",
+        "ERR Cannot buy a vowel",
+        "Game 1: Ann wins $0 with HELLO WORLD",
+        "ERR The game is over, start one with NEW",
+        "ERR Unknown command FLY"), out.toString());
+    assertEquals(1, game.getNumGames());
+    assertEquals(19, game.getNumCommands());
+    assertEquals(8, game.getNumErrors());
+  }
+
+  @Test
+  public void printsOnlyResultsAndErrorsWhenQuiet() throws IOException {
+    StringWriter out = new StringWriter();
+    TerminalGame game = newGame(out, true);
+    game.run(script(
+        "NEW",
+        "PLAYERS Ann,,Ben",
+        "NEW abc",
+        "SPIN",
+        "CONSONANT B",
+        "SPIN",
+        "CONSONANT C",
+        "SOLVE ABC",
+        "NEW abc",
+        "SPIN",
+        "CONSONANT 7",
+        "CONSONANT B",
+        "SOLVE abc"));
+    assertEquals(lines(
+        "ERR Missing puzzle",
+        "ERR Player names must not be empty",
+        "Game 1: Player 1 wins $1000 with ABC",
+        "ERR Not a letter: 7",
+        "Game 2: Player 1 wins $500 with ABC"), out.toString());
+    assertEquals(2, game.getNumGames());
+    assertEquals(13, game.getNumCommands());
+    assertEquals(3, game.getNumErrors());
+  }
+
+  /**
+   * Helper function to make a terminal game on a wheel whose every space
+   * is worth 500.
+   *
+   * @param out receives the output
+   * @param quiet true to print only results and errors
+   * @return the game
+   */
+  private static TerminalGame newGame(StringWriter out, boolean quiet) {
+    WheelSpace[] wheelSpaces =
+        new WheelSpace[WheelOfFortuneFrame.NUM_WHEEL_SPACES];
+    for (int i = 0; i < wheelSpaces.length; ++i) {
+      wheelSpaces[i] = new WheelSpace(500, null);
+    }
+    return new TerminalGame(wheelSpaces, new GameRandom(1),
+        new PrintWriter(out), quiet);
+  }
+
+  /**
+   * Helper function to make a script of commands.
+   *
+   * @param commands the commands
+   * @return the script
+   */
+  private static BufferedReader script(String... commands) {
+    return new BufferedReader(new StringReader(String.join("\n", commands)));
+  }
+
+  /**
+   * Helper function to join lines as the game prints them.
+   *
+   * @param lines the lines
+   * @return the text
+   */
+  private static String lines(String... lines) {
+    return String.join(System.lineSeparator(), lines)
+        + System.lineSeparator();
+  }
+}
@@ -0,0 +1,53 @@
+/**
+ * This Java file defines the TestWheels class which builds wheels for the
+ * tests.
+ */
+
+package eecs285.proj3.kshilen;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import javax.imageio.ImageIO;
+
+/**
+ * Wheels and wheel images shared by the tests.
+ */
+final class TestWheels {
+  private TestWheels() {
+  }
+
+  /**
+   * Function to make a wheel with the layout of the real game, without
+   * images.
+   *
+   * @return the wheel spaces
+   */
+  static WheelSpace[] standard() {
+    WheelSpace[] wheelSpaces =
+        new WheelSpace[WheelOfFortuneFrame.NUM_WHEEL_SPACES];
+    for (int i = 0; i < wheelSpaces.length; ++i) {
+      if (i == 0 || i == 12) {
+        wheelSpaces[i] = new WheelSpace(WheelSpace.BANKRUPT, null);
+      } else if (i == 6) {
+        wheelSpaces[i] = new WheelSpace(WheelSpace.LOSE_A_TURN, null);
+      } else {
+        wheelSpaces[i] = new WheelSpace(100 * (i % 9 + 1), null);
+      }
+    }
+    return wheelSpaces;
+  }
+
+  /**
+   * Writes a small image to a directory.
+   *
+   * @param dir the directory
+   * @param name the filename, such as 3_500.jpg
+   * @throws IOException if the image cannot be written
+   */
+  static void writeImage(Path dir, String name) throws IOException {
+    BufferedImage image = new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB);
+    ImageIO.write(image, WheelOfFortuneFrame.IMAGE_EXTENSION,
+        dir.resolve(name).toFile());
+  }
+}
@@ -0,0 +1,99 @@
+/**
+ * This Java file defines the tests of the TournamentRunner class.
+ */
+
+package eecs285.proj3.kshilen;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks that a tournament writes the same results whatever the number of
+ * threads playing it.
+ */
+public class TournamentRunnerTest {
+  /** Puzzles of the tournament, some sharing their shape. */
+  private static final String[] PUZZLES = {"HELLO WORLD", "JELLY WORLD",
+      "GOOD MORNING", "WHEEL OF FORTUNE", "A PIECE OF CAKE", "BREAK A LEG",
+      "IT'S RAINING CATS AND DOGS", "ONCE IN A BLUE MOON", "BEST FRIENDS",
+      "BEST FIENDS", "UNDER THE WEATHER", "PIE IN THE SKY"};
+
+  @Test
+  public void resultsDoNotDependOnTheThreadCount(@TempDir Path dir)
+      throws IOException {
+    // Enough seeds for a few batches, so they finish out of order
+    int numSeeds = 2 * TournamentRunner.GAMES_PER_BATCH / PUZZLES.length;
+    for (String name : new String[] {"results.bin", "results.csv"}) {
+      byte[] single = play(1, numSeeds, dir.resolve("1-" + name));
+      byte[] parallel = play(4, numSeeds, dir.resolve("4-" + name));
+      assertTrue(single.length > 0);
+      assertArrayEquals(single, parallel, name);
+    }
+  }
+
+  @Test
+  public void playsEveryPuzzleRotationAndSeed(@TempDir Path dir)
+      throws IOException {
+    TournamentRunner runner = newRunner();
+    assertEquals(PUZZLES.length * 2 * 3, runner.getNumGames(3));
+    ForkJoinPool pool = new ForkJoinPool(2);
+    try {
+      TournamentRunner.Summary summary = runner.run(pool, 7, 3,
+          dir.resolve("results.csv"));
+      assertTrue(summary.getWins(0) + summary.getWins(1) > 0);
+    } finally {
+      pool.shutdown();
+    }
+    // A header and a line per game
+    assertEquals(1 + PUZZLES.length * 2 * 3,
+        Files.readAllLines(dir.resolve("results.csv")).size());
+  }
+
+  /**
+   * Helper function to play the tournament on a pool of its own.
+   *
+   * @param numThreads the parallelism of the pool
+   * @param numSeeds the number of seeds
+   * @param output the results file
+   * @return the bytes written to the results file
+   * @throws IOException if the results cannot be written or read
+   */
+  private static byte[] play(int numThreads, int numSeeds, Path output)
+      throws IOException {
+    ForkJoinPool pool = new ForkJoinPool(numThreads);
+    try {
+      newRunner().run(pool, 100, numSeeds, output);
+    } finally {
+      pool.shutdown();
+    }
+    return Files.readAllBytes(output);
+  }
+
+  /**
+   * Helper function to make a tournament of the frequency and the solver
+   * strategies.
+   *
+   * @return the tournament
+   */
+  private static TournamentRunner newRunner() {
+    Bot[] strategies = {new FrequencyBot(),
+        new SolverBot(PuzzleSolver.of(PUZZLES))};
+    return new TournamentRunner(TestWheels.standard(),
+        new String[] {"frequency", "solver"}, strategies, PUZZLES.length,
+        new IntFunction<String>() {
+          @Override
+          public String apply(int index) {
+            return PUZZLES[index];
+          }
+        }, RandomSource.LXM);
+  }
+}
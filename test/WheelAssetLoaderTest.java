@@ -0,0 +1,72 @@
+/**
+ * This Java file defines the tests of the WheelAssetLoader class.
+ */
+
+package eecs285.proj3.kshilen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks that the loader builds a wheel from valid images and names the
+ * file or space of every invalid one.
+ */
+public class WheelAssetLoaderTest {
+  @Test
+  public void loadsValuesAndWeights(@TempDir Path dir) throws IOException {
+    TestWheels.writeImage(dir, "1_bankrupt.jpg");
+    TestWheels.writeImage(dir, "2_500_3.jpg");
+    TestWheels.writeImage(dir, "3_loseATurn.jpg");
+    WheelSpace[] wheelSpaces = WheelAssetLoader.load(dir, 3);
+    assertTrue(wheelSpaces[0].isBankrupt());
+    assertEquals(500, wheelSpaces[1].getDollarValue());
+    assertEquals(3, wheelSpaces[1].getWeight());
+    assertTrue(wheelSpaces[2].isLoseATurn());
+  }
+
+  @Test
+  public void namesMissingSpace(@TempDir Path dir) throws IOException {
+    TestWheels.writeImage(dir, "1_100.jpg");
+    TestWheels.writeImage(dir, "3_300.jpg");
+    IOException e = assertThrows(IOException.class,
+        () -> WheelAssetLoader.load(dir, 3));
+    assertTrue(e.getMessage().contains("space 2: no image"), e.getMessage());
+  }
+
+  @Test
+  public void namesDuplicateImage(@TempDir Path dir) throws IOException {
+    TestWheels.writeImage(dir, "1_100.jpg");
+    TestWheels.writeImage(dir, "1_200.jpg");
+    IOException e = assertThrows(IOException.class,
+        () -> WheelAssetLoader.indexImages(dir, 1));
+    assertTrue(e.getMessage().contains("space 1 already has"),
+        e.getMessage());
+  }
+
+  @Test
+  public void namesFileWithInvalidWeight(@TempDir Path dir)
+      throws IOException {
+    TestWheels.writeImage(dir, "1_100.jpg");
+    TestWheels.writeImage(dir, "2_200_x.jpg");
+    IOException e = assertThrows(IOException.class,
+        () -> WheelAssetLoader.load(dir, 2));
+    assertTrue(e.getMessage().contains(
+        "2_200_x.jpg: the weight must be a positive number"), e.getMessage());
+  }
+
+  @Test
+  public void namesFileWithInvalidValue(@TempDir Path dir)
+      throws IOException {
+    TestWheels.writeImage(dir, "1_jackpot.jpg");
+    IOException e = assertThrows(IOException.class,
+        () -> WheelAssetLoader.load(dir, 1));
+    assertTrue(e.getMessage().contains("1_jackpot.jpg: invalid value"),
+        e.getMessage());
+  }
+}
@@ -0,0 +1,50 @@
+/**
+ * This Java file defines the tests of the WheelAtlas class.
+ */
+
+package eecs285.proj3.kshilen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks that a saved atlas reads back and that saving leaves no
+ * temporary file behind.
+ */
+public class WheelAtlasTest {
+  @Test
+  public void savesAndReadsBack(@TempDir Path dir) throws IOException {
+    Path[] images = new Path[3];
+    for (int i = 0; i < images.length; ++i) {
+      String name = (i + 1) + "_" + 100 * (i + 1) + ".jpg";
+      TestWheels.writeImage(dir, name);
+      images[i] = dir.resolve(name);
+    }
+    long fingerprint = WheelAtlas.fingerprint(images);
+    WheelAtlas atlas = WheelAtlas.build(images, fingerprint);
+    Path atlasFile = dir.resolve(WheelAtlas.ATLAS_FILE_NAME);
+    atlas.save(atlasFile);
+    // Saving again replaces the file
+    atlas.save(atlasFile);
+    try (Stream<Path> files = Files.list(dir)) {
+      assertEquals(images.length + 1, files.count());
+    }
+
+    WheelAtlas read = WheelAtlas.read(atlasFile, fingerprint, images.length);
+    assertNotNull(read);
+    assertEquals(atlas.getTileWidth(), read.getTileWidth());
+    assertEquals(atlas.getTileHeight(), read.getTileHeight());
+    for (int i = 0; i < images.length; ++i) {
+      assertEquals(atlas.getSheet().getRGB(atlas.getTileX(i),
+          atlas.getTileY(i)), read.getSheet().getRGB(read.getTileX(i),
+          read.getTileY(i)));
+    }
+  }
+}
@@ -0,0 +1,130 @@
+/**
+ * This Java file defines the tests of the WheelSampler class.
+ */
+
+package eecs285.proj3.kshilen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that spins follow the weights of the wheel with Pearson's
+ * chi-square test, and that uniform wheels spin as they did before
+ * weights existed. Every test uses a fixed seed, so a pass or a failure
+ * is reproducible.
+ */
+public class WheelSamplerTest {
+  /** Normal quantile of the 0.1% significance level. */
+  private static final double CHECK_Z = 3.090;
+
+  @Test
+  public void uniformWheelDrawsNextInt() {
+    WheelSampler sampler = WheelSampler.of(TestWheels.standard());
+    assertTrue(sampler.isUniform());
+    Random expected = new Random(100);
+    Random actual = new Random(100);
+    for (int i = 0; i < 10_000; ++i) {
+      assertEquals(expected.nextInt(sampler.getNumSpaces()),
+          sampler.sample(actual));
+    }
+  }
+
+  @Test
+  public void weightedWheelFollowsWeights() {
+    SplittableRandom random = new SplittableRandom(100);
+    int[] weights = new int[1000];
+    for (int i = 0; i < weights.length; ++i) {
+      weights[i] = 1 + random.nextInt(100);
+    }
+    WheelSampler sampler = new WheelSampler(weights);
+    double statistic = chiSquare(sampler, random, 10_000_000L);
+    assertTrue(statistic <= criticalValue(weights.length - 1),
+        "chi-square " + statistic);
+  }
+
+  @Test
+  public void heavySpaceIsLandedOnMoreOften() {
+    WheelSampler sampler = new WheelSampler(new int[] {1, 1, 1, 97});
+    assertEquals(0.97, sampler.getProbability(3), 1e-12);
+    double statistic = chiSquare(sampler, new SplittableRandom(7), 1_000_000L);
+    assertTrue(statistic <= criticalValue(3), "chi-square " + statistic);
+  }
+
+  @Test
+  public void detectsWrongWeights() {
+    // Samples of a uniform wheel must fail against skewed weights
+    WheelSampler uniform = new WheelSampler(new int[] {1, 1, 1, 1});
+    WheelSampler skewed = new WheelSampler(new int[] {1, 1, 1, 2});
+    SplittableRandom random = new SplittableRandom(3);
+    long[] counts = new long[4];
+    for (int i = 0; i < 100_000; ++i) {
+      counts[uniform.sample(random)]++;
+    }
+    assertTrue(statistic(skewed, counts, 100_000) > criticalValue(3));
+  }
+
+  @Test
+  public void rejectsInvalidWeights() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new WheelSampler(new int[] {1, 0, 1}));
+    assertThrows(IllegalArgumentException.class,
+        () -> new WheelSampler(new int[0]));
+  }
+
+  /**
+   * Helper function to compute Pearson's chi-square statistic of many
+   * samples against the weights.
+   *
+   * @param sampler the sampler
+   * @param generator the random-number generator
+   * @param samples the number of samples, many times the number of spaces
+   * @return the statistic, with numSpaces - 1 degrees of freedom
+   */
+  private static double chiSquare(WheelSampler sampler,
+                                  RandomGenerator generator, long samples) {
+    long[] counts = new long[sampler.getNumSpaces()];
+    for (long i = 0; i < samples; ++i) {
+      counts[sampler.sample(generator)]++;
+    }
+    return statistic(sampler, counts, samples);
+  }
+
+  /**
+   * Helper function to compute the chi-square statistic of counted
+   * samples.
+   *
+   * @param sampler the sampler whose weights are expected
+   * @param counts how often each space was landed on
+   * @param samples the number of samples
+   * @return the statistic
+   */
+  private static double statistic(WheelSampler sampler, long[] counts,
+                                  long samples) {
+    double statistic = 0;
+    for (int i = 0; i < counts.length; ++i) {
+      double expected = samples * sampler.getProbability(i);
+      double difference = counts[i] - expected;
+      statistic += difference * difference / expected;
+    }
+    return statistic;
+  }
+
+  /**
+   * Helper function to approximate the 99.9th percentile of the
+   * chi-square distribution with the Wilson-Hilferty transformation.
+   *
+   * @param degrees the degrees of freedom
+   * @return the critical value
+   */
+  private static double criticalValue(int degrees) {
+    double c = 2.0 / (9.0 * degrees);
+    double root = 1 - c + CHECK_Z * Math.sqrt(c);
+    return degrees * root * root * root;
+  }
+}
@@ -0,0 +1,77 @@
+/**
+ * This Java file defines the tests of the WheelSpinPanel class.
+ */
+
+package eecs285.proj3.kshilen;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.swing.ImageIcon;
+import javax.swing.SwingUtilities;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that a spin always lands on the EDT, even if its animation
+ * cannot be planned, so the buttons it disabled are enabled again.
+ */
+public class WheelSpinPanelTest {
+  @Test
+  public void landsAfterAnimating() throws Exception {
+    assertLandsOnEdt(new WheelSpinPanel(makeWheel()));
+  }
+
+  @Test
+  public void landsWhenPlanningFails() throws Exception {
+    assertLandsOnEdt(new WheelSpinPanel(makeWheel()) {
+      @Override
+      long[] planFrames(int start, int target) {
+        throw new IllegalStateException("no frames");
+      }
+    });
+  }
+
+  /**
+   * Helper function to spin a panel and wait for it to land.
+   *
+   * @param panel the panel
+   * @throws Exception if the EDT fails or is interrupted
+   */
+  private static void assertLandsOnEdt(WheelSpinPanel panel)
+      throws Exception {
+    CountDownLatch landed = new CountDownLatch(1);
+    AtomicBoolean onEdt = new AtomicBoolean();
+    SwingUtilities.invokeAndWait(new Runnable() {
+      @Override
+      public void run() {
+        panel.spinTo(3, new Runnable() {
+          @Override
+          public void run() {
+            onEdt.set(SwingUtilities.isEventDispatchThread());
+            landed.countDown();
+          }
+        });
+      }
+    });
+    assertTrue(landed.await(WheelSpinPanel.SPIN_MILLIS * 5L,
+        TimeUnit.MILLISECONDS));
+    assertTrue(onEdt.get());
+  }
+
+  /**
+   * Helper function to make a small wheel with blank images.
+   *
+   * @return the wheel spaces
+   */
+  private static WheelSpace[] makeWheel() {
+    WheelSpace[] wheelSpaces = new WheelSpace[6];
+    for (int i = 0; i < wheelSpaces.length; ++i) {
+      wheelSpaces[i] = new WheelSpace(100 * (i + 1), new ImageIcon(
+          new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB)));
+    }
+    return wheelSpaces;
+  }
+}